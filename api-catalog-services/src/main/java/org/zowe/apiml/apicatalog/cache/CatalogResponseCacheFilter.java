@@ -0,0 +1,215 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of serialized responses of the API Catalog (containers and API docs). A response is generated by
+ * the controller once for each version of the catalog content (see {@link CatalogVersion}), each next request just
+ * writes prepared bytes. Payloads are stored as plain and gzipped.
+ *
+ * Each response contains a strong ETag derived from the content, so an unchanged content has the same ETag also
+ * in the next versions. A request with matching If-None-Match gets 304 (Not Modified).
+ *
+ * The content could also depend on time (ie. API docs are revalidated after their time to live), so each payload is
+ * also limited by time to live.
+ *
+ * Payloads are stored by the path only, the cached endpoints do not use any query parameter, so a client could not
+ * create new entries by changing the query. The lock for a path exists only while its payload is being created.
+ */
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+    private static final int MAX_PAYLOADS = 1000;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final CatalogVersion catalogVersion;
+    private final long timeToLive;
+    private final LongSupplier clock;
+
+    private final Map<String, Payload> payloads = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public CatalogResponseCacheFilter(CatalogVersion catalogVersion, long timeToLive) {
+        this(catalogVersion, timeToLive, System::currentTimeMillis);
+    }
+
+    CatalogResponseCacheFilter(CatalogVersion catalogVersion, long timeToLive, LongSupplier clock) {
+        this.catalogVersion = catalogVersion;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * Only GET requests are cached, streams (server-sent events) are never buffered.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) return true;
+        if (request.getRequestURI().endsWith("/stream")) return true;
+
+        final String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return (accept != null) && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        final String key = getKey(request);
+
+        Payload payload = getValid(key);
+        if (payload == null) {
+            final Object lock = locks.computeIfAbsent(key, k -> new Object());
+            try {
+                synchronized (lock) {
+                    payload = getValid(key);
+                    if (payload == null) {
+                        payload = create(request, response, filterChain, key);
+                        if (payload == null) return;
+                    }
+                }
+            } finally {
+                // waiting requests keep the removed lock, the next ones find the payload or create a new lock
+                locks.remove(key, lock);
+            }
+        }
+
+        write(request, response, payload);
+    }
+
+    private Payload getValid(String key) {
+        final Payload payload = payloads.get(key);
+        if (payload == null) return null;
+        if (payload.version != catalogVersion.get()) return null;
+        if (clock.getAsLong() - payload.created > timeToLive) return null;
+        return payload;
+    }
+
+    /**
+     * Generates the payload by the controller. If the response is not successful or it is empty, it is passed to
+     * the client without caching.
+     *
+     * @return new payload, or null if the response was already written
+     */
+    private Payload create(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain, String key) throws IOException, ServletException {
+        // the version has to be taken before the payload is generated, the payload could be only newer
+        final long currentVersion = catalogVersion.get();
+        final long created = clock.getAsLong();
+
+        final ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        final byte[] plain = wrapper.getContentAsByteArray();
+        if ((wrapper.getStatusCode() != HttpServletResponse.SC_OK) || (plain.length == 0)) {
+            wrapper.copyBodyToResponse();
+            return null;
+        }
+
+        final Payload payload = new Payload(currentVersion, created, wrapper.getContentType(), plain, gzip(plain), getETag(plain));
+        if (payloads.size() >= MAX_PAYLOADS) {
+            payloads.clear();
+        }
+        payloads.put(key, payload);
+        return payload;
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, Payload payload) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, payload.eTag);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (payload.eTag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (payload.contentType != null) response.setContentType(payload.contentType);
+
+        final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        final byte[] body;
+        if ((acceptEncoding != null) && acceptEncoding.contains(GZIP) && (payload.gzipped.length < payload.plain.length)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            body = payload.gzipped;
+        } else {
+            body = payload.plain;
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private String getKey(HttpServletRequest request) {
+        return request.getRequestURI();
+    }
+
+    /**
+     * @return strong ETag made of the hash of the content
+     */
+    static String getETag(byte[] content) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+
+        final StringBuilder sb = new StringBuilder(34).append('"');
+        for (int i = 0; i < 16; i++) {
+            sb.append(HEX[(digest[i] >> 4) & 0xf]).append(HEX[digest[i] & 0xf]);
+        }
+        return sb.append('"').toString();
+    }
+
+    private static byte[] gzip(byte[] plain) throws IOException {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream(Math.max(32, plain.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(os)) {
+            gzip.write(plain);
+        }
+        return os.toByteArray();
+    }
+
+    /**
+     * Immutable serialized response for a single version
+     */
+    private static class Payload {
+
+        private final long version;
+        private final long created;
+        private final String contentType;
+        private final byte[] plain;
+        private final byte[] gzipped;
+        private final String eTag;
+
+        private Payload(long version, long created, String contentType, byte[] plain, byte[] gzipped, String eTag) {
+            this.version = version;
+            this.created = created;
+            this.contentType = contentType;
+            this.plain = plain;
+            this.gzipped = gzipped;
+            this.eTag = eTag;
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.zowe.apiml.apicatalog.model.APIContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persisted content of the API Catalog, containers with their services and transformed API docs
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CatalogSnapshot {
+
+    private long created;
+    private List<APIContainer> containers = new ArrayList<>();
+    private List<ApiDoc> apiDocs = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ApiDoc {
+
+        private String serviceId;
+        private String apiVersion;
+        private String apiDoc;
+
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.zowe.apiml.apicatalog.model.APIContainer;
+import org.zowe.apiml.apicatalog.model.APIService;
+import org.zowe.apiml.apicatalog.services.cached.CachedApiDocService;
+import org.zowe.apiml.apicatalog.services.cached.CachedProductFamilyService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persist the content of the API Catalog (containers and transformed API docs) to a local file, so the catalog
+ * could serve it immediately after a restart, without waiting for the discovery service and for all services.
+ *
+ * The snapshot is restored on startup. Restored containers are marked as stale until the first retrieval of
+ * instances from the discovery service is finished, the containers which were not confirmed are then removed.
+ * Restored API docs are used until the services are known, then they are revalidated as any other API doc.
+ *
+ * The snapshot is written periodically, only if the content was changed, and never before the content is confirmed
+ * by the discovery service (a partially initialized catalog does not overwrite a complete snapshot). It is
+ * stored as a gzipped JSON into a temporary file, which then replaces the previous snapshot (atomically if
+ * the file system allows it), so a reader could never see a partially written snapshot.
+ */
+@Slf4j
+@Service
+public class CatalogSnapshotService {
+
+    private final CachedProductFamilyService cachedProductFamilyService;
+    private final CachedApiDocService cachedApiDocService;
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final Path location;
+    private final long maxAge;
+    private final LongSupplier clock;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .addMixIn(APIService.class, APIServiceMixIn.class);
+
+    // the content is not confirmed by the discovery service until the first retrieval of instances is finished
+    private volatile boolean stale = true;
+    private long persistedVersion = -1;
+
+    @Autowired
+    public CatalogSnapshotService(
+        CachedProductFamilyService cachedProductFamilyService,
+        CachedApiDocService cachedApiDocService,
+        CatalogVersion catalogVersion,
+        @Value("${apiml.catalog.snapshot.enabled:true}") boolean enabled,
+        @Value("${apiml.catalog.snapshot.location:${java.io.tmpdir}/apiml-catalog-snapshot.json.gz}") String location,
+        @Value("${apiml.catalog.snapshot.maxAge:86400000}") long maxAge
+    ) {
+        this(cachedProductFamilyService, cachedApiDocService, catalogVersion, enabled, location, maxAge, System::currentTimeMillis);
+    }
+
+    CatalogSnapshotService(
+        CachedProductFamilyService cachedProductFamilyService,
+        CachedApiDocService cachedApiDocService,
+        CatalogVersion catalogVersion,
+        boolean enabled, String location, long maxAge, LongSupplier clock
+    ) {
+        this.cachedProductFamilyService = cachedProductFamilyService;
+        this.cachedApiDocService = cachedApiDocService;
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled && StringUtils.isNotBlank(location);
+        this.location = this.enabled ? Paths.get(location) : null;
+        this.maxAge = maxAge;
+        this.clock = clock;
+    }
+
+    /**
+     * Restore the content of the catalog from the last snapshot, if it exists and it is not too old
+     */
+    @PostConstruct
+    public void restore() {
+        if (!enabled || !Files.isRegularFile(location)) return;
+
+        final CatalogSnapshot snapshot;
+        try (InputStream is = new GZIPInputStream(Files.newInputStream(location))) {
+            snapshot = mapper.readValue(is, CatalogSnapshot.class);
+        } catch (IOException | RuntimeException e) {
+            log.warn("The snapshot of the API Catalog {} could not be restored: {}", location, e.getMessage());
+            return;
+        }
+
+        if (clock.getAsLong() - snapshot.getCreated() > maxAge) {
+            log.debug("The snapshot of the API Catalog {} is too old, it is not restored", location);
+            return;
+        }
+
+        cachedProductFamilyService.restoreContainers(snapshot.getContainers());
+        snapshot.getApiDocs().forEach(apiDoc ->
+            cachedApiDocService.updateApiDocForService(apiDoc.getServiceId(), apiDoc.getApiVersion(), apiDoc.getApiDoc())
+        );
+        catalogVersion.changed();
+        log.info("API Catalog restored {} tiles and {} API docs from the snapshot {}",
+            snapshot.getContainers().size(), snapshot.getApiDocs().size(), location);
+    }
+
+    /**
+     * The content was retrieved from the discovery service, restored containers, which were not confirmed, are
+     * removed and the content could be persisted since now
+     */
+    public void reconcile() {
+        if (!stale) return;
+
+        final int removed = cachedProductFamilyService.removeStaleContainers();
+        stale = false;
+        if (removed > 0) catalogVersion.changed();
+        log.debug("The snapshot of the API Catalog was reconciled, {} unconfirmed tiles were removed", removed);
+    }
+
+    /**
+     * Persist the content of the catalog if it was changed since the last snapshot
+     */
+    @Scheduled(
+        initialDelayString = "${apiml.catalog.snapshot.interval:60000}",
+        fixedDelayString = "${apiml.catalog.snapshot.interval:60000}"
+    )
+    @PreDestroy
+    public synchronized void persist() {
+        if (!enabled || stale) return;
+
+        // the version has to be taken before the content, the next persisting is then rather repeated than missed
+        final long version = catalogVersion.get();
+        if (version == persistedVersion) return;
+
+        try {
+            write(createSnapshot());
+            persistedVersion = version;
+        } catch (IOException | RuntimeException e) {
+            log.warn("The snapshot of the API Catalog {} could not be persisted: {}", location, e.getMessage());
+        }
+    }
+
+    private CatalogSnapshot createSnapshot() {
+        final List<APIContainer> containers = new ArrayList<>(cachedProductFamilyService.getAllContainers());
+        final List<CatalogSnapshot.ApiDoc> apiDocs = new ArrayList<>();
+        cachedApiDocService.getApiDocs().forEach((key, apiDoc) ->
+            apiDocs.add(new CatalogSnapshot.ApiDoc(key.getServiceId(), key.getApiVersion(), apiDoc))
+        );
+        return new CatalogSnapshot(clock.getAsLong(), containers, apiDocs);
+    }
+
+    private void write(CatalogSnapshot snapshot) throws IOException {
+        final Path directory = location.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+
+        final Path temporary = Files.createTempFile(directory, location.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+                mapper.writeValue(os, snapshot);
+            }
+
+            try {
+                Files.move(temporary, location, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, location, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * API docs are persisted separately, they are not stored with each service of the container
+     */
+    private abstract static class APIServiceMixIn {
+
+        @JsonIgnore
+        abstract String getApiDoc();
+
+    }
+
+}
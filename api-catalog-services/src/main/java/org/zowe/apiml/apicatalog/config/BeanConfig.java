@@ -9,8 +9,11 @@
  */
 package org.zowe.apiml.apicatalog.config;
 
+import com.netflix.discovery.EurekaClient;
 import org.zowe.apiml.message.core.MessageService;
 import org.zowe.apiml.product.gateway.GatewayClient;
+import org.zowe.apiml.product.registry.MetadataDictionary;
+import org.zowe.apiml.product.registry.RegistryCompactor;
 import org.zowe.apiml.product.routing.transform.TransformService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -37,4 +40,14 @@ public class BeanConfig {
         return new TransformService(gatewayClient);
     }
 
+    /**
+     * Compacts metadata of instances in the local registry after each its refresh
+     */
+    @Bean
+    public RegistryCompactor registryCompactor(EurekaClient eurekaClient) {
+        RegistryCompactor registryCompactor = new RegistryCompactor(eurekaClient, new MetadataDictionary());
+        eurekaClient.registerEventListener(registryCompactor);
+        return registryCompactor;
+    }
+
 }
@@ -9,12 +9,18 @@
  */
 package org.zowe.apiml.apicatalog.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.zowe.apiml.apicatalog.cache.CatalogResponseCacheFilter;
+import org.zowe.apiml.apicatalog.cache.CatalogVersion;
 
 import java.util.Arrays;
 
@@ -33,4 +39,20 @@ public class CachingConfig {
         return cacheManager;
     }
 
+    /**
+     * The cache of serialized responses is called after the authentication, so only authenticated clients get them
+     */
+    @Bean
+    @ConditionalOnProperty(value = "apiml.catalog.responseCache.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<CatalogResponseCacheFilter> catalogResponseCacheFilterRegistration(
+        CatalogVersion catalogVersion,
+        @Value("${apiml.catalog.responseCache.ttl:30000}") long timeToLive
+    ) {
+        FilterRegistrationBean<CatalogResponseCacheFilter> registration =
+            new FilterRegistrationBean<>(new CatalogResponseCacheFilter(catalogVersion, timeToLive));
+        registration.addUrlPatterns("/containers", "/containers/*", "/apidoc/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
 }
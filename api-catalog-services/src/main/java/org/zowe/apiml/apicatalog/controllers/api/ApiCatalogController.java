@@ -84,8 +84,10 @@ public class ApiCatalogController {
                 return new ResponseEntity<>(apiContainers, HttpStatus.NO_CONTENT);
             } else {
                 // for each container, check the status of all it's services so it's overall status can be set here
-                apiContainers.forEach(cachedProductFamilyService::calculateContainerServiceTotals);
-                return new ResponseEntity<>(apiContainers, HttpStatus.OK);
+                List<APIContainer> response = apiContainers.stream()
+                    .map(cachedProductFamilyService::calculateContainerServiceTotals)
+                    .collect(Collectors.toList());
+                return new ResponseEntity<>(response, HttpStatus.OK);
             }
         } catch (Exception e) {
             apimlLog.log("org.zowe.apiml.apicatalog.containerCouldNotBeRetrieved", e.getMessage());
@@ -110,19 +112,14 @@ public class ApiCatalogController {
             List<APIContainer> apiContainers = new ArrayList<>();
             APIContainer containerById = cachedProductFamilyService.getContainerById(id);
             if (containerById != null) {
-                apiContainers.add(containerById);
-            }
-            if (apiContainers.isEmpty()) {
-                return new ResponseEntity<>(apiContainers, HttpStatus.OK);
-            } else {
-                apiContainers.forEach(apiContainer -> {
-                    // Fot this single container, check the status of all it's services so it's overall status can be set here
-                    cachedProductFamilyService.calculateContainerServiceTotals(apiContainer);
-                    // add API Doc to the services to improve UI performance
-                    setApiDocToService(apiContainer);
-                });
-                return new ResponseEntity<>(apiContainers, HttpStatus.OK);
+                // Fot this single container, check the status of all it's services so it's overall status can be set here,
+                // the returned container is a copy, so the cached one is not modified
+                APIContainer apiContainer = cachedProductFamilyService.calculateContainerServiceTotals(containerById);
+                // add API Doc to the services to improve UI performance
+                setApiDocToService(apiContainer);
+                apiContainers.add(apiContainer);
             }
+            return new ResponseEntity<>(apiContainers, HttpStatus.OK);
         } catch (Exception e) {
             apimlLog.log("org.zowe.apiml.apicatalog.containerCouldNotBeRetrieved", e.getMessage());
             throw new ContainerStatusRetrievalException(e);
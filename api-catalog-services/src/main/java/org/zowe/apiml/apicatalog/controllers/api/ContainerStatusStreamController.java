@@ -0,0 +1,64 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.controllers.api;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.Authorization;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.zowe.apiml.apicatalog.services.status.ContainerStatusStreamService;
+
+/**
+ * Stream of changes of container statuses for the API Catalog UI, it replaces polling of containers
+ */
+@RestController
+@RequestMapping("/containers/stream")
+@Api(tags = {"API Catalog"},
+    description = "Current state information")
+public class ContainerStatusStreamController {
+
+    private final ContainerStatusStreamService containerStatusStreamService;
+
+    /**
+     * Create the controller and autowire in the repository services
+     *
+     * @param containerStatusStreamService stream of container statuses
+     */
+    @Autowired
+    public ContainerStatusStreamController(ContainerStatusStreamService containerStatusStreamService) {
+        this.containerStatusStreamService = containerStatusStreamService;
+    }
+
+    /**
+     * Subscribe to changes of container statuses
+     *
+     * @param lastEventId ID of the last received event to continue the stream
+     * @return server-sent events with changes
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation(value = "Streams changes of statuses of catalog dashboard tiles",
+        notes = "Server-sent events with a changed status of a tile and its services. The stream continues from the " +
+            "event in the header Last-Event-ID if possible, otherwise the event 'reset' is sent and all tiles have to be " +
+            "retrieved again.",
+        authorizations = {
+            @Authorization("LoginBasicAuth"), @Authorization("CookieAuth")
+        }
+    )
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return containerStatusStreamService.subscribe(lastEventId);
+    }
+
+}
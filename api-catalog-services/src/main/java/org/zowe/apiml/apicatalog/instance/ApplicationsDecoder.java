@@ -0,0 +1,299 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.instance;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming decoder of the registry (JSON of Eureka with the root element applications). The payload is read token
+ * by token directly from the stream, without any intermediate String or tree, and only fields used by the API Catalog
+ * are decoded, all others are skipped. Names of fields are compared case-insensitively and both the Eureka format of
+ * ports ({"$": 8080, "@enabled": "true"}) and plain numbers are accepted.
+ *
+ * The decoder is stateless and thread-safe.
+ */
+@Slf4j
+public class ApplicationsDecoder {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Decode the registry from the stream. The stream is not closed.
+     *
+     * @param inputStream stream with JSON
+     * @return decoded registry
+     * @throws IOException if the stream cannot be read or it does not contain the registry
+     */
+    public Applications decode(InputStream inputStream) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+            Applications applications = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                parser.nextToken();
+                if ("applications".equals(name)) {
+                    applications = readApplications(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (applications == null) {
+                throw new JsonParseException(parser, "The payload does not contain any applications");
+            }
+            return applications;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private Applications readApplications(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        final Applications applications = new Applications();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName().toLowerCase(Locale.ROOT);
+            parser.nextToken();
+            switch (name) {
+                case "versions__delta":
+                case "versiondelta":
+                case "version":
+                    applications.setVersion(parser.getValueAsLong());
+                    break;
+                case "apps__hashcode":
+                case "appshashcode":
+                    applications.setAppsHashCode(parser.getValueAsString());
+                    break;
+                case "application":
+                case "registeredapplications":
+                    readArray(parser, () -> {
+                        final Application application = readApplication(parser);
+                        if (application != null) applications.addApplication(application);
+                    });
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return applications;
+    }
+
+    private Application readApplication(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        final Application application = new Application();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName().toLowerCase(Locale.ROOT);
+            parser.nextToken();
+            switch (name) {
+                case "name":
+                    application.setName(parser.getValueAsString());
+                    break;
+                case "instance":
+                case "instances":
+                    readArray(parser, () -> {
+                        final InstanceInfo instanceInfo = readInstance(parser);
+                        if (instanceInfo != null) application.addInstance(instanceInfo);
+                    });
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return application.getName() == null ? null : application;
+    }
+
+    private InstanceInfo readInstance(JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        final InstanceInfo.Builder builder = InstanceInfo.Builder.newBuilder();
+        String appName = null;
+        String healthCheckUrl = null;
+        String secureHealthCheckUrl = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName().toLowerCase(Locale.ROOT);
+            parser.nextToken();
+            switch (name) {
+                case "instanceid":
+                    builder.setInstanceId(parser.getValueAsString());
+                    break;
+                case "app":
+                case "appname":
+                    appName = parser.getValueAsString();
+                    break;
+                case "hostname":
+                    builder.setHostName(parser.getValueAsString());
+                    break;
+                case "ipaddr":
+                    builder.setIPAddr(parser.getValueAsString());
+                    break;
+                case "vipaddress":
+                    builder.setVIPAddressDeser(parser.getValueAsString());
+                    break;
+                case "securevipaddress":
+                    builder.setSecureVIPAddressDeser(parser.getValueAsString());
+                    break;
+                case "status":
+                    if (parser.getValueAsString() != null) {
+                        builder.setStatus(InstanceInfo.InstanceStatus.toEnum(parser.getValueAsString()));
+                    }
+                    break;
+                case "overriddenstatus":
+                    if (parser.getValueAsString() != null) {
+                        builder.setOverriddenStatus(InstanceInfo.InstanceStatus.toEnum(parser.getValueAsString()));
+                    }
+                    break;
+                case "port":
+                    readPort(parser, builder, InstanceInfo.PortType.UNSECURE);
+                    break;
+                case "secureport":
+                    readPort(parser, builder, InstanceInfo.PortType.SECURE);
+                    break;
+                case "homepageurl":
+                    builder.setHomePageUrlForDeser(parser.getValueAsString());
+                    break;
+                case "statuspageurl":
+                    builder.setStatusPageUrlForDeser(parser.getValueAsString());
+                    break;
+                case "healthcheckurl":
+                    healthCheckUrl = parser.getValueAsString();
+                    break;
+                case "securehealthcheckurl":
+                    secureHealthCheckUrl = parser.getValueAsString();
+                    break;
+                case "metadata":
+                    builder.setMetadata(readMetadata(parser));
+                    break;
+                case "actiontype":
+                    readActionType(parser, builder);
+                    break;
+                case "lastupdatedtimestamp":
+                    builder.setLastUpdatedTimestamp(parser.getValueAsLong());
+                    break;
+                case "lastdirtytimestamp":
+                    builder.setLastDirtyTimestamp(parser.getValueAsLong());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (appName == null) {
+            log.debug("Instance without name of application is skipped");
+            return null;
+        }
+        builder.setAppName(appName);
+        builder.setHealthCheckUrlsForDeser(healthCheckUrl, secureHealthCheckUrl);
+        return builder.build();
+    }
+
+    private void readPort(JsonParser parser, InstanceInfo.Builder builder, InstanceInfo.PortType portType) throws IOException {
+        int port = 0;
+        Boolean enabled = null;
+        if (parser.currentToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                parser.nextToken();
+                if ("$".equals(name)) {
+                    port = parser.getValueAsInt();
+                } else if ("@enabled".equals(name)) {
+                    enabled = parser.getValueAsBoolean();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else {
+            port = parser.getValueAsInt();
+        }
+
+        if (portType == InstanceInfo.PortType.SECURE) {
+            builder.setSecurePort(port);
+        } else {
+            builder.setPort(port);
+        }
+        if (enabled != null) {
+            builder.enablePort(portType, enabled);
+        }
+    }
+
+    private Map<String, String> readMetadata(JsonParser parser) throws IOException {
+        final Map<String, String> metadata = new HashMap<>();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return metadata;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String key = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            if (token.isStructStart() || "@class".equals(key)) {
+                parser.skipChildren();
+            } else {
+                metadata.put(key, parser.getValueAsString());
+            }
+        }
+        return metadata;
+    }
+
+    private void readActionType(JsonParser parser, InstanceInfo.Builder builder) throws IOException {
+        final String value = parser.getValueAsString();
+        if (value == null) return;
+
+        try {
+            builder.setActionType(InstanceInfo.ActionType.valueOf(value));
+        } catch (IllegalArgumentException e) {
+            log.debug("Unknown action type {} of instance is ignored", value);
+        }
+    }
+
+    /**
+     * Read an array of objects or a single object (Eureka could use both for collections)
+     */
+    private void readArray(JsonParser parser, ElementReader reader) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                reader.read();
+            }
+            expect(parser, parser.currentToken(), JsonToken.END_ARRAY);
+        } else if (parser.currentToken() == JsonToken.START_OBJECT) {
+            reader.read();
+        } else {
+            parser.skipChildren();
+        }
+    }
+
+    private void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ElementReader {
+
+        void read() throws IOException;
+
+    }
+
+}
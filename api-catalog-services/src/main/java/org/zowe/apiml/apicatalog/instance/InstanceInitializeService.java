@@ -9,7 +9,9 @@
  */
 package org.zowe.apiml.apicatalog.instance;
 
+import org.zowe.apiml.apicatalog.cache.CatalogSnapshotService;
 import org.zowe.apiml.apicatalog.model.APIContainer;
+import org.zowe.apiml.apicatalog.services.cached.ApiDocWarmUpService;
 import org.zowe.apiml.apicatalog.services.cached.CachedProductFamilyService;
 import org.zowe.apiml.apicatalog.services.cached.CachedServicesService;
 import org.zowe.apiml.message.log.ApimlLogger;
@@ -47,6 +49,8 @@ public class InstanceInitializeService {
     private final CachedServicesService cachedServicesService;
     private final InstanceRetrievalService instanceRetrievalService;
     private final InstanceRefreshService instanceRefreshService;
+    private final ApiDocWarmUpService apiDocWarmUpService;
+    private final CatalogSnapshotService catalogSnapshotService;
 
     @InjectApimlLogger
     private final ApimlLogger apimlLog = ApimlLogger.empty();
@@ -74,8 +78,10 @@ public class InstanceInitializeService {
                 throw new RetryException(msg);
             } else {
                 log.info("API Catalog instance found, retrieving all services.");
-                getAllInstances(apiCatalogInstance);
-                instanceRefreshService.start();
+                Applications initialState = getAllInstances(apiCatalogInstance);
+                instanceRefreshService.start(initialState);
+                // the content restored from the snapshot was replaced by the current one
+                catalogSnapshotService.reconcile();
             }
         } catch (InstanceInitializationException | GatewayNotAvailableException e) {
             throw new RetryException(e.getMessage());
@@ -93,8 +99,10 @@ public class InstanceInitializeService {
 
     /**
      * Query the discovery service for all running instances
+     *
+     * @return instances used to update the cache
      */
-    private void updateCacheWithAllInstances() {
+    private Applications updateCacheWithAllInstances() {
         Applications discoveryApplications = instanceRetrievalService.getAllInstancesFromDiscovery(false);
 
         // Only include services which have a instances
@@ -106,7 +114,7 @@ public class InstanceInitializeService {
         // Return an empty string if no services are found after filtering
         if (listApplication.isEmpty()) {
             log.info("No services found");
-            return;
+            return discoveryApplications;
         }
 
         log.debug("Found: " + listApplication.size() + " services on startup.");
@@ -117,9 +125,18 @@ public class InstanceInitializeService {
         // create containers for services
         listApplication.forEach(this::createContainers);
 
+        // prefetch API docs of services with tiles, the first view then does not wait for them
+        apiDocWarmUpService.warmUp(listApplication.stream()
+            .filter(application -> application.getInstances().stream()
+                .anyMatch(instanceInfo -> instanceInfo.getMetadata().containsKey(CATALOG_ID)))
+            .map(Application::getName)
+            .collect(Collectors.toList())
+        );
+
         // populate the cache
         Collection<APIContainer> containers = cachedProductFamilyService.getAllContainers();
         log.debug("Cache contains: " + containers.size() + " tiles.");
+        return discoveryApplications;
     }
 
 
@@ -135,14 +152,15 @@ public class InstanceInitializeService {
         });
     }
 
-    private void getAllInstances(InstanceInfo apiCatalogInstance) {
+    private Applications getAllInstances(InstanceInfo apiCatalogInstance) {
         String productFamilyId = apiCatalogInstance.getMetadata().get(CATALOG_ID);
         if (productFamilyId != null) {
             log.debug("Initialising product family (creating tile for) : " + productFamilyId);
             cachedProductFamilyService.createContainerFromInstance(productFamilyId, apiCatalogInstance);
         }
 
-        updateCacheWithAllInstances();
+        Applications applications = updateCacheWithAllInstances();
         log.info("API Catalog initialised with running services..");
+        return applications;
     }
 }
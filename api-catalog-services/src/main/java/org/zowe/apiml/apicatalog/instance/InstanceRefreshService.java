@@ -9,65 +9,133 @@
  */
 package org.zowe.apiml.apicatalog.instance;
 
+import org.zowe.apiml.apicatalog.cache.CatalogVersion;
 import org.zowe.apiml.apicatalog.model.APIContainer;
+import org.zowe.apiml.apicatalog.services.cached.ApiDocWarmUpService;
+import org.zowe.apiml.apicatalog.services.cached.CachedApiDocService;
 import org.zowe.apiml.apicatalog.services.cached.CachedProductFamilyService;
 import org.zowe.apiml.apicatalog.services.cached.CachedServicesService;
+import org.zowe.apiml.apicatalog.services.status.ContainerStatusStreamService;
 import org.zowe.apiml.message.log.ApimlLogger;
 import org.zowe.apiml.product.logging.annotations.InjectApimlLogger;
 import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.CacheRefreshedEvent;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.EurekaEvent;
+import com.netflix.discovery.EurekaEventListener;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.zowe.apiml.constants.EurekaMetadataDefinition.CATALOG_ID;
 
 /**
  * Refresh the cache with the latest state of the discovery service
- * Use deltas to get latest changes from Eureka
+ *
+ * The service listens to refreshes of the local registry of the Eureka client (it already fetches deltas from
+ * the discovery service). After each refresh the registry is compared with the previous state and only changed
+ * instances are applied to the cache. The processing runs in a single long-lived thread, refreshes which come during
+ * the processing are coalesced into one.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class InstanceRefreshService {
+public class InstanceRefreshService implements EurekaEventListener {
 
     // until versioning is implemented, only v1 API docs are supported
     private final CachedProductFamilyService cachedProductFamilyService;
     private final CachedServicesService cachedServicesService;
-    private final InstanceRetrievalService instanceRetrievalService;
-    private boolean isStarted = false;
+    private final CachedApiDocService cachedApiDocService;
+    private final ApiDocWarmUpService apiDocWarmUpService;
+    private final ContainerStatusStreamService containerStatusStreamService;
+    private final CatalogVersion catalogVersion;
+    private final EurekaClient eurekaClient;
+    private volatile boolean isStarted = false;
+
+    private final ExecutorService executor;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    /**
+     * Last processed state of instances (by instance ID)
+     */
+    private Map<String, InstanceInfo> knownInstances = new HashMap<>();
 
     @InjectApimlLogger
     private final ApimlLogger apimlLog = ApimlLogger.empty();
 
+    public InstanceRefreshService(CachedProductFamilyService cachedProductFamilyService,
+                                  CachedServicesService cachedServicesService,
+                                  CachedApiDocService cachedApiDocService,
+                                  ApiDocWarmUpService apiDocWarmUpService,
+                                  ContainerStatusStreamService containerStatusStreamService,
+                                  CatalogVersion catalogVersion,
+                                  EurekaClient eurekaClient) {
+        this.cachedProductFamilyService = cachedProductFamilyService;
+        this.cachedServicesService = cachedServicesService;
+        this.cachedApiDocService = cachedApiDocService;
+        this.apiDocWarmUpService = apiDocWarmUpService;
+        this.containerStatusStreamService = containerStatusStreamService;
+        this.catalogVersion = catalogVersion;
+        this.eurekaClient = eurekaClient;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("catalog-refresh-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @PostConstruct
+    public void registerListener() {
+        eurekaClient.registerEventListener(this);
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        eurekaClient.unregisterEventListener(this);
+        executor.shutdownNow();
+    }
+
     /**
-     * Starts refreshing the API Catalog cache
+     * Starts refreshing the API Catalog cache. The instances, which were used to initialize the cache, are taken as
+     * already processed. The local registry of the Eureka client is a different snapshot, so it is compared with them
+     * immediately and all differences are applied.
+     *
+     * @param initialState instances used to initialize the cache
      */
-    public void start() {
+    public synchronized void start(Applications initialState) {
+        knownInstances = getCurrentInstances(initialState);
+        catalogVersion.changed();
+        containerStatusStreamService.publishChanges();
         this.isStarted = true;
         log.info("InstanceRefreshService started");
+
+        refreshCacheFromDiscovery();
+    }
+
+    @Override
+    public void onEvent(EurekaEvent event) {
+        if ((event instanceof CacheRefreshedEvent) && isStarted && refreshPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                refreshPending.set(false);
+                refreshCacheFromDiscovery();
+            });
+        }
     }
 
     /**
-     * Periodically refresh the container/service caches
-     * Depends on the GatewayClient: no refreshes happen when it's not initialized
+     * Refresh the container/service caches by changes in the local registry
      */
-    @Scheduled(
-        initialDelayString = "${apiml.service-registry.cacheRefreshInitialDelayInMillis}",
-        fixedDelayString = "${apiml.service-registry.cacheRefreshRetryDelayInMillis}")
     public void refreshCacheFromDiscovery() {
         if (!isStarted) {
             log.debug("InstanceRefreshService is stopped. Skip refresh.");
@@ -76,28 +144,15 @@ public class InstanceRefreshService {
 
         log.debug("Refreshing API Catalog with the latest state of discovery service");
 
-        Callable<Set<String>> callableTask = this::compareServices;
-
-        // run the comparison in a separate thread
-        ExecutorService executorService =
-            new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<>());
-        Future<Set<String>> future = executorService.submit(callableTask);
-        executorService.shutdown();
-
         try {
-            // get result of future, wait 20 secs for a result , if nothing then throw an exception but continue processing
-            final Set<String> containersUpdated = future.get(20, TimeUnit.SECONDS);
+            final Set<String> containersUpdated = compareServices();
             if (containersUpdated.isEmpty()) {
                 log.debug("No containers updated from discovered services.");
             } else {
                 log.debug(containersUpdated.size() + " containers updated from discovered services.");
                 log.debug("Catalog status updates will occur for containers: " + containersUpdated.toString());
             }
-        } catch (InterruptedException e) {
-            log.debug("Failed to update cache with discovered services: {}", e.getMessage());
-            Thread.currentThread().interrupt();
-        } catch (ExecutionException | TimeoutException e) {
+        } catch (RuntimeException e) {
             apimlLog.log("org.zowe.apiml.apicatalog.cacheUpdateError", e.getMessage());
         }
     }
@@ -105,42 +160,96 @@ public class InstanceRefreshService {
     /**
      * @return a list of changed services
      */
-    @SuppressWarnings("deprecation")
-    private Set<String> compareServices() {
-        // Updated containers
-        Set<String> containersUpdated = new HashSet<>();
+    private synchronized Set<String> compareServices() {
         Applications cachedServices = cachedServicesService.getAllCachedServices();
-        Applications deltaFromDiscovery = instanceRetrievalService.getAllInstancesFromDiscovery(true);
-
-        if (deltaFromDiscovery != null && !deltaFromDiscovery.getRegisteredApplications().isEmpty()) {
-            // use the version to check if this delta has changed, it is deprecated and should be replaced as soon as a
-            // newer identifier is provided by Netflix
-            // if getVersion is removed then the process will be slightly more inefficient but will not need to change
-            if (cachedServicesService.getVersionDelta() != deltaFromDiscovery.getVersion()) {
-                containersUpdated = processServiceInstances(cachedServices, deltaFromDiscovery);
-            }
-            cachedServicesService.setVersionDelta(deltaFromDiscovery.getVersion());
+        Map<String, InstanceInfo> currentInstances = getCurrentInstances(eurekaClient.getApplications());
+
+        Applications changes = getChanges(knownInstances, currentInstances);
+        knownInstances = currentInstances;
+
+        if (changes.getRegisteredApplications().isEmpty()) {
+            return new HashSet<>();
         }
+        Set<String> containersUpdated = processServiceInstances(cachedServices, changes);
+        catalogVersion.changed();
+
+        // statuses of containers could be changed also by a changed instance of an existing service
+        containerStatusStreamService.publishChanges();
         return containersUpdated;
     }
 
+    private Map<String, InstanceInfo> getCurrentInstances(Applications applications) {
+        Map<String, InstanceInfo> out = new HashMap<>();
+        if (applications != null) {
+            for (Application application : applications.getRegisteredApplications()) {
+                for (InstanceInfo instanceInfo : application.getInstancesAsIsFromEureka()) {
+                    out.put(instanceInfo.getId(), instanceInfo);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Compare the previous and the current state of instances
+     *
+     * @return changed instances (removed instances are in the state DOWN)
+     */
+    private Applications getChanges(Map<String, InstanceInfo> previousInstances, Map<String, InstanceInfo> currentInstances) {
+        Applications changes = new Applications();
+        currentInstances.forEach((id, instance) -> {
+            InstanceInfo previous = previousInstances.get(id);
+            if ((previous == null) || isChanged(previous, instance)) {
+                log.debug("Instance {} added to the list of changed instances", id);
+                addChange(changes, instance);
+            }
+        });
+        previousInstances.forEach((id, previous) -> {
+            if (!currentInstances.containsKey(id)) {
+                log.debug("Deleted instance {} added to the list of changed instances", id);
+                InstanceInfo deleted = new InstanceInfo(previous);
+                deleted.setStatus(InstanceInfo.InstanceStatus.DOWN);
+                addChange(changes, deleted);
+            }
+        });
+        return changes;
+    }
+
+    private boolean isChanged(InstanceInfo previous, InstanceInfo current) {
+        if (previous == current) return false;
+
+        return !Objects.equals(previous.getLastDirtyTimestamp(), current.getLastDirtyTimestamp())
+            || (previous.getStatus() != current.getStatus())
+            || !Objects.equals(previous.getMetadata(), current.getMetadata());
+    }
+
+    private void addChange(Applications changes, InstanceInfo instance) {
+        Application application = changes.getRegisteredApplications(instance.getAppName());
+        if (application == null) {
+            application = new Application(instance.getAppName());
+            changes.addApplication(application);
+        }
+        application.addInstance(instance);
+    }
+
     /**
-     * Check each delta instance and consider it for processing
+     * Check each changed instance and consider it for processing
      *
      * @param cachedServices     the collection of cached services
      * @param deltaFromDiscovery changed instances
      */
     private Set<String> processServiceInstances(Applications cachedServices, Applications deltaFromDiscovery) {
         Set<String> containersUpdated = new HashSet<>();
-        Set<InstanceInfo> updatedServices = updateDelta(deltaFromDiscovery);
-        updatedServices.forEach(instance -> {
-            try {
-                // check if this instance should be processed/updated
-                processServiceInstance(containersUpdated, cachedServices, deltaFromDiscovery, instance);
-            } catch (Exception e) {
-                log.debug("could not update cache for service: " + instance + ", processing will continue.", e);
+        for (Application application : deltaFromDiscovery.getRegisteredApplications()) {
+            for (InstanceInfo instance : application.getInstancesAsIsFromEureka()) {
+                try {
+                    // check if this instance should be processed/updated
+                    processServiceInstance(containersUpdated, cachedServices, deltaFromDiscovery, instance);
+                } catch (Exception e) {
+                    log.debug("could not update cache for service: " + instance + ", processing will continue.", e);
+                }
             }
-        });
+        }
         return containersUpdated;
     }
 
@@ -192,6 +301,12 @@ public class InstanceRefreshService {
 
         // Update the service cache
         updateService(instance.getAppName(), application);
+
+        // API doc of the changed service has to be revalidated, it is done in advance for a service with a tile
+        cachedApiDocService.invalidate(instance.getAppName());
+        if (!InstanceInfo.InstanceStatus.DOWN.equals(instance.getStatus()) && instance.getMetadata().containsKey(CATALOG_ID)) {
+            apiDocWarmUpService.warmUp(instance.getAppName());
+        }
     }
 
     private void updateService(String serviceId, Application application) {
@@ -222,34 +337,4 @@ public class InstanceRefreshService {
         }
     }
 
-    /**
-     * Compare cached instances against eureka delta to send back a change-list
-     *
-     * @param delta retrieved from Eureka
-     * @return changed instances
-     */
-    private Set<InstanceInfo> updateDelta(Applications delta) {
-        int deltaCount = 0;
-        Set<InstanceInfo> updatedInstances = new HashSet<>();
-        for (Application app : delta.getRegisteredApplications()) {
-            for (InstanceInfo instance : app.getInstances()) {
-                ++deltaCount;
-                if (InstanceInfo.ActionType.ADDED.equals(instance.getActionType())) {
-                    log.debug("Added instance {} to the list of changed instances ", instance.getId());
-                    updatedInstances.add(instance);
-                } else if (InstanceInfo.ActionType.MODIFIED.equals(instance.getActionType())) {
-                    log.debug("Modified instance {} added to the list of changed instances ", instance.getId());
-                    updatedInstances.add(instance);
-                } else if (InstanceInfo.ActionType.DELETED.equals(instance.getActionType())) {
-                    log.debug("Deleted instance {} added to the list of changed instances ", instance.getId());
-                    instance.setStatus(InstanceInfo.InstanceStatus.DOWN);
-                    updatedInstances.add(instance);
-                }
-            }
-        }
-
-        log.debug("The total number of changed instances fetched by the delta processor : {}", deltaCount);
-        return updatedInstances;
-    }
-
 }
@@ -15,15 +15,14 @@ import org.zowe.apiml.product.instance.InstanceInitializationException;
 import org.zowe.apiml.product.logging.annotations.InjectApimlLogger;
 import org.zowe.apiml.product.registry.ApplicationWrapper;
 import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.netflix.appinfo.InstanceInfo;
-import com.netflix.discovery.converters.jackson.EurekaJsonJacksonCodec;
 import com.netflix.discovery.shared.Applications;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -48,6 +47,7 @@ public class InstanceRetrievalService {
     private static final String APPS_ENDPOINT = "apps/";
     private static final String DELTA_ENDPOINT = "delta";
     private static final String UNKNOWN = "unknown";
+    private static final ApplicationsDecoder APPLICATIONS_DECODER = new ApplicationsDecoder();
 
     @InjectApimlLogger
     private final ApimlLogger apimlLog = ApimlLogger.empty();
@@ -99,11 +99,14 @@ public class InstanceRetrievalService {
     public Applications getAllInstancesFromDiscovery(boolean delta) {
 
         Pair<String, Pair<String, String>> requestInfo = constructServiceInfoQueryRequest(null, delta);
+        HttpHeaders headers = createRequestHeader(requestInfo.getRight());
 
-        //  call Eureka REST endpoint to fetch single or all Instances
-        ResponseEntity<String> response = queryDiscoveryForInstances(requestInfo);
-
-        return extractApplications(requestInfo, response);
+        //  call Eureka REST endpoint to fetch all Instances, the response is decoded directly from the stream
+        return restTemplate.execute(
+            requestInfo.getLeft(),
+            HttpMethod.GET,
+            request -> request.getHeaders().putAll(headers),
+            response -> extractApplications(requestInfo, response));
     }
 
     /**
@@ -113,16 +116,13 @@ public class InstanceRetrievalService {
      * @param response    the http response
      * @return Applications object that wraps all the registry information
      */
-    private Applications extractApplications(Pair<String, Pair<String, String>> requestInfo, ResponseEntity<String> response) {
+    private Applications extractApplications(Pair<String, Pair<String, String>> requestInfo, ClientHttpResponse response) throws IOException {
         Applications applications = null;
-        if (!HttpStatus.OK.equals(response.getStatusCode()) || response.getBody() == null) {
+        if (!HttpStatus.OK.equals(response.getStatusCode())) {
             apimlLog.log("org.zowe.apiml.apicatalog.serviceRetrievalRequestFailed", response.getStatusCode(), response.getStatusCode().getReasonPhrase(), requestInfo.getLeft());
         } else {
-            ObjectMapper mapper = new EurekaJsonJacksonCodec().getObjectMapper(Applications.class);
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
             try {
-                applications = mapper.readValue(response.getBody(), Applications.class);
+                applications = APPLICATIONS_DECODER.decode(response.getBody());
             } catch (IOException e) {
                 apimlLog.log("org.zowe.apiml.apicatalog.serviceRetrievalParsingFailed", e.getMessage());
             }
@@ -55,6 +55,9 @@ public class APIContainer implements Serializable {
     // used to determine if container is new
     private Calendar createdTimestamp;
 
+    @ApiModelProperty(notes = "The container was restored from a snapshot and it was not confirmed by the discovery service yet")
+    private boolean stale;
+
     public APIContainer() {
         this.lastUpdatedTimestamp = Calendar.getInstance();
         this.createdTimestamp = this.lastUpdatedTimestamp;
@@ -12,10 +12,12 @@ package org.zowe.apiml.apicatalog.model;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
 
 @Data
+@NoArgsConstructor
 @EqualsAndHashCode(of = {"serviceId"})
 public class APIService implements Serializable {
 
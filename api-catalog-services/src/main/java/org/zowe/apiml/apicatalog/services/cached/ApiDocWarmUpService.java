@@ -0,0 +1,161 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.services.cached;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.zowe.apiml.apicatalog.cache.CatalogVersion;
+
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Prefetch and transform API docs of services in the background, so the first view of a service in the catalog
+ * is served from the cache as any next one.
+ *
+ * The warm-up runs in a limited number of threads. Each service has its own deadline, which starts when its
+ * processing starts. The fetch itself runs in a separate thread and the warm-up thread waits for it at most until
+ * the deadline, so a slow service could never block the warm-up of the other services longer than the deadline.
+ *
+ * The deadline does not abort the fetch. A blocking read of the response could not be interrupted, the fetch after
+ * its deadline is only interrupted on the best effort and it ends at the latest by timeouts of the HTTP client. Its
+ * result is still cached. The count of fetches (including those after the deadline) is limited to twice the count
+ * of threads, a service over this limit is not warmed up and its API doc is fetched on its first usage. A service
+ * which is already waiting for the warm-up is not enqueued again.
+ */
+@Slf4j
+@Service
+public class ApiDocWarmUpService {
+
+    // until versioning is implemented, only v1 API docs are supported
+    static final String API_VERSION = "v1";
+
+    private final CachedApiDocService cachedApiDocService;
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final long timeout;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private final ExecutorService fetches;
+
+    @Autowired
+    public ApiDocWarmUpService(
+        CachedApiDocService cachedApiDocService,
+        CatalogVersion catalogVersion,
+        @Value("${apiml.catalog.apiDocWarmUp.enabled:true}") boolean enabled,
+        @Value("${apiml.catalog.apiDocWarmUp.threads:4}") int threads,
+        @Value("${apiml.catalog.apiDocWarmUp.timeout:30000}") long timeout
+    ) {
+        this.cachedApiDocService = cachedApiDocService;
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        this.timeout = timeout;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("apidoc-warmup-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), threadFactory);
+        this.fetches = new ThreadPoolExecutor(0, 2 * Math.max(1, threads), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), threadFactory);
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        executor.shutdownNow();
+        fetches.shutdownNow();
+    }
+
+    /**
+     * Enqueue the warm-up of API docs of the services
+     *
+     * @param serviceIds service identifiers
+     */
+    public void warmUp(Collection<String> serviceIds) {
+        if (!enabled) return;
+
+        serviceIds.forEach(this::enqueue);
+    }
+
+    /**
+     * Enqueue the warm-up of API doc of the service
+     *
+     * @param serviceId service identifier
+     */
+    public void warmUp(String serviceId) {
+        warmUp(Collections.singleton(serviceId));
+    }
+
+    private void enqueue(String serviceId) {
+        if (serviceId == null) return;
+
+        final String id = serviceId.toLowerCase(Locale.ROOT);
+        if (!pending.add(id)) return;
+
+        try {
+            executor.execute(() -> process(id));
+        } catch (RejectedExecutionException e) {
+            pending.remove(id);
+            log.debug("Warm-up of API doc for service {} was rejected", id, e);
+        }
+    }
+
+    private void process(String serviceId) {
+        pending.remove(serviceId);
+
+        final Future<String> fetch;
+        try {
+            fetch = fetches.submit(() -> {
+                try {
+                    return cachedApiDocService.getApiDocForService(serviceId, API_VERSION);
+                } finally {
+                    // responses with API docs (ie. a container with its services) could be generated without the API doc
+                    catalogVersion.changed();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Warm-up of API doc for service {} was skipped, too many fetches are running", serviceId, e);
+            return;
+        }
+
+        try {
+            fetch.get(timeout, TimeUnit.MILLISECONDS);
+            log.debug("Warm-up of API doc for service {} finished", serviceId);
+        } catch (TimeoutException e) {
+            fetch.cancel(true);
+            log.debug("Warm-up of API doc for service {} exceeded its deadline ({} ms)", serviceId, timeout);
+        } catch (ExecutionException e) {
+            log.debug("Warm-up of API doc for service {} failed", serviceId, e.getCause());
+        } catch (InterruptedException e) {
+            fetch.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isPending(String serviceId) {
+        return pending.contains(serviceId.toLowerCase(Locale.ROOT));
+    }
+
+}
@@ -9,6 +9,8 @@
  */
 package org.zowe.apiml.apicatalog.services.cached;
 
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
 import org.zowe.apiml.apicatalog.services.cached.model.ApiDocCacheKey;
 import org.zowe.apiml.apicatalog.services.cached.model.ApiDocInfo;
 import org.zowe.apiml.apicatalog.services.status.APIDocRetrievalService;
@@ -16,27 +18,51 @@ import org.zowe.apiml.apicatalog.swagger.TransformApiDocService;
 import org.zowe.apiml.message.log.ApimlLogger;
 import org.zowe.apiml.product.logging.annotations.InjectApimlLogger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 
 /**
  * Caching service for API Doc Info
+ *
+ * The transformed API doc is kept for its time to live. Then it is revalidated by a conditional request (ETag and
+ * Last-Modified), so an unchanged API doc is neither downloaded nor transformed again. The entry is bound to
+ * the metadata of the service instances, if the service is changed in the registry, the entry is not used anymore.
+ * If the retrieval fails, the last known API doc is returned.
  */
 
 @Service
 public class CachedApiDocService {
-    private static final Map<ApiDocCacheKey, String> serviceApiDocs = new HashMap<>();
+    private final Map<ApiDocCacheKey, CachedApiDoc> serviceApiDocs = new ConcurrentHashMap<>();
+    private final Map<ApiDocCacheKey, Object> locks = new ConcurrentHashMap<>();
     private final APIDocRetrievalService apiDocRetrievalService;
     private final TransformApiDocService transformApiDocService;
+    private final CachedServicesService cachedServicesService;
     @InjectApimlLogger
     private final ApimlLogger apimlLog = ApimlLogger.empty();
 
+    @Value("${apiml.catalog.apiDocCache.ttl:300000}")
+    private long timeToLive = 300000;
+
+    private LongSupplier clock = System::currentTimeMillis;
+
     @Autowired
-    public CachedApiDocService(APIDocRetrievalService apiDocRetrievalService, TransformApiDocService transformApiDocService) {
+    public CachedApiDocService(APIDocRetrievalService apiDocRetrievalService, TransformApiDocService transformApiDocService,
+                               CachedServicesService cachedServicesService) {
         this.apiDocRetrievalService = apiDocRetrievalService;
         this.transformApiDocService = transformApiDocService;
+        this.cachedServicesService = cachedServicesService;
+    }
+
+    CachedApiDocService(APIDocRetrievalService apiDocRetrievalService, TransformApiDocService transformApiDocService,
+                        CachedServicesService cachedServicesService, long timeToLive, LongSupplier clock) {
+        this(apiDocRetrievalService, transformApiDocService, cachedServicesService);
+        this.timeToLive = timeToLive;
+        this.clock = clock;
     }
 
     /**
@@ -47,20 +73,70 @@ public class CachedApiDocService {
      * @return api doc info for the requested service id
      */
     public String getApiDocForService(final String serviceId, final String apiVersion) {
-        String apiDoc = CachedApiDocService.serviceApiDocs.get(new ApiDocCacheKey(serviceId, apiVersion));
+        final ApiDocCacheKey key = new ApiDocCacheKey(serviceId, apiVersion);
+        final int metadataHash = getMetadataHash(serviceId);
+
+        final CachedApiDoc cached = serviceApiDocs.get(key);
+        if (isValid(cached, metadataHash)) return cached.apiDoc;
+
+        // the lock exists only during the loading, waiting requests keep the removed lock and find the loaded API doc
+        final Object lock = locks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                return loadApiDoc(key, metadataHash);
+            }
+        } finally {
+            locks.remove(key, lock);
+        }
+    }
+
+    private String loadApiDoc(ApiDocCacheKey key, int metadataHash) {
+        final String serviceId = key.getServiceId();
+        final CachedApiDoc cached = serviceApiDocs.get(key);
+        if (isValid(cached, metadataHash)) return cached.apiDoc;
+
+        // the previous API doc could be revalidated only if the service was not changed
+        final ApiDocInfo previous = (cached != null && cached.metadataHash == metadataHash) ? cached.apiDocInfo : null;
         try {
-            ApiDocInfo apiDocInfo = apiDocRetrievalService.retrieveApiDoc(serviceId, apiVersion);
+            ApiDocInfo apiDocInfo = apiDocRetrievalService.retrieveApiDoc(serviceId, key.getApiVersion(), previous);
+            if (previous != null && apiDocInfo == previous) {
+                serviceApiDocs.put(key, new CachedApiDoc(cached.apiDoc, apiDocInfo, metadataHash, clock.getAsLong()));
+                return cached.apiDoc;
+            }
             if (apiDocInfo != null && apiDocInfo.getApiDocContent() != null) {
-                apiDoc = transformApiDocService.transformApiDoc(serviceId, apiDocInfo);
-                CachedApiDocService.serviceApiDocs.put(new ApiDocCacheKey(serviceId, apiVersion), apiDoc);
+                String apiDoc = transformApiDocService.transformApiDoc(serviceId, apiDocInfo);
+                serviceApiDocs.put(key, new CachedApiDoc(apiDoc, apiDocInfo, metadataHash, clock.getAsLong()));
+                return apiDoc;
             }
         } catch (Exception e) {
             //if there's not apiDoc in cache
-            if (apiDoc == null) {
+            if (cached == null) {
                 apimlLog.log("org.zowe.apiml.apicatalog.apidocRetrievalProblem", serviceId, e.getMessage());
             }
         }
-        return apiDoc;
+        return cached == null ? null : cached.apiDoc;
+    }
+
+    private boolean isValid(CachedApiDoc cached, int metadataHash) {
+        if (cached == null) return false;
+        if (cached.metadataHash != metadataHash) return false;
+        return clock.getAsLong() - cached.created <= timeToLive;
+    }
+
+    /**
+     * @return hash of metadata of all known instances of the service, it does not depend on the order of instances
+     */
+    private int getMetadataHash(String serviceId) {
+        if (serviceId == null) return 0;
+
+        final Application application = cachedServicesService.getService(serviceId);
+        if (application == null) return 0;
+
+        int hash = 0;
+        for (InstanceInfo instanceInfo : application.getInstances()) {
+            hash += instanceInfo.getMetadata().hashCode();
+        }
+        return hash;
     }
 
     /**
@@ -72,7 +148,31 @@ public class CachedApiDocService {
      * @param apiDoc     API Doc info
      */
     public void updateApiDocForService(final String serviceId, final String apiVersion, final String apiDoc) {
-        CachedApiDocService.serviceApiDocs.put(new ApiDocCacheKey(serviceId, apiVersion), apiDoc);
+        serviceApiDocs.put(new ApiDocCacheKey(serviceId, apiVersion), new CachedApiDoc(apiDoc, null, getMetadataHash(serviceId), clock.getAsLong()));
+    }
+
+    /**
+     * Return all known transformed api docs (ie. to persist them)
+     *
+     * @return api docs by service and version
+     */
+    public Map<ApiDocCacheKey, String> getApiDocs() {
+        final Map<ApiDocCacheKey, String> apiDocs = new HashMap<>();
+        serviceApiDocs.forEach((key, cached) -> {
+            if (cached.apiDoc != null) apiDocs.put(key, cached.apiDoc);
+        });
+        return apiDocs;
+    }
+
+    /**
+     * Invalidate all api docs of this service, it should be called when any instance of the service is changed
+     *
+     * @param serviceId service identifier
+     */
+    public void invalidate(final String serviceId) {
+        serviceApiDocs.replaceAll((key, cached) ->
+            key.getServiceId() != null && key.getServiceId().equalsIgnoreCase(serviceId) ? cached.expired() : cached
+        );
     }
 
     /**
@@ -81,4 +181,30 @@ public class CachedApiDocService {
     public void resetCache() {
         serviceApiDocs.clear();
     }
+
+    /**
+     * Transformed API doc with its source (to make conditional requests)
+     */
+    private static class CachedApiDoc {
+
+        private final String apiDoc;
+        private final ApiDocInfo apiDocInfo;
+        private final int metadataHash;
+        private final long created;
+
+        private CachedApiDoc(String apiDoc, ApiDocInfo apiDocInfo, int metadataHash, long created) {
+            this.apiDoc = apiDoc;
+            this.apiDocInfo = apiDocInfo;
+            this.metadataHash = metadataHash;
+            this.created = created;
+        }
+
+        /**
+         * @return the same entry, which has to be revalidated before its next usage, it is still usable on failure
+         */
+        private CachedApiDoc expired() {
+            return new CachedApiDoc(apiDoc, apiDocInfo, metadataHash, Long.MIN_VALUE / 2);
+        }
+
+    }
 }
@@ -31,12 +31,15 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.zowe.apiml.constants.EurekaMetadataDefinition.CATALOG_DESCRIPTION;
@@ -48,6 +51,11 @@ import static java.util.stream.Collectors.toList;
 
 /**
  * Caching service for eureka services
+ *
+ * Containers are kept in concurrent maps with indexes by container id and by service id. Each update creates a copy
+ * of the changed container and replaces only the entries of this container, published containers (and their
+ * services) are never modified, neither by the refresh nor by readers. Readers are never blocked by updates and they
+ * could not see a partially updated container. Updates are serialized.
  */
 @Slf4j
 @Service
@@ -63,7 +71,9 @@ public class CachedProductFamilyService {
     private final EurekaMetadataParser metadataParser = new EurekaMetadataParser();
     private final TransformService transformService;
 
-    private final Map<String, APIContainer> products = new HashMap<>();
+    private final Map<String, APIContainer> byId = new ConcurrentHashMap<>();
+    private final Map<String, List<APIContainer>> byServiceId = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, APIService>> servicesByContainerId = new ConcurrentHashMap<>();
 
 
     public CachedProductFamilyService(CachedServicesService cachedServicesService,
@@ -80,9 +90,8 @@ public class CachedProductFamilyService {
      *
      * @return instances
      */
-    @Cacheable
     public Collection<APIContainer> getAllContainers() {
-        return products.values();
+        return Collections.unmodifiableCollection(byId.values());
     }
 
 
@@ -93,7 +102,7 @@ public class CachedProductFamilyService {
      * @return {@link APIContainer}
      */
     public APIContainer getContainerById(String id) {
-        return products.get(id);
+        return byId.get(id);
     }
 
     /**
@@ -103,7 +112,7 @@ public class CachedProductFamilyService {
      * @return recently updated containers
      */
     public List<APIContainer> getRecentlyUpdatedContainers() {
-        return this.products.values().stream().filter(
+        return byId.values().stream().filter(
             container -> {
                 boolean isRecent = container.isRecentUpdated(cacheRefreshUpdateThresholdInMillis);
                 if (isRecent) {
@@ -123,11 +132,8 @@ public class CachedProductFamilyService {
      */
     @Cacheable(key = "#productFamilyId+ #instanceInfo.appName")
     public APIService getContainerService(final String productFamilyId, final InstanceInfo instanceInfo) {
-        APIContainer apiContainer = products.get(productFamilyId.toLowerCase());
-        Optional<APIService> result = apiContainer.getServices().stream()
-            .filter(service -> instanceInfo.getAppName().equalsIgnoreCase(service.getServiceId()))
-            .findFirst();
-        return result.orElse(null);
+        Map<String, APIService> services = servicesByContainerId.get(productFamilyId.toLowerCase());
+        return services == null ? null : services.get(instanceInfo.getAppName().toLowerCase());
     }
 
     /**
@@ -137,11 +143,11 @@ public class CachedProductFamilyService {
      * @param instanceInfo    InstanceInfo
      */
     @CachePut(key = "#productFamilyId")
-    public void addServiceToContainer(final String productFamilyId, final InstanceInfo instanceInfo) {
-        APIContainer apiContainer = products.get(productFamilyId);
+    public synchronized void addServiceToContainer(final String productFamilyId, final InstanceInfo instanceInfo) {
         // fix - throw error if null
+        APIContainer apiContainer = copy(byId.get(productFamilyId));
         apiContainer.addService(createAPIServiceFromInstance(instanceInfo));
-        products.put(productFamilyId, apiContainer);
+        publish(apiContainer);
     }
 
     /**
@@ -162,7 +168,7 @@ public class CachedProductFamilyService {
      * @return a container (or null)
      */
     public APIContainer retrieveContainer(@NonNull final String productFamilyId) {
-        return this.products.get(productFamilyId);
+        return byId.get(productFamilyId);
     }
 
     /**
@@ -172,9 +178,7 @@ public class CachedProductFamilyService {
      * @return a list of containers
      */
     public List<APIContainer> getContainersForService(final String serviceId) {
-        return this.products.values().stream().filter(
-            container -> container.getServices().stream().anyMatch(service -> serviceId.equalsIgnoreCase(service.getServiceId()))
-        ).collect(toList());
+        return new ArrayList<>(byServiceId.getOrDefault(serviceId.toLowerCase(), Collections.emptyList()));
     }
 
 
@@ -186,14 +190,15 @@ public class CachedProductFamilyService {
      * @param instanceInfo    the service instance
      */
     @CachePut(key = "#productFamilyId")
-    public APIContainer createContainerFromInstance(final String productFamilyId, InstanceInfo instanceInfo) {
-        APIContainer container = products.get(productFamilyId);
+    public synchronized APIContainer createContainerFromInstance(final String productFamilyId, InstanceInfo instanceInfo) {
+        APIContainer container = byId.get(productFamilyId);
         if (container == null) {
             container = createNewContainerFromService(productFamilyId, instanceInfo);
         } else {
-            addServiceToContainer(productFamilyId, instanceInfo);
-            container = products.get(productFamilyId);
+            container = copy(container);
+            container.addService(createAPIServiceFromInstance(instanceInfo));
             checkIfContainerShouldBeUpdatedFromInstance(instanceInfo, container);
+            publish(container);
         }
         return container;
     }
@@ -252,7 +257,7 @@ public class CachedProductFamilyService {
 
         // create API Service from instance and update container last changed date
         container.addService(createAPIServiceFromInstance(instanceInfo));
-        products.put(productFamilyId, container);
+        publish(container);
         return container;
     }
 
@@ -327,11 +332,12 @@ public class CachedProductFamilyService {
      * @param instanceInfo    the service instance
      */
     @CachePut(key = "#productFamilyId")
-    public APIContainer saveContainerFromInstance(String productFamilyId, InstanceInfo instanceInfo) {
-        APIContainer container = products.get(productFamilyId);
+    public synchronized APIContainer saveContainerFromInstance(String productFamilyId, InstanceInfo instanceInfo) {
+        APIContainer container = byId.get(productFamilyId);
         if (container == null) {
             container = createNewContainerFromService(productFamilyId, instanceInfo);
         } else {
+            container = copy(container);
             Set<APIService> apiServices = container.getServices();
             APIService service = createAPIServiceFromInstance(instanceInfo);
             apiServices.remove(service);
@@ -348,18 +354,24 @@ public class CachedProductFamilyService {
             container.setDescription(description);
             container.updateLastUpdatedTimestamp();
 
-            products.put(productFamilyId, container);
+            publish(container);
         }
 
         return container;
     }
 
     /**
-     * Update the summary totals for a container based on it's running services
+     * Calculate the summary totals for a container based on it's running services. The published container is not
+     * modified, the totals and statuses are set on a copy, which could be changed by the caller (i.e. for a response).
      *
-     * @param apiContainer calculate totals for this container
+     * @param publishedContainer calculate totals for this container
+     * @return a copy of the container with the calculated totals
      */
-    public void calculateContainerServiceTotals(APIContainer apiContainer) {
+    public APIContainer calculateContainerServiceTotals(APIContainer publishedContainer) {
+        APIContainer apiContainer = copy(publishedContainer, true);
+        // the state of services of a restored container is not known yet, the persisted totals are used
+        if (apiContainer.isStale()) return apiContainer;
+
         final AtomicInteger activeServices = new AtomicInteger(0);
         if (apiContainer.getServices() != null) {
             activeServices.set(apiContainer.getServices().size());
@@ -390,6 +402,7 @@ public class CachedProductFamilyService {
         } else {
             apiContainer.setStatus("UP");
         }
+        return apiContainer;
     }
 
     /**
@@ -398,6 +411,125 @@ public class CachedProductFamilyService {
      * @return the number of containers
      */
     public int getContainerCount() {
-        return products.size();
+        return byId.size();
+    }
+
+    /**
+     * Add containers restored from a snapshot, they are marked as stale until the discovery service confirms them.
+     * Containers, which are already known, are not replaced.
+     *
+     * @param containers containers from the snapshot
+     */
+    public synchronized void restoreContainers(Collection<APIContainer> containers) {
+        for (APIContainer container : containers) {
+            if (container.getId() == null || byId.containsKey(container.getId())) continue;
+
+            container.setStale(true);
+            publish(container);
+        }
+    }
+
+    /**
+     * Remove all restored containers, which were not confirmed by the discovery service. Any update of a container
+     * by an instance makes a copy, which is not stale anymore and which contains only services of live instances.
+     *
+     * @return the number of removed containers
+     */
+    public synchronized int removeStaleContainers() {
+        List<APIContainer> stale = byId.values().stream().filter(APIContainer::isStale).collect(toList());
+        stale.forEach(this::unpublish);
+        return stale.size();
+    }
+
+    /**
+     * Create a copy of the container, which could be modified without any effect on readers. Services of a restored
+     * (stale) container are not copied, the container is confirmed by the first live instance and its services are
+     * rebuilt from live instances only. Otherwise services, which do not exist anymore, would stay in the container.
+     *
+     * @param container the published container
+     * @return a copy with its own set of services
+     */
+    private APIContainer copy(APIContainer container) {
+        return copy(container, false);
+    }
+
+    /**
+     * Create a deep copy of the container, services are copied as well.
+     *
+     * @param container the published container
+     * @param keepStale true to copy also services of a stale container and keep the stale flag
+     * @return a copy with its own set of services
+     */
+    private APIContainer copy(APIContainer container, boolean keepStale) {
+        Set<APIService> services = new HashSet<>();
+        if (container.getServices() != null && (keepStale || !container.isStale())) {
+            container.getServices().forEach(service -> services.add(copy(service)));
+        }
+        APIContainer copy = new APIContainer(container.getId(), container.getTitle(), container.getDescription(), services);
+        copy.setVersion(container.getVersion());
+        copy.setStatus(container.getStatus());
+        copy.setTotalServices(container.getTotalServices());
+        copy.setActiveServices(container.getActiveServices());
+        copy.setLastUpdatedTimestamp(container.getLastUpdatedTimestamp());
+        copy.setCreatedTimestamp(container.getCreatedTimestamp());
+        copy.setStale(keepStale && container.isStale());
+        return copy;
+    }
+
+    private APIService copy(APIService service) {
+        APIService copy = new APIService(service.getServiceId(), service.getTitle(), service.getDescription(),
+            service.isSecured(), service.getHomePageUrl(), service.getApiDoc());
+        copy.setStatus(service.getStatus());
+        return copy;
+    }
+
+    /**
+     * Publish the (new or copied) container and update the indexes of this container only. Each entry is replaced,
+     * never modified. It has to be called only from synchronized methods.
+     *
+     * @param container the container to publish
+     */
+    private void publish(APIContainer container) {
+        APIContainer previous = byId.put(container.getId(), container);
+        removeFromIndexes(previous);
+
+        Map<String, APIService> services = new HashMap<>();
+        if (container.getServices() != null) {
+            for (APIService service : container.getServices()) {
+                String serviceId = service.getServiceId().toLowerCase();
+                services.put(serviceId, service);
+                List<APIContainer> containers = new ArrayList<>(byServiceId.getOrDefault(serviceId, Collections.emptyList()));
+                containers.add(container);
+                byServiceId.put(serviceId, Collections.unmodifiableList(containers));
+            }
+        }
+        servicesByContainerId.put(container.getId().toLowerCase(), Collections.unmodifiableMap(services));
+    }
+
+    /**
+     * Remove the container and its entries in the indexes. It has to be called only from synchronized methods.
+     *
+     * @param container the published container to remove
+     */
+    private void unpublish(APIContainer container) {
+        byId.remove(container.getId());
+        removeFromIndexes(container);
+        servicesByContainerId.remove(container.getId().toLowerCase());
+    }
+
+    private void removeFromIndexes(APIContainer container) {
+        if (container == null || container.getServices() == null) return;
+
+        for (APIService service : container.getServices()) {
+            String serviceId = service.getServiceId().toLowerCase();
+            List<APIContainer> containers = byServiceId.getOrDefault(serviceId, Collections.emptyList()).stream()
+                .filter(c -> c != container)
+                .collect(toList());
+            if (containers.isEmpty()) {
+                byServiceId.remove(serviceId);
+            } else {
+                byServiceId.put(serviceId, Collections.unmodifiableList(containers));
+            }
+        }
     }
 }
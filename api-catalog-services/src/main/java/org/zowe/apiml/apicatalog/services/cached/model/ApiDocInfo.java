@@ -26,4 +26,14 @@ public class ApiDocInfo {
     ApiInfo apiInfo;
     String apiDocContent;
     RoutedServices routes;
+
+    /**
+     * Validators of the retrieved content (ETag and Last-Modified), they are null if the content was generated
+     */
+    String entityTag;
+    String lastModified;
+
+    public ApiDocInfo(ApiInfo apiInfo, String apiDocContent, RoutedServices routes) {
+        this(apiInfo, apiDocContent, routes, null, null);
+    }
 }
@@ -62,6 +62,20 @@ public class APIDocRetrievalService {
      * @throws ApiDocNotFoundException if the response is error
      */
     public ApiDocInfo retrieveApiDoc(@NonNull String serviceId, String apiVersion) {
+        return retrieveApiDoc(serviceId, apiVersion, null);
+    }
+
+    /**
+     * Retrieve the API docs for a registered service. If the previously retrieved API doc is set, the request is
+     * conditional (by its ETag and Last-Modified) and the previous API doc is returned if it was not modified.
+     *
+     * @param serviceId  the unique service id
+     * @param apiVersion the version of the API
+     * @param previous   the previously retrieved API doc, it could be null
+     * @return the API doc and related information for transformation, or the previous one if it was not modified
+     * @throws ApiDocNotFoundException if the response is error
+     */
+    public ApiDocInfo retrieveApiDoc(@NonNull String serviceId, String apiVersion, ApiDocInfo previous) {
         InstanceInfo instanceInfo = instanceRetrievalService.getInstanceInfo(serviceId);
         if (instanceInfo == null) {
             throw new ApiDocNotFoundException("Could not load instance information for service " + serviceId + " .");
@@ -76,8 +90,7 @@ public class APIDocRetrievalService {
             return getApiDocInfoBySubstituteSwagger(instanceInfo, routes, apiInfo);
         }
 
-        String apiDocContent = getApiDocContentByUrl(serviceId, apiDocUrl);
-        return new ApiDocInfo(apiInfo, apiDocContent, routes);
+        return getApiDocInfoByUrl(serviceId, apiDocUrl, apiInfo, routes, previous);
     }
 
 
@@ -102,16 +115,24 @@ public class APIDocRetrievalService {
 
 
     /**
-     * Get ApiDoc content by Url
+     * Get ApiDoc info by Url
      *
      * @param serviceId the unique service id
      * @param apiDocUrl the url of apidoc
-     * @return the information about ApiDoc content as application/json
+     * @param apiInfo   the apiInfo of service instance
+     * @param routes    the routes of service instance
+     * @param previous  the previously retrieved API doc to make conditional request, it could be null
+     * @return the information about ApiDoc content as application/json, or the previous one if it was not modified
      * @throws ApiDocNotFoundException if the response is error
      */
-    private String getApiDocContentByUrl(@NonNull String serviceId, String apiDocUrl) {
+    private ApiDocInfo getApiDocInfoByUrl(@NonNull String serviceId, String apiDocUrl, ApiInfo apiInfo,
+                                          RoutedServices routes, ApiDocInfo previous) {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON_UTF8));
+        if (previous != null) {
+            if (previous.getEntityTag() != null) headers.setIfNoneMatch(previous.getEntityTag());
+            if (previous.getLastModified() != null) headers.set(HttpHeaders.IF_MODIFIED_SINCE, previous.getLastModified());
+        }
 
         ResponseEntity<String> response = restTemplate.exchange(
             apiDocUrl,
@@ -122,7 +143,11 @@ public class APIDocRetrievalService {
         if (response.getStatusCode().isError()) {
             throw new ApiDocNotFoundException("No API Documentation was retrieved due to " + serviceId + " server error: '" + response.getBody() + "'.");
         }
-        return response.getBody();
+        if ((previous != null) && (response.getStatusCode() == HttpStatus.NOT_MODIFIED)) {
+            return previous;
+        }
+        return new ApiDocInfo(apiInfo, response.getBody(), routes,
+            response.getHeaders().getETag(), response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
     }
 
     /**
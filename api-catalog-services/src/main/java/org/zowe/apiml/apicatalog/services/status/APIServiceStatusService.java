@@ -75,10 +75,9 @@ public class APIServiceStatusService {
         log.debug("Retrieving all containers statuses as events");
         List<ContainerStatusChangeEvent> events = new ArrayList<>();
         Iterable<APIContainer> allContainers = cachedProductFamilyService.getAllContainers();
-        allContainers.forEach(container -> {
-            cachedProductFamilyService.calculateContainerServiceTotals(container);
-            addContainerEvent(events, container);
-        });
+        allContainers.forEach(container ->
+            addContainerEvent(events, cachedProductFamilyService.calculateContainerServiceTotals(container))
+        );
         return events;
     }
 
@@ -101,10 +100,9 @@ public class APIServiceStatusService {
     public List<ContainerStatusChangeEvent> getRecentlyUpdatedContainersAsEvents() {
         List<ContainerStatusChangeEvent> recentEvents = new ArrayList<>();
         Iterable<APIContainer> allContainers = cachedProductFamilyService.getRecentlyUpdatedContainers();
-        allContainers.forEach(container -> {
-            cachedProductFamilyService.calculateContainerServiceTotals(container);
-            addContainerEvent(recentEvents, container);
-        });
+        allContainers.forEach(container ->
+            addContainerEvent(recentEvents, cachedProductFamilyService.calculateContainerServiceTotals(container))
+        );
         if (!recentEvents.isEmpty()) {
             log.debug("Recent events found: " + recentEvents.size());
         }
@@ -0,0 +1,262 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.services.status;
+
+import com.netflix.appinfo.InstanceInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.zowe.apiml.apicatalog.model.APIContainer;
+import org.zowe.apiml.apicatalog.model.APIService;
+import org.zowe.apiml.apicatalog.services.cached.CachedProductFamilyService;
+import org.zowe.apiml.apicatalog.services.status.event.model.ContainerStatusDelta;
+import org.zowe.apiml.apicatalog.services.status.event.model.STATUS_EVENT_TYPE;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes changes of statuses of containers to the catalog UI (server-sent events). After each refresh of the cache
+ * the statuses are compared with the last published ones and only changed containers are sent. Each change gets
+ * a version, the ID of an event is made of the epoch of this service and the version. Recent changes are kept in
+ * the history, so a client which reconnects can continue from its last received event. If it is not possible, the
+ * client gets the reset event and has to fetch all containers.
+ *
+ * All sending is done in a single thread to keep the order of changes, the refresh is never blocked by clients.
+ */
+@Slf4j
+@Service
+public class ContainerStatusStreamService {
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final CachedProductFamilyService cachedProductFamilyService;
+    private final int historySize;
+    private final long timeout;
+
+    private final Map<String, ContainerStatusDelta> lastStates = new HashMap<>();
+    private final Deque<ContainerStatusDelta> history = new ArrayDeque<>();
+    private long version;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher;
+
+    public ContainerStatusStreamService(
+        CachedProductFamilyService cachedProductFamilyService,
+        @Value("${apiml.catalog.containerStream.historySize:500}") int historySize,
+        @Value("${apiml.catalog.containerStream.heartbeat:30000}") long heartbeat,
+        @Value("${apiml.catalog.containerStream.timeout:0}") long timeout
+    ) {
+        this.cachedProductFamilyService = cachedProductFamilyService;
+        this.historySize = historySize;
+        this.timeout = timeout;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("container-stream-");
+        threadFactory.setDaemon(true);
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.dispatcher.scheduleWithFixedDelay(this::sendHeartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Compare the current statuses of containers with the last published ones and publish the changed. It should be
+     * called after each update of the cache.
+     */
+    public void publishChanges() {
+        final Map<String, ContainerStatusDelta> currentStates = new HashMap<>();
+        for (APIContainer published : cachedProductFamilyService.getAllContainers()) {
+            APIContainer container = cachedProductFamilyService.calculateContainerServiceTotals(published);
+            currentStates.put(container.getId(), toState(container));
+        }
+
+        synchronized (this) {
+            currentStates.forEach((containerId, current) -> {
+                final ContainerStatusDelta last = lastStates.get(containerId);
+                if (current.isSameState(last)) return;
+
+                final STATUS_EVENT_TYPE eventType;
+                if (InstanceInfo.InstanceStatus.DOWN.name().equalsIgnoreCase(current.getStatus())) {
+                    eventType = STATUS_EVENT_TYPE.CANCEL;
+                } else if (last == null) {
+                    eventType = STATUS_EVENT_TYPE.CREATED_CONTAINER;
+                } else {
+                    eventType = STATUS_EVENT_TYPE.RENEW;
+                }
+
+                final ContainerStatusDelta delta = new ContainerStatusDelta(++version, containerId, current.getTitle(),
+                    current.getStatus(), current.getTotalServices(), current.getActiveServices(), current.getServices(),
+                    eventType);
+                lastStates.put(containerId, delta);
+                dispatch(delta);
+            });
+        }
+    }
+
+    private ContainerStatusDelta toState(APIContainer container) {
+        final Map<String, String> services = new TreeMap<>();
+        if (container.getServices() != null) {
+            for (APIService service : container.getServices()) {
+                services.put(service.getServiceId(), service.getStatus());
+            }
+        }
+        return new ContainerStatusDelta(0, container.getId(), container.getTitle(), container.getStatus(),
+            container.getTotalServices(), container.getActiveServices(), Collections.unmodifiableMap(services), null);
+    }
+
+    /**
+     * Stores the change into the history and enqueues its sending. It has to be called in synchronized block to keep
+     * the same order of changes in the history and in the stream.
+     */
+    private void dispatch(ContainerStatusDelta delta) {
+        history.addLast(delta);
+        while (history.size() > historySize) {
+            history.removeFirst();
+        }
+        dispatcher.execute(() -> send(delta));
+    }
+
+    /**
+     * Creates a new subscription. If the last event ID is set and the changes after it are in the history, they are
+     * sent at first, otherwise the subscriber gets the reset event.
+     *
+     * @param lastEventId ID of the last event received by the client, it could be null
+     * @return emitter of changes
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        final Subscriber subscriber = new Subscriber(new SseEmitter(timeout));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+
+        dispatcher.execute(() -> {
+            try {
+                final long currentVersion = getVersion();
+                final List<ContainerStatusDelta> missed = getMissed(lastEventId);
+                if (missed == null) {
+                    subscriber.emitter.send(SseEmitter.event().id(getEventId(currentVersion)).name(ContainerStatusDelta.EVENT_RESET).data(""));
+                    subscriber.sentVersion = currentVersion;
+                } else {
+                    for (ContainerStatusDelta delta : missed) {
+                        subscriber.send(delta);
+                    }
+                }
+                subscribers.add(subscriber);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Cannot initialize container status stream", e);
+                subscriber.emitter.completeWithError(e);
+            }
+        });
+
+        return subscriber.emitter;
+    }
+
+    /**
+     * @return changes after the last event, or null if it is not possible to find them
+     */
+    synchronized List<ContainerStatusDelta> getMissed(String lastEventId) {
+        if (lastEventId == null) return null;
+
+        final String[] parts = lastEventId.split(":");
+        if ((parts.length != 2) || !String.valueOf(epoch).equals(parts[0])) return null;
+
+        final long lastVersion;
+        try {
+            lastVersion = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        if (lastVersion > version) return null;
+        if (lastVersion == version) return new ArrayList<>();
+        if (history.isEmpty() || (history.getFirst().getVersion() > lastVersion + 1)) return null;
+
+        final List<ContainerStatusDelta> out = new ArrayList<>();
+        for (ContainerStatusDelta delta : history) {
+            if (delta.getVersion() > lastVersion) out.add(delta);
+        }
+        return out;
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    String getEventId(long eventVersion) {
+        return epoch + ":" + eventVersion;
+    }
+
+    private void send(ContainerStatusDelta delta) {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.send(delta);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Cannot send container status to the subscriber, it will be removed", e);
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * Subscribed client. It remembers the last sent version, because changes replayed during subscription could be
+     * enqueued for sending again.
+     */
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private long sentVersion;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void send(ContainerStatusDelta delta) throws IOException {
+            if (delta.getVersion() <= sentVersion) return;
+
+            emitter.send(SseEmitter.event()
+                .id(getEventId(delta.getVersion()))
+                .name(ContainerStatusDelta.EVENT_DELTA)
+                .data(delta)
+            );
+            sentVersion = delta.getVersion();
+        }
+
+    }
+
+}
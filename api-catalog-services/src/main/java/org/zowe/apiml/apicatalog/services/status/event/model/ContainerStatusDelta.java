@@ -0,0 +1,62 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.services.status.event.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Change of status of a single container, which is pushed to the catalog UI by the container status stream. It
+ * contains only statuses, the whole container could be fetched by the endpoint /containers/{id}.
+ */
+@Data
+@AllArgsConstructor
+public class ContainerStatusDelta {
+
+    /**
+     * Name of event containing a delta
+     */
+    public static final String EVENT_DELTA = "delta";
+
+    /**
+     * Name of event sent if the client cannot continue from the last received delta and has to fetch all containers
+     */
+    public static final String EVENT_RESET = "reset";
+
+    private final long version;
+    private final String containerId;
+    private final String title;
+    private final String status;
+    private final int totalServices;
+    private final int activeServices;
+
+    /**
+     * Statuses of services in the container (by service id)
+     */
+    private final Map<String, String> services;
+    private final STATUS_EVENT_TYPE statusEventType;
+
+    /**
+     * @return true if the delta describes the same state of the container (the version and type are ignored)
+     */
+    public boolean isSameState(ContainerStatusDelta other) {
+        return (other != null)
+            && containerId.equals(other.containerId)
+            && Objects.equals(title, other.title)
+            && Objects.equals(status, other.status)
+            && (totalServices == other.totalServices)
+            && (activeServices == other.activeServices)
+            && services.equals(other.services);
+    }
+
+}
@@ -10,19 +10,35 @@
 package org.zowe.apiml.apicatalog.staticapi;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+@Slf4j
 @RestController
 @RequestMapping("/static-api")
 @RequiredArgsConstructor
 public class StaticAPIRefreshController {
 
+    static final String EVENT_STATUS = "status";
+
     private final StaticAPIService staticAPIService;
 
+    @Value("${apiml.catalog.staticApi.streamTimeout:60000}")
+    private long streamTimeout = 60000;
+
     @PostMapping(value = "/refresh", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<String> refreshStaticApis() {
         StaticAPIResponse staticAPIResponse = staticAPIService.refresh();
@@ -31,4 +47,61 @@ public class StaticAPIRefreshController {
             .body(staticAPIResponse.getBody());
     }
 
+    /**
+     * Request the refresh without waiting for it. Concurrent requests get the same job.
+     */
+    @PostMapping(value = "/refresh/jobs", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StaticAPIRefreshJob> submitRefresh() {
+        return ResponseEntity
+            .status(HttpStatus.ACCEPTED)
+            .body(staticAPIService.submit());
+    }
+
+    @GetMapping(value = "/refresh/jobs/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StaticAPIRefreshJob> getRefreshJob(@PathVariable("id") String id) {
+        StaticAPIRefreshJob job = staticAPIService.getJob(id);
+        if (job == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * Server-sent events with each change of the status of the job, the stream is closed when the job is done. The
+     * listener is removed when the stream is completed, timed out or failed, so a gone client is not kept by the job.
+     */
+    @GetMapping(value = "/refresh/jobs/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRefreshJob(@PathVariable("id") String id) {
+        StaticAPIRefreshJob job = staticAPIService.getJob(id);
+        if (job == null) return ResponseEntity.notFound().build();
+
+        SseEmitter emitter = new SseEmitter(streamTimeout);
+        AtomicBoolean completed = new AtomicBoolean();
+        Consumer<StaticAPIRefreshJob> listener = changed -> {
+            if (completed.get()) return;
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_STATUS).data(changed, MediaType.APPLICATION_JSON));
+                if (changed.isDone() && completed.compareAndSet(false, true)) emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Stream of refresh of static APIs {} was closed", id, e);
+                completed.set(true);
+            }
+        };
+
+        emitter.onCompletion(() -> {
+            completed.set(true);
+            job.removeListener(listener);
+        });
+        emitter.onTimeout(() -> {
+            completed.set(true);
+            job.removeListener(listener);
+            emitter.complete();
+        });
+        emitter.onError(e -> {
+            completed.set(true);
+            job.removeListener(listener);
+        });
+
+        job.addListener(listener);
+        return ResponseEntity.ok(emitter);
+    }
+
 }
@@ -0,0 +1,110 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.staticapi;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * A single refresh of static APIs in the discovery service. The job could be shared by several requests, it is
+ * waiting until the previous job is finished, then it is running and finally it is finished or failed.
+ */
+public class StaticAPIRefreshJob {
+
+    public enum Status {
+        PENDING, RUNNING, FINISHED, FAILED
+    }
+
+    @Getter
+    private final String id = UUID.randomUUID().toString();
+
+    @Getter
+    private final long created = System.currentTimeMillis();
+
+    @Getter
+    private volatile Status status = Status.PENDING;
+
+    @Getter
+    private volatile StaticAPIResponse response;
+
+    @Getter
+    private volatile String error;
+
+    private final CompletableFuture<StaticAPIResponse> result = new CompletableFuture<>();
+    private final List<Consumer<StaticAPIRefreshJob>> listeners = new ArrayList<>();
+
+    @JsonIgnore
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    CompletableFuture<StaticAPIResponse> getResult() {
+        return result;
+    }
+
+    /**
+     * Register a listener of changes of the status. It is called immediately with the current state, then on each
+     * change until the job is done.
+     *
+     * @param listener listener of changes
+     */
+    public void addListener(Consumer<StaticAPIRefreshJob> listener) {
+        synchronized (listeners) {
+            if (!isDone()) listeners.add(listener);
+        }
+        listener.accept(this);
+    }
+
+    /**
+     * Unregister the listener, ie. when the client of the stream is gone
+     *
+     * @param listener listener registered by {@link #addListener(Consumer)}
+     */
+    public void removeListener(Consumer<StaticAPIRefreshJob> listener) {
+        synchronized (listeners) {
+            listeners.remove(listener);
+        }
+    }
+
+    void running() {
+        status = Status.RUNNING;
+        notifyListeners();
+    }
+
+    void finished(StaticAPIResponse staticAPIResponse) {
+        response = staticAPIResponse;
+        status = Status.FINISHED;
+        result.complete(staticAPIResponse);
+        notifyListeners();
+    }
+
+    void failed(RuntimeException exception) {
+        error = exception.getMessage();
+        status = Status.FAILED;
+        result.completeExceptionally(exception);
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        final List<Consumer<StaticAPIRefreshJob>> current;
+        synchronized (listeners) {
+            current = new ArrayList<>(listeners);
+            if (isDone()) listeners.clear();
+        }
+        current.forEach(listener -> listener.accept(this));
+    }
+
+}
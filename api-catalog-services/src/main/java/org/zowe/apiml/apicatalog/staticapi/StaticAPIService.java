@@ -10,23 +10,42 @@
 package org.zowe.apiml.apicatalog.staticapi;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.zowe.apiml.apicatalog.discovery.DiscoveryConfigProperties;
 
+import javax.annotation.PreDestroy;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Refresh of static APIs in the discovery service.
+ *
+ * Refreshes run as jobs in a single thread. Concurrent requests are coalesced: at most one job is running and at most
+ * one is waiting for it. All requests which come during the running job share the waiting one, so the discovery
+ * service never gets more than one reload at the time, and the result still contains all changes made before
+ * the request. Recent jobs are kept to be checked by their id.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class StaticAPIService {
 
     private static final String REFRESH_ENDPOINT = "discovery/api/v1/staticApi";
+    private static final int MAX_JOBS = 20;
 
     @Value("${apiml.discovery.userid:eureka}")
     private String eurekaUserid;
@@ -39,7 +58,88 @@ public class StaticAPIService {
 
     private final DiscoveryConfigProperties discoveryConfigProperties;
 
+    private final ExecutorService executor = createExecutor();
+
+    private final Map<String, StaticAPIRefreshJob> jobs = new LinkedHashMap<String, StaticAPIRefreshJob>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, StaticAPIRefreshJob> eldest) {
+            return size() > MAX_JOBS;
+        }
+    };
+
+    private StaticAPIRefreshJob pendingJob;
+
+    private static ExecutorService createExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("static-api-refresh-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Refresh static APIs and wait for the result. A request during a running refresh shares the next refresh.
+     *
+     * @return response of the discovery service
+     */
     public StaticAPIResponse refresh() {
+        try {
+            return submit().getResult().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Request a refresh of static APIs without waiting for it
+     *
+     * @return the job, which was created or which is already waiting
+     */
+    public synchronized StaticAPIRefreshJob submit() {
+        if (pendingJob != null) return pendingJob;
+
+        final StaticAPIRefreshJob job = new StaticAPIRefreshJob();
+        try {
+            executor.execute(() -> process(job));
+        } catch (RejectedExecutionException e) {
+            job.failed(e);
+            jobs.put(job.getId(), job);
+            return job;
+        }
+
+        pendingJob = job;
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * @param id identifier of the job
+     * @return the job or null if it does not exist (anymore)
+     */
+    public synchronized StaticAPIRefreshJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    private void process(StaticAPIRefreshJob job) {
+        synchronized (this) {
+            // the job is starting, next requests have to wait for a new one
+            if (pendingJob == job) pendingJob = null;
+        }
+
+        job.running();
+        try {
+            job.finished(callRefresh());
+        } catch (RuntimeException e) {
+            log.debug("Refresh of static APIs {} failed", job.getId(), e);
+            job.failed(e);
+        }
+    }
+
+    private StaticAPIResponse callRefresh() {
         String discoveryServiceUrl = getDiscoveryServiceUrl();
         HttpEntity<?> entity = getHttpEntity(discoveryServiceUrl);
         ResponseEntity<String> restResponse = restTemplate.exchange(discoveryServiceUrl,
@@ -13,7 +13,6 @@ import org.zowe.apiml.apicatalog.services.cached.model.ApiDocInfo;
 import org.zowe.apiml.config.ApiInfo;
 import org.zowe.apiml.product.gateway.GatewayClient;
 import org.zowe.apiml.product.routing.RoutedService;
-import org.zowe.apiml.product.routing.ServiceType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
@@ -34,28 +33,38 @@ public abstract class AbstractApiDocService<T, N> {
     protected abstract void updateExternalDoc(T swaggerAPI, ApiDocInfo apiDocInfo);
 
     protected void preparePath(N path, ApiDocPath<N> apiDocPath, ApiDocInfo apiDocInfo, String basePath, String originalEndpoint, String serviceId) {
-        log.trace("Swagger Service Id: " + serviceId);
-        log.trace("Original Endpoint: " + originalEndpoint);
-        log.trace("Base Path: " + basePath);
+        preparePath(path, apiDocPath, PathRewritePlan.of(serviceId, apiDocInfo), basePath, originalEndpoint, serviceId);
+    }
+
+    /**
+     * Rewrite the endpoint by the plan and store it into the paths
+     *
+     * @param path             the path of the endpoint
+     * @param apiDocPath       collected paths
+     * @param plan             the plan to rewrite endpoints of the service
+     * @param basePath         swagger base path
+     * @param originalEndpoint the endpoint of method
+     * @param serviceId        the unique service id
+     */
+    protected void preparePath(N path, ApiDocPath<N> apiDocPath, PathRewritePlan plan, String basePath, String originalEndpoint, String serviceId) {
+        log.trace("Swagger Service Id: {}", serviceId);
+        log.trace("Original Endpoint: {}", originalEndpoint);
+        log.trace("Base Path: {}", basePath);
 
         // Retrieve route which matches endpoint
         String endPoint = getEndPoint(basePath, originalEndpoint);
-        RoutedService route = getRoutedServiceByApiInfo(apiDocInfo, endPoint);
-        if (route == null) {
-            route = apiDocInfo.getRoutes().getBestMatchingServiceUrl(endPoint, ServiceType.API);
-        }
+        PathRewritePlan.Rewrite rewrite = plan.rewrite(endPoint);
 
-        if (route == null) {
+        if (rewrite.getRoute() == null) {
             log.debug("Could not transform endpoint '{}' for service '{}'. Please check the service configuration.", endPoint, serviceId);
         } else {
-            apiDocPath.addPrefix(route.getGatewayUrl());
+            apiDocPath.addPrefix(rewrite.getRoute().getGatewayUrl());
         }
 
-        Pair<String, String> endPointPairs = getEndPointPairs(endPoint, serviceId, route);
-        log.trace("Final Endpoint: " + endPointPairs.getRight());
+        log.trace("Final Endpoint: {}", rewrite.getLongPath());
 
-        apiDocPath.addShortPath(endPointPairs.getLeft(), path);
-        apiDocPath.addLongPath(endPointPairs.getRight(), path);
+        apiDocPath.addShortPath(rewrite.getShortPath(), path);
+        apiDocPath.addLongPath(rewrite.getLongPath(), path);
     }
 
     /**
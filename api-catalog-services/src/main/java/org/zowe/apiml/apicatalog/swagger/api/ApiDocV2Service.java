@@ -85,11 +85,12 @@ public class ApiDocV2Service extends AbstractApiDocService<Swagger, Path> {
     protected void updatePaths(Swagger swagger, String serviceId, ApiDocInfo apiDocInfo, boolean hidden) {
         ApiDocPath<Path> apiDocPath = new ApiDocPath<>();
         String basePath = swagger.getBasePath();
+        PathRewritePlan plan = PathRewritePlan.of(serviceId, apiDocInfo);
 
         if (swagger.getPaths() != null && !swagger.getPaths().isEmpty()) {
             swagger.getPaths()
                 .forEach((originalEndpoint, path)
-                    -> preparePath(path, apiDocPath, apiDocInfo, basePath, originalEndpoint, serviceId));
+                    -> preparePath(path, apiDocPath, plan, basePath, originalEndpoint, serviceId));
         }
 
         Map<String, Path> updatedPaths;
@@ -94,13 +94,14 @@ public class ApiDocV3Service extends AbstractApiDocService<OpenAPI, PathItem> {
      */
     protected void updatePaths(OpenAPI openAPI, String serviceId, ApiDocInfo apiDocInfo, boolean hidden) {
         ApiDocPath<PathItem> apiDocPath = new ApiDocPath<>();
-        Server server = getBestMatchingServer(openAPI.getServers(), apiDocInfo);
+        PathRewritePlan plan = PathRewritePlan.of(serviceId, apiDocInfo);
+        Server server = getBestMatchingServer(openAPI.getServers(), plan);
         String basePath = server != null ? getBasePath(server.getUrl()) : "";
 
         if (openAPI.getPaths() != null && !openAPI.getPaths().isEmpty()) {
             openAPI.getPaths()
                 .forEach((originalEndpoint, path)
-                    -> preparePath(path, apiDocPath, apiDocInfo, basePath, originalEndpoint, serviceId));
+                    -> preparePath(path, apiDocPath, plan, basePath, originalEndpoint, serviceId));
         }
 
         Map<String, PathItem> updatedPaths;
@@ -119,11 +120,11 @@ public class ApiDocV3Service extends AbstractApiDocService<OpenAPI, PathItem> {
         }
     }
 
-    private Server getBestMatchingServer(List<Server> servers, ApiDocInfo apiDocInfo) {
+    private Server getBestMatchingServer(List<Server> servers, PathRewritePlan plan) {
         if (servers != null && !servers.isEmpty()) {
             for (Server server : servers) {
                 String basePath = getBasePath(server.getUrl());
-                RoutedService route = getRoutedServiceByApiInfo(apiDocInfo, basePath);
+                RoutedService route = plan.findPreferredRoute(basePath);
                 if (route != null) {
                     return server;
                 }
@@ -0,0 +1,205 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.swagger.api;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.zowe.apiml.apicatalog.services.cached.model.ApiDocInfo;
+import org.zowe.apiml.product.routing.RoutedService;
+import org.zowe.apiml.product.routing.RoutedServices;
+import org.zowe.apiml.product.routing.ServiceType;
+import org.zowe.apiml.util.UrlUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiled rewriting of endpoints of a service to endpoints on the Gateway.
+ *
+ * The routes of the service are sorted and their service URLs are prepared (lower-cased, compiled patterns) once, each
+ * endpoint of the API doc is then rewritten just by prefix comparisons. The result is the same as the evaluation by
+ * {@link RoutedServices#findServiceByGatewayUrl(String)} and {@link RoutedServices#getBestMatchingServiceUrl(String, ServiceType)}.
+ *
+ * The last plan of each service is kept, it is compiled again only if the routes of the service are changed.
+ */
+public class PathRewritePlan {
+
+    private static final Map<String, PathRewritePlan> PLANS = new ConcurrentHashMap<>();
+    private static final String REGEX_CHARACTERS = "\\^$|?*+()[]{}";
+
+    private final String serviceId;
+    private final String preferredGatewayUrl;
+    private final List<RoutedService> routes;
+
+    private final Rule preferred;
+    private final List<Rule> candidates = new ArrayList<>();
+
+    private PathRewritePlan(String serviceId, String preferredGatewayUrl, List<RoutedService> routes) {
+        this.serviceId = serviceId;
+        this.preferredGatewayUrl = preferredGatewayUrl;
+        this.routes = routes;
+
+        Rule preferredRule = null;
+        for (RoutedService route : routes) {
+            final Rule rule = new Rule(route);
+            if (route.getGatewayUrl().equals(preferredGatewayUrl)) {
+                preferredRule = rule;
+            }
+            if (route.getGatewayUrl().toLowerCase().startsWith(ServiceType.API.name().toLowerCase())
+                && !route.getServiceUrl().isEmpty()) {
+                candidates.add(rule);
+            }
+        }
+        this.preferred = preferredRule;
+
+        // the sort is stable, the first of the same length wins as in RoutedServices
+        candidates.sort(Comparator.comparingInt((Rule rule) -> rule.serviceUrl.length()).reversed());
+    }
+
+    /**
+     * Get the plan for the API doc of the service. The plan is compiled only if the routes of the service were changed
+     * since the last call.
+     *
+     * @param serviceId  the unique service id
+     * @param apiDocInfo the API doc and additional information about transformation
+     * @return the plan
+     */
+    public static PathRewritePlan of(String serviceId, ApiDocInfo apiDocInfo) {
+        final String preferredGatewayUrl = apiDocInfo.getApiInfo() == null ? null : apiDocInfo.getApiInfo().getGatewayUrl();
+        final List<RoutedService> routes = apiDocInfo.getRoutes() == null ?
+            Collections.emptyList() : new ArrayList<>(apiDocInfo.getRoutes().getRoutedServices());
+
+        final String key = String.valueOf(serviceId);
+        final PathRewritePlan plan = PLANS.get(key);
+        if ((plan != null) && plan.isCompiledFor(serviceId, preferredGatewayUrl, routes)) {
+            return plan;
+        }
+
+        final PathRewritePlan compiled = new PathRewritePlan(serviceId, preferredGatewayUrl, routes);
+        PLANS.put(key, compiled);
+        return compiled;
+    }
+
+    private boolean isCompiledFor(String serviceId, String preferredGatewayUrl, List<RoutedService> routes) {
+        return Objects.equals(this.serviceId, serviceId)
+            && Objects.equals(this.preferredGatewayUrl, preferredGatewayUrl)
+            && this.routes.equals(routes);
+    }
+
+    /**
+     * Find the route only by the route of the API (see {@link ApiDocInfo#getApiInfo()})
+     *
+     * @param endPoint the endpoint of method (including the base path)
+     * @return the route of the API if it serves the endpoint, otherwise null
+     */
+    public RoutedService findPreferredRoute(String endPoint) {
+        if ((preferred == null) || (endPoint == null)) return null;
+
+        final Rule rule = findRule(endPoint.toLowerCase(), false);
+        return rule == null ? null : rule.route;
+    }
+
+    /**
+     * Rewrite the endpoint to the Gateway
+     *
+     * @param endPoint the endpoint of method (including the base path)
+     * @return the route and rewritten endpoints
+     */
+    public Rewrite rewrite(String endPoint) {
+        final Rule rule = findRule(endPoint.toLowerCase(), true);
+        if (rule == null) {
+            return new Rewrite(null, endPoint, endPoint);
+        }
+
+        final String shortPath = rule.shorten(endPoint);
+        return new Rewrite(rule.route, shortPath, rule.longPrefix + shortPath);
+    }
+
+    private Rule findRule(String lowerCaseEndPoint, boolean bestMatching) {
+        if ((preferred != null) && lowerCaseEndPoint.startsWith(preferred.serviceUrl)) {
+            return preferred;
+        }
+
+        if (bestMatching) {
+            for (Rule rule : candidates) {
+                if (lowerCaseEndPoint.startsWith(rule.matchingPrefix)) return rule;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Rewritten endpoint
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Rewrite {
+
+        /**
+         * The route of the endpoint, or null if it was not found
+         */
+        private final RoutedService route;
+        private final String shortPath;
+        private final String longPath;
+
+    }
+
+    /**
+     * Prepared route
+     */
+    private class Rule {
+
+        private final RoutedService route;
+        private final String serviceUrl;
+        private final String matchingPrefix;
+        private final String longPrefix;
+        private final boolean literal;
+        private final Pattern pattern;
+
+        private Rule(RoutedService route) {
+            this.route = route;
+            this.serviceUrl = route.getServiceUrl();
+            this.matchingPrefix = UrlUtils.removeLastSlash(serviceUrl.toLowerCase());
+            this.longPrefix = OpenApiUtil.SEPARATOR + route.getGatewayUrl() + OpenApiUtil.SEPARATOR + serviceId;
+            this.literal = serviceUrl.chars().noneMatch(c -> REGEX_CHARACTERS.indexOf(c) >= 0);
+            this.pattern = compile(serviceUrl);
+        }
+
+        private Pattern compile(String regex) {
+            try {
+                return Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                // the error is thrown on the usage of the route, as it was before the plan
+                return null;
+            }
+        }
+
+        /**
+         * Remove the service URL from the endpoint, the service URL is handled as a regular expression (as by
+         * {@link String#replaceFirst(String, String)}). A literal at the beginning is removed without any matching.
+         */
+        private String shorten(String endPoint) {
+            if (serviceUrl.equals(OpenApiUtil.SEPARATOR)) return endPoint;
+            if (literal && endPoint.startsWith(serviceUrl)) return endPoint.substring(serviceUrl.length());
+            if (pattern == null) return endPoint.replaceFirst(serviceUrl, "");
+            return pattern.matcher(endPoint).replaceFirst("");
+        }
+
+    }
+
+}
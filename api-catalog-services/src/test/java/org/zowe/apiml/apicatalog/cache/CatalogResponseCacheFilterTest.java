@@ -0,0 +1,162 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+public class CatalogResponseCacheFilterTest {
+
+    private static final String BODY = "{\"containers\":[\"" + new String(new char[200]).replace('\0', 'x') + "\"]}";
+
+    private CatalogVersion catalogVersion;
+    private AtomicLong time;
+    private AtomicInteger calls;
+    private CatalogResponseCacheFilter underTest;
+
+    private final FilterChain chain = (request, response) -> {
+        calls.incrementAndGet();
+        response.setContentType("application/json");
+        response.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Before
+    public void setUp() {
+        catalogVersion = new CatalogVersion();
+        time = new AtomicLong(1000);
+        calls = new AtomicInteger();
+        underTest = new CatalogResponseCacheFilter(catalogVersion, 30000, time::get);
+    }
+
+    private MockHttpServletRequest createRequest(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRequestURI(uri);
+        return request;
+    }
+
+    private MockHttpServletResponse call(MockHttpServletRequest request) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    public void givenSameVersion_whenCallTwice_thenResponseIsGeneratedOnce() throws Exception {
+        MockHttpServletResponse first = call(createRequest("/containers"));
+        MockHttpServletResponse second = call(createRequest("/containers"));
+
+        assertEquals(1, calls.get());
+        assertEquals(BODY, first.getContentAsString());
+        assertEquals(BODY, second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+        assertNotNull(second.getHeader(HttpHeaders.ETAG));
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void givenDifferentQuery_whenCall_thenPayloadIsShared() throws Exception {
+        MockHttpServletRequest first = createRequest("/containers");
+        first.setQueryString("a=1");
+        MockHttpServletRequest second = createRequest("/containers");
+        second.setQueryString("a=2");
+
+        call(first);
+        assertEquals(BODY, call(second).getContentAsString());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void givenMatchingETag_whenCall_thenNotModified() throws Exception {
+        String eTag = call(createRequest("/containers")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = createRequest("/containers");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        MockHttpServletResponse response = call(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void givenAcceptedGzip_whenCall_thenResponseIsCompressed() throws Exception {
+        MockHttpServletRequest request = createRequest("/apidoc/service/v1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        MockHttpServletResponse response = call(request);
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void givenChangedVersionOrExpiredPayload_whenCall_thenResponseIsRegenerated() throws Exception {
+        call(createRequest("/containers"));
+
+        catalogVersion.changed();
+        call(createRequest("/containers"));
+        assertEquals(2, calls.get());
+
+        time.addAndGet(30001);
+        call(createRequest("/containers"));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void givenStream_whenCall_thenResponseIsNotCached() throws Exception {
+        call(createRequest("/containers/stream"));
+        call(createRequest("/containers/stream"));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void givenErrorResponse_whenCall_thenResponseIsNotCached() throws Exception {
+        FilterChain failing = (request, response) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) response).sendError(404);
+        };
+
+        underTest.doFilter(createRequest("/apidoc/unknown/v1"), new MockHttpServletResponse(), failing);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(createRequest("/apidoc/unknown/v1"), response, failing);
+
+        assertEquals(2, calls.get());
+        assertEquals(404, response.getStatus());
+    }
+
+    private static String gunzip(byte[] data) throws IOException {
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = is.read(buffer)) >= 0) {
+                os.write(buffer, 0, read);
+            }
+            return new String(os.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
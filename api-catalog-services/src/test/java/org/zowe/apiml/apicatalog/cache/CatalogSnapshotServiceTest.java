@@ -0,0 +1,164 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.cache;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.zowe.apiml.apicatalog.model.APIContainer;
+import org.zowe.apiml.apicatalog.model.APIService;
+import org.zowe.apiml.apicatalog.services.cached.CachedApiDocService;
+import org.zowe.apiml.apicatalog.services.cached.CachedProductFamilyService;
+import org.zowe.apiml.apicatalog.services.cached.model.ApiDocCacheKey;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CatalogSnapshotServiceTest {
+
+    private static final long MAX_AGE = 60000;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private CachedProductFamilyService cachedProductFamilyService;
+
+    @Mock
+    private CachedApiDocService cachedApiDocService;
+
+    private CatalogVersion catalogVersion;
+    private AtomicLong time;
+    private File location;
+
+    @Before
+    public void setUp() {
+        catalogVersion = new CatalogVersion();
+        time = new AtomicLong(1000);
+        location = new File(folder.getRoot(), "snapshot/catalog.json.gz");
+    }
+
+    private CatalogSnapshotService create() {
+        return new CatalogSnapshotService(cachedProductFamilyService, cachedApiDocService, catalogVersion,
+            true, location.getPath(), MAX_AGE, time::get);
+    }
+
+    private void persistContent() {
+        APIService service = new APIService("service1", "Service", "Description", true, "https://home", "{\"in\":\"container\"}");
+        APIContainer container = new APIContainer("container1", "Title", "Description", new HashSet<>(Collections.singletonList(service)));
+        container.setStatus("WARNING");
+        when(cachedProductFamilyService.getAllContainers()).thenReturn(Collections.singletonList(container));
+        when(cachedApiDocService.getApiDocs()).thenReturn(Collections.singletonMap(new ApiDocCacheKey("service1", "v1"), "{}"));
+
+        CatalogSnapshotService snapshotService = create();
+        snapshotService.reconcile();
+        snapshotService.persist();
+    }
+
+    @Test
+    public void givenPersistedSnapshot_whenRestore_thenContentIsRestoredAsStale() {
+        persistContent();
+        assertTrue(location.isFile());
+
+        CatalogSnapshotService snapshotService = create();
+        snapshotService.restore();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<APIContainer>> restored = ArgumentCaptor.forClass(Collection.class);
+        verify(cachedProductFamilyService).restoreContainers(restored.capture());
+        assertEquals(1, restored.getValue().size());
+        APIContainer container = restored.getValue().iterator().next();
+        assertEquals("container1", container.getId());
+        assertEquals("WARNING", container.getStatus());
+        APIService service = container.getServices().iterator().next();
+        assertEquals("https://home", service.getHomePageUrl());
+        // API docs are stored only once
+        assertNull(service.getApiDoc());
+
+        verify(cachedApiDocService).updateApiDocForService("service1", "v1", "{}");
+        assertTrue(snapshotService.isStale());
+    }
+
+    @Test
+    public void givenStaleContent_whenPersist_thenNothingIsWritten() {
+        CatalogSnapshotService snapshotService = create();
+        snapshotService.persist();
+
+        assertFalse(location.exists());
+        verifyZeroInteractions(cachedProductFamilyService, cachedApiDocService);
+    }
+
+    @Test
+    public void givenUnchangedContent_whenPersist_thenSnapshotIsNotWrittenAgain() {
+        when(cachedProductFamilyService.getAllContainers()).thenReturn(Collections.emptyList());
+        when(cachedApiDocService.getApiDocs()).thenReturn(Collections.emptyMap());
+        CatalogSnapshotService snapshotService = create();
+        snapshotService.reconcile();
+
+        snapshotService.persist();
+        snapshotService.persist();
+        verify(cachedProductFamilyService, times(1)).getAllContainers();
+
+        catalogVersion.changed();
+        snapshotService.persist();
+        verify(cachedProductFamilyService, times(2)).getAllContainers();
+        assertArrayEquals(new String[] {"catalog.json.gz"}, location.getParentFile().list());
+    }
+
+    @Test
+    public void givenOldSnapshot_whenRestore_thenNothingIsRestored() {
+        persistContent();
+        time.addAndGet(MAX_AGE + 1);
+
+        create().restore();
+
+        verify(cachedProductFamilyService, never()).restoreContainers(any());
+    }
+
+    @Test
+    public void givenInvalidSnapshot_whenRestore_thenNothingIsRestored() throws Exception {
+        assertTrue(location.getParentFile().mkdirs());
+        Files.write(location.toPath(), "invalid".getBytes(StandardCharsets.UTF_8));
+
+        create().restore();
+
+        verifyZeroInteractions(cachedProductFamilyService, cachedApiDocService);
+    }
+
+    @Test
+    public void givenRestoredSnapshot_whenReconcile_thenUnconfirmedContainersAreRemoved() {
+        when(cachedProductFamilyService.removeStaleContainers()).thenReturn(2);
+        CatalogSnapshotService snapshotService = create();
+        long version = catalogVersion.get();
+
+        snapshotService.reconcile();
+        snapshotService.reconcile();
+
+        assertFalse(snapshotService.isStale());
+        verify(cachedProductFamilyService, times(1)).removeStaleContainers();
+        assertEquals(version + 1, catalogVersion.get());
+    }
+
+}
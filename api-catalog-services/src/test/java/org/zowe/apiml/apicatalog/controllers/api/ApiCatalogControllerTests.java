@@ -19,6 +19,7 @@ import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.shared.Application;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -31,6 +32,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 
 @RunWith(MockitoJUnitRunner.Silent.class)
@@ -48,6 +50,12 @@ public class ApiCatalogControllerTests {
     @InjectMocks
     private ApiCatalogController apiCatalogController;
 
+    @Before
+    public void setUp() {
+        given(this.cachedProductFamilyService.calculateContainerServiceTotals(any(APIContainer.class)))
+            .willAnswer(invocation -> invocation.getArgument(0));
+    }
+
     @Test
     public void whenGetAllContainers_givenNothing_thenReturnContainersWithState() {
         Application service1 = new Application("service-1");
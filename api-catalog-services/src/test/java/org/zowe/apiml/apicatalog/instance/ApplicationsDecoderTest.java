@@ -0,0 +1,96 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.instance;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class ApplicationsDecoderTest {
+
+    private static final String EUREKA_PAYLOAD = "{\"applications\":{" +
+        "\"versions__delta\":\"5\",\"apps__hashcode\":\"UP_2_\"," +
+        "\"application\":[{\"name\":\"SERVICE1\",\"instance\":[{" +
+            "\"instanceId\":\"host:service1:10012\",\"hostName\":\"host\",\"app\":\"SERVICE1\",\"ipAddr\":\"10.0.0.1\"," +
+            "\"status\":\"UP\",\"overriddenStatus\":\"UNKNOWN\"," +
+            "\"port\":{\"$\":10012,\"@enabled\":\"false\"},\"securePort\":{\"$\":10013,\"@enabled\":\"true\"}," +
+            "\"countryId\":1,\"dataCenterInfo\":{\"@class\":\"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo\",\"name\":\"MyOwn\"}," +
+            "\"leaseInfo\":{\"renewalIntervalInSecs\":30,\"durationInSecs\":90}," +
+            "\"metadata\":{\"apiml.catalog.tile.id\":\"tile\",\"version\":\"1.0\"}," +
+            "\"homePageUrl\":\"https://host:10013/\",\"vipAddress\":\"service1\",\"secureVipAddress\":\"service1\"," +
+            "\"lastUpdatedTimestamp\":\"1591000000001\",\"lastDirtyTimestamp\":\"1591000000000\",\"actionType\":\"ADDED\"" +
+        "}]},{\"name\":\"SERVICE2\",\"instance\":{" +
+            "\"instanceId\":\"host:service2:10014\",\"app\":\"SERVICE2\",\"status\":\"DOWN\",\"port\":10014," +
+            "\"metadata\":{\"@class\":\"java.util.Collections$EmptyMap\"}" +
+        "}}]" +
+    "}}";
+
+    private final ApplicationsDecoder decoder = new ApplicationsDecoder();
+
+    private Applications decode(String payload) throws IOException {
+        return decoder.decode(new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void givenEurekaPayload_whenDecode_thenUsedFieldsAreDecoded() throws IOException {
+        Applications applications = decode(EUREKA_PAYLOAD);
+
+        assertEquals(2, applications.getRegisteredApplications().size());
+        assertEquals("UP_2_", applications.getAppsHashCode());
+
+        Application service1 = applications.getRegisteredApplications("SERVICE1");
+        assertNotNull(service1);
+        InstanceInfo instanceInfo = service1.getByInstanceId("host:service1:10012");
+        assertNotNull(instanceInfo);
+        assertEquals("host", instanceInfo.getHostName());
+        assertEquals("10.0.0.1", instanceInfo.getIPAddr());
+        assertEquals(InstanceInfo.InstanceStatus.UP, instanceInfo.getStatus());
+        assertEquals(10012, instanceInfo.getPort());
+        assertFalse(instanceInfo.isPortEnabled(InstanceInfo.PortType.UNSECURE));
+        assertEquals(10013, instanceInfo.getSecurePort());
+        assertTrue(instanceInfo.isPortEnabled(InstanceInfo.PortType.SECURE));
+        assertEquals("tile", instanceInfo.getMetadata().get("apiml.catalog.tile.id"));
+        assertEquals("1.0", instanceInfo.getMetadata().get("version"));
+        assertEquals("https://host:10013/", instanceInfo.getHomePageUrl());
+        assertEquals("service1", instanceInfo.getVIPAddress());
+        assertEquals(Long.valueOf(1591000000000L), instanceInfo.getLastDirtyTimestamp());
+        assertEquals(InstanceInfo.ActionType.ADDED, instanceInfo.getActionType());
+    }
+
+    @Test
+    public void givenSingleInstanceAsObject_whenDecode_thenInstanceIsDecoded() throws IOException {
+        Application service2 = decode(EUREKA_PAYLOAD).getRegisteredApplications("SERVICE2");
+
+        assertNotNull(service2);
+        assertEquals(1, service2.getInstances().size());
+        InstanceInfo instanceInfo = service2.getInstances().get(0);
+        assertEquals(InstanceInfo.InstanceStatus.DOWN, instanceInfo.getStatus());
+        assertEquals(10014, instanceInfo.getPort());
+        assertTrue(instanceInfo.getMetadata().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void givenInvalidPayload_whenDecode_thenException() throws IOException {
+        decode("UNPARSED_JSON");
+    }
+
+    @Test(expected = IOException.class)
+    public void givenPayloadWithoutApplications_whenDecode_thenException() throws IOException {
+        decode("{\"application\":{}}");
+    }
+
+}
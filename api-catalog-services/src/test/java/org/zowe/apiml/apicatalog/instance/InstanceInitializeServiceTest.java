@@ -17,10 +17,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.retry.RetryException;
+import org.zowe.apiml.apicatalog.cache.CatalogSnapshotService;
+import org.zowe.apiml.apicatalog.services.cached.ApiDocWarmUpService;
 import org.zowe.apiml.apicatalog.services.cached.CachedProductFamilyService;
 import org.zowe.apiml.apicatalog.services.cached.CachedServicesService;
 import org.zowe.apiml.product.constants.CoreService;
@@ -28,13 +31,16 @@ import org.zowe.apiml.product.gateway.GatewayNotAvailableException;
 import org.zowe.apiml.product.instance.InstanceInitializationException;
 import org.zowe.apiml.product.registry.CannotRegisterServiceException;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.isA;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
 import static org.zowe.apiml.constants.EurekaMetadataDefinition.*;
 
@@ -54,6 +60,12 @@ public class InstanceInitializeServiceTest {
     @Mock
     private InstanceRefreshService instanceRefreshService;
 
+    @Mock
+    private ApiDocWarmUpService apiDocWarmUpService;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
     @InjectMocks
     private InstanceInitializeService instanceInitializeService;
 
@@ -106,6 +118,13 @@ public class InstanceInitializeServiceTest {
                     instanceInfo.getMetadata().get(CATALOG_ID),
                     instanceInfo
                 ));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<String>> warmedUp = ArgumentCaptor.forClass(Collection.class);
+        verify(apiDocWarmUpService).warmUp(warmedUp.capture());
+        assertThat(warmedUp.getValue(), containsInAnyOrder(instanceInfoMap.keySet().toArray()));
+
+        verify(catalogSnapshotService).reconcile();
     }
 
     @Test
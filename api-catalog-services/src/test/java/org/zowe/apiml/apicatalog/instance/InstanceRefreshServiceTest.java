@@ -10,14 +10,20 @@
 package org.zowe.apiml.apicatalog.instance;
 
 
+import org.zowe.apiml.apicatalog.cache.CatalogVersion;
 import org.zowe.apiml.apicatalog.model.APIContainer;
+import org.zowe.apiml.apicatalog.services.cached.ApiDocWarmUpService;
+import org.zowe.apiml.apicatalog.services.cached.CachedApiDocService;
 import org.zowe.apiml.apicatalog.services.cached.CachedProductFamilyService;
 import org.zowe.apiml.apicatalog.services.cached.CachedServicesService;
+import org.zowe.apiml.apicatalog.services.status.ContainerStatusStreamService;
 import org.zowe.apiml.apicatalog.util.ContainerServiceMockUtil;
 import org.zowe.apiml.apicatalog.util.ContainerServiceState;
 import org.zowe.apiml.product.constants.CoreService;
 import org.zowe.apiml.product.gateway.GatewayClient;
 import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.CacheRefreshedEvent;
+import com.netflix.discovery.EurekaClient;
 import com.netflix.discovery.shared.Application;
 import com.netflix.discovery.shared.Applications;
 import org.junit.Before;
@@ -27,14 +33,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.stream.Collectors;
 
 import static org.zowe.apiml.constants.EurekaMetadataDefinition.CATALOG_ID;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -58,42 +64,54 @@ public class InstanceRefreshServiceTest {
     private CachedServicesService cachedServicesService;
 
     @Mock
-    private InstanceRetrievalService instanceRetrievalService;
+    private CachedApiDocService cachedApiDocService;
 
+    @Mock
+    private ApiDocWarmUpService apiDocWarmUpService;
+
+    @Mock
+    private ContainerStatusStreamService containerStatusStreamService;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private EurekaClient eurekaClient;
+
+    private ContainerServiceState cachedState;
 
     @Before
     public void setup() {
-        instanceRefreshService.start();
         addApiCatalogToCache();
+
+        cachedState = containerServiceMockUtil.createContainersServicesAndInstances();
+        containerServiceMockUtil.mockServiceRetrievalFromCache(cachedServicesService, cachedState.getApplications());
+        when(cachedServicesService.getAllCachedServices()).thenReturn(new Applications("1", 1L, cachedState.getApplications()));
+    }
+
+    private void mockRegistry(Application...applications) {
+        when(eurekaClient.getApplications()).thenReturn(new Applications("1", 1L, Arrays.asList(applications)));
+    }
+
+    private InstanceInfo getService3Instance() {
+        return cachedState.getApplications().stream()
+            .filter(application -> application.getName().equalsIgnoreCase("service3"))
+            .findFirst().orElseThrow(IllegalStateException::new)
+            .getInstances().get(0);
     }
 
     @Test
     public void testServiceAddedToDiscoveryThatIsNotInCache() {
-        ContainerServiceState cachedState = containerServiceMockUtil.createContainersServicesAndInstances();
-        containerServiceMockUtil.mockServiceRetrievalFromCache(cachedServicesService, cachedState.getApplications());
+        mockRegistry();
+        instanceRefreshService.start(eurekaClient.getApplications());
 
-        ContainerServiceState discoveredState = new ContainerServiceState();
-        discoveredState.setServices(new ArrayList<>());
-        discoveredState.setContainers(new ArrayList<>());
-        discoveredState.setInstances(new ArrayList<>());
-        discoveredState.setApplications(new ArrayList<>());
-
-        // start up a new instance of service 5 and add it to the service1 application
+        // start up a new instance of service 5
         HashMap<String, String> metadata = new HashMap<>();
         metadata.put(CATALOG_ID, "api-five");
         InstanceInfo newInstanceOfService5
             = containerServiceMockUtil.createInstance("service5", "service5:9999", InstanceInfo.InstanceStatus.UP,
             InstanceInfo.ActionType.ADDED, metadata);
-        discoveredState.getInstances().add(newInstanceOfService5);
-        Application service5 = new Application("service5", Collections.singletonList(newInstanceOfService5));
-        discoveredState.getApplications().add(service5);
-
-        // Mock the discovery and cached service query
-        Applications discoveredServices = new Applications("1", 1L, discoveredState.getApplications());
-        when(instanceRetrievalService.getAllInstancesFromDiscovery(true)).thenReturn(discoveredServices);
-
-        Applications cachedServices = new Applications("1", 1L, cachedState.getApplications());
-        when(cachedServicesService.getAllCachedServices()).thenReturn(cachedServices);
+        mockRegistry(new Application("service5", Collections.singletonList(newInstanceOfService5)));
 
         when(cachedProductFamilyService.saveContainerFromInstance("api-five", newInstanceOfService5))
             .thenReturn(new APIContainer());
@@ -102,72 +120,41 @@ public class InstanceRefreshServiceTest {
 
         verify(cachedProductFamilyService, times(1))
             .saveContainerFromInstance("api-five", newInstanceOfService5);
+        verify(cachedApiDocService, times(1)).invalidate("SERVICE5");
+        verify(apiDocWarmUpService, times(1)).warmUp("SERVICE5");
+        // the first publication is on start
+        verify(containerStatusStreamService, times(2)).publishChanges();
+        verify(catalogVersion, times(2)).changed();
     }
 
     @Test
     public void testServiceRemovedFromDiscoveryThatIsInCache() {
-        ContainerServiceState cachedState = containerServiceMockUtil.createContainersServicesAndInstances();
-        containerServiceMockUtil.mockServiceRetrievalFromCache(cachedServicesService, cachedState.getApplications());
-
-        // retrieve service 3 and update its instance status so it will be removed
-        Application service3 = cachedState.getApplications()
-            .stream()
-            .filter(application -> application.getName().equalsIgnoreCase("service3"))
-            .collect(Collectors.toList()).get(0);
-
-        ContainerServiceState discoveredState = new ContainerServiceState();
-        discoveredState.setServices(new ArrayList<>());
-        discoveredState.setContainers(new ArrayList<>());
-        discoveredState.setInstances(new ArrayList<>());
-        discoveredState.setApplications(new ArrayList<>());
-
-        InstanceInfo shutDownInstanceOfService3 = service3.getInstances().get(0);
-        shutDownInstanceOfService3.getMetadata().put(CATALOG_ID, "api-three");
-        shutDownInstanceOfService3.setActionType(InstanceInfo.ActionType.DELETED);
-        service3.getInstances().add(0, shutDownInstanceOfService3);
-        discoveredState.getApplications().add(service3);
-
-        // Mock the discovery and cached service query
-        Applications discoveredServices = new Applications("123", 2L, discoveredState.getApplications());
-        when(instanceRetrievalService.getAllInstancesFromDiscovery(true)).thenReturn(discoveredServices);
-        Applications cachedServices = new Applications("456", 1L, cachedState.getApplications());
-        when(cachedServicesService.getAllCachedServices()).thenReturn(cachedServices);
+        InstanceInfo instanceOfService3 = getService3Instance();
+        instanceOfService3.getMetadata().put(CATALOG_ID, "api-three");
+        mockRegistry(new Application("service3", Collections.singletonList(instanceOfService3)));
+        instanceRefreshService.start(eurekaClient.getApplications());
 
+        // service 3 was removed from the registry
+        mockRegistry();
 
         instanceRefreshService.refreshCacheFromDiscovery();
 
         verify(cachedServicesService, times(1)).updateService(anyString(), any(Application.class));
-        verify(cachedProductFamilyService, never()).saveContainerFromInstance("api-three", shutDownInstanceOfService3);
+        verify(cachedProductFamilyService, never()).saveContainerFromInstance(anyString(), any(InstanceInfo.class));
+        verify(apiDocWarmUpService, never()).warmUp(anyString());
     }
 
     @Test
     public void testServiceModifiedFromDiscoveryThatIsInCache() {
-        ContainerServiceState cachedState = containerServiceMockUtil.createContainersServicesAndInstances();
-        containerServiceMockUtil.mockServiceRetrievalFromCache(cachedServicesService, cachedState.getApplications());
+        InstanceInfo instanceOfService3 = getService3Instance();
+        mockRegistry(new Application("service3", Collections.singletonList(instanceOfService3)));
+        instanceRefreshService.start(eurekaClient.getApplications());
 
-        // retrieve service 3 and update its instance status so it will be updated
-        Application service3 = cachedState.getApplications()
-            .stream()
-            .filter(application -> application.getName().equalsIgnoreCase("service3"))
-            .collect(Collectors.toList()).get(0);
-
-        ContainerServiceState discoveredState = new ContainerServiceState();
-        discoveredState.setServices(new ArrayList<>());
-        discoveredState.setContainers(new ArrayList<>());
-        discoveredState.setInstances(new ArrayList<>());
-        discoveredState.setApplications(new ArrayList<>());
-
-        InstanceInfo modifiedInstanceOfService3 = service3.getInstances().get(0);
-        modifiedInstanceOfService3.getMetadata().put(CATALOG_ID, "api-three");
-        modifiedInstanceOfService3.setActionType(InstanceInfo.ActionType.MODIFIED);
-        service3.getInstances().add(0, modifiedInstanceOfService3);
-        discoveredState.getApplications().add(service3);
-
-        // Mock the discovery and cached service query
-        Applications discoveredServices = new Applications("12323", 2L, discoveredState.getApplications());
-        when(instanceRetrievalService.getAllInstancesFromDiscovery(true)).thenReturn(discoveredServices);
-        Applications cachedServices = new Applications("4512312316", 1L, cachedState.getApplications());
-        when(cachedServicesService.getAllCachedServices()).thenReturn(cachedServices);
+        HashMap<String, String> metadata = new HashMap<>(instanceOfService3.getMetadata());
+        metadata.put(CATALOG_ID, "api-three");
+        InstanceInfo modifiedInstanceOfService3 = containerServiceMockUtil.createInstance("service3",
+            instanceOfService3.getId(), InstanceInfo.InstanceStatus.UP, InstanceInfo.ActionType.MODIFIED, metadata);
+        mockRegistry(new Application("service3", Collections.singletonList(modifiedInstanceOfService3)));
 
         APIContainer apiContainer3 = cachedState.getContainers()
             .stream()
@@ -180,13 +167,58 @@ public class InstanceRefreshServiceTest {
 
         instanceRefreshService.refreshCacheFromDiscovery();
 
-        verify(cachedServicesService, times(1)).updateService(modifiedInstanceOfService3.getAppName(), service3);
+        verify(cachedServicesService, times(1)).updateService(eq(modifiedInstanceOfService3.getAppName()), any(Application.class));
         verify(cachedProductFamilyService, times(1))
             .saveContainerFromInstance("api-three", modifiedInstanceOfService3);
     }
 
+    @Test
+    public void givenUnchangedRegistry_whenRefresh_thenNothingIsUpdated() {
+        InstanceInfo instanceOfService3 = getService3Instance();
+        mockRegistry(new Application("service3", Collections.singletonList(instanceOfService3)));
+        instanceRefreshService.start(eurekaClient.getApplications());
+
+        instanceRefreshService.refreshCacheFromDiscovery();
+
+        verify(cachedServicesService, never()).updateService(anyString(), any(Application.class));
+        verify(cachedProductFamilyService, never()).saveContainerFromInstance(anyString(), any(InstanceInfo.class));
+        verify(containerStatusStreamService, times(1)).publishChanges();
+    }
+
+    @Test
+    public void givenRegistryDifferentFromInitialState_whenStart_thenDifferencesAreApplied() {
+        InstanceInfo instanceOfService3 = getService3Instance();
+        HashMap<String, String> metadata = new HashMap<>(instanceOfService3.getMetadata());
+        metadata.put(CATALOG_ID, "api-three");
+        InstanceInfo modifiedInstanceOfService3 = containerServiceMockUtil.createInstance("service3",
+            instanceOfService3.getId(), InstanceInfo.InstanceStatus.UP, InstanceInfo.ActionType.MODIFIED, metadata);
+        mockRegistry(new Application("service3", Collections.singletonList(modifiedInstanceOfService3)));
+        when(cachedProductFamilyService.saveContainerFromInstance("api-three", modifiedInstanceOfService3))
+            .thenReturn(new APIContainer());
+
+        // the cache was initialized by the older state of the instance
+        instanceRefreshService.start(new Applications("1", 1L,
+            Collections.singletonList(new Application("service3", Collections.singletonList(instanceOfService3)))));
+
+        verify(cachedProductFamilyService, times(1))
+            .saveContainerFromInstance("api-three", modifiedInstanceOfService3);
+    }
+
+    @Test
+    public void givenNotStartedService_whenRegistryIsRefreshed_thenNothingIsProcessed() {
+        mockRegistry(new Application("service3", Collections.singletonList(getService3Instance())));
+
+        instanceRefreshService.onEvent(new CacheRefreshedEvent());
+        instanceRefreshService.refreshCacheFromDiscovery();
+
+        verify(eurekaClient, never()).getApplications();
+        verify(cachedServicesService, never()).updateService(anyString(), any(Application.class));
+    }
+
     @Test
     public void testRefreshCacheFromDiscovery_whenGatewayClientIsNotInitialized() {
+        mockRegistry();
+        instanceRefreshService.start(eurekaClient.getApplications());
         when(gatewayClient.isInitialized()).thenReturn(false);
 
         instanceRefreshService.refreshCacheFromDiscovery();
@@ -197,6 +229,8 @@ public class InstanceRefreshServiceTest {
 
     @Test
     public void testRefreshCacheFromDiscovery_whenApiCatalogIsNotInCache() {
+        mockRegistry();
+        instanceRefreshService.start(eurekaClient.getApplications());
         when(cachedServicesService.getService(CoreService.API_CATALOG.getServiceId())).thenReturn(null);
 
         instanceRefreshService.refreshCacheFromDiscovery();
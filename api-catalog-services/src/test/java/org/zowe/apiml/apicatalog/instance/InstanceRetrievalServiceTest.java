@@ -27,9 +27,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.*;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.zowe.apiml.apicatalog.discovery.DiscoveryConfigProperties;
 import org.zowe.apiml.apicatalog.util.ApplicationsWrapper;
@@ -37,10 +40,13 @@ import org.zowe.apiml.product.constants.CoreService;
 import org.zowe.apiml.product.instance.InstanceInitializationException;
 import org.zowe.apiml.product.registry.ApplicationWrapper;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @RunWith(SpringRunner.class)
@@ -161,13 +167,7 @@ public class InstanceRetrievalServiceTest {
 
     @Test
     public void testGetAllInstancesFromDiscovery_whenResponseCodeIsNotSuccess() {
-        when(
-            restTemplate.exchange(
-                discoveryServiceAllAppsUrl,
-                HttpMethod.GET,
-                getHttpEntity(),
-                String.class
-            )).thenReturn(new ResponseEntity<>(null, HttpStatus.FORBIDDEN));
+        mockRetrieveApplications(discoveryServiceAllAppsUrl, null, HttpStatus.FORBIDDEN);
 
 
         Applications actualApplications = instanceRetrievalService.getAllInstancesFromDiscovery(false);
@@ -176,9 +176,10 @@ public class InstanceRetrievalServiceTest {
 
     @Test
     public void testGetAllInstancesFromDiscovery_whenResponseCodeIsSuccessWithUnParsedJsonText() {
-        mockRetrieveApplicationService(
+        mockRetrieveApplications(
             discoveryServiceAllAppsUrl,
-            "UNPARSED_JSON"
+            "UNPARSED_JSON",
+            HttpStatus.OK
         );
 
 
@@ -196,7 +197,7 @@ public class InstanceRetrievalServiceTest {
 
         ObjectMapper mapper = new ObjectMapper();
         String bodyAll = mapper.writeValueAsString(new ApplicationsWrapper(expectedApplications));
-        mockRetrieveApplicationService(discoveryServiceAllAppsUrl, bodyAll);
+        mockRetrieveApplications(discoveryServiceAllAppsUrl, bodyAll, HttpStatus.OK);
 
         Applications actualApplications = instanceRetrievalService.getAllInstancesFromDiscovery(false);
 
@@ -224,7 +225,7 @@ public class InstanceRetrievalServiceTest {
 
         ObjectMapper mapper = new ObjectMapper();
         String bodyAll = mapper.writeValueAsString(new ApplicationsWrapper(expectedApplications));
-        mockRetrieveApplicationService(discoveryServiceAppsUrl, bodyAll);
+        mockRetrieveApplications(discoveryServiceAppsUrl, bodyAll, HttpStatus.OK);
 
         Applications actualApplications = instanceRetrievalService.getAllInstancesFromDiscovery(true);
 
@@ -303,6 +304,21 @@ public class InstanceRetrievalServiceTest {
             )).thenReturn(new ResponseEntity<>(body, HttpStatus.OK));
     }
 
+    @SuppressWarnings("unchecked")
+    private void mockRetrieveApplications(String url, String body, HttpStatus status) {
+        when(
+            restTemplate.execute(
+                eq(url),
+                eq(HttpMethod.GET),
+                any(RequestCallback.class),
+                any(ResponseExtractor.class)
+            )).thenAnswer(invocation -> {
+                ResponseExtractor<Applications> extractor = invocation.getArgument(3);
+                byte[] content = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+                return extractor.extractData(new MockClientHttpResponse(content, status));
+            });
+    }
+
     @Configuration
     public static class TestConfig {
 
@@ -0,0 +1,102 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.services.cached;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.zowe.apiml.apicatalog.cache.CatalogVersion;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ApiDocWarmUpServiceTest {
+
+    @Mock
+    private CachedApiDocService cachedApiDocService;
+
+    private ApiDocWarmUpService apiDocWarmUpService;
+
+    @After
+    public void tearDown() {
+        if (apiDocWarmUpService != null) apiDocWarmUpService.preDestroy();
+    }
+
+    @Test
+    public void givenServices_whenWarmUp_thenApiDocsAreLoaded() {
+        apiDocWarmUpService = new ApiDocWarmUpService(cachedApiDocService, new CatalogVersion(), true, 2, 10000);
+
+        apiDocWarmUpService.warmUp(Arrays.asList("SERVICE1", "service2"));
+
+        verify(cachedApiDocService, timeout(5000)).getApiDocForService("service1", ApiDocWarmUpService.API_VERSION);
+        verify(cachedApiDocService, timeout(5000)).getApiDocForService("service2", ApiDocWarmUpService.API_VERSION);
+    }
+
+    @Test
+    public void givenDisabledWarmUp_whenWarmUp_thenNothingIsLoaded() {
+        apiDocWarmUpService = new ApiDocWarmUpService(cachedApiDocService, new CatalogVersion(), false, 2, 10000);
+
+        apiDocWarmUpService.warmUp("service1");
+
+        assertFalse(apiDocWarmUpService.isPending("service1"));
+        verifyZeroInteractions(cachedApiDocService);
+    }
+
+    @Test
+    public void givenSlowService_whenDeadlineIsExceeded_thenLoadingIsInterruptedAndNextServiceIsLoaded() throws InterruptedException {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        when(cachedApiDocService.getApiDocForService("slow", ApiDocWarmUpService.API_VERSION)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(60000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        apiDocWarmUpService = new ApiDocWarmUpService(cachedApiDocService, new CatalogVersion(), true, 1, 100);
+
+        apiDocWarmUpService.warmUp(Arrays.asList("slow", "fast"));
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        verify(cachedApiDocService, timeout(5000)).getApiDocForService("fast", ApiDocWarmUpService.API_VERSION);
+    }
+
+    @Test
+    public void givenUninterruptibleFetch_whenDeadlineIsExceeded_thenNextServiceIsLoaded() {
+        final CountDownLatch release = new CountDownLatch(1);
+        when(cachedApiDocService.getApiDocForService("blocked", ApiDocWarmUpService.API_VERSION)).thenAnswer(invocation -> {
+            // as a blocking read of a socket, the fetch ignores the interruption
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // ignored
+                }
+            }
+            return "apiDoc";
+        });
+        apiDocWarmUpService = new ApiDocWarmUpService(cachedApiDocService, new CatalogVersion(), true, 1, 100);
+
+        apiDocWarmUpService.warmUp(Arrays.asList("blocked", "fast"));
+
+        // the only warm-up thread is released on the deadline, even if the fetch is still running
+        verify(cachedApiDocService, timeout(5000)).getApiDocForService("fast", ApiDocWarmUpService.API_VERSION);
+        release.countDown();
+    }
+
+}
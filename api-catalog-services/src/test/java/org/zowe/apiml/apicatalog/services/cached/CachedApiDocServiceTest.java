@@ -9,6 +9,8 @@
  */
 package org.zowe.apiml.apicatalog.services.cached;
 
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
 import org.zowe.apiml.apicatalog.services.cached.model.ApiDocInfo;
 import org.zowe.apiml.apicatalog.services.status.APIDocRetrievalService;
 import org.zowe.apiml.apicatalog.swagger.TransformApiDocService;
@@ -19,7 +21,10 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import static org.mockito.Mockito.when;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.Silent.class)
 public class CachedApiDocServiceTest {
@@ -31,9 +36,15 @@ public class CachedApiDocServiceTest {
     @Mock
     TransformApiDocService transformApiDocService;
 
+    @Mock
+    CachedServicesService cachedServicesService;
+
+    private AtomicLong time;
+
     @Before
     public void setUp() {
-        cachedApiDocService = new CachedApiDocService(apiDocRetrievalService, transformApiDocService);
+        time = new AtomicLong(1000);
+        cachedApiDocService = new CachedApiDocService(apiDocRetrievalService, transformApiDocService, cachedServicesService, 60000, time::get);
         cachedApiDocService.resetCache();
     }
 
@@ -45,7 +56,7 @@ public class CachedApiDocServiceTest {
 
         ApiDocInfo apiDocInfo = new ApiDocInfo(null, expectedApiDoc, null);
 
-        when(apiDocRetrievalService.retrieveApiDoc(serviceId, version))
+        when(apiDocRetrievalService.retrieveApiDoc(serviceId, version, null))
             .thenReturn(apiDocInfo);
         when(transformApiDocService.transformApiDoc(serviceId, apiDocInfo))
             .thenReturn(expectedApiDoc);
@@ -66,7 +77,7 @@ public class CachedApiDocServiceTest {
 
         ApiDocInfo apiDocInfo = new ApiDocInfo(null, expectedApiDoc, null);
 
-        when(apiDocRetrievalService.retrieveApiDoc(serviceId, version))
+        when(apiDocRetrievalService.retrieveApiDoc(serviceId, version, null))
             .thenReturn(apiDocInfo);
         when(transformApiDocService.transformApiDoc(serviceId, apiDocInfo))
             .thenReturn(expectedApiDoc);
@@ -80,7 +91,7 @@ public class CachedApiDocServiceTest {
 
         apiDocInfo = new ApiDocInfo(null, updatedApiDoc, null);
 
-        when(apiDocRetrievalService.retrieveApiDoc(serviceId, version))
+        when(apiDocRetrievalService.retrieveApiDoc(serviceId, version, null))
             .thenReturn(apiDocInfo);
         when(transformApiDocService.transformApiDoc(serviceId, apiDocInfo))
             .thenReturn(updatedApiDoc);
@@ -99,7 +110,7 @@ public class CachedApiDocServiceTest {
 
         ApiDocInfo apiDocInfo = new ApiDocInfo(null, null, null);
 
-        when(apiDocRetrievalService.retrieveApiDoc(serviceId, version))
+        when(apiDocRetrievalService.retrieveApiDoc(serviceId, version, null))
             .thenReturn(apiDocInfo);
         when(transformApiDocService.transformApiDoc(serviceId, apiDocInfo))
             .thenReturn(expectedApiDoc);
@@ -108,4 +119,67 @@ public class CachedApiDocServiceTest {
 
         Assert.assertNull(apiDoc);
     }
+
+    @Test
+    public void givenCachedApiDoc_whenTimeToLiveIsNotExpired_thenItIsNotRetrievedAgain() {
+        ApiDocInfo apiDocInfo = new ApiDocInfo(null, "api doc", null);
+        when(apiDocRetrievalService.retrieveApiDoc("Service", "v1", null)).thenReturn(apiDocInfo);
+        when(transformApiDocService.transformApiDoc("Service", apiDocInfo)).thenReturn("transformed");
+
+        Assert.assertEquals("transformed", cachedApiDocService.getApiDocForService("Service", "v1"));
+        time.addAndGet(60000);
+        Assert.assertEquals("transformed", cachedApiDocService.getApiDocForService("Service", "v1"));
+
+        verify(apiDocRetrievalService, times(1)).retrieveApiDoc(anyString(), anyString(), any());
+        verify(transformApiDocService, times(1)).transformApiDoc(anyString(), any());
+    }
+
+    @Test
+    public void givenExpiredApiDoc_whenNotModified_thenItIsNotTransformedAgain() {
+        ApiDocInfo apiDocInfo = new ApiDocInfo(null, "api doc", null, "\"1\"", null);
+        when(apiDocRetrievalService.retrieveApiDoc("Service", "v1", null)).thenReturn(apiDocInfo);
+        when(apiDocRetrievalService.retrieveApiDoc("Service", "v1", apiDocInfo)).thenReturn(apiDocInfo);
+        when(transformApiDocService.transformApiDoc("Service", apiDocInfo)).thenReturn("transformed");
+
+        Assert.assertEquals("transformed", cachedApiDocService.getApiDocForService("Service", "v1"));
+        time.addAndGet(60001);
+        Assert.assertEquals("transformed", cachedApiDocService.getApiDocForService("Service", "v1"));
+
+        verify(apiDocRetrievalService, times(1)).retrieveApiDoc("Service", "v1", apiDocInfo);
+        verify(transformApiDocService, times(1)).transformApiDoc(anyString(), any());
+    }
+
+    @Test
+    public void givenCachedApiDoc_whenServiceIsChanged_thenItIsRetrievedAgain() {
+        Application application = new Application("SERVICE");
+        application.addInstance(InstanceInfo.Builder.newBuilder().setAppName("SERVICE").setInstanceId("host:service:1")
+            .setMetadata(Collections.singletonMap("key", "value1")).build());
+        when(cachedServicesService.getService("Service")).thenReturn(application);
+
+        ApiDocInfo apiDocInfo1 = new ApiDocInfo(null, "api doc 1", null);
+        ApiDocInfo apiDocInfo2 = new ApiDocInfo(null, "api doc 2", null);
+        when(apiDocRetrievalService.retrieveApiDoc("Service", "v1", null)).thenReturn(apiDocInfo1, apiDocInfo2);
+        when(transformApiDocService.transformApiDoc("Service", apiDocInfo1)).thenReturn("transformed 1");
+        when(transformApiDocService.transformApiDoc("Service", apiDocInfo2)).thenReturn("transformed 2");
+
+        Assert.assertEquals("transformed 1", cachedApiDocService.getApiDocForService("Service", "v1"));
+
+        application.addInstance(InstanceInfo.Builder.newBuilder().setAppName("SERVICE").setInstanceId("host:service:1")
+            .setMetadata(Collections.singletonMap("key", "value2")).build());
+        Assert.assertEquals("transformed 2", cachedApiDocService.getApiDocForService("Service", "v1"));
+    }
+
+    @Test
+    public void givenInvalidatedApiDoc_whenRetrievalFails_thenLastKnownIsReturned() {
+        ApiDocInfo apiDocInfo = new ApiDocInfo(null, "api doc", null);
+        when(apiDocRetrievalService.retrieveApiDoc("Service", "v1", null)).thenReturn(apiDocInfo);
+        when(apiDocRetrievalService.retrieveApiDoc("Service", "v1", apiDocInfo)).thenThrow(new RuntimeException("down"));
+        when(transformApiDocService.transformApiDoc("Service", apiDocInfo)).thenReturn("transformed");
+
+        Assert.assertEquals("transformed", cachedApiDocService.getApiDocForService("Service", "v1"));
+        cachedApiDocService.invalidate("SERVICE");
+        Assert.assertEquals("transformed", cachedApiDocService.getApiDocForService("Service", "v1"));
+
+        verify(apiDocRetrievalService, times(1)).retrieveApiDoc("Service", "v1", apiDocInfo);
+    }
 }
@@ -160,7 +160,7 @@ public class CachedProductFamilyTest {
                 "Description 2",
                 "2.0.0",
                 InstanceInfo.InstanceStatus.UP));
-        Calendar retrievedTimestamp = updatedContainer.getLastUpdatedTimestamp();
+        Calendar retrievedTimestamp = service.getContainerById("demoapp").getLastUpdatedTimestamp();
 
         equals = updatedTimestamp.equals(retrievedTimestamp);
         assertFalse(equals);
@@ -178,7 +178,24 @@ public class CachedProductFamilyTest {
         service.updateContainerFromInstance(serviceId, createApp(serviceId, catalogId,
             "1.0.1", newTitle));
 
-        Assert.assertEquals(container.getTitle(), newTitle);
+        Assert.assertEquals(service.getContainerById(serviceId).getTitle(), newTitle);
+        // published containers are not modified
+        Assert.assertNotEquals(container.getTitle(), newTitle);
+    }
+
+    @Test
+    public void givenContainers_whenServiceIsAdded_thenIndexesAreUpdated() {
+        service.createContainerFromInstance("demoapp", createApp("service1", "demoapp"));
+        service.createContainerFromInstance("demoapp2", createApp("service2", "demoapp2"));
+        assertEquals(0, service.getContainersForService("service3").size());
+
+        service.addServiceToContainer("demoapp2", createApp("service3", "demoapp2"));
+
+        List<APIContainer> containers = service.getContainersForService("SERVICE3");
+        assertEquals(1, containers.size());
+        assertEquals("demoapp2", containers.get(0).getId());
+        assertEquals("service3", service.getContainerService("demoapp2", createApp("service3", "demoapp2")).getServiceId());
+        Assert.assertNull(service.getContainerService("demoapp", createApp("service3", "demoapp")));
     }
 
     @Test
@@ -204,7 +221,7 @@ public class CachedProductFamilyTest {
         assertEquals(1, service.getContainerCount());
 
         APIContainer container = containersForService.get(0);
-        service.calculateContainerServiceTotals(container);
+        container = service.calculateContainerServiceTotals(container);
         assertEquals("UP", container.getStatus());
         assertEquals(1, container.getTotalServices().intValue());
         assertEquals(1, container.getActiveServices().intValue());
@@ -234,7 +251,7 @@ public class CachedProductFamilyTest {
         APIContainer container = service.retrieveContainer("demoapp");
         Assert.assertNotNull(container);
 
-        service.calculateContainerServiceTotals(container);
+        container = service.calculateContainerServiceTotals(container);
         assertEquals("DOWN", container.getStatus());
         assertEquals(2, container.getTotalServices().intValue());
         assertEquals(0, container.getActiveServices().intValue());
@@ -264,12 +281,53 @@ public class CachedProductFamilyTest {
         APIContainer container = service.retrieveContainer("demoapp");
         Assert.assertNotNull(container);
 
-        service.calculateContainerServiceTotals(container);
+        container = service.calculateContainerServiceTotals(container);
         assertEquals("WARNING", container.getStatus());
         assertEquals(2, container.getTotalServices().intValue());
         assertEquals(1, container.getActiveServices().intValue());
     }
 
+    @Test
+    public void givenPublishedContainer_whenCalculateTotals_thenPublishedContainerIsNotModified() {
+        CachedServicesService cachedServicesService = Mockito.mock(CachedServicesService.class);
+
+        InstanceInfo instance = createApp("service1", "demoapp", InstanceInfo.InstanceStatus.DOWN);
+        Application application = new Application();
+        application.addInstance(instance);
+
+        when(cachedServicesService.getService("service1")).thenReturn(application);
+        service = new CachedProductFamilyService(
+            cachedServicesService,
+            null,
+            cacheRefreshUpdateThresholdInMillis);
+
+        service.getContainer("demoapp", instance);
+        APIContainer published = service.retrieveContainer("demoapp");
+
+        APIContainer calculated = service.calculateContainerServiceTotals(published);
+        calculated.getServices().forEach(apiService -> apiService.setApiDoc("apiDoc"));
+
+        assertEquals("DOWN", calculated.getStatus());
+        assertEquals("DOWN", calculated.getServices().iterator().next().getStatus());
+        assertEquals("UP", published.getStatus());
+        assertEquals("UP", published.getServices().iterator().next().getStatus());
+        Assert.assertNull(published.getServices().iterator().next().getApiDoc());
+    }
+
+    @Test
+    public void givenContainerIsUpdated_whenGetContainersForService_thenIndexContainsOnlyTheLastVersion() {
+        InstanceInfo instance1 = createApp("service1", "demoapp");
+        InstanceInfo instance2 = createApp("service2", "demoapp");
+
+        service.getContainer("demoapp", instance1);
+        service.addServiceToContainer("demoapp", instance2);
+
+        APIContainer container = service.retrieveContainer("demoapp");
+        Assert.assertSame(container, service.getContainersForService("service2").get(0));
+        Assert.assertSame(container, service.getContainersForService("service1").get(0));
+        Assert.assertNotNull(service.getContainerService("demoapp", instance2));
+    }
+
     @Test
     public void givenInstanceIsNotInTheCache_whenCallSaveContainerFromInstance_thenCreateNew() {
         HashMap<String, String> metadata = new HashMap<>();
@@ -332,10 +390,10 @@ public class CachedProductFamilyTest {
         List<APIContainer> lsContainer = service.getRecentlyUpdatedContainers();
         assertEquals(1, lsContainer.size());
 
-        assertEquals(metadata.get(CATALOG_ID), actualDemoAppContainer.getId());
-        assertEquals(metadata.get(CATALOG_TITLE), actualDemoAppContainer.getTitle());
-        assertEquals(metadata.get(CATALOG_DESCRIPTION), actualDemoAppContainer.getDescription());
-        assertEquals(metadata.get(CATALOG_VERSION), actualDemoAppContainer.getVersion());
+        assertEquals(metadata.get(CATALOG_ID), updatedContainer.getId());
+        assertEquals(metadata.get(CATALOG_TITLE), updatedContainer.getTitle());
+        assertEquals(metadata.get(CATALOG_DESCRIPTION), updatedContainer.getDescription());
+        assertEquals(metadata.get(CATALOG_VERSION), updatedContainer.getVersion());
 
         Set<APIService> apiServices = updatedContainer.getServices();
         assertEquals(1, apiServices.size());
@@ -348,6 +406,47 @@ public class CachedProductFamilyTest {
         assertEquals(instance.getHomePageUrl(), actualService.getHomePageUrl());
     }
 
+    @Test
+    public void givenRestoredContainers_whenConfirmedByInstance_thenOnlyUnconfirmedAreRemoved() {
+        service.getContainer("demoapp", createApp("service1", "demoapp"));
+        service.restoreContainers(Arrays.asList(
+            new APIContainer("demoapp", "Restored", "Description", new HashSet<>()),
+            new APIContainer("restored1", "Restored", "Description", new HashSet<>()),
+            new APIContainer("restored2", "Restored", "Description", new HashSet<>())
+        ));
+
+        assertEquals(3, service.getContainerCount());
+        assertFalse(service.getContainerById("demoapp").isStale());
+        Assert.assertTrue(service.getContainerById("restored1").isStale());
+
+        service.createContainerFromInstance("restored1", createApp("service2", "restored1"));
+        assertFalse(service.getContainerById("restored1").isStale());
+
+        assertEquals(1, service.removeStaleContainers());
+        assertEquals(2, service.getContainerCount());
+        Assert.assertNull(service.getContainerById("restored2"));
+    }
+
+    @Test
+    public void givenRestoredContainer_whenConfirmedByInstance_thenServicesAreRebuiltFromInstances() {
+        Set<APIService> restoredServices = new HashSet<>(Arrays.asList(
+            new APIService("service1", "Restored", "Description", true, "https://restored"),
+            new APIService("vanished", "Restored", "Description", true, "https://vanished")
+        ));
+        service.restoreContainers(Collections.singletonList(
+            new APIContainer("restored1", "Restored", "Description", restoredServices)
+        ));
+
+        service.createContainerFromInstance("restored1", createApp("service1", "restored1"));
+
+        APIContainer container = service.getContainerById("restored1");
+        assertEquals(1, container.getServices().size());
+        APIService confirmed = container.getServices().iterator().next();
+        assertEquals("service1", confirmed.getServiceId());
+        Assert.assertNotEquals("https://restored", confirmed.getHomePageUrl());
+        Assert.assertTrue(service.getContainersForService("vanished").isEmpty());
+    }
+
     private InstanceInfo getStandardInstance(String serviceId,
                                              InstanceInfo.InstanceStatus status,
                                              HashMap<String, String> metadata) {
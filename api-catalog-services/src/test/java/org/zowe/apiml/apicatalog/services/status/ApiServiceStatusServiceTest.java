@@ -32,7 +32,6 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.Silent.class)
@@ -68,7 +67,7 @@ public class ApiServiceStatusServiceTest {
     public void testGetContainerStatusAsEvents() {
         List<APIContainer> containers = new ArrayList<>(createContainers());
         when(cachedProductFamilyService.getAllContainers()).thenReturn(containers);
-        doNothing().when(this.cachedProductFamilyService).calculateContainerServiceTotals(any(APIContainer.class));
+        when(cachedProductFamilyService.calculateContainerServiceTotals(any(APIContainer.class))).thenAnswer(i -> i.getArgument(0));
 
         List<ContainerStatusChangeEvent> expectedEvents = new ArrayList<>();
         containers.forEach(container -> {
@@ -108,7 +107,7 @@ public class ApiServiceStatusServiceTest {
     public void testGetRecentlyChangedEvents() {
         List<APIContainer> containers = createContainers();
         when(cachedProductFamilyService.getRecentlyUpdatedContainers()).thenReturn(containers);
-        doNothing().when(this.cachedProductFamilyService).calculateContainerServiceTotals(any(APIContainer.class));
+        when(cachedProductFamilyService.calculateContainerServiceTotals(any(APIContainer.class))).thenAnswer(i -> i.getArgument(0));
         List<ContainerStatusChangeEvent> events = apiServiceStatusService.getRecentlyUpdatedContainersAsEvents();
         assertNotNull(events);
         assertEquals(2, events.size());
@@ -0,0 +1,129 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.services.status;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.zowe.apiml.apicatalog.model.APIContainer;
+import org.zowe.apiml.apicatalog.model.APIService;
+import org.zowe.apiml.apicatalog.services.cached.CachedProductFamilyService;
+import org.zowe.apiml.apicatalog.services.status.event.model.ContainerStatusDelta;
+import org.zowe.apiml.apicatalog.services.status.event.model.STATUS_EVENT_TYPE;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ContainerStatusStreamServiceTest {
+
+    @Mock
+    private CachedProductFamilyService cachedProductFamilyService;
+
+    private ContainerStatusStreamService underTest;
+
+    private APIService service1;
+    private APIContainer container1;
+    private APIContainer container2;
+
+    @Before
+    public void setUp() {
+        service1 = new APIService("service1");
+        container1 = createContainer("container1", service1);
+        container2 = createContainer("container2", new APIService("service2"));
+        when(cachedProductFamilyService.getAllContainers()).thenReturn(Arrays.asList(container1, container2));
+        when(cachedProductFamilyService.calculateContainerServiceTotals(any(APIContainer.class))).thenAnswer(i -> i.getArgument(0));
+
+        underTest = new ContainerStatusStreamService(cachedProductFamilyService, 2, 30000, 0);
+    }
+
+    @After
+    public void tearDown() {
+        underTest.preDestroy();
+    }
+
+    private APIContainer createContainer(String id, APIService...services) {
+        APIContainer container = new APIContainer(id, "Title of " + id, "Description", new HashSet<>(Arrays.asList(services)));
+        container.setStatus("UP");
+        container.setTotalServices(services.length);
+        container.setActiveServices(services.length);
+        return container;
+    }
+
+    @Test
+    public void givenNewContainers_whenPublishChanges_thenAllAreCreated() {
+        underTest.publishChanges();
+
+        assertEquals(2, underTest.getVersion());
+        List<ContainerStatusDelta> missed = underTest.getMissed(underTest.getEventId(0));
+        assertEquals(2, missed.size());
+        missed.forEach(delta -> assertEquals(STATUS_EVENT_TYPE.CREATED_CONTAINER, delta.getStatusEventType()));
+    }
+
+    @Test
+    public void givenUnchangedContainers_whenPublishChanges_thenNothingIsPublished() {
+        underTest.publishChanges();
+        underTest.publishChanges();
+
+        assertEquals(2, underTest.getVersion());
+    }
+
+    @Test
+    public void givenChangedService_whenPublishChanges_thenOnlyItsContainerIsPublished() {
+        underTest.publishChanges();
+
+        service1.setStatus("DOWN");
+        container1.setStatus("DOWN");
+        container1.setActiveServices(0);
+        underTest.publishChanges();
+
+        assertEquals(3, underTest.getVersion());
+        List<ContainerStatusDelta> missed = underTest.getMissed(underTest.getEventId(2));
+        assertEquals(1, missed.size());
+        ContainerStatusDelta delta = missed.get(0);
+        assertEquals("container1", delta.getContainerId());
+        assertEquals(STATUS_EVENT_TYPE.CANCEL, delta.getStatusEventType());
+        assertEquals(0, delta.getActiveServices());
+        assertEquals("DOWN", delta.getServices().get("service1"));
+
+        service1.setStatus("UP");
+        container1.setStatus("UP");
+        container1.setActiveServices(1);
+        underTest.publishChanges();
+
+        assertEquals(STATUS_EVENT_TYPE.RENEW, underTest.getMissed(underTest.getEventId(3)).get(0).getStatusEventType());
+    }
+
+    @Test
+    public void givenLastEventId_whenGetMissed_thenResetIfNotPossibleToContinue() {
+        underTest.publishChanges();
+        container1.setStatus("WARNING");
+        underTest.publishChanges();
+
+        // without last event, too old (history has size 2), other epoch or invalid
+        assertNull(underTest.getMissed(null));
+        assertNull(underTest.getMissed(underTest.getEventId(0)));
+        assertNull(underTest.getMissed("1:2"));
+        assertNull(underTest.getMissed("invalid"));
+
+        assertEquals(1, underTest.getMissed(underTest.getEventId(2)).size());
+        assertTrue(underTest.getMissed(underTest.getEventId(3)).isEmpty());
+        assertNull(underTest.getMissed(underTest.getEventId(4)));
+    }
+
+}
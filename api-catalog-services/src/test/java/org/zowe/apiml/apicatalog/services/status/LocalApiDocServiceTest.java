@@ -90,6 +90,28 @@ public class LocalApiDocServiceTest {
         assertEquals("[api -> api=RoutedService(subServiceId=api-v1, gatewayUrl=api, serviceUrl=/)]", actualResponse.getRoutes().toString());
     }
 
+    @Test
+    public void givenPreviousApiDoc_whenNotModified_thenPreviousIsReturned() {
+        when(instanceRetrievalService.getInstanceInfo(SERVICE_ID))
+            .thenReturn(getStandardInstance(getStandardMetadata(), true));
+
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setETag("\"v1\"");
+        when(restTemplate.exchange(SWAGGER_URL, HttpMethod.GET, getObjectHttpEntity(), String.class))
+            .thenReturn(new ResponseEntity<>("api-doc body", responseHeaders, HttpStatus.OK));
+
+        ApiDocInfo previous = apiDocRetrievalService.retrieveApiDoc(SERVICE_ID, SERVICE_VERSION);
+        assertEquals("\"v1\"", previous.getEntityTag());
+
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        conditionalHeaders.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON_UTF8));
+        conditionalHeaders.setIfNoneMatch("\"v1\"");
+        when(restTemplate.exchange(SWAGGER_URL, HttpMethod.GET, new HttpEntity<>(conditionalHeaders), String.class))
+            .thenReturn(new ResponseEntity<>(HttpStatus.NOT_MODIFIED));
+
+        assertSame(previous, apiDocRetrievalService.retrieveApiDoc(SERVICE_ID, SERVICE_VERSION, previous));
+    }
+
     @Test
     public void testFailedRetrievalOfAPIDocWhenServiceNotFound() {
         exceptionRule.expect(ApiDocNotFoundException.class);
@@ -25,6 +25,7 @@ import org.zowe.apiml.message.yaml.YamlMessageService;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -82,6 +83,23 @@ public class StaticAPIRefreshControllerTest {
             .andExpect(status().isOk());
     }
 
+    @Test
+    public void givenRefreshJob_whenSubmitRefresh_thenJobIsAccepted() throws Exception {
+        StaticAPIRefreshJob job = new StaticAPIRefreshJob();
+        when(staticAPIService.submit()).thenReturn(job);
+
+        mockMvc.perform(post(API_REFRESH_ENDPOINT + "/jobs"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.id").value(job.getId()))
+            .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    public void givenUnknownJob_whenGetRefreshJob_thenResponseCodeShouldBe404() throws Exception {
+        mockMvc.perform(get(API_REFRESH_ENDPOINT + "/jobs/unknown"))
+            .andExpect(status().isNotFound());
+    }
+
     @Configuration
     static class ContextConfiguration {
 
@@ -9,19 +9,26 @@
  */
 package org.zowe.apiml.apicatalog.staticapi;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.*;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.zowe.apiml.apicatalog.discovery.DiscoveryConfigProperties;
 
 import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class StaticAPIServiceTest {
@@ -36,6 +43,11 @@ class StaticAPIServiceTest {
     @Mock
     private DiscoveryConfigProperties discoveryConfigProperties;
 
+    @AfterEach
+    void tearDown() {
+        staticAPIService.preDestroy();
+    }
+
     @Test
     void givenRefreshAPIWithSecureDiscoveryService_whenRefreshEndpointPresentResponse_thenReturnApiResponseCodeWithBody() {
         String discoveryUrl = "https://localhost:60004/";
@@ -67,6 +79,82 @@ class StaticAPIServiceTest {
         assertEquals(expectedResponse, actualResponse);
     }
 
+    @Test
+    void givenRunningRefresh_whenSubmitSeveralTimes_thenTheyShareNextJob() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(discoveryConfigProperties.getLocations()).thenReturn("https://localhost:60004/eureka/");
+        when(restTemplate.exchange(eq("https://localhost:60004/" + REFRESH_ENDPOINT), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+            .thenAnswer(invocation -> {
+                running.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return new ResponseEntity<>("first", HttpStatus.OK);
+            })
+            .thenReturn(new ResponseEntity<>("next", HttpStatus.OK));
+
+        StaticAPIRefreshJob first = staticAPIService.submit();
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        StaticAPIRefreshJob second = staticAPIService.submit();
+        StaticAPIRefreshJob third = staticAPIService.submit();
+        assertSame(second, third);
+        assertEquals(StaticAPIRefreshJob.Status.RUNNING, first.getStatus());
+        assertEquals(StaticAPIRefreshJob.Status.PENDING, second.getStatus());
+
+        release.countDown();
+        assertEquals("first", first.getResult().join().getBody());
+        assertEquals("next", second.getResult().join().getBody());
+        assertEquals(StaticAPIRefreshJob.Status.FINISHED, second.getStatus());
+        assertSame(second, staticAPIService.getJob(second.getId()));
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
+    }
+
+    @Test
+    void givenFailingDiscoveryService_whenRefresh_thenExceptionIsThrownAndJobFailed() {
+        when(discoveryConfigProperties.getLocations()).thenReturn("https://localhost:60004/eureka/");
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+            .thenThrow(new RestClientException("failure"));
+
+        assertThrows(RestClientException.class, () -> staticAPIService.refresh());
+
+        StaticAPIRefreshJob job = staticAPIService.submit();
+        assertThrows(RestClientException.class, () -> staticAPIService.refresh());
+        assertEquals(StaticAPIRefreshJob.Status.FAILED, job.getStatus());
+        assertEquals("failure", job.getError());
+    }
+
+    @Test
+    void givenStoppedExecutor_whenSubmit_thenRejectedJobIsFailedAndRegistered() {
+        staticAPIService.preDestroy();
+
+        StaticAPIRefreshJob job = staticAPIService.submit();
+        assertEquals(StaticAPIRefreshJob.Status.FAILED, job.getStatus());
+        assertSame(job, staticAPIService.getJob(job.getId()));
+        verifyZeroInteractions(restTemplate);
+    }
+
+    @Test
+    void givenRemovedListener_whenJobChanged_thenListenerIsNotNotified() {
+        when(discoveryConfigProperties.getLocations()).thenReturn("https://localhost:60004/eureka/");
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+            .thenAnswer(invocation -> {
+                release.await(10, TimeUnit.SECONDS);
+                return new ResponseEntity<>("body", HttpStatus.OK);
+            });
+
+        StaticAPIRefreshJob job = staticAPIService.submit();
+        List<StaticAPIRefreshJob.Status> notified = new CopyOnWriteArrayList<>();
+        Consumer<StaticAPIRefreshJob> listener = changed -> notified.add(changed.getStatus());
+        job.addListener(listener);
+        job.removeListener(listener);
+        int notifiedBeforeRemoval = notified.size();
+
+        release.countDown();
+        job.getResult().join();
+        assertEquals(StaticAPIRefreshJob.Status.FINISHED, job.getStatus());
+        assertEquals(notifiedBeforeRemoval, notified.size());
+    }
+
     private HttpEntity<?> getHttpEntity(String discoveryServiceUrl) {
         boolean isHttp = discoveryServiceUrl.startsWith("http://");
         HttpHeaders httpHeaders = new HttpHeaders();
@@ -0,0 +1,130 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.apicatalog.swagger.api;
+
+import org.junit.Test;
+import org.zowe.apiml.apicatalog.services.cached.model.ApiDocInfo;
+import org.zowe.apiml.config.ApiInfo;
+import org.zowe.apiml.product.routing.RoutedService;
+import org.zowe.apiml.product.routing.RoutedServices;
+
+import static org.junit.Assert.*;
+
+public class PathRewritePlanTest {
+
+    private static final String SERVICE_ID = "service";
+
+    private ApiDocInfo getApiDocInfo(String gatewayUrl, RoutedService...routes) {
+        RoutedServices routedServices = new RoutedServices();
+        for (RoutedService route : routes) {
+            routedServices.addRoutedService(route);
+        }
+        ApiInfo apiInfo = gatewayUrl == null ? null : new ApiInfo("org.zowe.service", gatewayUrl, null, null, null);
+        return new ApiDocInfo(apiInfo, null, routedServices);
+    }
+
+    @Test
+    public void givenRouteOfApi_whenRewrite_thenRouteOfApiIsUsed() {
+        PathRewritePlan plan = PathRewritePlan.of(SERVICE_ID, getApiDocInfo("api/v2",
+            new RoutedService("api_v1", "api/v1", "/service/api"),
+            new RoutedService("api_v2", "api/v2", "/service")
+        ));
+
+        PathRewritePlan.Rewrite rewrite = plan.rewrite("/service/api/pets");
+
+        assertEquals("api/v2", rewrite.getRoute().getGatewayUrl());
+        assertEquals("/api/pets", rewrite.getShortPath());
+        assertEquals("/api/v2/service/api/pets", rewrite.getLongPath());
+    }
+
+    @Test
+    public void givenMoreRoutes_whenRewrite_thenTheLongestMatchingApiRouteIsUsed() {
+        PathRewritePlan plan = PathRewritePlan.of(SERVICE_ID, getApiDocInfo(null,
+            new RoutedService("api_v1", "api/v1", "/service"),
+            new RoutedService("api_v2", "api/v2", "/service/v2/"),
+            new RoutedService("ui_v1", "ui/v1", "/service/v2/ui")
+        ));
+
+        PathRewritePlan.Rewrite rewrite = plan.rewrite("/Service/v2/ui/pets");
+        assertEquals("api/v2", rewrite.getRoute().getGatewayUrl());
+        assertEquals("/Service/v2/ui/pets", rewrite.getShortPath());
+
+        rewrite = plan.rewrite("/service/v2/pets");
+        assertEquals("api/v2", rewrite.getRoute().getGatewayUrl());
+        assertEquals("pets", rewrite.getShortPath());
+        assertEquals("/api/v2/servicepets", rewrite.getLongPath());
+
+        rewrite = plan.rewrite("/service/pets");
+        assertEquals("api/v1", rewrite.getRoute().getGatewayUrl());
+        assertEquals("/pets", rewrite.getShortPath());
+        assertEquals("/api/v1/service/pets", rewrite.getLongPath());
+    }
+
+    @Test
+    public void givenNoMatchingRoute_whenRewrite_thenEndpointIsNotChanged() {
+        PathRewritePlan plan = PathRewritePlan.of(SERVICE_ID, getApiDocInfo("api/v1",
+            new RoutedService("api_v1", "api/v1", "/service")
+        ));
+
+        PathRewritePlan.Rewrite rewrite = plan.rewrite("/other/pets");
+
+        assertNull(rewrite.getRoute());
+        assertEquals("/other/pets", rewrite.getShortPath());
+        assertEquals("/other/pets", rewrite.getLongPath());
+    }
+
+    @Test
+    public void givenServiceUrlWithRegularExpression_whenRewrite_thenItIsReplacedAsBefore() {
+        PathRewritePlan plan = PathRewritePlan.of(SERVICE_ID, getApiDocInfo(null,
+            new RoutedService("api_v1", "api/v1", "/serv+ice")
+        ));
+
+        PathRewritePlan.Rewrite rewrite = plan.rewrite("/serv+ice/pets");
+
+        assertEquals("/serv+ice/pets".replaceFirst("/serv+ice", ""), rewrite.getShortPath());
+    }
+
+    @Test
+    public void givenRootServiceUrl_whenRewrite_thenEndpointIsOnlyPrefixed() {
+        PathRewritePlan plan = PathRewritePlan.of(SERVICE_ID, getApiDocInfo("api/v1",
+            new RoutedService("api_v1", "api/v1", "/")
+        ));
+
+        PathRewritePlan.Rewrite rewrite = plan.rewrite("/pets");
+
+        assertEquals("/pets", rewrite.getShortPath());
+        assertEquals("/api/v1/service/pets", rewrite.getLongPath());
+    }
+
+    @Test
+    public void givenSameRoutes_whenGetPlan_thenPlanIsReused() {
+        PathRewritePlan plan1 = PathRewritePlan.of("reused", getApiDocInfo("api/v1", new RoutedService("api_v1", "api/v1", "/a")));
+        PathRewritePlan plan2 = PathRewritePlan.of("reused", getApiDocInfo("api/v1", new RoutedService("api_v1", "api/v1", "/a")));
+        PathRewritePlan plan3 = PathRewritePlan.of("reused", getApiDocInfo("api/v1", new RoutedService("api_v1", "api/v1", "/b")));
+
+        assertSame(plan1, plan2);
+        assertNotSame(plan2, plan3);
+        assertEquals("/x", plan2.rewrite("/a/x").getShortPath());
+        assertEquals("/x", plan3.rewrite("/b/x").getShortPath());
+    }
+
+    @Test
+    public void givenServerPath_whenFindPreferredRoute_thenOnlyRouteOfApiIsFound() {
+        PathRewritePlan plan = PathRewritePlan.of(SERVICE_ID, getApiDocInfo("api/v1",
+            new RoutedService("api_v1", "api/v1", "/service/v1"),
+            new RoutedService("api_v2", "api/v2", "/service/v2")
+        ));
+
+        assertEquals("api/v1", plan.findPreferredRoute("/service/v1").getGatewayUrl());
+        assertNull(plan.findPreferredRoute("/service/v2"));
+        assertNull(plan.findPreferredRoute(null));
+    }
+
+}
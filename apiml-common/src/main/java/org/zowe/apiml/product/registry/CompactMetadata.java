@@ -0,0 +1,215 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.product.registry;
+
+import java.util.*;
+
+/**
+ * Compact implementation of metadata of an instance. Instead of the hash table it stores just a shared sorted array of
+ * keys (instances with the same keys share it) and an array of values. All strings are taken from the dictionary.
+ *
+ * The map is modifiable, but as well as HashMap it is not thread-safe for concurrent updates.
+ */
+public class CompactMetadata extends AbstractMap<String, String> {
+
+    private final MetadataDictionary dictionary;
+
+    private MetadataDictionary.Keys keys;
+    private String[] values;
+
+    private CompactMetadata(MetadataDictionary dictionary, MetadataDictionary.Keys keys, String[] values) {
+        this.dictionary = dictionary;
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Creates compact copy of metadata
+     *
+     * @param dictionary dictionary to share strings
+     * @param metadata original metadata, they cannot contain null key
+     * @return compact copy of metadata
+     */
+    public static CompactMetadata of(MetadataDictionary dictionary, Map<String, String> metadata) {
+        final String[] sortedKeys = new String[metadata.size()];
+        int index = 0;
+        for (String key : metadata.keySet()) {
+            sortedKeys[index++] = dictionary.intern(Objects.requireNonNull(key));
+        }
+        Arrays.sort(sortedKeys);
+
+        final String[] values = new String[sortedKeys.length];
+        for (int i = 0; i < sortedKeys.length; i++) {
+            values[i] = dictionary.intern(metadata.get(sortedKeys[i]));
+        }
+
+        return new CompactMetadata(dictionary, dictionary.keys(sortedKeys), values);
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return keys.indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        final int index = keys.indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public String put(String key, String value) {
+        final String internedValue = dictionary.intern(value);
+        final int index = keys.indexOf(Objects.requireNonNull(key));
+        if (index >= 0) {
+            final String previous = values[index];
+            values[index] = internedValue;
+            return previous;
+        }
+
+        // insert the new key on the right position to keep keys sorted
+        final int position = -index - 1;
+        final String[] oldKeys = keys.toArray();
+        final String[] newKeys = new String[oldKeys.length + 1];
+        final String[] newValues = new String[oldKeys.length + 1];
+        System.arraycopy(oldKeys, 0, newKeys, 0, position);
+        System.arraycopy(values, 0, newValues, 0, position);
+        newKeys[position] = dictionary.intern(key);
+        newValues[position] = internedValue;
+        System.arraycopy(oldKeys, position, newKeys, position + 1, oldKeys.length - position);
+        System.arraycopy(values, position, newValues, position + 1, oldKeys.length - position);
+
+        keys = dictionary.keys(newKeys);
+        values = newValues;
+        return null;
+    }
+
+    @Override
+    public String remove(Object key) {
+        final int index = keys.indexOf(key);
+        if (index < 0) return null;
+        final String previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    private void removeAt(int index) {
+        final String[] oldKeys = keys.toArray();
+        final String[] newKeys = new String[oldKeys.length - 1];
+        final String[] newValues = new String[oldKeys.length - 1];
+        System.arraycopy(oldKeys, 0, newKeys, 0, index);
+        System.arraycopy(values, 0, newValues, 0, index);
+        System.arraycopy(oldKeys, index + 1, newKeys, index, oldKeys.length - index - 1);
+        System.arraycopy(values, index + 1, newValues, index, oldKeys.length - index - 1);
+
+        keys = dictionary.keys(newKeys);
+        values = newValues;
+    }
+
+    @Override
+    public void clear() {
+        keys = dictionary.keys(new String[0]);
+        values = new String[0];
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactMetadata.this.size();
+            }
+
+        };
+    }
+
+    /**
+     * Lazy view of an entry, changing of value is written into the map
+     */
+    private class CompactEntry implements Entry<String, String> {
+
+        private final String key;
+
+        private CompactEntry(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String getValue() {
+            return get(key);
+        }
+
+        @Override
+        public String setValue(String value) {
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) return false;
+            final Entry<?, ?> entry = (Entry<?, ?>) o;
+            return Objects.equals(key, entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, String>> {
+
+        private int next;
+        private boolean removable;
+
+        @Override
+        public boolean hasNext() {
+            return next < keys.size();
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            removable = true;
+            return new CompactEntry(keys.get(next++));
+        }
+
+        @Override
+        public void remove() {
+            if (!removable) throw new IllegalStateException();
+            removable = false;
+            removeAt(--next);
+        }
+
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.product.registry;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.Arrays;
+
+/**
+ * Shared dictionary of strings and sets of keys used in metadata of instances. Most of keys and many values (routes,
+ * titles of the catalog, ...) are the same across instances, the dictionary keeps just one copy of each of them.
+ * Values which are not used anymore are removed by the garbage collector.
+ */
+public class MetadataDictionary {
+
+    private final Interner<String> strings = Interners.newWeakInterner();
+    private final Interner<Keys> keys = Interners.newWeakInterner();
+
+    public String intern(String value) {
+        if (value == null) return null;
+        return strings.intern(value);
+    }
+
+    /**
+     * @param sortedKeys keys sorted in natural order, all of them have to be interned
+     * @return shared instance of the same keys
+     */
+    Keys keys(String[] sortedKeys) {
+        return keys.intern(new Keys(sortedKeys));
+    }
+
+    /**
+     * Immutable sorted array of keys. Metadata of instances with the same keys refer to the same instance.
+     */
+    static final class Keys {
+
+        private final String[] values;
+        private final int hashCode;
+
+        private Keys(String[] values) {
+            this.values = values;
+            this.hashCode = Arrays.hashCode(values);
+        }
+
+        int size() {
+            return values.length;
+        }
+
+        String get(int index) {
+            return values[index];
+        }
+
+        int indexOf(Object key) {
+            if (!(key instanceof String)) return -1;
+            return Arrays.binarySearch(values, key);
+        }
+
+        String[] toArray() {
+            return values.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Keys)) return false;
+            return Arrays.equals(values, ((Keys) o).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.product.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.CacheRefreshedEvent;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.EurekaEvent;
+import com.netflix.discovery.EurekaEventListener;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+
+/**
+ * Replaces metadata of instances in the local registry of Eureka client by {@link CompactMetadata}. Instances which
+ * were already compacted are skipped, so each refresh of the registry handles just new instances. The listener
+ * should be registered before any other listener, which could read the metadata.
+ */
+@Slf4j
+public class RegistryCompactor implements EurekaEventListener {
+
+    private static final Field METADATA_FIELD = getMetadataField();
+
+    private final EurekaClient eurekaClient;
+    private final MetadataDictionary dictionary;
+
+    public RegistryCompactor(EurekaClient eurekaClient, MetadataDictionary dictionary) {
+        this.eurekaClient = eurekaClient;
+        this.dictionary = dictionary;
+    }
+
+    private static Field getMetadataField() {
+        try {
+            final Field field = InstanceInfo.class.getDeclaredField("metadata");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            log.warn("Implementation of InstanceInfo was changed, metadata of instances will not be compacted", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void onEvent(EurekaEvent event) {
+        if (event instanceof CacheRefreshedEvent) {
+            compact(eurekaClient.getApplications());
+        }
+    }
+
+    public void compact(Applications applications) {
+        if ((applications == null) || (METADATA_FIELD == null)) return;
+
+        for (Application application : applications.getRegisteredApplications()) {
+            for (InstanceInfo instanceInfo : application.getInstancesAsIsFromEureka()) {
+                compact(instanceInfo);
+            }
+        }
+    }
+
+    /**
+     * Replaces metadata of the instance by the compact copy. The field is volatile, so readers see either original
+     * or compacted metadata, both with the same content.
+     */
+    public void compact(InstanceInfo instanceInfo) {
+        if (METADATA_FIELD == null) return;
+
+        final Map<String, String> metadata = instanceInfo.getMetadata();
+        if ((metadata == null) || (metadata instanceof CompactMetadata)) return;
+
+        try {
+            METADATA_FIELD.set(instanceInfo, CompactMetadata.of(dictionary, metadata));
+        } catch (IllegalAccessException e) {
+            log.debug("Cannot compact metadata of {}", instanceInfo.getInstanceId(), e);
+        }
+    }
+
+}
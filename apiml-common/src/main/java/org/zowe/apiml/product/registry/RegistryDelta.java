@@ -0,0 +1,65 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.product.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+
+/**
+ * Single change of registry of Discovery Service, which is pushed to the clients by the registry stream. The changed
+ * instance is encoded by the same codec as Eureka uses in its REST API.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistryDelta {
+
+    public static final String STREAM_PATH = "/discovery/api/v1/registry/stream";  // NOSONAR: URL is always using / to separate path segments
+
+    /**
+     * Name of event containing a delta
+     */
+    public static final String EVENT_DELTA = "delta";
+
+    /**
+     * Name of event sent if the client cannot continue from the last received delta and has to fetch whole registry
+     */
+    public static final String EVENT_RESET = "reset";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private long version;
+    private InstanceInfo.ActionType action;
+    private String appName;
+    private String instanceId;
+    private JsonNode instance;
+
+    public static RegistryDelta of(long version, InstanceInfo.ActionType action, InstanceInfo instanceInfo) throws IOException {
+        final String encoded = CodecWrappers.getCodec(CodecWrappers.JacksonJson.class).encode(instanceInfo);
+        return new RegistryDelta(version, action, instanceInfo.getAppName(), instanceInfo.getInstanceId(), MAPPER.readTree(encoded));
+    }
+
+    public static RegistryDelta deleted(long version, String appName, String instanceId) {
+        return new RegistryDelta(version, InstanceInfo.ActionType.DELETED, appName, instanceId, null);
+    }
+
+    public InstanceInfo toInstanceInfo() throws IOException {
+        if (instance == null) return null;
+        return CodecWrappers.getCodec(CodecWrappers.JacksonJson.class).decode(instance.toString(), InstanceInfo.class);
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.product.registry;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Client of the registry stream of Discovery Service. It keeps a long-lived connection (server-sent events) to one of
+ * Discovery Services and passes each received {@link RegistryDelta} to the consumer. If the connection fails, it
+ * reconnects (with the next Discovery Service) and continues from the last received delta. If it is not possible,
+ * the server sends the reset event and the client should fetch whole registry.
+ */
+@Slf4j
+public class RegistryStreamClient {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final long MAX_RECONNECT_DELAY = 60000;
+
+    private final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final CloseableHttpClient httpClient;
+    private final List<String> discoveryServiceUrls;
+    private final Consumer<RegistryDelta> onDelta;
+    private final Runnable onReset;
+    private final int readTimeout;
+    private final long reconnectDelay;
+
+    private volatile boolean stopped;
+    private volatile CloseableHttpResponse response;
+    private Thread thread;
+    private String lastEventId;
+
+    /**
+     * @param httpClient client to call Discovery Service
+     * @param discoveryServiceUrls URLs of Discovery Services, ie. https://localhost:10011/eureka/
+     * @param onDelta consumer of received deltas
+     * @param onReset action to fetch whole registry
+     * @param readTimeout maximal time (ms) without any data (server sends heartbeats)
+     * @param reconnectDelay delay (ms) before the first reconnection, it is doubled for each next one
+     */
+    public RegistryStreamClient(
+        CloseableHttpClient httpClient,
+        List<String> discoveryServiceUrls,
+        Consumer<RegistryDelta> onDelta,
+        Runnable onReset,
+        int readTimeout,
+        long reconnectDelay
+    ) {
+        this.httpClient = httpClient;
+        this.discoveryServiceUrls = discoveryServiceUrls;
+        this.onDelta = onDelta;
+        this.onReset = onReset;
+        this.readTimeout = readTimeout;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    public synchronized void start() {
+        if (thread != null || discoveryServiceUrls.isEmpty()) return;
+
+        stopped = false;
+        thread = new Thread(this::run, "registry-stream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        closeResponse();
+    }
+
+    private void run() {
+        int index = 0;
+        long delay = reconnectDelay;
+        while (!stopped) {
+            final String url = discoveryServiceUrls.get(index);
+            try {
+                if (connect(url)) delay = reconnectDelay;
+            } catch (Exception e) {
+                log.debug("Registry stream from {} failed", url, e);
+            } finally {
+                closeResponse();
+            }
+
+            if (stopped) break;
+            index = (index + 1) % discoveryServiceUrls.size();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            delay = Math.min(delay * 2, MAX_RECONNECT_DELAY);
+        }
+    }
+
+    /**
+     * @return true if any event was received
+     */
+    private boolean connect(String discoveryServiceUrl) throws IOException {
+        final URI uri = URI.create(discoveryServiceUrl);
+        final HttpGet request = new HttpGet(new StringBuilder()
+            .append(uri.getScheme()).append("://")
+            .append(uri.getHost()).append(uri.getPort() < 0 ? "" : ":" + uri.getPort())
+            .append(RegistryDelta.STREAM_PATH)
+            .toString()
+        );
+        request.setConfig(RequestConfig.custom().setSocketTimeout(readTimeout).build());
+        request.setHeader(HttpHeaders.ACCEPT, "text/event-stream");
+        if (uri.getUserInfo() != null) {
+            final String credentials = Base64.getEncoder().encodeToString(uri.getUserInfo().getBytes(StandardCharsets.UTF_8));
+            request.setHeader(HttpHeaders.AUTHORIZATION, "Basic " + credentials);
+        }
+        if (lastEventId != null) {
+            request.setHeader(LAST_EVENT_ID, lastEventId);
+        }
+
+        response = httpClient.execute(request);
+        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+            throw new IOException("Unexpected response of registry stream: " + response.getStatusLine());
+        }
+
+        log.debug("Registry stream connected to {}", discoveryServiceUrl);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8))) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads events from the stream until its end
+     *
+     * @return true if any event was received
+     */
+    boolean read(BufferedReader reader) throws IOException {
+        boolean received = false;
+        String id = null;
+        String event = null;
+        StringBuilder data = new StringBuilder();
+
+        String line;
+        while (!stopped && (line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (event != null || data.length() > 0) {
+                    process(id, event, data.toString());
+                    received = true;
+                }
+                id = null;
+                event = null;
+                data.setLength(0);
+            } else if (line.startsWith("id:")) {
+                id = value(line);
+            } else if (line.startsWith("event:")) {
+                event = value(line);
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) data.append('\n');
+                data.append(value(line));
+            }
+            // other lines (ie. comments with heartbeat) are ignored
+        }
+
+        return received;
+    }
+
+    private String value(String line) {
+        final String value = line.substring(line.indexOf(':') + 1);
+        return value.startsWith(" ") ? value.substring(1) : value;
+    }
+
+    private void process(String id, String event, String data) throws IOException {
+        if (RegistryDelta.EVENT_RESET.equals(event)) {
+            onReset.run();
+        } else if (RegistryDelta.EVENT_DELTA.equals(event)) {
+            try {
+                onDelta.accept(mapper.readValue(data, RegistryDelta.class));
+            } catch (RuntimeException e) {
+                log.debug("Cannot apply registry delta {}, whole registry will be fetched", data, e);
+                onReset.run();
+            }
+        }
+
+        if (id != null) lastEventId = id;
+    }
+
+    private void closeResponse() {
+        final CloseableHttpResponse current = response;
+        response = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("Cannot close registry stream", e);
+            }
+        }
+    }
+
+}
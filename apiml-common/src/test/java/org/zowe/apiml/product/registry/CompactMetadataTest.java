@@ -0,0 +1,104 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.product.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CompactMetadataTest {
+
+    private MetadataDictionary dictionary;
+
+    @Before
+    public void setUp() {
+        dictionary = new MetadataDictionary();
+    }
+
+    private Map<String, String> createMetadata(String title) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put(new String("apiml.routes.api-v1.gatewayUrl"), new String("api/v1"));
+        metadata.put(new String("apiml.service.title"), title);
+        metadata.put(new String("apiml.catalog.tile.id"), new String("tile"));
+        return metadata;
+    }
+
+    @Test
+    public void givenMetadata_whenCompacted_thenContentIsSame() {
+        Map<String, String> original = createMetadata("title");
+        CompactMetadata compact = CompactMetadata.of(dictionary, original);
+
+        assertEquals(original, compact);
+        assertEquals(original.hashCode(), compact.hashCode());
+        assertEquals("api/v1", compact.get("apiml.routes.api-v1.gatewayUrl"));
+        assertNull(compact.get("unknown"));
+        assertNull(compact.get(1));
+        assertEquals(3, compact.size());
+    }
+
+    @Test
+    public void givenTwoInstances_whenCompacted_thenShareStrings() {
+        CompactMetadata compact1 = CompactMetadata.of(dictionary, createMetadata(new String("title")));
+        CompactMetadata compact2 = CompactMetadata.of(dictionary, createMetadata(new String("title")));
+
+        assertSame(compact1.get("apiml.service.title"), compact2.get("apiml.service.title"));
+        assertSame(compact1.keySet().iterator().next(), compact2.keySet().iterator().next());
+    }
+
+    @Test
+    public void givenCompactMetadata_whenModified_thenBehaveAsMap() {
+        Map<String, String> expected = createMetadata("title");
+        CompactMetadata compact = CompactMetadata.of(dictionary, expected);
+
+        assertEquals("title", compact.put("apiml.service.title", "newTitle"));
+        expected.put("apiml.service.title", "newTitle");
+        assertNull(compact.put("a", "first"));
+        expected.put("a", "first");
+        assertNull(compact.put("z", "last"));
+        expected.put("z", "last");
+        assertEquals(expected, compact);
+
+        assertEquals("tile", compact.remove("apiml.catalog.tile.id"));
+        expected.remove("apiml.catalog.tile.id");
+        assertNull(compact.remove("unknown"));
+        assertEquals(expected, compact);
+
+        Iterator<Map.Entry<String, String>> iterator = compact.entrySet().iterator();
+        assertEquals("a", iterator.next().getKey());
+        iterator.remove();
+        iterator.next().setValue("changed");
+        expected.remove("a");
+        expected.put("apiml.routes.api-v1.gatewayUrl", "changed");
+        assertEquals(expected, compact);
+
+        compact.clear();
+        assertTrue(compact.isEmpty());
+    }
+
+    @Test
+    public void givenInstance_whenCompacted_thenMetadataAreReplaced() {
+        InstanceInfo instanceInfo = InstanceInfo.Builder.newBuilder()
+            .setAppName("service").setInstanceId("host:service:1")
+            .setMetadata(createMetadata("title"))
+            .build();
+
+        new RegistryCompactor(null, dictionary).compact(instanceInfo);
+
+        assertTrue(instanceInfo.getMetadata() instanceof CompactMetadata);
+        assertEquals(createMetadata("title"), instanceInfo.getMetadata());
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.product.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class RegistryStreamClientTest {
+
+    private List<RegistryDelta> deltas;
+    private AtomicInteger resets;
+    private RegistryStreamClient underTest;
+
+    @Before
+    public void setUp() {
+        deltas = new ArrayList<>();
+        resets = new AtomicInteger();
+        underTest = new RegistryStreamClient(
+            mock(CloseableHttpClient.class), Collections.singletonList("https://localhost:10011/eureka/"),
+            deltas::add, resets::incrementAndGet, 1000, 1000
+        );
+    }
+
+    @Test
+    public void givenStreamWithEvents_whenRead_thenDeltasAndResetsProcessed() throws Exception {
+        String stream = ":heartbeat\n\n" +
+            "id:1:1\nevent:reset\ndata:\n\n" +
+            "id:1:2\nevent:delta\ndata:{\"version\":2,\"action\":\"DELETED\",\"appName\":\"SERVICE\",\"instanceId\":\"host:service:1\"}\n\n";
+
+        assertTrue(underTest.read(new BufferedReader(new StringReader(stream))));
+
+        assertEquals(1, resets.get());
+        assertEquals(1, deltas.size());
+        assertEquals(2, deltas.get(0).getVersion());
+        assertEquals(InstanceInfo.ActionType.DELETED, deltas.get(0).getAction());
+        assertEquals("host:service:1", deltas.get(0).getInstanceId());
+    }
+
+    @Test
+    public void givenOnlyHeartbeats_whenRead_thenNothingReceived() throws Exception {
+        assertFalse(underTest.read(new BufferedReader(new StringReader(":heartbeat\n\n:heartbeat\n\n"))));
+        assertTrue(deltas.isEmpty());
+    }
+
+    @Test
+    public void givenInstance_whenEncodedToDelta_thenDecodedBack() throws Exception {
+        InstanceInfo instanceInfo = InstanceInfo.Builder.newBuilder()
+            .setAppName("SERVICE")
+            .setInstanceId("host:service:1")
+            .setHostName("host")
+            .setVIPAddress("service")
+            .setStatus(InstanceInfo.InstanceStatus.UP)
+            .build();
+
+        RegistryDelta delta = RegistryDelta.of(5, InstanceInfo.ActionType.ADDED, instanceInfo);
+        InstanceInfo decoded = delta.toInstanceInfo();
+
+        assertEquals("SERVICE", delta.getAppName());
+        assertEquals("host:service:1", decoded.getInstanceId());
+        assertEquals("host", decoded.getHostName());
+        assertEquals(InstanceInfo.InstanceStatus.UP, decoded.getStatus());
+    }
+
+}
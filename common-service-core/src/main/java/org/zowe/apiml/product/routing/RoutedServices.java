@@ -11,6 +11,8 @@ package org.zowe.apiml.product.routing;
 
 import org.zowe.apiml.util.UrlUtils;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -36,6 +38,15 @@ public class RoutedServices {
         return routedService.get(gatewayUrl);
     }
 
+    /**
+     * Get all routes of the service
+     *
+     * @return routes in the same order as they are evaluated by {@link #getBestMatchingServiceUrl(String, ServiceType)}
+     */
+    public Collection<RoutedService> getRoutedServices() {
+        return Collections.unmodifiableCollection(routedService.values());
+    }
+
     /**
      * Get best matching service url
      *
@@ -15,9 +15,13 @@ import com.netflix.discovery.EurekaClientConfig;
 import com.netflix.eureka.EurekaServerConfig;
 import com.netflix.eureka.registry.AbstractInstanceRegistry;
 import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl.Action;
 import com.netflix.eureka.resources.ServerCodecs;
+import org.springframework.beans.BeansException;
 import org.springframework.cloud.netflix.eureka.server.InstanceRegistry;
 import org.springframework.cloud.netflix.eureka.server.InstanceRegistryProperties;
+import org.springframework.context.ApplicationContext;
+import org.zowe.apiml.discovery.replication.ReplicationMonitor;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
@@ -31,102 +35,106 @@ import java.lang.reflect.Method;
  * This implementation of instance registry is solving known problem in Eureka. Discovery service notify about change
  * in services before it does it. From this reason listener can try to use services before they are really registered.
  *
+ * The cancellation is published from {@link #internalCancel(String, String, boolean)}, which is used by the cancel
+ * as well as by the eviction of expired leases, so the event is always sent after the instance is removed.
+ *
  * At least implementation with reflection of register and cancel should be removed after finish task in Eureka:
  *
  * #2659 Race condition with registration events in Eureka server
  * https://github.com/spring-cloud/spring-cloud-netflix/issues/2659
+ *
+ * The registry also publishes {@link ApimlInstanceStatusUpdatedEvent} after a change of instance status, because
+ * InstanceRegistry does not publish any event in this case.
+ *
+ * Each change made by this node (not by replication) is reported to {@link ReplicationMonitor} to measure lag of
+ * the replication to peers.
  */
 public class ApimlInstanceRegistry extends InstanceRegistry {
 
     private static final String EXCEPTION_MESSAGE = "Implementation of InstanceRegistry changed, please verify fix of order sending events";
 
-    private MethodHandle handleRegistrationMethod;
-    private MethodHandle handlerResolveInstanceLeaseDurationMethod;
-    private MethodHandle handleCancelationMethod;
+    /*
+     * Handles are static final and adapted to exact types of call sites, so they are called by invokeExact without
+     * boxing of arguments and JIT is able to inline them as any other direct call.
+     */
+    private static final MethodHandle HANDLE_REGISTRATION;
+    private static final MethodHandle RESOLVE_INSTANCE_LEASE_DURATION;
+    private static final MethodHandle HANDLE_CANCELATION;
 
-    private MethodHandle register2ArgsMethodHandle;
-    private MethodHandle register3ArgsMethodHandle;
-    private MethodHandle cancelMethodHandle;
+    private static final MethodHandle REGISTER_2_ARGS;
+    private static final MethodHandle REGISTER_3_ARGS;
+    private static final MethodHandle CANCEL;
+    private static final MethodHandle INTERNAL_CANCEL;
+
+    static {
+        try {
+            HANDLE_REGISTRATION = unreflect(InstanceRegistry.class, "handleRegistration",
+                MethodType.methodType(void.class, InstanceInfo.class, int.class, boolean.class));
+            HANDLE_CANCELATION = unreflect(InstanceRegistry.class, "handleCancelation",
+                MethodType.methodType(void.class, String.class, String.class, boolean.class));
+            RESOLVE_INSTANCE_LEASE_DURATION = unreflect(InstanceRegistry.class, "resolveInstanceLeaseDuration",
+                MethodType.methodType(int.class, InstanceInfo.class));
+
+            REGISTER_2_ARGS = findSpecial(PeerAwareInstanceRegistryImpl.class, "register",
+                MethodType.methodType(void.class, InstanceInfo.class, boolean.class));
+            CANCEL = findSpecial(PeerAwareInstanceRegistryImpl.class, "cancel",
+                MethodType.methodType(boolean.class, String.class, String.class, boolean.class));
+            INTERNAL_CANCEL = findSpecial(AbstractInstanceRegistry.class, "internalCancel",
+                MethodType.methodType(boolean.class, String.class, String.class, boolean.class));
+            REGISTER_3_ARGS = findSpecial(AbstractInstanceRegistry.class, "register",
+                MethodType.methodType(void.class, InstanceInfo.class, int.class, boolean.class));
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException | InstantiationException e) {
+            throw new IllegalArgumentException(EXCEPTION_MESSAGE, e);
+        }
+    }
+
+    private final ReplicationMonitor replicationMonitor;
+
+    private ApplicationContext applicationContext;
 
     public ApimlInstanceRegistry(
         EurekaServerConfig serverConfig,
         EurekaClientConfig clientConfig,
         ServerCodecs serverCodecs,
         EurekaClient eurekaClient,
-        InstanceRegistryProperties instanceRegistryProperties
+        InstanceRegistryProperties instanceRegistryProperties,
+        ReplicationMonitor replicationMonitor
     ) {
         super(serverConfig, clientConfig, serverCodecs, eurekaClient,
             instanceRegistryProperties.getExpectedNumberOfClientsSendingRenews(),
             instanceRegistryProperties.getDefaultOpenForTrafficCount()
         );
+        this.replicationMonitor = replicationMonitor;
+    }
 
-        init();
+    /**
+     * Creates handle to a private method of the class. The handle accepts instance of ApimlInstanceRegistry as
+     * the first argument.
+     */
+    private static MethodHandle unreflect(Class<?> clazz, String name, MethodType type) throws NoSuchMethodException, IllegalAccessException {
+        Method method = clazz.getDeclaredMethod(name, type.parameterArray());
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method)
+            .asType(type.insertParameterTypes(0, ApimlInstanceRegistry.class));
     }
 
     /**
-     * Prepare method handlers to overridden methods to reimplement methods in InstanceRegistry, which contains a race
-     * condition problem. Handlers are faster than reflection, close to bytecode.
+     * Creates handle to call method of the superclass (as super.method(...)), even if it is overridden in between.
+     * The handle accepts instance of ApimlInstanceRegistry as the first argument.
      */
-    private void init() {
-        try {
-            Method registrationMethod =
-                InstanceRegistry.class.getDeclaredMethod("handleRegistration",
-                    InstanceInfo.class, int.class, boolean.class
-                );
-            registrationMethod.setAccessible(true);
-            handleRegistrationMethod = MethodHandles.lookup().unreflect(registrationMethod);
-
-            Method cancelationMethod =
-                InstanceRegistry.class.getDeclaredMethod("handleCancelation",
-                    String.class, String.class, boolean.class
-                );
-            cancelationMethod.setAccessible(true);
-            handleCancelationMethod = MethodHandles.lookup().unreflect(cancelationMethod);
-
-            Method resolveInstanceLeaseDurationMethod =
-                InstanceRegistry.class.getDeclaredMethod("resolveInstanceLeaseDuration",
-                    InstanceInfo.class
-                );
-            resolveInstanceLeaseDurationMethod.setAccessible(true);
-            handlerResolveInstanceLeaseDurationMethod = MethodHandles.lookup().unreflect(resolveInstanceLeaseDurationMethod);
-
-            Constructor<MethodHandles.Lookup> lookupConstructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class);
-            lookupConstructor.setAccessible(true);
-            MethodHandles.Lookup lookup = lookupConstructor.newInstance(PeerAwareInstanceRegistryImpl.class);
-
-            register2ArgsMethodHandle =
-                lookup.findSpecial(
-                    PeerAwareInstanceRegistryImpl.class,
-                    "register",
-                    MethodType.methodType(void.class, InstanceInfo.class, boolean.class),
-                    PeerAwareInstanceRegistryImpl.class
-                );
-
-            cancelMethodHandle =
-                lookup.findSpecial(
-                    PeerAwareInstanceRegistryImpl.class,
-                    "cancel",
-                    MethodType.methodType(boolean.class, String.class, String.class, boolean.class),
-                    PeerAwareInstanceRegistryImpl.class
-                );
-
-            lookup = lookupConstructor.newInstance(AbstractInstanceRegistry.class);
-
-            register3ArgsMethodHandle =
-                lookup.findSpecial(
-                    AbstractInstanceRegistry.class,
-                    "register",
-                    MethodType.methodType(void.class, InstanceInfo.class, int.class, boolean.class),
-                    AbstractInstanceRegistry.class
-                );
-        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException | InstantiationException e) {
-            throw new IllegalArgumentException(EXCEPTION_MESSAGE, e);
-        }
+    private static MethodHandle findSpecial(Class<?> clazz, String name, MethodType type)
+        throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, InstantiationException
+    {
+        Constructor<MethodHandles.Lookup> lookupConstructor = MethodHandles.Lookup.class.getDeclaredConstructor(Class.class);
+        lookupConstructor.setAccessible(true);
+        MethodHandles.Lookup lookup = lookupConstructor.newInstance(clazz);
+        return lookup.findSpecial(clazz, name, type, clazz)
+            .asType(type.insertParameterTypes(0, ApimlInstanceRegistry.class));
     }
 
     protected int resolveInstanceLeaseDurationRewritten(final InstanceInfo info) {
         try {
-            return (int) handlerResolveInstanceLeaseDurationMethod.invokeWithArguments(this, info);
+            return (int) RESOLVE_INSTANCE_LEASE_DURATION.invokeExact(this, info);
         } catch (ClassCastException | WrongMethodTypeException e) {
             throw new IllegalArgumentException(EXCEPTION_MESSAGE, e);
         } catch (RuntimeException re) {
@@ -139,8 +147,9 @@ public class ApimlInstanceRegistry extends InstanceRegistry {
     @Override
     public void register(InstanceInfo info, int leaseDuration, boolean isReplication) {
         try {
-            register3ArgsMethodHandle.invokeWithArguments(this, info, leaseDuration, isReplication);
-            handleRegistrationMethod.invokeWithArguments(this, info, leaseDuration, isReplication);
+            REGISTER_3_ARGS.invokeExact(this, info, leaseDuration, isReplication);
+            HANDLE_REGISTRATION.invokeExact(this, info, leaseDuration, isReplication);
+            replicated(true, isReplication, Action.Register, info.getAppName(), info.getId());
         } catch (ClassCastException | WrongMethodTypeException e) {
             throw new IllegalArgumentException(EXCEPTION_MESSAGE, e);
         } catch (RuntimeException re) {
@@ -153,8 +162,9 @@ public class ApimlInstanceRegistry extends InstanceRegistry {
     @Override
     public void register(final InstanceInfo info, final boolean isReplication) {
         try {
-            register2ArgsMethodHandle.invokeWithArguments(this, info, isReplication);
-            handleRegistrationMethod.invokeWithArguments(this, info, resolveInstanceLeaseDurationRewritten(info), isReplication);
+            REGISTER_2_ARGS.invokeExact(this, info, isReplication);
+            HANDLE_REGISTRATION.invokeExact(this, info, resolveInstanceLeaseDurationRewritten(info), isReplication);
+            replicated(true, isReplication, Action.Register, info.getAppName(), info.getId());
         } catch (ClassCastException | WrongMethodTypeException e) {
             throw new IllegalArgumentException(EXCEPTION_MESSAGE, e);
         } catch (RuntimeException re) {
@@ -167,8 +177,8 @@ public class ApimlInstanceRegistry extends InstanceRegistry {
     @Override
     public boolean cancel(String appName, String serverId, boolean isReplication) {
         try {
-            final boolean out = (boolean) cancelMethodHandle.invokeWithArguments(this, appName, serverId, isReplication);
-            handleCancelationMethod.invokeWithArguments(this, appName, serverId, isReplication);
+            final boolean out = (boolean) CANCEL.invokeExact(this, appName, serverId, isReplication);
+            replicated(out, isReplication, Action.Cancel, appName, serverId);
             return out;
         } catch (ClassCastException | WrongMethodTypeException e) {
             throw new IllegalArgumentException(EXCEPTION_MESSAGE, e);
@@ -179,4 +189,64 @@ public class ApimlInstanceRegistry extends InstanceRegistry {
         }
     }
 
+    @Override
+    protected boolean internalCancel(String appName, String id, boolean isReplication) {
+        try {
+            final boolean out = (boolean) INTERNAL_CANCEL.invokeExact(this, appName, id, isReplication);
+            HANDLE_CANCELATION.invokeExact(this, appName, id, isReplication);
+            return out;
+        } catch (ClassCastException | WrongMethodTypeException e) {
+            throw new IllegalArgumentException(EXCEPTION_MESSAGE, e);
+        } catch (RuntimeException re) {
+            throw re;
+        } catch (Throwable t) {
+            throw new IllegalArgumentException(EXCEPTION_MESSAGE, t);
+        }
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext context) throws BeansException {
+        super.setApplicationContext(context);
+        this.applicationContext = context;
+    }
+
+    @Override
+    public boolean statusUpdate(String appName, String id, InstanceInfo.InstanceStatus newStatus, String lastDirtyTimestamp, boolean isReplication) {
+        final boolean out = super.statusUpdate(appName, id, newStatus, lastDirtyTimestamp, isReplication);
+        if (out) publishStatusUpdated(appName, id);
+        replicated(out, isReplication, Action.StatusUpdate, appName, id);
+        return out;
+    }
+
+    @Override
+    public boolean deleteStatusOverride(String appName, String id, InstanceInfo.InstanceStatus newStatus, String lastDirtyTimestamp, boolean isReplication) {
+        final boolean out = super.deleteStatusOverride(appName, id, newStatus, lastDirtyTimestamp, isReplication);
+        if (out) publishStatusUpdated(appName, id);
+        replicated(out, isReplication, Action.DeleteStatusOverride, appName, id);
+        return out;
+    }
+
+    @Override
+    public boolean renew(String appName, String serverId, boolean isReplication) {
+        final boolean out = super.renew(appName, serverId, isReplication);
+        replicated(out, isReplication, Action.Heartbeat, appName, serverId);
+        return out;
+    }
+
+    /**
+     * Reports the change to the monitor of replication, if the change is replicated to peers
+     */
+    private void replicated(boolean changed, boolean isReplication, Action action, String appName, String id) {
+        if (changed && !isReplication && (replicationMonitor != null)) {
+            replicationMonitor.submitted(action, appName, id);
+        }
+    }
+
+    private void publishStatusUpdated(String appName, String id) {
+        final InstanceInfo instanceInfo = getInstanceByAppAndId(appName, id, false);
+        if ((applicationContext != null) && (instanceInfo != null)) {
+            applicationContext.publishEvent(new ApimlInstanceStatusUpdatedEvent(this, instanceInfo));
+        }
+    }
+
 }
@@ -0,0 +1,31 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery;
+
+import com.netflix.appinfo.InstanceInfo;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published after a status of an instance was changed (or its status override was removed) in the registry
+ */
+@Getter
+public class ApimlInstanceStatusUpdatedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 3827519340218861712L;
+
+    private final transient InstanceInfo instanceInfo;
+
+    public ApimlInstanceStatusUpdatedEvent(Object source, InstanceInfo instanceInfo) {
+        super(source);
+        this.instanceInfo = instanceInfo;
+    }
+
+}
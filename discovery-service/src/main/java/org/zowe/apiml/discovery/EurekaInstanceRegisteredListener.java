@@ -13,16 +13,28 @@ import com.netflix.appinfo.InstanceInfo;
 import org.apache.commons.lang.StringUtils;
 import org.zowe.apiml.discovery.metadata.MetadataDefaultsService;
 import org.zowe.apiml.discovery.metadata.MetadataTranslationService;
+import org.zowe.apiml.discovery.staticdef.ServiceOverrideData;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.zowe.apiml.util.EurekaUtils;
 
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Called by Eureka when the service instance is registered
+ *
+ * Translation and defaults of metadata are memoized. Instances of the same service usually register with the same
+ * metadata (and each instance registers again with the same ones), so the result is computed once per different
+ * metadata. Keys and values of results are interned, so instances share the same strings. The cache does not keep
+ * the original metadata, only their digest to verify a hit.
  */
 @Component
 @RequiredArgsConstructor
@@ -32,6 +44,22 @@ public class EurekaInstanceRegisteredListener {
     private final MetadataDefaultsService metadataDefaultsService;
     private final GatewayNotifier gatewayNotifier;
 
+    @Value("${apiml.discovery.metadataCache.size:10000}")
+    private int cacheSize = 10000;
+
+    private final Map<String, NormalizedMetadata> cache = new LinkedHashMap<String, NormalizedMetadata>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = -2954209785342418312L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, NormalizedMetadata> eldest) {
+            return size() > cacheSize;
+        }
+
+    };
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+
     /**
      * Translates service instance Eureka metadata from older versions to the current version
      */
@@ -41,8 +69,7 @@ public class EurekaInstanceRegisteredListener {
         final Map<String, String> metadata = instanceInfo.getMetadata();
         final String serviceId = EurekaUtils.getServiceIdFromInstanceId(instanceInfo.getInstanceId());
 
-        metadataTranslationService.translateMetadata(serviceId, metadata);
-        metadataDefaultsService.updateMetadata(serviceId, metadata);
+        normalizeMetadata(serviceId, metadata);
 
         if (StringUtils.equalsIgnoreCase(GatewayNotifier.GATEWAY_SERVICE_ID, serviceId)) {
             /**
@@ -55,4 +82,96 @@ public class EurekaInstanceRegisteredListener {
         gatewayNotifier.serviceUpdated(serviceId, instanceInfo.getInstanceId());
     }
 
+    /**
+     * Translates metadata and applies defaults. The result is taken from the cache, if the same metadata were already
+     * normalized for the service with the same defaults. The metadata are always replaced by the interned result.
+     */
+    void normalizeMetadata(String serviceId, Map<String, String> metadata) {
+        final ServiceOverrideData defaults = metadataDefaultsService.getServiceOverrideData(serviceId);
+        final String key = serviceId + '|' + metadata.hashCode();
+
+        NormalizedMetadata normalized;
+        synchronized (cache) {
+            normalized = cache.get(key);
+        }
+
+        final byte[] digest = digest(metadata);
+        if ((normalized == null) || !normalized.isFor(digest, defaults)) {
+            final Map<String, String> result = new HashMap<>(metadata);
+            metadataTranslationService.translateMetadata(serviceId, result);
+            metadataDefaultsService.updateMetadata(serviceId, result);
+            normalized = new NormalizedMetadata(digest, defaults, intern(result));
+            synchronized (cache) {
+                cache.put(key, normalized);
+            }
+        }
+
+        metadata.clear();
+        metadata.putAll(normalized.result);
+    }
+
+    /**
+     * Digest of metadata, entries are sorted by the key so the digest does not depend on the order in the map
+     */
+    private byte[] digest(Map<String, String> metadata) {
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        for (Map.Entry<String, String> entry : new TreeMap<>(metadata).entrySet()) {
+            update(messageDigest, entry.getKey());
+            update(messageDigest, entry.getValue());
+        }
+        return messageDigest.digest();
+    }
+
+    private void update(MessageDigest messageDigest, String value) {
+        if (value == null) {
+            messageDigest.update((byte) 0);
+            return;
+        }
+
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        messageDigest.update((byte) 1);
+        messageDigest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        messageDigest.update(bytes);
+    }
+
+    private Map<String, String> intern(Map<String, String> metadata) {
+        final Map<String, String> out = new HashMap<>(metadata.size() * 4 / 3 + 1);
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            out.put(intern(entry.getKey()), intern(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(out);
+    }
+
+    private String intern(String value) {
+        if (value == null) return null;
+        if (strings.size() > cacheSize * 10) {
+            // values of removed services are not used anymore, start again rather than grow forever
+            strings.clear();
+        }
+        final String previous = strings.putIfAbsent(value, value);
+        return previous == null ? value : previous;
+    }
+
+    /**
+     * Metadata after translation and defaults, with the digest of the input they were computed from
+     */
+    @RequiredArgsConstructor
+    private static class NormalizedMetadata {
+
+        private final byte[] digest;
+        private final ServiceOverrideData defaults;
+        private final Map<String, String> result;
+
+        private boolean isFor(byte[] digest, ServiceOverrideData defaults) {
+            return Objects.equals(this.defaults, defaults) && Arrays.equals(this.digest, digest);
+        }
+
+    }
+
 }
@@ -9,6 +9,7 @@
  */
 package org.zowe.apiml.discovery;
 
+import org.zowe.apiml.discovery.staticdef.StaticDefinitionWatcher;
 import org.zowe.apiml.discovery.staticdef.StaticServicesRegistrationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
@@ -23,15 +24,18 @@ import org.springframework.stereotype.Component;
 @Component
 public class EurekaRegistryAvailableListener implements ApplicationListener<EurekaRegistryAvailableEvent> {
     private final StaticServicesRegistrationService registrationService;
+    private final StaticDefinitionWatcher staticDefinitionWatcher;
 
     @Autowired
-    public EurekaRegistryAvailableListener(StaticServicesRegistrationService registrationService) {
+    public EurekaRegistryAvailableListener(StaticServicesRegistrationService registrationService, StaticDefinitionWatcher staticDefinitionWatcher) {
         this.registrationService = registrationService;
+        this.staticDefinitionWatcher = staticDefinitionWatcher;
     }
 
     @SuppressWarnings("NullableProblems")
     @Override
     public void onApplicationEvent(EurekaRegistryAvailableEvent event) {
         registrationService.registerServices();
+        staticDefinitionWatcher.start();
     }
 }
@@ -14,14 +14,12 @@ import com.netflix.discovery.shared.Application;
 import com.netflix.eureka.EurekaServerContext;
 import com.netflix.eureka.EurekaServerContextHolder;
 import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
-import lombok.AllArgsConstructor;
-import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang.StringUtils;
-import org.apache.logging.log4j.util.BiConsumer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 import org.zowe.apiml.message.core.MessageService;
@@ -29,54 +27,89 @@ import org.zowe.apiml.message.log.ApimlLogger;
 import org.zowe.apiml.product.constants.CoreService;
 import org.zowe.apiml.util.EurekaUtils;
 
-import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
- * This bean is used to send a notification to the Gateways. It is sending notification asynchronous (at first they
- * are stored into the queue and then with a delay send to Gateways). If same notification is waiting for sending
- * it send it only once.
+ * This bean is used to send a notification to the Gateways. Notifications are sent asynchronously. At first they are
+ * collected for a short debounce window, then all notifications of the window are merged and sent to all Gateways in
+ * parallel. Each Gateway receives at most one eviction call per window, containing all changed services.
+ *
+ * Each Gateway has its own delivery state. If a Gateway is slow or down, notifications for it are merged until its
+ * previous delivery finishes, so the other Gateways are not delayed.
  *
  * Purpose of this bean is at first in notification Gateways about new and removed services and process at least
  * evicting of caches there.
  */
 @Component
 @Slf4j
-public class GatewayNotifier implements Runnable {
+public class GatewayNotifier {
 
     public static final String GATEWAY_SERVICE_ID = CoreService.GATEWAY.getServiceId().toUpperCase();
 
     private static final String DISTRIBUTE_PATH = "/gateway/auth/distribute/";  // NOSONAR: URL is always using / to separate path segments
     private static final String CACHE_PATH = "/gateway/cache/services";  // NOSONAR: URL is always using / to separate path segments
 
+    /**
+     * Key of pending eviction of all services
+     */
+    private static final String ALL_SERVICES = "*";
+
     private final ApimlLogger logger;
 
     private final RestTemplate restTemplate;
 
-    private boolean stopped;
-    private BlockingQueue<Notification> queue = new LinkedBlockingQueue<>();
-    private final ThreadPoolTaskExecutor threadPoolTaskExecutor = new ThreadPoolTaskExecutor();
+    private final long debounce;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
 
-    public GatewayNotifier(@Qualifier("restTemplateWithKeystore") RestTemplate restTemplate, MessageService messageService) {
+    /**
+     * Pending evictions, key is serviceId and value are instance IDs causing the change
+     */
+    private Map<String, Set<String>> pendingEvictions = new HashMap<>();
+    private Set<String> pendingDistributions = new HashSet<>();
+    private boolean flushScheduled;
+
+    private final Map<String, DeliveryState> deliveryStates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public GatewayNotifier(
+        @Qualifier("restTemplateGatewayNotifier") RestTemplate restTemplate,
+        MessageService messageService,
+        @Value("${apiml.discovery.gatewayNotifier.debounce:200}") long debounce,
+        @Value("${apiml.discovery.gatewayNotifier.threads:8}") int threads
+    ) {
+        this(restTemplate, messageService, debounce,
+            Executors.newSingleThreadScheduledExecutor(createThreadFactory("gateway-notifier-scheduler-")),
+            Executors.newFixedThreadPool(threads, createThreadFactory("gateway-notifier-"))
+        );
+    }
+
+    GatewayNotifier(
+        RestTemplate restTemplate,
+        MessageService messageService,
+        long debounce,
+        ScheduledExecutorService scheduler,
+        Executor executor
+    ) {
         this.restTemplate = restTemplate;
         this.logger = ApimlLogger.of(GatewayNotifier.class, messageService);
+        this.debounce = debounce;
+        this.scheduler = scheduler;
+        this.executor = executor;
     }
 
-    @PostConstruct
-    public void afterPropertiesSet() {
-        threadPoolTaskExecutor.initialize();
-        threadPoolTaskExecutor.execute(this);
+    private static ThreadFactory createThreadFactory(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
     }
 
     @PreDestroy
     public void preDestroy() {
-        this.stopped = true;
+        if (scheduler != null) scheduler.shutdownNow();
+        if (executor instanceof ExecutorService) ((ExecutorService) executor).shutdownNow();
     }
 
     private EurekaServerContext getServerContext() {
@@ -97,12 +130,6 @@ public class GatewayNotifier implements Runnable {
         return application.getInstances();
     }
 
-    protected void addToQueue(Notification notification) {
-        if (!queue.contains(notification)) {
-            queue.add(notification);
-        }
-    }
-
     /**
      * Method notifies Gateways about any service's change. This is necessary to cache evicting on Gateway side.
      * If any service was added or removed, through this method all Gateway will clean our cached data about
@@ -110,12 +137,16 @@ public class GatewayNotifier implements Runnable {
      *
      * If notification is about a Gateway instance, this instance is not notified itself.
      *
-     * @param serviceId service ID of changed service
+     * @param serviceId service ID of changed service, null means all services
      * @param instanceId isntance ID of changed service
      */
     public void serviceUpdated(String serviceId, String instanceId) {
-        final Notification notification = new Notification(serviceId, instanceId, Type.SERVICE_UPDATED);
-        addToQueue(notification);
+        synchronized (this) {
+            pendingEvictions
+                .computeIfAbsent(serviceId == null ? ALL_SERVICES : serviceId, k -> new HashSet<>())
+                .add(instanceId == null ? "" : instanceId.toLowerCase());
+        }
+        scheduleFlush();
     }
 
     /**
@@ -127,118 +158,222 @@ public class GatewayNotifier implements Runnable {
      * @param instanceId instance ID of newly registered Gateway
      */
     public void distributeInvalidatedCredentials(String instanceId) {
-        final Notification notification = new Notification(null, instanceId, Type.DISTRIBUTE_INVALIDATED_CREDENTIALS);
-        addToQueue(notification);
+        synchronized (this) {
+            pendingDistributions.add(instanceId);
+        }
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (debounce <= 0) {
+            flush();
+            return;
+        }
+
+        synchronized (this) {
+            if (flushScheduled) return;
+            flushScheduled = true;
+        }
+        scheduler.schedule(this::flush, debounce, TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Process to send notification to gateways
-     *
-     * @param instanceId instance ID of notified Gateway to reduce call - don't call itself
-     * @param call function to make a call
+     * Takes all pending notifications and hands them over to delivery states of all Gateways.
      */
-    private void notify(String instanceId, Consumer<InstanceInfo> call) {
-        final List<InstanceInfo> gatewayInstances = getGatewayInstances();
+    protected void flush() {
+        final Map<String, Set<String>> evictions;
+        final Set<String> distributions;
+        synchronized (this) {
+            evictions = pendingEvictions;
+            distributions = pendingDistributions;
+            pendingEvictions = new HashMap<>();
+            pendingDistributions = new HashSet<>();
+            flushScheduled = false;
+        }
+        if (evictions.isEmpty() && distributions.isEmpty()) return;
 
+        final List<InstanceInfo> gatewayInstances = getGatewayInstances();
+        final Set<String> gatewayInstanceIds = new HashSet<>();
         for (final InstanceInfo instanceInfo : gatewayInstances) {
-            // don't notify service itself, it is not required
-            if (StringUtils.equalsIgnoreCase(instanceId, instanceInfo.getInstanceId())) continue;
-            call.accept(instanceInfo);
-        }
-    }
+            final String gatewayInstanceId = instanceInfo.getInstanceId().toLowerCase();
+            gatewayInstanceIds.add(gatewayInstanceId);
 
-    protected void serviceUpdatedProcess(String serviceId, String instanceId) {
-        notify(instanceId, instanceInfo -> {
-            final StringBuilder url = new StringBuilder();
-            url
-                .append(EurekaUtils.getUrl(instanceInfo))
-                .append(CACHE_PATH);
-            if (serviceId != null) url.append('/').append(serviceId);
+            final Set<String> serviceIds = getServicesToEvict(evictions, gatewayInstanceId);
+            final Set<String> instanceIds = new HashSet<>(distributions);
+            // don't notify service itself, it is not required
+            instanceIds.removeIf(gatewayInstanceId::equalsIgnoreCase);
 
-            try {
-                restTemplate.delete(url.toString());
-            } catch (Exception e) {
-                log.debug("Cannot notify the Gateway {} about {}", url.toString(), instanceId, e);
-                logger.log("org.zowe.apiml.discovery.registration.gateway.notify", url.toString(), instanceId);
+            final DeliveryState state = deliveryStates.computeIfAbsent(gatewayInstanceId, k -> new DeliveryState());
+            if (state.enqueue(instanceInfo, serviceIds, instanceIds)) {
+                executor.execute(() -> deliver(state));
             }
-        });
+        }
+        deliveryStates.keySet().retainAll(gatewayInstanceIds);
     }
 
-    protected void distributeInvalidatedCredentialsProcess(String instanceId) {
-        notify(instanceId, instanceInfo -> {
-            final StringBuilder url = new StringBuilder();
-            url.append(EurekaUtils.getUrl(instanceInfo))
-               .append(DISTRIBUTE_PATH)
-               .append(instanceId);
-
-            try {
-                restTemplate.getForEntity(url.toString(), Void.class);
-            } catch (Exception e) {
-                log.debug("Cannot notify the Gateway {} about {}", url.toString(), instanceId, e);
-                logger.log("org.zowe.apiml.discovery.registration.gateway.notify", url.toString(), instanceId);
-            }
-        });
+    private Set<String> getServicesToEvict(Map<String, Set<String>> evictions, String gatewayInstanceId) {
+        final Set<String> serviceIds = new HashSet<>();
+        for (final Map.Entry<String, Set<String>> entry : evictions.entrySet()) {
+            final Set<String> origins = entry.getValue();
+            // don't notify service itself, it is not required
+            if ((origins.size() == 1) && origins.contains(gatewayInstanceId)) continue;
+            serviceIds.add(entry.getKey());
+        }
+        return serviceIds;
     }
 
     /**
-     * Implementation of asynchronous thread, which checking the queue of notification request and then process them.
+     * Sends all pending notifications of one Gateway. It is running until there is nothing to send.
      */
-    @Override
-    public void run() {
-        while (!stopped) {
-            try {
-                Notification notification = queue.poll(10, TimeUnit.SECONDS);
-                if (notification != null) {
-                    notification.process();
-                }
-            } catch (InterruptedException e) {
-                log.debug("Thread for Gateway notification was interrupted", e);
-                Thread.currentThread().interrupt();
-            } catch (Exception e) {
-                log.debug("Unexpected exception on gateway notifier", e);
+    private void deliver(DeliveryState state) {
+        DeliveryState.Batch batch;
+        while ((batch = state.drain()) != null) {
+            boolean success = true;
+            if (!batch.serviceIds.isEmpty()) {
+                success = serviceUpdatedProcess(batch.instanceInfo, batch.serviceIds);
             }
+            for (final String instanceId : batch.instanceIds) {
+                success &= distributeInvalidatedCredentialsProcess(batch.instanceInfo, instanceId);
+            }
+            state.delivered(batch, success);
         }
     }
 
-    /**
-     * This class contains inforamtion about one notification (required information about instance to notifying and
-     * type of notification)
-     */
-    @AllArgsConstructor
-    @Getter
-    @EqualsAndHashCode
-    protected class Notification {
+    protected boolean serviceUpdatedProcess(InstanceInfo instanceInfo, Set<String> serviceIds) {
+        final StringBuilder url = new StringBuilder();
+        url
+            .append(EurekaUtils.getUrl(instanceInfo))
+            .append(CACHE_PATH);
+        if (!serviceIds.contains(ALL_SERVICES)) {
+            if (serviceIds.size() == 1) {
+                url.append('/').append(serviceIds.iterator().next());
+            } else {
+                url.append("?serviceId=").append(String.join(",", new TreeSet<>(serviceIds)));
+            }
+        }
 
-        private final String serviceId;
-        private final String instanceId;
-        private final Type type;
+        try {
+            restTemplate.delete(url.toString());
+            return true;
+        } catch (Exception e) {
+            log.debug("Cannot notify the Gateway {} about {}", url.toString(), serviceIds, e);
+            logger.log("org.zowe.apiml.discovery.registration.gateway.notify", url.toString(), String.join(",", serviceIds));
+            return false;
+        }
+    }
 
-        protected void process() {
-            type.call.accept(GatewayNotifier.this, this);
+    protected boolean distributeInvalidatedCredentialsProcess(InstanceInfo instanceInfo, String instanceId) {
+        final StringBuilder url = new StringBuilder();
+        url.append(EurekaUtils.getUrl(instanceInfo))
+           .append(DISTRIBUTE_PATH)
+           .append(instanceId);
+
+        try {
+            restTemplate.getForEntity(url.toString(), Void.class);
+            return true;
+        } catch (Exception e) {
+            log.debug("Cannot notify the Gateway {} about {}", url.toString(), instanceId, e);
+            logger.log("org.zowe.apiml.discovery.registration.gateway.notify", url.toString(), instanceId);
+            return false;
         }
+    }
 
+    /**
+     * @return delivery states of all known Gateways, the key is instance ID of Gateway
+     */
+    public Map<String, DeliveryState> getDeliveryStates() {
+        return Collections.unmodifiableMap(deliveryStates);
     }
 
     /**
-     * All supported types of notification by bean GatewayNotifier
+     * State of delivery of notifications to a single Gateway. It holds notifications which are waiting for sending and
+     * statistics of previous deliveries.
      */
-    @AllArgsConstructor
-    private enum Type {
+    public static class DeliveryState {
+
+        private InstanceInfo instanceInfo;
+        private Set<String> serviceIds = new HashSet<>();
+        private Set<String> instanceIds = new HashSet<>();
+        private long pendingSince;
+        private boolean running;
+
+        @Getter private volatile long lastSuccess;
+        @Getter private volatile long lastFailure;
+        @Getter private volatile int consecutiveFailures;
+        @Getter private volatile long lastLag;
+
+        /**
+         * @return true if the delivery has to be started, false if it is already running
+         */
+        synchronized boolean enqueue(InstanceInfo instanceInfo, Set<String> serviceIds, Set<String> instanceIds) {
+            this.instanceInfo = instanceInfo;
+            if (serviceIds.isEmpty() && instanceIds.isEmpty()) return false;
+
+            if (this.serviceIds.isEmpty() && this.instanceIds.isEmpty()) {
+                pendingSince = System.currentTimeMillis();
+            }
+            this.serviceIds.addAll(serviceIds);
+            this.instanceIds.addAll(instanceIds);
+
+            if (running) return false;
+            running = true;
+            return true;
+        }
 
-        SERVICE_UPDATED( (gatewayNotifier, notification) ->
-            gatewayNotifier.serviceUpdatedProcess(notification.serviceId, notification.instanceId)
-        ),
+        /**
+         * @return all pending notifications, or null if there is nothing to send (the delivery is then finished)
+         */
+        synchronized Batch drain() {
+            if (serviceIds.isEmpty() && instanceIds.isEmpty()) {
+                running = false;
+                return null;
+            }
 
-        DISTRIBUTE_INVALIDATED_CREDENTIALS( (gatewayNotifier, notification) ->
-            gatewayNotifier.distributeInvalidatedCredentialsProcess(notification.instanceId)
-        )
+            Batch batch = new Batch(instanceInfo, serviceIds, instanceIds, pendingSince);
+            serviceIds = new HashSet<>();
+            instanceIds = new HashSet<>();
+            return batch;
+        }
 
-        ;
+        void delivered(Batch batch, boolean success) {
+            final long now = System.currentTimeMillis();
+            lastLag = now - batch.pendingSince;
+            if (success) {
+                lastSuccess = now;
+                consecutiveFailures = 0;
+            } else {
+                lastFailure = now;
+                consecutiveFailures++;
+            }
+        }
 
         /**
-         * Realize mapping of notification to method which process it
+         * @return time in milliseconds of the oldest notification waiting for sending, 0 if nothing is waiting
          */
-        private final BiConsumer<GatewayNotifier, Notification> call;
+        public synchronized long getLag() {
+            if (serviceIds.isEmpty() && instanceIds.isEmpty()) return 0;
+            return System.currentTimeMillis() - pendingSince;
+        }
+
+        public synchronized int getPendingCount() {
+            return serviceIds.size() + instanceIds.size();
+        }
+
+        private static class Batch {
+
+            private final InstanceInfo instanceInfo;
+            private final Set<String> serviceIds;
+            private final Set<String> instanceIds;
+            private final long pendingSince;
+
+            private Batch(InstanceInfo instanceInfo, Set<String> serviceIds, Set<String> instanceIds, long pendingSince) {
+                this.instanceInfo = instanceInfo;
+                this.serviceIds = serviceIds;
+                this.instanceIds = instanceIds;
+                this.pendingSince = pendingSince;
+            }
+
+        }
 
     }
 
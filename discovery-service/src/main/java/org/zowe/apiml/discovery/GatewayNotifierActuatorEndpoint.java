@@ -0,0 +1,51 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Shows state of delivery of notifications to each Gateway
+ */
+@Component
+@Endpoint(id = "gatewaynotifier")
+@RequiredArgsConstructor
+public class GatewayNotifierActuatorEndpoint {
+
+    private final GatewayNotifier gatewayNotifier;
+
+    @ReadOperation
+    public Map<String, Map<String, Number>> getAll() {
+        Map<String, Map<String, Number>> result = new TreeMap<>();
+
+        gatewayNotifier.getDeliveryStates().forEach((instanceId, state) -> {
+            Map<String, Number> map = new LinkedHashMap<>();
+
+            map.put("pending", state.getPendingCount());
+            map.put("lag", state.getLag());
+            map.put("lastLag", state.getLastLag());
+            map.put("lastSuccess", state.getLastSuccess());
+            map.put("lastFailure", state.getLastFailure());
+            map.put("consecutiveFailures", state.getConsecutiveFailures());
+
+            result.put(instanceId, map);
+        });
+
+        return result;
+    }
+
+}
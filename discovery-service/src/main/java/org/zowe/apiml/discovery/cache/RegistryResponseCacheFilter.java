@@ -0,0 +1,243 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.cache;
+
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.zowe.apiml.discovery.ApimlInstanceStatusUpdatedEvent;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of responses with registry (/eureka/apps and /eureka/apps/delta). Eureka serializes the registry for each
+ * request if its read-only response cache is disabled (it is disabled to see changes immediately). This filter keeps
+ * the serialized payload for each version of the registry. The version is changed on each registration, cancellation
+ * (including eviction) and change of status. Those events are published after the registry is updated (see
+ * ApimlInstanceRegistry), so a payload stored for a version could never be older than the version itself.
+ *
+ * Payloads are stored as plain and gzipped, so each next request just writes prepared bytes. Each response contains
+ * ETag with the version and the request with matching If-None-Match gets 304 (Not Modified).
+ *
+ * Payload of delta depends also on time (old changes are dropped from the delta), so each payload is also limited by
+ * time to live.
+ */
+public class RegistryResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+    private static final String X_EUREKA_ACCEPT = "X-Eureka-Accept";
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    private final long timeToLive;
+    private final LongSupplier clock;
+
+    private final Map<String, Payload> payloads = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public RegistryResponseCacheFilter(long timeToLive) {
+        this(timeToLive, System::currentTimeMillis);
+    }
+
+    RegistryResponseCacheFilter(long timeToLive, LongSupplier clock) {
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    @EventListener
+    public void onRegistered(EurekaInstanceRegisteredEvent event) {
+        registryChanged();
+    }
+
+    @EventListener
+    public void onCanceled(EurekaInstanceCanceledEvent event) {
+        registryChanged();
+    }
+
+    @EventListener
+    public void onStatusUpdated(ApimlInstanceStatusUpdatedEvent event) {
+        registryChanged();
+    }
+
+    void registryChanged() {
+        version.incrementAndGet();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        final String key = getKey(request);
+
+        Payload payload = getValid(key);
+        if (payload == null) {
+            synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+                payload = getValid(key);
+                if (payload == null) {
+                    payload = create(request, response, filterChain, key);
+                    if (payload == null) return;
+                }
+            }
+        }
+
+        write(request, response, payload);
+    }
+
+    private Payload getValid(String key) {
+        final Payload payload = payloads.get(key);
+        if (payload == null) return null;
+        if (payload.version != version.get()) return null;
+        if (clock.getAsLong() - payload.created > timeToLive) return null;
+        return payload;
+    }
+
+    /**
+     * Generates the payload by Eureka. If the response is not successful, it is passed to the client without caching.
+     *
+     * @return new payload, or null if the response was already written
+     */
+    private Payload create(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain, String key) throws IOException, ServletException {
+        // the version has to be taken before the payload is generated, the payload could be only newer
+        final long currentVersion = version.get();
+        final long created = clock.getAsLong();
+
+        final ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(new WithoutCompressionRequest(request), wrapper);
+
+        if (wrapper.getStatusCode() != HttpServletResponse.SC_OK) {
+            wrapper.copyBodyToResponse();
+            return null;
+        }
+
+        final byte[] plain = wrapper.getContentAsByteArray();
+        final Payload payload = new Payload(
+            currentVersion, created, wrapper.getContentType(), plain, gzip(plain),
+            "\"" + epoch + "-" + currentVersion + "-" + Integer.toHexString(key.hashCode()) + "\""
+        );
+        payloads.put(key, payload);
+        return payload;
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, Payload payload) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, payload.eTag);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING + ", " + X_EUREKA_ACCEPT);
+        if (payload.eTag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (payload.contentType != null) response.setContentType(payload.contentType);
+
+        final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        final byte[] body;
+        if ((acceptEncoding != null) && acceptEncoding.contains(GZIP)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+            body = payload.gzipped;
+        } else {
+            body = payload.plain;
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private String getKey(HttpServletRequest request) {
+        return new StringBuilder()
+            .append(request.getRequestURI())
+            .append('?').append(request.getQueryString())
+            .append('|').append(request.getHeader(HttpHeaders.ACCEPT))
+            .append('|').append(request.getHeader(X_EUREKA_ACCEPT))
+            .toString();
+    }
+
+    private static byte[] gzip(byte[] plain) throws IOException {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream(Math.max(32, plain.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(os)) {
+            gzip.write(plain);
+        }
+        return os.toByteArray();
+    }
+
+    /**
+     * Immutable serialized registry for a single version
+     */
+    private static class Payload {
+
+        private final long version;
+        private final long created;
+        private final String contentType;
+        private final byte[] plain;
+        private final byte[] gzipped;
+        private final String eTag;
+
+        private Payload(long version, long created, String contentType, byte[] plain, byte[] gzipped, String eTag) {
+            this.version = version;
+            this.created = created;
+            this.contentType = contentType;
+            this.plain = plain;
+            this.gzipped = gzipped;
+            this.eTag = eTag;
+        }
+
+    }
+
+    /**
+     * Hides header Accept-Encoding, Eureka then returns plain payload and the filter compresses it itself
+     */
+    private static class WithoutCompressionRequest extends HttpServletRequestWrapper {
+
+        private WithoutCompressionRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(name)) return null;
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(name)) return Collections.emptyEnumeration();
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                .filter(name -> !HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(name))
+                .collect(Collectors.toList())
+            );
+        }
+
+    }
+
+}
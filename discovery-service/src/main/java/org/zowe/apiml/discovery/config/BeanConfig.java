@@ -10,11 +10,16 @@
 
 package org.zowe.apiml.discovery.config;
 
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.zowe.apiml.message.core.MessageService;
 import org.zowe.apiml.message.yaml.YamlMessageServiceInstance;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
 
 /**
  * General beans setup and creation class for Discovery service
@@ -32,4 +37,23 @@ public class BeanConfig {
         messageService.loadMessages("/discovery-log-messages.yml");
         return messageService;
     }
+
+    /**
+     * Returns RestTemplate with keystore and with timeouts, so notifying of a Gateway which is down or not responding
+     * cannot block notifying of other Gateways for too long.
+     *
+     * @return RestTemplate to notify Gateways, which uses certificate from keystore to authenticate
+     */
+    @Bean
+    @Qualifier("restTemplateGatewayNotifier")
+    public RestTemplate restTemplateGatewayNotifier(
+        @Qualifier("secureHttpClientWithKeystore") CloseableHttpClient secureHttpClient,
+        @Value("${apiml.discovery.gatewayNotifier.timeout:5000}") int timeout
+    ) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(secureHttpClient);
+        factory.setConnectTimeout(timeout);
+        factory.setConnectionRequestTimeout(timeout);
+        factory.setReadTimeout(timeout);
+        return new RestTemplate(factory);
+    }
 }
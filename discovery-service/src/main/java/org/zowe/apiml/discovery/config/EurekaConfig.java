@@ -10,10 +10,21 @@
 package org.zowe.apiml.discovery.config;
 
 import org.zowe.apiml.discovery.ApimlInstanceRegistry;
+import org.zowe.apiml.discovery.cache.RegistryResponseCacheFilter;
+import org.zowe.apiml.discovery.replication.ApimlPeerEurekaNodes;
+import org.zowe.apiml.discovery.replication.GzipRequestFilter;
+import org.zowe.apiml.discovery.replication.ReplicationMonitor;
+import com.netflix.appinfo.ApplicationInfoManager;
 import com.netflix.discovery.EurekaClient;
 import com.netflix.discovery.EurekaClientConfig;
 import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.cluster.PeerEurekaNodes;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
 import com.netflix.eureka.resources.ServerCodecs;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.cloud.netflix.eureka.server.InstanceRegistryProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -32,10 +43,59 @@ public class EurekaConfig {
         EurekaClientConfig clientConfig,
         ServerCodecs serverCodecs,
         EurekaClient eurekaClient,
-        InstanceRegistryProperties instanceRegistryProperties)
+        InstanceRegistryProperties instanceRegistryProperties,
+        ReplicationMonitor replicationMonitor)
     {
         eurekaClient.getApplications(); // force initialization
-        return new ApimlInstanceRegistry(serverConfig, clientConfig, serverCodecs, eurekaClient, instanceRegistryProperties);
+        return new ApimlInstanceRegistry(serverConfig, clientConfig, serverCodecs, eurekaClient, instanceRegistryProperties, replicationMonitor);
+    }
+
+    @Bean
+    public ReplicationMonitor replicationMonitor(EurekaServerConfig serverConfig) {
+        return new ReplicationMonitor(serverConfig.getMaxTimeForReplication());
+    }
+
+    @Bean
+    public PeerEurekaNodes apimlPeerEurekaNodes(
+        PeerAwareInstanceRegistry registry,
+        EurekaServerConfig serverConfig,
+        EurekaClientConfig clientConfig,
+        ServerCodecs serverCodecs,
+        ApplicationInfoManager applicationInfoManager,
+        ReplicationMonitor replicationMonitor)
+    {
+        return new ApimlPeerEurekaNodes(registry, serverConfig, clientConfig, serverCodecs, applicationInfoManager, replicationMonitor);
+    }
+
+    /**
+     * Peers could send compressed replication batches, they are decompressed before Jersey
+     */
+    @Bean
+    public FilterRegistrationBean<GzipRequestFilter> gzipRequestFilterRegistration() {
+        FilterRegistrationBean<GzipRequestFilter> registration = new FilterRegistrationBean<>(new GzipRequestFilter());
+        registration.addUrlPatterns("/eureka/peerreplication/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "apiml.discovery.responseCache.enabled", havingValue = "true", matchIfMissing = true)
+    public RegistryResponseCacheFilter registryResponseCacheFilter(
+        @Value("${apiml.discovery.responseCache.ttl:30000}") long timeToLive
+    ) {
+        return new RegistryResponseCacheFilter(timeToLive);
+    }
+
+    /**
+     * The cache is called after the authentication and before Jersey, which serves the Eureka's REST API
+     */
+    @Bean
+    @ConditionalOnProperty(value = "apiml.discovery.responseCache.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RegistryResponseCacheFilter> registryResponseCacheFilterRegistration(RegistryResponseCacheFilter registryResponseCacheFilter) {
+        FilterRegistrationBean<RegistryResponseCacheFilter> registration = new FilterRegistrationBean<>(registryResponseCacheFilter);
+        registration.addUrlPatterns("/eureka/apps", "/eureka/apps/", "/eureka/apps/delta");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
     }
 
 }
@@ -51,6 +51,14 @@ public class MetadataDefaultsService {
         }
     }
 
+    /**
+     * @param serviceId ID of service
+     * @return data to update metadata of the service, or null if there are none
+     */
+    public ServiceOverrideData getServiceOverrideData(String serviceId) {
+        return additionalServiceMetadata.get(serviceId);
+    }
+
     public void setAdditionalServiceMetadata(Map<String, ServiceOverrideData> additionalServiceMetadata) {
         this.additionalServiceMetadata = Collections.unmodifiableMap(additionalServiceMetadata);
     }
@@ -0,0 +1,98 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.replication;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.cluster.PeerEurekaNode;
+import com.netflix.eureka.cluster.PeerEurekaNodes;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.resources.ServerCodecs;
+import com.netflix.eureka.transport.HttpReplicationClient;
+import com.netflix.eureka.transport.JerseyReplicationClient;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.Set;
+
+/**
+ * Peers of Discovery Service. It creates the peer nodes the same way as Eureka, but their replication clients are
+ * measured by {@link ReplicationMonitor}.
+ *
+ * Batching, coalescing of changes of the same instance and the bounded replication queue are provided by Eureka's
+ * dispatcher of PeerEurekaNode and they are configured by eureka.server.batchReplication,
+ * eureka.server.maxElementsInPeerReplicationPool and eureka.server.enableReplicatedRequestCompression.
+ *
+ * The bean replaces Spring Cloud's RefreshablePeerEurekaNodes, so the peers are updated after a change of
+ * the environment in the same way.
+ */
+public class ApimlPeerEurekaNodes extends PeerEurekaNodes implements ApplicationListener<EnvironmentChangeEvent> {
+
+    private final PeerAwareInstanceRegistry peerAwareInstanceRegistry;
+    private final EurekaServerConfig eurekaServerConfig;
+    private final EurekaClientConfig eurekaClientConfig;
+    private final ServerCodecs codecs;
+    private final ReplicationMonitor replicationMonitor;
+
+    public ApimlPeerEurekaNodes(
+        PeerAwareInstanceRegistry registry,
+        EurekaServerConfig serverConfig,
+        EurekaClientConfig clientConfig,
+        ServerCodecs serverCodecs,
+        ApplicationInfoManager applicationInfoManager,
+        ReplicationMonitor replicationMonitor
+    ) {
+        super(registry, serverConfig, clientConfig, serverCodecs, applicationInfoManager);
+        this.peerAwareInstanceRegistry = registry;
+        this.eurekaServerConfig = serverConfig;
+        this.eurekaClientConfig = clientConfig;
+        this.codecs = serverCodecs;
+        this.replicationMonitor = replicationMonitor;
+    }
+
+    @Override
+    protected PeerEurekaNode createPeerEurekaNode(String peerEurekaNodeUrl) {
+        final HttpReplicationClient replicationClient = replicationMonitor.wrap(
+            peerEurekaNodeUrl,
+            JerseyReplicationClient.createReplicationClient(eurekaServerConfig, codecs, peerEurekaNodeUrl)
+        );
+
+        String targetHost = hostFromUrl(peerEurekaNodeUrl);
+        if (targetHost == null) {
+            targetHost = "host";
+        }
+        return new PeerEurekaNode(peerAwareInstanceRegistry, targetHost, peerEurekaNodeUrl, replicationClient, eurekaServerConfig);
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        if (shouldUpdate(event.getKeys())) {
+            updatePeerEurekaNodes(resolvePeerUrls());
+        }
+    }
+
+    /**
+     * URLs of peers are read from the environment only if DNS is not used, then only changes of the region, zones and
+     * service URLs are relevant
+     */
+    boolean shouldUpdate(Set<String> changedKeys) {
+        if (eurekaClientConfig.shouldUseDnsForFetchingServiceUrls()) return false;
+        if (changedKeys.contains("eureka.client.region")) return true;
+
+        for (String key : changedKeys) {
+            if (key.startsWith("eureka.client.service-url.") || key.startsWith("eureka.client.availability-zones.")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
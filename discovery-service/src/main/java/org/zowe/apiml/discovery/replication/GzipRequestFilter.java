@@ -0,0 +1,144 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.replication;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decompresses bodies of requests with Content-Encoding gzip. Peers send compressed replication batches if
+ * eureka.server.enableReplicatedRequestCompression is set, this filter makes them readable by Eureka regardless of
+ * its own support.
+ */
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        final String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return (contentEncoding == null) || !contentEncoding.toLowerCase().contains(GZIP);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        filterChain.doFilter(new DecompressedRequest(request), response);
+    }
+
+    private static class DecompressedRequest extends HttpServletRequestWrapper {
+
+        private ServletInputStream inputStream;
+
+        private DecompressedRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public synchronized ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                final ServletInputStream compressed = super.getInputStream();
+                inputStream = new DecompressedInputStream(compressed, new GZIPInputStream(compressed));
+            }
+            return inputStream;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isHidden(name)) return null;
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isHidden(name)) return Collections.emptyEnumeration();
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        private boolean isHidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+
+    }
+
+    /**
+     * Decompressed body. Readiness and the read listener are delegated to the original (compressed) stream, so
+     * asynchronous reading is notified when compressed data are available.
+     */
+    private static class DecompressedInputStream extends ServletInputStream {
+
+        private final ServletInputStream compressed;
+        private final InputStream inputStream;
+        private boolean finished;
+
+        private DecompressedInputStream(ServletInputStream compressed, InputStream inputStream) {
+            this.compressed = compressed;
+            this.inputStream = inputStream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int out = inputStream.read();
+            if (out < 0) finished = true;
+            return out;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int out = inputStream.read(b, off, len);
+            if (out < 0) finished = true;
+            return out;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return compressed.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            compressed.setReadListener(readListener);
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.replication;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Shows statistics of the replication to each peer of Discovery Service
+ */
+@Component
+@Endpoint(id = "replication")
+@RequiredArgsConstructor
+public class ReplicationActuatorEndpoint {
+
+    private final ReplicationMonitor replicationMonitor;
+
+    @ReadOperation
+    public Map<String, Object> getAll() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("submitted", replicationMonitor.getSubmitted());
+
+        Map<String, Map<String, Number>> peers = new TreeMap<>();
+        replicationMonitor.getPeers().forEach((serviceUrl, statistics) -> {
+            Map<String, Number> map = new LinkedHashMap<>();
+
+            map.put("queueSize", statistics.getQueueSize());
+            map.put("lag", statistics.getLag());
+            map.put("calls", statistics.getCalls());
+            map.put("events", statistics.getEvents());
+            map.put("failures", statistics.getFailures());
+            map.put("lastLatency", statistics.getLastLatency());
+            map.put("lastSuccess", statistics.getLastSuccess());
+            map.put("lastFailure", statistics.getLastFailure());
+
+            peers.put(serviceUrl, map);
+        });
+        result.put("peers", peers);
+
+        return result;
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.replication;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.eureka.cluster.protocol.ReplicationInstance;
+import com.netflix.eureka.cluster.protocol.ReplicationList;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl.Action;
+import com.netflix.eureka.transport.HttpReplicationClient;
+import lombok.Getter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Collects statistics of the replication to peers of the Discovery Service. Changes of the registry made by this node
+ * are reported by {@link org.zowe.apiml.discovery.ApimlInstanceRegistry}, calls to peers are measured by a wrapper of
+ * the replication client (see {@link #wrap(String, HttpReplicationClient)}).
+ *
+ * The depth of the replication queue of each peer is estimated by the changes, which were submitted and not replicated
+ * yet. Changes of the same instance with the same action are counted once, the same way as Eureka's dispatcher
+ * coalesces them. Eureka drops changes, which were not replicated in eureka.server.maxTimeForReplication, the estimate
+ * forgets them after the same time.
+ */
+public class ReplicationMonitor {
+
+    private static final String SUBMIT_BATCH_UPDATES = "submitBatchUpdates";
+
+    /**
+     * Methods of the replication client which send a single change to the peer, the batch is sent by
+     * {@link #SUBMIT_BATCH_UPDATES}, all others are just delegated
+     */
+    private static final Map<String, Action> REPLICATION_METHODS = new HashMap<>();
+
+    static {
+        REPLICATION_METHODS.put("register", Action.Register);
+        REPLICATION_METHODS.put("cancel", Action.Cancel);
+        REPLICATION_METHODS.put("sendHeartBeat", Action.Heartbeat);
+        REPLICATION_METHODS.put("statusUpdate", Action.StatusUpdate);
+        REPLICATION_METHODS.put("deleteStatusOverride", Action.DeleteStatusOverride);
+    }
+
+    private final Map<String, PeerStatistics> peers = new ConcurrentHashMap<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final LongSupplier clock;
+    private final long maxTimeForReplication;
+
+    public ReplicationMonitor(long maxTimeForReplication) {
+        this(System::currentTimeMillis, maxTimeForReplication);
+    }
+
+    ReplicationMonitor(LongSupplier clock, long maxTimeForReplication) {
+        this.clock = clock;
+        this.maxTimeForReplication = maxTimeForReplication;
+    }
+
+    /**
+     * Called after each change of the registry, which will be replicated to the peers
+     *
+     * @param action type of the change
+     * @param appName name of the application of the changed instance
+     * @param id ID of the changed instance
+     */
+    public void submitted(Action action, String appName, String id) {
+        submitted.incrementAndGet();
+        final long now = clock.getAsLong();
+        final String task = task(action, appName, id);
+        peers.values().forEach(peer -> peer.submitted(now, task));
+    }
+
+    private static String task(Action action, String appName, String id) {
+        return action + "#" + (appName == null ? null : appName.toUpperCase()) + "/" + id;
+    }
+
+    /**
+     * @return changes sent by the call of the replication client
+     */
+    private static List<String> tasks(Method method, Object[] args) {
+        final List<String> out = new ArrayList<>();
+        if (SUBMIT_BATCH_UPDATES.equals(method.getName())) {
+            if ((args != null) && (args.length == 1) && (args[0] instanceof ReplicationList)) {
+                for (ReplicationInstance instance : ((ReplicationList) args[0]).getReplicationList()) {
+                    out.add(task(instance.getAction(), instance.getAppName(), instance.getId()));
+                }
+            }
+        } else if ((args != null) && (args.length > 0) && (args[0] instanceof InstanceInfo)) {
+            final InstanceInfo instanceInfo = (InstanceInfo) args[0];
+            out.add(task(REPLICATION_METHODS.get(method.getName()), instanceInfo.getAppName(), instanceInfo.getId()));
+        } else if ((args != null) && (args.length > 1)) {
+            out.add(task(REPLICATION_METHODS.get(method.getName()), (String) args[0], (String) args[1]));
+        }
+        return out;
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public Map<String, PeerStatistics> getPeers() {
+        return Collections.unmodifiableMap(peers);
+    }
+
+    /**
+     * Wraps the replication client to measure all replication calls to the peer
+     *
+     * @param serviceUrl URL of the peer
+     * @param client original client
+     * @return client with the same behaviour, which updates statistics of the peer
+     */
+    public HttpReplicationClient wrap(String serviceUrl, HttpReplicationClient client) {
+        final PeerStatistics statistics = peers.computeIfAbsent(serviceUrl, x -> new PeerStatistics());
+
+        return (HttpReplicationClient) Proxy.newProxyInstance(
+            HttpReplicationClient.class.getClassLoader(),
+            new Class<?>[] {HttpReplicationClient.class},
+            (proxy, method, args) -> {
+                if (!SUBMIT_BATCH_UPDATES.equals(method.getName()) && !REPLICATION_METHODS.containsKey(method.getName())) {
+                    return invoke(method, client, args);
+                }
+
+                final long start = clock.getAsLong();
+                final List<String> tasks = tasks(method, args);
+                final int count = SUBMIT_BATCH_UPDATES.equals(method.getName()) ? tasks.size() : 1;
+                try {
+                    final Object response = invoke(method, client, args);
+                    final int status = (response instanceof EurekaHttpResponse) ? ((EurekaHttpResponse<?>) response).getStatusCode() : 200;
+                    statistics.replicated(start, clock.getAsLong(), count, tasks, (status >= 200) && (status < 300));
+                    return response;
+                } catch (Throwable t) {
+                    statistics.replicated(start, clock.getAsLong(), count, tasks, false);
+                    throw t;
+                }
+            }
+        );
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Statistics of replication to a single peer
+     */
+    public class PeerStatistics {
+
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong events = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final Map<String, Long> pending = new ConcurrentHashMap<>();
+
+        @Getter private volatile long lastLatency;
+        @Getter private volatile long lastSuccess;
+        @Getter private volatile long lastFailure;
+        private volatile long pendingSince;
+
+        private synchronized void submitted(long now, String task) {
+            if (pendingSince == 0) pendingSince = now;
+            pending.put(task, now);
+        }
+
+        private synchronized void replicated(long start, long end, int count, List<String> tasks, boolean success) {
+            calls.incrementAndGet();
+            events.addAndGet(count);
+            lastLatency = end - start;
+
+            if (success) {
+                lastSuccess = end;
+                // changes made after the start of call could be not contained, they are still pending
+                if (pendingSince < start) pendingSince = 0;
+                tasks.forEach(task -> pending.computeIfPresent(task, (k, submittedAt) -> submittedAt < start ? null : submittedAt));
+            } else {
+                failures.incrementAndGet();
+                lastFailure = end;
+            }
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public long getEvents() {
+            return events.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /**
+         * @return estimated number of changes in the replication queue of the peer
+         */
+        public synchronized int getQueueSize() {
+            final long expired = clock.getAsLong() - maxTimeForReplication;
+            pending.values().removeIf(submittedAt -> submittedAt < expired);
+            return pending.size();
+        }
+
+        /**
+         * @return time (ms) of the oldest change which was probably not replicated yet, 0 if there is none
+         */
+        public long getLag() {
+            final long since = pendingSince;
+            return since == 0 ? 0 : Math.max(0, clock.getAsLong() - since);
+        }
+
+    }
+
+}
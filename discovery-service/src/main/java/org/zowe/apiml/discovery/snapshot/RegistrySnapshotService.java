@@ -0,0 +1,271 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.snapshot;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrapper;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Application;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Periodically stores the registry into a local file and restores it after the start of Discovery Service. Without
+ * it the restarted Discovery Service has empty registry until clients register again (or peers replicate them), so
+ * Gateways would lose the services for a while.
+ *
+ * Restored instances are provisional. They are not replicated to peers and each of them, which is not renewed (by its
+ * client or by a peer) until the provisional timeout, is removed.
+ *
+ * The file is gzipped sequence of instances encoded by the same codec as Eureka uses in its REST API. It is written
+ * into a temporary file at first and then moved, so the file is always complete. The location is set by
+ * apiml.discovery.snapshot.file (resp. apiml.discovery.snapshot.directory). The default is the temporary directory,
+ * which is shared and not persistent, so a deployment should set its own directory. Missing directories are created
+ * and the file is readable only by the owner (if the file system supports POSIX permissions), because it contains
+ * metadata of all registered services.
+ */
+@Slf4j
+@Service
+public class RegistrySnapshotService {
+
+    private static final int MAGIC = 0x41504d4c;
+    private static final int FORMAT_VERSION = 1;
+
+    private final PeerAwareInstanceRegistry registry;
+    private final String file;
+    private final long maxAge;
+    private final long provisionalTimeout;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+
+    private final List<InstanceInfo> provisional = new ArrayList<>();
+    private long restored;
+
+    @Autowired
+    public RegistrySnapshotService(
+        PeerAwareInstanceRegistry registry,
+        @Value("${apiml.discovery.snapshot.file:#{null}}") String file,
+        @Value("${apiml.discovery.snapshot.interval:30000}") long interval,
+        @Value("${apiml.discovery.snapshot.maxAge:300000}") long maxAge,
+        @Value("${apiml.discovery.snapshot.provisionalTimeout:90000}") long provisionalTimeout
+    ) {
+        this(registry, file, maxAge, provisionalTimeout, System::currentTimeMillis, createScheduler());
+        if (isEnabled()) {
+            scheduler.scheduleWithFixedDelay(this::writeSnapshotSafely, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    RegistrySnapshotService(
+        PeerAwareInstanceRegistry registry,
+        String file,
+        long maxAge,
+        long provisionalTimeout,
+        LongSupplier clock,
+        ScheduledExecutorService scheduler
+    ) {
+        this.registry = registry;
+        this.file = file;
+        this.maxAge = maxAge;
+        this.provisionalTimeout = provisionalTimeout;
+        this.clock = clock;
+        this.scheduler = scheduler;
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("registry-snapshot-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    private boolean isEnabled() {
+        return StringUtils.isNotBlank(file);
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        scheduler.shutdownNow();
+        writeSnapshotSafely();
+    }
+
+    /**
+     * Restores the snapshot after the registry is available (and synchronized with peers), before registration of
+     * static services
+     */
+    @EventListener
+    @Order(0)
+    public void onRegistryAvailable(EurekaRegistryAvailableEvent event) {
+        if (!isEnabled()) return;
+
+        try {
+            restoreSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot restore snapshot of registry from {}", file, e);
+        }
+
+        if (!getProvisional().isEmpty()) {
+            scheduler.schedule(this::removeUnconfirmed, provisionalTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writeSnapshotSafely() {
+        if (!isEnabled()) return;
+
+        try {
+            writeSnapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot write snapshot of registry into {}", file, e);
+        }
+    }
+
+    /**
+     * Writes all instances in the registry into the file
+     */
+    void writeSnapshot() throws IOException {
+        final List<InstanceInfo> instances = new ArrayList<>();
+        for (Application application : registry.getApplications().getRegisteredApplications()) {
+            instances.addAll(application.getInstancesAsIsFromEureka());
+        }
+
+        final CodecWrapper codec = CodecWrappers.getCodec(CodecWrappers.JacksonJson.class);
+        final Path target = Paths.get(file);
+        final Path temporary = Paths.get(file + ".tmp");
+        createFile(temporary);
+        try (DataOutputStream os = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))) {
+            os.writeInt(MAGIC);
+            os.writeInt(FORMAT_VERSION);
+            os.writeLong(clock.getAsLong());
+            os.writeInt(instances.size());
+            for (InstanceInfo instanceInfo : instances) {
+                final byte[] data = codec.encode(instanceInfo).getBytes(StandardCharsets.UTF_8);
+                os.writeInt(data.length);
+                os.write(data);
+            }
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Snapshot of registry with {} instances was written into {}", instances.size(), file);
+    }
+
+    private void createFile(Path path) throws IOException {
+        final Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        Files.deleteIfExists(path);
+        if (Files.getFileStore(parent).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+    }
+
+    /**
+     * Registers instances from the snapshot, which are not in the registry yet. Old snapshot is ignored.
+     */
+    void restoreSnapshot() throws IOException {
+        final Path source = Paths.get(file);
+        if (!Files.isRegularFile(source)) return;
+
+        final CodecWrapper codec = CodecWrappers.getCodec(CodecWrappers.JacksonJson.class);
+        final List<InstanceInfo> restoredInstances = new ArrayList<>();
+        try (DataInputStream is = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(source))))) {
+            if ((is.readInt() != MAGIC) || (is.readInt() != FORMAT_VERSION)) {
+                log.warn("File {} does not contain supported snapshot of registry", file);
+                return;
+            }
+
+            final long created = is.readLong();
+            if (clock.getAsLong() - created > maxAge) {
+                log.info("Snapshot of registry in {} is too old, it will not be restored", file);
+                return;
+            }
+
+            final int count = is.readInt();
+            for (int i = 0; i < count; i++) {
+                final byte[] data = new byte[is.readInt()];
+                is.readFully(data);
+                final InstanceInfo instanceInfo = codec.decode(new String(data, StandardCharsets.UTF_8), InstanceInfo.class);
+                if (registry.getInstanceByAppAndId(instanceInfo.getAppName(), instanceInfo.getId(), false) != null) continue;
+
+                registry.register(instanceInfo, getLeaseDuration(instanceInfo), true);
+                restoredInstances.add(instanceInfo);
+            }
+        }
+
+        synchronized (provisional) {
+            provisional.addAll(restoredInstances);
+            restored = clock.getAsLong();
+        }
+        log.info("{} instances were restored from snapshot of registry", restoredInstances.size());
+    }
+
+    private int getLeaseDuration(InstanceInfo instanceInfo) {
+        final LeaseInfo leaseInfo = instanceInfo.getLeaseInfo();
+        if ((leaseInfo == null) || (leaseInfo.getDurationInSecs() <= 0)) return LeaseInfo.DEFAULT_LEASE_DURATION;
+        return leaseInfo.getDurationInSecs();
+    }
+
+    /**
+     * Removes restored instances, which were not renewed since their restoring
+     */
+    void removeUnconfirmed() {
+        final List<InstanceInfo> instances;
+        final long restoredAt;
+        synchronized (provisional) {
+            instances = new ArrayList<>(provisional);
+            restoredAt = restored;
+            provisional.clear();
+        }
+
+        int removed = 0;
+        for (InstanceInfo restoredInstance : instances) {
+            final InstanceInfo current = registry.getInstanceByAppAndId(restoredInstance.getAppName(), restoredInstance.getId(), false);
+            if (current == null) continue;
+
+            final LeaseInfo leaseInfo = current.getLeaseInfo();
+            if ((leaseInfo == null) || (leaseInfo.getRenewalTimestamp() <= restoredAt)) {
+                registry.cancel(restoredInstance.getAppName(), restoredInstance.getId(), true);
+                removed++;
+            }
+        }
+        log.info("{} of {} restored instances were not confirmed and they were removed", removed, instances.size());
+    }
+
+    List<InstanceInfo> getProvisional() {
+        synchronized (provisional) {
+            return Collections.unmodifiableList(new ArrayList<>(provisional));
+        }
+    }
+
+}
@@ -15,6 +15,7 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.netflix.appinfo.DataCenterInfo;
 import com.netflix.appinfo.InstanceInfo;
 import com.netflix.appinfo.LeaseInfo;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
 import org.springframework.stereotype.Component;
@@ -38,7 +39,10 @@ import java.net.URL;
 import java.net.UnknownHostException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static org.zowe.apiml.constants.EurekaMetadataDefinition.*;
@@ -55,7 +59,10 @@ public class ServiceDefinitionProcessor {
     private static final String STATIC_INSTANCE_ID_PREFIX = "STATIC-";
     private static final DataCenterInfo DEFAULT_INFO = () -> DataCenterInfo.Name.MyOwn;
     private static final String DEFAULT_TILE_VERSION = "1.0.0";
-    private static final YAMLFactory YAML_FACTORY = new YAMLFactory();
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    private final Map<String, ProcessedFile> processedFiles = new ConcurrentHashMap<>();
+    private Map<String, ServiceOverrideData> additionalServiceMetadata;
 
     public ServiceDefinitionProcessor() {
     }
@@ -88,60 +95,142 @@ public class ServiceDefinitionProcessor {
     }
 
     /**
-     * Creates a list of instances from static definition files
+     * Creates a list of instances from static definition files. Results of each file are cached, the file is read
+     * again only if its time of modification or size was changed and processed again only if its content was changed.
+     * Changed files are processed in parallel. Unchanged files return the same instances as before, so the caller is
+     * able to recognize instances which were not changed.
      *
      * @param staticApiDefinitionsDirectories directories containing static definitions
      * @return list of instances
      */
-    public StaticRegistrationResult findStaticServicesData(String staticApiDefinitionsDirectories) {
+    public synchronized StaticRegistrationResult findStaticServicesData(String staticApiDefinitionsDirectories) {
         final StaticRegistrationResult context = new StaticRegistrationResult();
 
         final List<File> directories = getFiles(context, staticApiDefinitionsDirectories);
+        final List<File> files = new ArrayList<>();
         for (final File directory : directories) {
             log.info("Scanning directory with static services definition: " + directory);
-            final File[] files = directory.listFiles((dir, name) -> name.endsWith(".yml"));
+            final File[] filesInDirectory = directory.listFiles((dir, name) -> name.endsWith(".yml"));
 
-            if (files == null) {
+            if (filesInDirectory == null) {
                 final Message msg = apimlLog.log("org.zowe.apiml.discovery.errorReadingStaticDefinitionFolder", directory.getAbsolutePath());
                 context.getErrors().add(msg);
                 continue;
             }
 
-            if (files.length == 0) {
+            if (filesInDirectory.length == 0) {
                 log.info("No static service definition found in directory: {}", directory.getAbsolutePath());
             }
 
-            for (final File file : files) {
-                final Definition definition = loadDefinition(context, file);
-                if (definition == null) continue;
+            files.addAll(Arrays.asList(filesInDirectory));
+        }
+
+        StaticRegistrationResult result = merge(context, files, true);
+        if ((additionalServiceMetadata != null) && !result.getAdditionalServiceMetadata().equals(additionalServiceMetadata)) {
+            // metadata defaults are applied into instances during registration, changed defaults need new instances
+            result = merge(context, files, false);
+        }
+        additionalServiceMetadata = new HashMap<>(result.getAdditionalServiceMetadata());
+
+        final Set<String> fileNames = files.stream().map(File::getAbsolutePath).collect(Collectors.toSet());
+        processedFiles.keySet().retainAll(fileNames);
+
+        return result;
+    }
+
+    private StaticRegistrationResult merge(StaticRegistrationResult context, List<File> files, boolean reuseInstances) {
+        final StaticRegistrationResult output = new StaticRegistrationResult();
+        output.getErrors().addAll(context.getErrors());
+
+        final List<StaticRegistrationResult> results = files.parallelStream()
+            .map(file -> processFile(file, reuseInstances))
+            .collect(Collectors.toList());
+
+        for (int i = 0; i < files.size(); i++) {
+            final String ymlFileName = files.get(i).getAbsolutePath();
+            final StaticRegistrationResult result = results.get(i);
 
-                process(context, file.getAbsolutePath(), definition);
+            output.getErrors().addAll(result.getErrors());
+            output.getInstances().addAll(result.getInstances());
+            for (final Map.Entry<String, ServiceOverrideData> entry : result.getAdditionalServiceMetadata().entrySet()) {
+                if (output.getAdditionalServiceMetadata().put(entry.getKey(), entry.getValue()) != null) {
+                    final Message msg = apimlLog.log("org.zowe.apiml.discovery.errorParsingStaticDefinitionData", ymlFileName,
+                        String.format("Additional service metadata of %s in processing file %s were replaced for duplicities", entry.getKey(), ymlFileName));
+                    output.getErrors().add(msg);
+                }
             }
         }
 
-        return context;
+        return output;
     }
 
-    protected Definition loadDefinition(StaticRegistrationResult context, File file) {
+    /**
+     * Returns result of a single file. It is taken from the cache if possible.
+     *
+     * @param file definition file
+     * @param reuseInstances false to create new instances even if the file was not changed
+     * @return result of processing of the file
+     */
+    private StaticRegistrationResult processFile(File file, boolean reuseInstances) {
         final String fileName = file.getAbsolutePath();
-        log.info("Static API definition file: {}", fileName);
+        final long lastModified = file.lastModified();
+        final long size = file.length();
 
-        final String content;
+        final ProcessedFile cached = processedFiles.get(fileName);
+        if ((cached != null) && (cached.lastModified == lastModified) && (cached.size == size)) {
+            return getResult(fileName, cached, reuseInstances);
+        }
+
+        final StaticRegistrationResult context = new StaticRegistrationResult();
+        log.info("Static API definition file: {}", fileName);
+        final byte[] content;
         try {
-            content = new String(Files.readAllBytes(Paths.get(fileName)));
-            return loadDefinition(context, fileName, content);
+            content = Files.readAllBytes(Paths.get(fileName));
         } catch (IOException e) {
             final Message msg = apimlLog.log("org.zowe.apiml.discovery.errorParsingStaticDefinitionFile", fileName);
             context.getErrors().add(msg);
-            return null;
+            processedFiles.remove(fileName);
+            return context;
         }
+
+        final String hash = hash(content);
+        if ((cached != null) && cached.hash.equals(hash)) {
+            final ProcessedFile touched = new ProcessedFile(lastModified, size, hash, cached.definition, cached.result);
+            processedFiles.put(fileName, touched);
+            return getResult(fileName, touched, reuseInstances);
+        }
+
+        final Definition definition = loadDefinition(context, fileName, new String(content));
+        if (definition == null) {
+            processedFiles.remove(fileName);
+            return context;
+        }
+
+        process(context, fileName, definition);
+        processedFiles.put(fileName, new ProcessedFile(lastModified, size, hash, definition, context));
+        return context;
     }
 
-    protected Definition loadDefinition(StaticRegistrationResult context, String ymlFileName, String ymlData) {
-        final ObjectMapper mapper = new ObjectMapper(YAML_FACTORY);
+    private StaticRegistrationResult getResult(String fileName, ProcessedFile processedFile, boolean reuseInstances) {
+        if (reuseInstances) return processedFile.result;
+
+        final StaticRegistrationResult context = new StaticRegistrationResult();
+        process(context, fileName, processedFile.definition);
+        processedFiles.put(fileName, new ProcessedFile(processedFile.lastModified, processedFile.size, processedFile.hash, processedFile.definition, context));
+        return context;
+    }
 
+    private static String hash(byte[] content) {
         try {
-            return mapper.readValue(ymlData, Definition.class);
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    protected Definition loadDefinition(StaticRegistrationResult context, String ymlFileName, String ymlData) {
+        try {
+            return YAML_MAPPER.readValue(ymlData, Definition.class);
         } catch (UnrecognizedPropertyException e) {
             final Message msg = apimlLog.log("org.zowe.apiml.discovery.errorParsingStaticDefinitionData", ymlFileName, e.getOriginalMessage());
             context.getErrors().add(msg);
@@ -394,4 +483,19 @@ public class ServiceDefinitionProcessor {
 
         return metadata;
     }
+
+    /**
+     * Cached result of a definition file
+     */
+    @AllArgsConstructor
+    private static class ProcessedFile {
+
+        private final long lastModified;
+        private final long size;
+        private final String hash;
+        private final Definition definition;
+        private final StaticRegistrationResult result;
+
+    }
+
 }
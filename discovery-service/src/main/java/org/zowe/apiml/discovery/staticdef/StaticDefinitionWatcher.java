@@ -0,0 +1,136 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.staticdef;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches directories with static definitions and reloads static services after any change in them. Changes are
+ * collected for a short time, so writing of several files causes just one reload.
+ */
+@Slf4j
+@Component
+public class StaticDefinitionWatcher {
+
+    @Value("${apiml.discovery.staticApiDefinitionsDirectories:#{null}}")
+    private String staticApiDefinitionsDirectories;
+
+    @Value("${apiml.discovery.staticDefinitionsWatcher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${apiml.discovery.staticDefinitionsWatcher.delay:1000}")
+    private long delay;
+
+    private final StaticServicesRegistrationService registrationService;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    @Autowired
+    public StaticDefinitionWatcher(StaticServicesRegistrationService registrationService) {
+        this.registrationService = registrationService;
+    }
+
+    /**
+     * Starts watching of all configured directories. Directories which do not exist are skipped.
+     */
+    public synchronized void start() {
+        if (!enabled || (thread != null) || StringUtils.isEmpty(staticApiDefinitionsDirectories)) return;
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (String directory : staticApiDefinitionsDirectories.split(";")) {
+                final Path path = Paths.get(directory);
+                if (directory.isEmpty() || !Files.isDirectory(path)) continue;
+                path.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                log.debug("Watching directory {} with static definitions", path);
+            }
+        } catch (IOException e) {
+            log.warn("Cannot watch directories with static definitions, changes have to be reloaded manually", e);
+            stop();
+            return;
+        }
+
+        thread = new Thread(this::run, "static-definition-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Cannot close watching of static definitions", e);
+            }
+            watchService = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        final WatchService service = watchService;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                // collect all changes which come in the delay
+                while (key != null) {
+                    changed |= isDefinitionChanged(key);
+                    key.reset();
+                    key = service.poll(delay, TimeUnit.MILLISECONDS);
+                }
+
+                if (changed) reload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Watching of static definitions was stopped");
+        }
+    }
+
+    private boolean isDefinitionChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                changed = true;
+            } else if (String.valueOf(event.context()).endsWith(".yml")) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void reload() {
+        try {
+            log.debug("Static definitions were changed, static services will be reloaded");
+            registrationService.reloadServices();
+        } catch (RuntimeException e) {
+            log.warn("Reloading of static definitions failed", e);
+        }
+    }
+
+}
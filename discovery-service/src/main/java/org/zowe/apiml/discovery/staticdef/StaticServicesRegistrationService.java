@@ -19,15 +19,22 @@ import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.*;
 
 /**
  * Responsible for registration of statically defined APIs into Eureka and updating their status.
  *
  * The service called by {@link EurekaRegistryAvailableListener} that calls method {@link #registerServices()}.
+ *
+ * Registered instances are kept as an immutable snapshot, which is swapped on each (re)registration. Renewals read
+ * the snapshot without any lock, so they are never blocked by reloading (only an evicted instance is registered
+ * again under the lock). The snapshot is renewed in batches by several threads, a failure of any renewal does not
+ * stop the next ones.
  */
 @Slf4j
 @Component
@@ -38,9 +45,19 @@ public class StaticServicesRegistrationService {
     private final ServiceDefinitionProcessor serviceDefinitionProcessor;
     private final MetadataDefaultsService metadataDefaultsService;
 
-    private final List<InstanceInfo> staticInstances = new CopyOnWriteArrayList<>();
+    @Value("${apiml.discovery.staticRenewal.threads:4}")
+    private int renewalThreads = 4;
+
+    @Value("${apiml.discovery.staticRenewal.batchSize:200}")
+    private int renewalBatchSize = 200;
+
+    private volatile List<InstanceInfo> staticInstances = Collections.emptyList();
 
-    private final Timer renewalTimer = new Timer();
+    private final Object reloadLock = new Object();
+    private CompletableFuture<StaticRegistrationResult> pendingReload;
+
+    private ScheduledExecutorService renewalScheduler;
+    private ExecutorService renewalExecutor;
 
     @Autowired
     public StaticServicesRegistrationService(ServiceDefinitionProcessor serviceDefinitionProcessor, MetadataDefaultsService metadataDefaultsService) {
@@ -63,36 +80,153 @@ public class StaticServicesRegistrationService {
         startRenewalTimer();
     }
 
-    private void startRenewalTimer() {
-        renewalTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                renewInstances();
+    private synchronized void startRenewalTimer() {
+        if (renewalScheduler != null) return;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("static-renewal-");
+        threadFactory.setDaemon(true);
+        renewalExecutor = Executors.newFixedThreadPool(Math.max(1, renewalThreads), threadFactory);
+        renewalScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        renewalScheduler.scheduleAtFixedRate(
+            this::renewInstancesSafely,
+            LeaseInfo.DEFAULT_LEASE_RENEWAL_INTERVAL * 1000L, LeaseInfo.DEFAULT_LEASE_RENEWAL_INTERVAL * 1000L,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public synchronized void stopRenewalTimer() {
+        if (renewalScheduler != null) renewalScheduler.shutdownNow();
+        if (renewalExecutor != null) renewalExecutor.shutdownNow();
+        renewalScheduler = null;
+        renewalExecutor = null;
+    }
+
+    /**
+     * Any exception thrown from a scheduled task cancels all its next runs, this method never throws any.
+     */
+    private void renewInstancesSafely() {
+        try {
+            renewInstances();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Renewal of static instances failed, it will be retried in the next interval", e);
+        }
+    }
+
+    /**
+     * Renews all static instances. The instances are split into batches, which are renewed in parallel (if
+     * the renewal timer is running). The method returns after all batches are processed.
+     */
+    void renewInstances() throws InterruptedException {
+        final List<InstanceInfo> snapshot = staticInstances;
+        log.debug("Renewing {} static instances", snapshot.size());
+
+        final ExecutorService executor = renewalExecutor;
+        if (executor == null) {
+            renewBatch(snapshot);
+            return;
+        }
+
+        final int batchSize = Math.max(1, renewalBatchSize);
+        final List<Callable<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < snapshot.size(); from += batchSize) {
+            final List<InstanceInfo> batch = snapshot.subList(from, Math.min(snapshot.size(), from + batchSize));
+            batches.add(() -> {
+                renewBatch(batch);
+                return null;
+            });
+        }
+        executor.invokeAll(batches);
+    }
+
+    private void renewBatch(List<InstanceInfo> batch) {
+        final PeerAwareInstanceRegistry registry = getRegistry();
+        for (InstanceInfo instance : batch) {
+            renew(registry, instance);
+        }
+    }
+
+    /**
+     * Renews the lease of the instance. If the lease does not exist anymore (ie. it was evicted), the instance is
+     * registered again.
+     */
+    private void renew(PeerAwareInstanceRegistry registry, InstanceInfo instance) {
+        try {
+            if (!registry.renew(instance.getAppName(), instance.getId(), false)) {
+                reRegister(registry, instance);
             }
-        }, LeaseInfo.DEFAULT_LEASE_RENEWAL_INTERVAL * 1000L, LeaseInfo.DEFAULT_LEASE_RENEWAL_INTERVAL * 1000L);
+        } catch (RuntimeException e) {
+            log.warn("Cannot renew static instance {}", instance.getId(), e);
+        }
     }
 
-    synchronized void renewInstances() {
-        log.debug("Renewing static instances");
-        PeerAwareInstanceRegistry registry = getRegistry();
-        for (InstanceInfo instance : getStaticInstances()) {
-            registry.renew(instance.getAppName(), instance.getId(), false);
+    /**
+     * The renewal could use an old snapshot, the instance could be removed (cancelled) by a reload in the meantime.
+     * The registration runs under the same lock as the reload and only if the instance is still in the current
+     * snapshot, so a removed instance is never registered again.
+     */
+    private synchronized void reRegister(PeerAwareInstanceRegistry registry, InstanceInfo instance) {
+        for (InstanceInfo current : staticInstances) {
+            if (current == instance) {
+                log.debug("Static instance {} is not registered, it will be registered again", instance.getId());
+                registry.register(instance, false);
+                return;
+            }
         }
+        log.debug("Static instance {} was removed, it is not registered again", instance.getId());
     }
 
     /**
      * Reloads all statically defined APIs in locations specified by configuration
-     * by reading the definitions again.
+     * by reading the definitions again. Only changed instances are registered again
+     * and only removed instances are cancelled.
+     *
+     * Concurrent requests are coalesced. At most one reload is running and at most one is waiting for it. All
+     * requests which come during the running reload share the waiting one (it starts after the running one, so it
+     * reads also changes made during the running reload) and they get the same result.
      */
-    public synchronized StaticRegistrationResult reloadServices() {
-        List<InstanceInfo> oldStaticInstances = new ArrayList<>(staticInstances);
+    public StaticRegistrationResult reloadServices() {
+        final CompletableFuture<StaticRegistrationResult> reload;
+        final boolean owner;
+        synchronized (reloadLock) {
+            owner = (pendingReload == null);
+            if (owner) pendingReload = new CompletableFuture<>();
+            reload = pendingReload;
+        }
+
+        if (owner) {
+            synchronized (this) {
+                // the reload is starting, next requests have to wait for a new one
+                synchronized (reloadLock) {
+                    pendingReload = null;
+                }
+                try {
+                    reload.complete(doReloadServices());
+                } catch (RuntimeException e) {
+                    reload.completeExceptionally(e);
+                }
+            }
+        }
+
+        try {
+            return reload.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    private StaticRegistrationResult doReloadServices() {
+        List<InstanceInfo> oldStaticInstances = staticInstances;
 
-        staticInstances.clear();
-        StaticRegistrationResult result = registerServices(staticApiDefinitionsDirectories);
+        StaticRegistrationResult result = registerServices(staticApiDefinitionsDirectories, Collections.emptyList());
 
         PeerAwareInstanceRegistry registry = getRegistry();
+        Set<String> registeredServices = new HashSet<>(result.getRegisteredServices());
         for (InstanceInfo info: oldStaticInstances) {
-            if (!result.getRegisteredServices().contains(info.getInstanceId())) {
+            if (!registeredServices.contains(info.getInstanceId())) {
                 log.info("Instance {} is not defined in the new static API definitions. It will be removed", info.getInstanceId());
                 registry.cancel(info.getAppName(), info.getId(), false);
             }
@@ -104,7 +238,15 @@ public class StaticServicesRegistrationService {
     /**
      * Registers all statically defined APIs in a directory.
      */
-    StaticRegistrationResult registerServices(String staticApiDefinitionsDirectories) {
+    synchronized StaticRegistrationResult registerServices(String staticApiDefinitionsDirectories) {
+        return registerServices(staticApiDefinitionsDirectories, staticInstances);
+    }
+
+    /**
+     * Registers all statically defined APIs in a directory and replaces the snapshot of static instances by the
+     * current ones followed by the registered.
+     */
+    private StaticRegistrationResult registerServices(String staticApiDefinitionsDirectories, List<InstanceInfo> current) {
         PeerAwareInstanceRegistry registry = getRegistry();
         StaticRegistrationResult result = serviceDefinitionProcessor.findStaticServicesData(staticApiDefinitionsDirectories);
 
@@ -112,12 +254,18 @@ public class StaticServicesRegistrationService {
         final Map<String, ServiceOverrideData> additionalServiceMetadata = result.getAdditionalServiceMetadata();
         metadataDefaultsService.setAdditionalServiceMetadata(additionalServiceMetadata);
 
-        // register static services
+        // register static services, instances which were not changed (the same object) are already registered
+        final Set<InstanceInfo> registered = Collections.newSetFromMap(new IdentityHashMap<>());
+        registered.addAll(staticInstances);
+        List<InstanceInfo> instances = new ArrayList<>(current);
         for (InstanceInfo instanceInfo : result.getInstances()) {
             result.getRegisteredServices().add(instanceInfo.getInstanceId());
-            staticInstances.add(instanceInfo);
-            registry.register(instanceInfo, false);
+            instances.add(instanceInfo);
+            if (!registered.contains(instanceInfo)) {
+                registry.register(instanceInfo, false);
+            }
         }
+        staticInstances = Collections.unmodifiableList(instances);
 
         return result;
     }
@@ -0,0 +1,238 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.stream;
+
+import com.netflix.appinfo.InstanceInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.zowe.apiml.discovery.ApimlInstanceStatusUpdatedEvent;
+import org.zowe.apiml.product.registry.RegistryDelta;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes changes of the registry to subscribed clients (server-sent events). Each change gets a version, the ID of an
+ * event is made of the epoch of this service and the version. Recent changes are kept in the history, so a client
+ * which reconnects can continue from its last received event. If it is not possible (the history is too short or
+ * the Discovery Service was restarted), the client gets the reset event and has to fetch whole registry.
+ *
+ * All sending is done in a single thread to keep the order of changes, registrations are never blocked by clients.
+ */
+@Slf4j
+@Service
+public class RegistryStreamService {
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final int historySize;
+    private final long timeout;
+
+    private final Deque<RegistryDelta> history = new ArrayDeque<>();
+    private long version;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher;
+
+    public RegistryStreamService(
+        @Value("${apiml.discovery.registryStream.historySize:1000}") int historySize,
+        @Value("${apiml.discovery.registryStream.heartbeat:30000}") long heartbeat,
+        @Value("${apiml.discovery.registryStream.timeout:0}") long timeout
+    ) {
+        this.historySize = historySize;
+        this.timeout = timeout;
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("registry-stream-");
+        threadFactory.setDaemon(true);
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.dispatcher.scheduleWithFixedDelay(this::sendHeartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void preDestroy() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @EventListener
+    public void onRegistered(EurekaInstanceRegisteredEvent event) {
+        publish(InstanceInfo.ActionType.ADDED, event.getInstanceInfo());
+    }
+
+    @EventListener
+    public void onStatusUpdated(ApimlInstanceStatusUpdatedEvent event) {
+        publish(InstanceInfo.ActionType.MODIFIED, event.getInstanceInfo());
+    }
+
+    @EventListener
+    public void onCanceled(EurekaInstanceCanceledEvent event) {
+        synchronized (this) {
+            dispatch(RegistryDelta.deleted(++version, event.getAppName(), event.getServerId()));
+        }
+    }
+
+    private void publish(InstanceInfo.ActionType action, InstanceInfo instanceInfo) {
+        if (instanceInfo == null) return;
+
+        synchronized (this) {
+            try {
+                dispatch(RegistryDelta.of(version + 1, action, instanceInfo));
+                version++;
+            } catch (IOException e) {
+                log.debug("Cannot encode instance {} for registry stream", instanceInfo.getInstanceId(), e);
+            }
+        }
+    }
+
+    /**
+     * Stores the change into the history and enqueues its sending. It has to be called in synchronized block to keep
+     * the same order of changes in the history and in the stream.
+     */
+    private void dispatch(RegistryDelta delta) {
+        history.addLast(delta);
+        while (history.size() > historySize) {
+            history.removeFirst();
+        }
+        dispatcher.execute(() -> send(delta));
+    }
+
+    /**
+     * Creates a new subscription. If the last event ID is set and the changes after it are in the history, they are
+     * sent at first, otherwise the subscriber gets the reset event.
+     *
+     * @param lastEventId ID of the last event received by the client, it could be null
+     * @return emitter of changes
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        final Subscriber subscriber = new Subscriber(new SseEmitter(timeout));
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+
+        dispatcher.execute(() -> {
+            try {
+                final long currentVersion = getVersion();
+                final List<RegistryDelta> missed = getMissed(lastEventId);
+                if (missed == null) {
+                    subscriber.emitter.send(SseEmitter.event().id(getEventId(currentVersion)).name(RegistryDelta.EVENT_RESET).data(""));
+                    subscriber.sentVersion = currentVersion;
+                } else {
+                    for (RegistryDelta delta : missed) {
+                        subscriber.send(delta);
+                    }
+                }
+                subscribers.add(subscriber);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Cannot initialize registry stream", e);
+                subscriber.emitter.completeWithError(e);
+            }
+        });
+
+        return subscriber.emitter;
+    }
+
+    /**
+     * @return changes after the last event, or null if it is not possible to find them
+     */
+    synchronized List<RegistryDelta> getMissed(String lastEventId) {
+        if (lastEventId == null) return null;
+
+        final String[] parts = lastEventId.split(":");
+        if ((parts.length != 2) || !String.valueOf(epoch).equals(parts[0])) return null;
+
+        final long lastVersion;
+        try {
+            lastVersion = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        if (lastVersion > version) return null;
+        if (lastVersion == version) return new ArrayList<>();
+        if (history.isEmpty() || (history.getFirst().getVersion() > lastVersion + 1)) return null;
+
+        final List<RegistryDelta> out = new ArrayList<>();
+        for (RegistryDelta delta : history) {
+            if (delta.getVersion() > lastVersion) out.add(delta);
+        }
+        return out;
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    String getEventId(long eventVersion) {
+        return epoch + ":" + eventVersion;
+    }
+
+    private void send(RegistryDelta delta) {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.send(delta);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Cannot send registry change to the subscriber, it will be removed", e);
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void sendHeartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * Subscribed client. It remembers the last sent version, because changes replayed during subscription could be
+     * enqueued for sending again.
+     */
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private long sentVersion;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void send(RegistryDelta delta) throws IOException {
+            if (delta.getVersion() <= sentVersion) return;
+
+            emitter.send(SseEmitter.event()
+                .id(getEventId(delta.getVersion()))
+                .name(RegistryDelta.EVENT_DELTA)
+                .data(delta)
+            );
+            sentVersion = delta.getVersion();
+        }
+
+    }
+
+}
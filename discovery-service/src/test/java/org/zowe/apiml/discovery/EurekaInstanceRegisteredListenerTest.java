@@ -22,8 +22,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @RunWith(JUnit4.class)
@@ -83,4 +85,64 @@ public class EurekaInstanceRegisteredListenerTest {
         verify(notifier, times(1)).distributeInvalidatedCredentials("host:GATEWAY:instance");
     }
 
+    @Test
+    public void givenSameMetadata_whenNormalized_thenTranslateOnlyOnce() {
+        MetadataTranslationService metadataTranslationService = spy(new MetadataTranslationService());
+        MetadataDefaultsService metadataDefaultsService = spy(new MetadataDefaultsService());
+        EurekaInstanceRegisteredListener listener = new EurekaInstanceRegisteredListener(metadataTranslationService, metadataDefaultsService, mock(GatewayNotifier.class));
+
+        Map<String, String> metadata1 = new HashMap<>();
+        metadata1.put("routed-services.api-v1.gateway-url", "api/v1");
+        Map<String, String> metadata2 = new HashMap<>(metadata1);
+
+        listener.normalizeMetadata("service", metadata1);
+        listener.normalizeMetadata("service", metadata2);
+
+        verify(metadataTranslationService, times(1)).translateMetadata(eq("service"), any());
+        assertEquals("api/v1", metadata1.get("apiml.routes.api-v1.gatewayUrl"));
+        assertEquals(metadata1, metadata2);
+        assertSame(
+            metadata1.keySet().stream().filter(k -> k.startsWith("apiml.routes")).findFirst().orElse(null),
+            metadata2.keySet().stream().filter(k -> k.startsWith("apiml.routes")).findFirst().orElse(null)
+        );
+    }
+
+    @Test
+    public void givenMetadataWithoutChanges_whenNormalized_thenStringsAreInterned() {
+        EurekaInstanceRegisteredListener listener = new EurekaInstanceRegisteredListener(
+            mock(MetadataTranslationService.class), mock(MetadataDefaultsService.class), mock(GatewayNotifier.class));
+
+        Map<String, String> metadata1 = new HashMap<>();
+        metadata1.put(new String("apiml.catalog.tile.id"), new String("apimediationlayer"));
+        Map<String, String> metadata2 = new HashMap<>();
+        metadata2.put(new String("apiml.catalog.tile.id"), new String("apimediationlayer"));
+
+        listener.normalizeMetadata("service", metadata1);
+        listener.normalizeMetadata("service", metadata2);
+
+        assertEquals(metadata1, metadata2);
+        assertSame(metadata1.keySet().iterator().next(), metadata2.keySet().iterator().next());
+        assertSame(metadata1.values().iterator().next(), metadata2.values().iterator().next());
+    }
+
+    @Test
+    public void givenDifferentMetadataWithSameHash_whenNormalized_thenEachIsTranslated() {
+        MetadataTranslationService metadataTranslationService = mock(MetadataTranslationService.class);
+        EurekaInstanceRegisteredListener listener = new EurekaInstanceRegisteredListener(
+            metadataTranslationService, mock(MetadataDefaultsService.class), mock(GatewayNotifier.class));
+
+        // "Aa" and "BB" have the same hash code
+        Map<String, String> metadata1 = new HashMap<>();
+        metadata1.put("key", "Aa");
+        Map<String, String> metadata2 = new HashMap<>();
+        metadata2.put("key", "BB");
+
+        listener.normalizeMetadata("service", metadata1);
+        listener.normalizeMetadata("service", metadata2);
+
+        verify(metadataTranslationService, times(2)).translateMetadata(eq("service"), any());
+        assertEquals("Aa", metadata1.get("key"));
+        assertEquals("BB", metadata2.get("key"));
+    }
+
 }
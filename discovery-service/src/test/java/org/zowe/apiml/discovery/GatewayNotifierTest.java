@@ -14,7 +14,6 @@ import com.netflix.eureka.EurekaServerContext;
 import com.netflix.eureka.EurekaServerContextHolder;
 import com.netflix.eureka.registry.AwsInstanceRegistry;
 import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
-import lombok.Getter;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.web.client.RestTemplate;
@@ -23,10 +22,8 @@ import org.zowe.apiml.message.core.MessageService;
 import org.zowe.apiml.message.core.MessageType;
 import org.zowe.apiml.message.template.MessageTemplate;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static org.awaitility.Awaitility.await;
@@ -52,7 +49,7 @@ public class GatewayNotifierTest {
 
         restTemplate = mock(RestTemplate.class);
         messageService = mock(MessageService.class);
-        gatewayNotifierSync = new GatewayNotifierSync(restTemplate, messageService);
+        gatewayNotifierSync = new GatewayNotifier(restTemplate, messageService, 0, null, Runnable::run);
     }
 
     private InstanceInfo createInstanceInfo(String serviceId, String hostName, int port, int securePort) {
@@ -76,19 +73,21 @@ public class GatewayNotifierTest {
         return Message.of(messageKey, mt, params);
     }
 
+    private void registerGateways(InstanceInfo...instances) {
+        Application application = mock(Application.class);
+        when(application.getInstances()).thenReturn(Arrays.asList(instances));
+        when(registry.getApplication("GATEWAY")).thenReturn(application);
+    }
+
     @Test
     public void testServiceUpdated() {
         verify(restTemplate, never()).delete(anyString());
 
-        List<InstanceInfo> instances = Arrays.asList(
+        registerGateways(
             createInstanceInfo("hostname1", 1000, 1433),
             createInstanceInfo("hostname2", 1000, 0)
         );
 
-        Application application = mock(Application.class);
-        when(application.getInstances()).thenReturn(instances);
-        when(registry.getApplication("GATEWAY")).thenReturn(application);
-
         gatewayNotifierSync.serviceUpdated("testService", null);
         verify(restTemplate, times(1)).delete("https://hostname1:1433/gateway/cache/services/testService");
         verify(restTemplate, times(1)).delete("http://hostname2:1000/gateway/cache/services/testService");
@@ -138,8 +137,9 @@ public class GatewayNotifierTest {
         verify(messageService).createMessage(
             "org.zowe.apiml.discovery.registration.gateway.notify",
             "https://host:1433/gateway/cache/services/service",
-            "host2:service:123"
+            "service"
         );
+        assertEquals(1, gatewayNotifierSync.getDeliveryStates().get("host:gateway:1433").getConsecutiveFailures());
     }
 
     @Test
@@ -150,9 +150,7 @@ public class GatewayNotifierTest {
         InstanceInfo gatewayInstance = createInstanceInfo("gateway", 111, 123);
         String gatewayUrl = "https://gateway:123/gateway/auth/distribute/" + targetInstanceId;
 
-        Application application = mock(Application.class);
-        when(application.getInstances()).thenReturn(Collections.singletonList(gatewayInstance));
-        when(registry.getApplication("GATEWAY")).thenReturn(application);
+        registerGateways(gatewayInstance);
 
         final String messageNotifyError = "org.zowe.apiml.discovery.errorNotifyingGateway";
         when(messageService.createMessage(messageNotifyError)).thenReturn(createMessage(messageNotifyError));
@@ -170,58 +168,57 @@ public class GatewayNotifierTest {
         verify(messageService, times(1)).createMessage(messageKey, gatewayUrl, targetInstanceId);
     }
 
+    @Test
+    public void givenMultipleUpdatesInWindow_whenFlushed_thenOneBatchedCallPerGateway() {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        GatewayNotifier gatewayNotifier = new GatewayNotifier(restTemplate, messageService, 100, scheduler, Runnable::run);
+        registerGateways(createInstanceInfo("hostname1", 1000, 1433));
+
+        gatewayNotifier.serviceUpdated("service2", "instance1");
+        gatewayNotifier.serviceUpdated("service1", "instance2");
+        gatewayNotifier.serviceUpdated("service2", "instance3");
+        verify(scheduler, times(1)).schedule(any(Runnable.class), eq(100L), eq(TimeUnit.MILLISECONDS));
+        verify(restTemplate, never()).delete(anyString());
+
+        gatewayNotifier.flush();
+        verify(restTemplate, times(1)).delete("https://hostname1:1433/gateway/cache/services?serviceId=service1,service2");
+        verify(restTemplate, times(1)).delete(anyString());
+    }
+
+    @Test
+    public void givenRunningDelivery_whenNewNotification_thenMergedIntoNextCall() {
+        List<Runnable> tasks = new LinkedList<>();
+        GatewayNotifier gatewayNotifier = new GatewayNotifier(restTemplate, messageService, 0, null, tasks::add);
+        registerGateways(createInstanceInfo("hostname1", 1000, 1433));
+
+        gatewayNotifier.serviceUpdated("service1", null);
+        gatewayNotifier.serviceUpdated("service2", null);
+        gatewayNotifier.serviceUpdated(null, null);
+        assertEquals(1, tasks.size());
+        assertEquals(3, gatewayNotifier.getDeliveryStates().get("hostname1:service:1433").getPendingCount());
+
+        tasks.get(0).run();
+        verify(restTemplate, times(1)).delete("https://hostname1:1433/gateway/cache/services");
+        verify(restTemplate, times(1)).delete(anyString());
+        assertEquals(0, gatewayNotifier.getDeliveryStates().get("hostname1:service:1433").getLag());
+    }
+
     @Test
     public void testAsynchronousTreatment() {
-        GatewayNotifierHandler gatewayNotifier = new GatewayNotifierHandler(restTemplate, messageService);
-        gatewayNotifier.afterPropertiesSet();
+        registerGateways(createInstanceInfo("hostname1", 1000, 1433));
+        GatewayNotifier gatewayNotifier = new GatewayNotifier(restTemplate, messageService, 10, 2);
 
         gatewayNotifier.serviceUpdated("serviceId", "instanceId");
         await().atMost(TIMEOUT_ASYNC_CALL_SEC, TimeUnit.SECONDS).untilAsserted(
-            () -> assertEquals("serviceUpdatedProcess(serviceId,instanceId)", gatewayNotifier.getLastCall())
+            () -> verify(restTemplate, times(1)).delete("https://hostname1:1433/gateway/cache/services/serviceId")
         );
 
         gatewayNotifier.distributeInvalidatedCredentials("instanceId");
         await().atMost(TIMEOUT_ASYNC_CALL_SEC, TimeUnit.SECONDS).untilAsserted(
-            () -> assertEquals("distributeInvalidatedCredentialsProcess(instanceId)", gatewayNotifier.getLastCall())
+            () -> verify(restTemplate, times(1)).getForEntity("https://hostname1:1433/gateway/auth/distribute/instanceId", Void.class)
         );
 
         gatewayNotifier.preDestroy();
     }
 
-    private class GatewayNotifierSync extends GatewayNotifier {
-
-        public GatewayNotifierSync(RestTemplate restTemplate, MessageService messageService) {
-            super(restTemplate, messageService);
-        }
-
-        public void afterPropertiesSet() {
-            // remove implementation
-        }
-
-        @Override
-        protected void addToQueue(GatewayNotifier.Notification notification) {
-            notification.process();
-        }
-
-    }
-
-    @Getter
-    private class GatewayNotifierHandler extends GatewayNotifier {
-
-        private String lastCall;
-
-        public GatewayNotifierHandler(RestTemplate restTemplate, MessageService messageService) {
-            super(restTemplate, messageService);
-        }
-
-        public void serviceUpdatedProcess(String serviceId, String instanceId) {
-            lastCall = "serviceUpdatedProcess(" + serviceId + "," + instanceId + ")";
-        }
-
-        public void distributeInvalidatedCredentialsProcess(String instanceId) {
-            lastCall = "distributeInvalidatedCredentialsProcess(" + instanceId + ")";
-        }
-
-    }
-
 }
@@ -0,0 +1,173 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistryResponseCacheFilterTest {
+
+    private static final String BODY = "{\"applications\":{}}";
+
+    private AtomicLong time;
+    private AtomicInteger calls;
+    private int status;
+    private RegistryResponseCacheFilter underTest;
+
+    @BeforeEach
+    void setUp() {
+        time = new AtomicLong(1000);
+        calls = new AtomicInteger();
+        status = HttpServletResponse.SC_OK;
+        underTest = new RegistryResponseCacheFilter(30000, time::get);
+    }
+
+    private FilterChain eureka() {
+        return (request, response) -> {
+            calls.incrementAndGet();
+            assertNull(((HttpServletRequest) request).getHeader(HttpHeaders.ACCEPT_ENCODING));
+            ((HttpServletResponse) response).setStatus(status);
+            response.setContentType("application/json");
+            response.getOutputStream().write((BODY + calls.get()).getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse call(MockHttpServletRequest request) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, eureka());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader(HttpHeaders.ACCEPT, "application/json");
+        return request;
+    }
+
+    @Test
+    void givenSameVersion_whenCalledAgain_thenServeCachedPayload() throws IOException, ServletException {
+        MockHttpServletResponse first = call(request("/eureka/apps"));
+        MockHttpServletResponse second = call(request("/eureka/apps"));
+
+        assertEquals(1, calls.get());
+        assertEquals(BODY + 1, first.getContentAsString());
+        assertEquals(BODY + 1, second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+        assertNotNull(second.getHeader(HttpHeaders.ETAG));
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void givenChangedRegistry_whenCalled_thenGenerateNewPayload() throws IOException, ServletException {
+        MockHttpServletResponse first = call(request("/eureka/apps"));
+        underTest.registryChanged();
+        MockHttpServletResponse second = call(request("/eureka/apps"));
+
+        assertEquals(2, calls.get());
+        assertEquals(BODY + 2, second.getContentAsString());
+        assertNotEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void givenExpiredPayload_whenCalled_thenGenerateNewPayload() throws IOException, ServletException {
+        call(request("/eureka/apps/delta"));
+        time.addAndGet(30001);
+        call(request("/eureka/apps/delta"));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void givenDifferentAccept_whenCalled_thenCacheSeparately() throws IOException, ServletException {
+        call(request("/eureka/apps"));
+        MockHttpServletRequest xml = request("/eureka/apps");
+        xml.removeHeader(HttpHeaders.ACCEPT);
+        xml.addHeader(HttpHeaders.ACCEPT, "application/xml");
+        call(xml);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void givenMatchingETag_whenCalled_thenNotModified() throws IOException, ServletException {
+        String eTag = call(request("/eureka/apps")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = request("/eureka/apps");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        MockHttpServletResponse response = call(request);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void givenAcceptedGzip_whenCalled_thenServeCompressedPayload() throws IOException, ServletException {
+        MockHttpServletRequest request = request("/eureka/apps");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        MockHttpServletResponse response = call(request);
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(BODY + 1, gunzip(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void givenErrorResponse_whenCalled_thenPassItWithoutCaching() throws IOException, ServletException {
+        status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        MockHttpServletResponse response = call(request("/eureka/apps"));
+        assertEquals(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, response.getStatus());
+        assertEquals(BODY + 1, response.getContentAsString());
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+
+        status = HttpServletResponse.SC_OK;
+        call(request("/eureka/apps"));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void givenNotGetRequest_whenCalled_thenNoCaching() throws IOException, ServletException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/eureka/apps");
+        call(request);
+        call(request);
+
+        assertEquals(2, calls.get());
+    }
+
+    private String gunzip(byte[] data) throws IOException {
+        try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            byte[] buffer = new byte[256];
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                os.write(buffer, 0, read);
+            }
+            return new String(os.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
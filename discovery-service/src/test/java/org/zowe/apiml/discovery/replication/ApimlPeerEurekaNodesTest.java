@@ -0,0 +1,63 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.replication;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.eureka.EurekaServerConfig;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.netflix.eureka.resources.ServerCodecs;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ApimlPeerEurekaNodesTest {
+
+    private EurekaClientConfig clientConfig;
+    private ApimlPeerEurekaNodes underTest;
+
+    @Before
+    public void setUp() {
+        clientConfig = mock(EurekaClientConfig.class);
+        underTest = new ApimlPeerEurekaNodes(
+            mock(PeerAwareInstanceRegistry.class),
+            mock(EurekaServerConfig.class),
+            clientConfig,
+            mock(ServerCodecs.class),
+            mock(ApplicationInfoManager.class),
+            new ReplicationMonitor(30000)
+        );
+    }
+
+    @Test
+    public void givenChangedServiceUrl_whenEnvironmentChanged_thenUpdatePeers() {
+        assertTrue(underTest.shouldUpdate(Collections.singleton("eureka.client.service-url.defaultZone")));
+        assertTrue(underTest.shouldUpdate(Collections.singleton("eureka.client.region")));
+    }
+
+    @Test
+    public void givenOtherChange_whenEnvironmentChanged_thenKeepPeers() {
+        assertFalse(underTest.shouldUpdate(Collections.singleton("apiml.service.hostname")));
+    }
+
+    @Test
+    public void givenDnsForServiceUrls_whenEnvironmentChanged_thenKeepPeers() {
+        when(clientConfig.shouldUseDnsForFetchingServiceUrls()).thenReturn(true);
+
+        assertFalse(underTest.shouldUpdate(Collections.singleton("eureka.client.service-url.defaultZone")));
+    }
+
+}
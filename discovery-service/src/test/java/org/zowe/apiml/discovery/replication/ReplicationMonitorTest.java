@@ -0,0 +1,143 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.replication;
+
+import com.netflix.discovery.shared.transport.EurekaHttpResponse;
+import com.netflix.eureka.cluster.protocol.ReplicationInstance;
+import com.netflix.eureka.cluster.protocol.ReplicationList;
+import com.netflix.eureka.cluster.protocol.ReplicationListResponse;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistryImpl.Action;
+import com.netflix.eureka.transport.HttpReplicationClient;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicationMonitorTest {
+
+    private static final String PEER_URL = "https://peer:10011/eureka/";
+
+    private AtomicLong time;
+    private ReplicationMonitor underTest;
+    private HttpReplicationClient client;
+    private HttpReplicationClient wrapped;
+
+    @Before
+    public void setUp() {
+        time = new AtomicLong(1000);
+        underTest = new ReplicationMonitor(time::get, 30000);
+        client = mock(HttpReplicationClient.class);
+        wrapped = underTest.wrap(PEER_URL, client);
+    }
+
+    private ReplicationList createBatch(int size) {
+        ReplicationInstance[] instances = new ReplicationInstance[size];
+        for (int i = 0; i < size; i++) {
+            instances[i] = mock(ReplicationInstance.class);
+            when(instances[i].getAction()).thenReturn(Action.Register);
+            when(instances[i].getAppName()).thenReturn("SERVICE");
+            when(instances[i].getId()).thenReturn("instance" + i);
+        }
+        ReplicationList batch = mock(ReplicationList.class);
+        when(batch.getReplicationList()).thenReturn(Arrays.asList(instances));
+        return batch;
+    }
+
+    @Test
+    public void givenSuccessfulBatch_whenReplicated_thenCountEventsAndClearLag() {
+        ReplicationList batch = createBatch(3);
+        when(client.submitBatchUpdates(batch)).thenAnswer(x -> {
+            time.addAndGet(50);
+            return EurekaHttpResponse.anEurekaHttpResponse(200, new ReplicationListResponse()).build();
+        });
+
+        underTest.submitted(Action.Register, "service", "instance0");
+        time.addAndGet(500);
+        ReplicationMonitor.PeerStatistics statistics = underTest.getPeers().get(PEER_URL);
+        assertEquals(500, statistics.getLag());
+        assertEquals(1, statistics.getQueueSize());
+
+        wrapped.submitBatchUpdates(batch);
+
+        assertEquals(1, underTest.getSubmitted());
+        assertEquals(1, statistics.getCalls());
+        assertEquals(3, statistics.getEvents());
+        assertEquals(0, statistics.getFailures());
+        assertEquals(50, statistics.getLastLatency());
+        assertEquals(1550, statistics.getLastSuccess());
+        assertEquals(0, statistics.getLag());
+        assertEquals(0, statistics.getQueueSize());
+    }
+
+    @Test
+    public void givenFailingBatch_whenReplicated_thenKeepLag() {
+        ReplicationList batch = createBatch(2);
+        when(client.submitBatchUpdates(batch)).thenThrow(new IllegalStateException("peer is down"));
+
+        underTest.submitted(Action.Register, "service", "instance0");
+        time.addAndGet(100);
+        try {
+            wrapped.submitBatchUpdates(batch);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("peer is down", e.getMessage());
+        }
+
+        ReplicationMonitor.PeerStatistics statistics = underTest.getPeers().get(PEER_URL);
+        assertEquals(1, statistics.getFailures());
+        assertEquals(1100, statistics.getLastFailure());
+        assertEquals(100, statistics.getLag());
+        assertEquals(1, statistics.getQueueSize());
+    }
+
+    @Test
+    public void givenChangesOfSameInstance_whenSubmitted_thenCoalesceThemInQueue() {
+        underTest.submitted(Action.Heartbeat, "service", "instance0");
+        underTest.submitted(Action.Heartbeat, "SERVICE", "instance0");
+        underTest.submitted(Action.StatusUpdate, "service", "instance0");
+        underTest.submitted(Action.Heartbeat, "service", "instance1");
+
+        assertEquals(3, underTest.getPeers().get(PEER_URL).getQueueSize());
+    }
+
+    @Test
+    public void givenSingleChange_whenReplicated_thenRemoveFromQueue() {
+        when(client.cancel("SERVICE", "instance1")).thenReturn(EurekaHttpResponse.status(200));
+
+        underTest.submitted(Action.Cancel, "service", "instance1");
+        underTest.submitted(Action.Cancel, "service", "instance2");
+        time.addAndGet(10);
+        wrapped.cancel("SERVICE", "instance1");
+
+        assertEquals(1, underTest.getPeers().get(PEER_URL).getQueueSize());
+    }
+
+    @Test
+    public void givenChangeNotReplicatedInMaxTime_whenGetQueueSize_thenForgetIt() {
+        underTest.submitted(Action.Register, "service", "instance0");
+        time.addAndGet(30001);
+        underTest.submitted(Action.Register, "service", "instance1");
+
+        assertEquals(1, underTest.getPeers().get(PEER_URL).getQueueSize());
+    }
+
+    @Test
+    public void givenOtherMethod_whenCalled_thenJustDelegate() {
+        wrapped.shutdown();
+
+        verify(client).shutdown();
+        assertEquals(0, underTest.getPeers().get(PEER_URL).getCalls());
+    }
+
+}
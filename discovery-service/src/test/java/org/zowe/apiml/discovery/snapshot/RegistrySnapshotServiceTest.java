@@ -0,0 +1,161 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.snapshot;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RegistrySnapshotServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AtomicLong time;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        time = new AtomicLong(10000);
+        file = new File(folder.getRoot(), "registry.snapshot");
+    }
+
+    private RegistrySnapshotService create(PeerAwareInstanceRegistry registry) {
+        return new RegistrySnapshotService(registry, file.getAbsolutePath(), 60000, 90000, time::get, mock(ScheduledExecutorService.class));
+    }
+
+    private InstanceInfo instance(String appName, String instanceId, long renewalTimestamp) {
+        return InstanceInfo.Builder.newBuilder()
+            .setAppName(appName)
+            .setInstanceId(instanceId)
+            .setHostName("localhost")
+            .setLeaseInfo(LeaseInfo.Builder.newBuilder().setDurationInSecs(60).setRenewalTimestamp(renewalTimestamp).build())
+            .build();
+    }
+
+    private PeerAwareInstanceRegistry registryWith(InstanceInfo...instances) {
+        final Applications applications = new Applications();
+        for (InstanceInfo instanceInfo : instances) {
+            Application application = applications.getRegisteredApplications(instanceInfo.getAppName());
+            if (application == null) {
+                application = new Application(instanceInfo.getAppName());
+                applications.addApplication(application);
+            }
+            application.addInstance(instanceInfo);
+        }
+
+        final PeerAwareInstanceRegistry registry = mock(PeerAwareInstanceRegistry.class);
+        when(registry.getApplications()).thenReturn(applications);
+        return registry;
+    }
+
+    @Test
+    public void givenApplicationContext_whenCreateBean_thenAutowiredConstructorIsUsed() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(PeerAwareInstanceRegistry.class, () -> mock(PeerAwareInstanceRegistry.class));
+            context.register(RegistrySnapshotService.class);
+            context.refresh();
+
+            assertNotNull(context.getBean(RegistrySnapshotService.class));
+        }
+    }
+
+    @Test
+    public void givenSnapshot_whenRestore_thenMissingInstancesAreRegisteredWithoutReplication() throws IOException {
+        create(registryWith(instance("APP1", "host:app1:1", 0), instance("APP2", "host:app2:1", 0))).writeSnapshot();
+        assertTrue(file.exists());
+        assertFalse(new File(file.getAbsolutePath() + ".tmp").exists());
+
+        PeerAwareInstanceRegistry registry = mock(PeerAwareInstanceRegistry.class);
+        when(registry.getInstanceByAppAndId("APP2", "host:app2:1", false)).thenReturn(instance("APP2", "host:app2:1", 0));
+        RegistrySnapshotService underTest = create(registry);
+        underTest.restoreSnapshot();
+
+        ArgumentCaptor<InstanceInfo> captor = ArgumentCaptor.forClass(InstanceInfo.class);
+        verify(registry, times(1)).register(captor.capture(), eq(60), eq(true));
+        assertEquals("APP1", captor.getValue().getAppName());
+        assertEquals("host:app1:1", captor.getValue().getId());
+
+        List<InstanceInfo> provisional = underTest.getProvisional();
+        assertEquals(1, provisional.size());
+        assertEquals("host:app1:1", provisional.get(0).getId());
+    }
+
+    @Test
+    public void givenMissingDirectory_whenWriteSnapshot_thenDirectoryIsCreatedAndFileIsPrivate() throws IOException {
+        file = new File(folder.getRoot(), "workspace/api-mediation/registry.snapshot");
+        create(registryWith(instance("APP1", "host:app1:1", 0))).writeSnapshot();
+
+        assertTrue(file.exists());
+        if (Files.getFileStore(folder.getRoot().toPath()).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file.toPath()));
+        }
+    }
+
+    @Test
+    public void givenOldSnapshot_whenRestore_thenNothingIsRegistered() throws IOException {
+        create(registryWith(instance("APP1", "host:app1:1", 0))).writeSnapshot();
+        time.addAndGet(60001);
+
+        PeerAwareInstanceRegistry registry = mock(PeerAwareInstanceRegistry.class);
+        RegistrySnapshotService underTest = create(registry);
+        underTest.restoreSnapshot();
+
+        verify(registry, never()).register(any(), anyInt(), anyBoolean());
+        assertTrue(underTest.getProvisional().isEmpty());
+    }
+
+    @Test
+    public void givenNoSnapshot_whenRestore_thenNothingIsRegistered() throws IOException {
+        PeerAwareInstanceRegistry registry = mock(PeerAwareInstanceRegistry.class);
+        create(registry).restoreSnapshot();
+
+        verify(registry, never()).register(any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    public void givenRestoredInstances_whenTimeoutExpires_thenOnlyUnconfirmedAreRemoved() throws IOException {
+        create(registryWith(instance("APP1", "host:app1:1", 0), instance("APP2", "host:app2:1", 0))).writeSnapshot();
+
+        PeerAwareInstanceRegistry registry = mock(PeerAwareInstanceRegistry.class);
+        RegistrySnapshotService underTest = create(registry);
+        underTest.restoreSnapshot();
+        assertEquals(2, underTest.getProvisional().size());
+
+        when(registry.getInstanceByAppAndId("APP1", "host:app1:1", false)).thenReturn(instance("APP1", "host:app1:1", 10000));
+        when(registry.getInstanceByAppAndId("APP2", "host:app2:1", false)).thenReturn(instance("APP2", "host:app2:1", 20000));
+        underTest.removeUnconfirmed();
+
+        verify(registry, times(1)).cancel("APP1", "host:app1:1", true);
+        verify(registry, never()).cancel("APP2", "host:app2:1", true);
+        assertTrue(underTest.getProvisional().isEmpty());
+    }
+
+}
@@ -18,7 +18,11 @@ import org.zowe.apiml.message.core.MessageService;
 import org.zowe.apiml.message.log.ApimlLogger;
 import org.zowe.apiml.message.yaml.YamlMessageService;
 
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -704,5 +708,32 @@ public class ServiceDefinitionProcessorTest {
         final Message errorMsg = result.getErrors().get(0);
         assertFullMessageIsCorrect(errorMsg.getConvertedText(), "Additional service metadata of service1 in processing file test.yml were replaced for duplicities");
     }
-}
 
+    @Test
+    public void testFindServicesReusesUnchangedFiles() throws IOException {
+        Path directory = Files.createTempDirectory("api-defs");
+        Path file = directory.resolve("test.yml");
+        Files.write(file, ("services:\n" +
+            "    - serviceId: casamplerestapiservice\n" +
+            "      instanceBaseUrls:\n" +
+            "        - https://localhost:10019/casamplerestapiservice/\n").getBytes(StandardCharsets.UTF_8));
+
+        List<InstanceInfo> first = serviceDefinitionProcessor.findStaticServicesData(directory.toString()).getInstances();
+        List<InstanceInfo> second = serviceDefinitionProcessor.findStaticServicesData(directory.toString()).getInstances();
+        assertEquals(1, first.size());
+        assertSame(first.get(0), second.get(0));
+
+        Files.write(file, ("services:\n" +
+            "    - serviceId: casamplerestapiservice2\n" +
+            "      instanceBaseUrls:\n" +
+            "        - https://localhost:10019/casamplerestapiservice/\n").getBytes(StandardCharsets.UTF_8));
+        List<InstanceInfo> third = serviceDefinitionProcessor.findStaticServicesData(directory.toString()).getInstances();
+        assertEquals(1, third.size());
+        assertEquals("CASAMPLERESTAPISERVICE2", third.get(0).getAppName());
+
+        Files.delete(file);
+        assertEquals(0, serviceDefinitionProcessor.findStaticServicesData(directory.toString()).getInstances().size());
+        Files.delete(directory);
+    }
+
+}
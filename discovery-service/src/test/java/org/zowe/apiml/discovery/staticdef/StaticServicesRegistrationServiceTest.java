@@ -25,10 +25,10 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.*;
 
 import static org.hamcrest.Matchers.is;
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertThat;
+import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -149,7 +149,7 @@ public class StaticServicesRegistrationServiceTest {
     }
 
     @Test
-    public void testRenewInstances() {
+    public void testRenewInstances() throws InterruptedException {
         String directory = "directory";
         String service = "service";
         InstanceInfo instance = InstanceInfo.Builder.newBuilder().setInstanceId(service).setAppName(service).build();
@@ -163,4 +163,119 @@ public class StaticServicesRegistrationServiceTest {
         verify(mockRegistry, times(1)).renew(instance.getAppName(), instance.getId(), false);
     }
 
+    @Test
+    public void testRenewInstancesReRegistersEvictedInstance() throws InterruptedException {
+        String directory = "directory";
+        InstanceInfo instance = InstanceInfo.Builder.newBuilder().setInstanceId("service").setAppName("service").build();
+        ServiceDefinitionProcessor serviceDefinitionProcessor = mock(ServiceDefinitionProcessor.class);
+        when(serviceDefinitionProcessor.findStaticServicesData(directory)).thenReturn(createResult(instance));
+        when(mockRegistry.renew(instance.getAppName(), instance.getId(), false)).thenReturn(false);
+
+        StaticServicesRegistrationService registrationService = new StaticServicesRegistrationService(serviceDefinitionProcessor, new MetadataDefaultsService());
+        registrationService.registerServices(directory);
+        registrationService.renewInstances();
+
+        verify(mockRegistry, times(2)).register(instance, false);
+    }
+
+    @Test
+    public void testRenewInstancesDoesNotReRegisterRemovedInstance() throws InterruptedException {
+        InstanceInfo instance = InstanceInfo.Builder.newBuilder().setInstanceId("service").setAppName("service").build();
+        ServiceDefinitionProcessor serviceDefinitionProcessor = mock(ServiceDefinitionProcessor.class);
+        when(serviceDefinitionProcessor.findStaticServicesData(null))
+            .thenReturn(createResult(instance))
+            .thenReturn(createResult());
+
+        StaticServicesRegistrationService registrationService = new StaticServicesRegistrationService(serviceDefinitionProcessor, new MetadataDefaultsService());
+        registrationService.reloadServices();
+        // the instance is removed by a reload during its renewal
+        when(mockRegistry.renew(instance.getAppName(), instance.getId(), false)).thenAnswer(invocation -> {
+            registrationService.reloadServices();
+            return false;
+        });
+        registrationService.renewInstances();
+
+        verify(mockRegistry, times(1)).cancel(instance.getAppName(), instance.getId(), false);
+        verify(mockRegistry, times(1)).register(instance, false);
+    }
+
+    @Test
+    public void testRenewInstancesContinuesAfterFailure() throws InterruptedException {
+        String directory = "directory";
+        InstanceInfo instanceA = InstanceInfo.Builder.newBuilder().setInstanceId("serviceA").setAppName("serviceA").build();
+        InstanceInfo instanceB = InstanceInfo.Builder.newBuilder().setInstanceId("serviceB").setAppName("serviceB").build();
+        ServiceDefinitionProcessor serviceDefinitionProcessor = mock(ServiceDefinitionProcessor.class);
+        when(serviceDefinitionProcessor.findStaticServicesData(directory)).thenReturn(createResult(instanceA, instanceB));
+        when(mockRegistry.renew(instanceA.getAppName(), instanceA.getId(), false)).thenThrow(new IllegalStateException("failure"));
+        when(mockRegistry.renew(instanceB.getAppName(), instanceB.getId(), false)).thenReturn(true);
+
+        StaticServicesRegistrationService registrationService = new StaticServicesRegistrationService(serviceDefinitionProcessor, new MetadataDefaultsService());
+        registrationService.registerServices(directory);
+        registrationService.renewInstances();
+
+        verify(mockRegistry, times(1)).renew(instanceB.getAppName(), instanceB.getId(), false);
+    }
+
+    @Test
+    public void testReloadServicesDoesNotRegisterUnchangedInstances() {
+        InstanceInfo instance = InstanceInfo.Builder.newBuilder().setInstanceId("service").setAppName("service").build();
+        ServiceDefinitionProcessor serviceDefinitionProcessor = mock(ServiceDefinitionProcessor.class);
+        when(serviceDefinitionProcessor.findStaticServicesData(null)).thenReturn(createResult(instance));
+
+        StaticServicesRegistrationService registrationService = new StaticServicesRegistrationService(serviceDefinitionProcessor, new MetadataDefaultsService());
+        registrationService.reloadServices();
+        registrationService.reloadServices();
+
+        verify(mockRegistry, times(1)).register(instance, false);
+        verify(mockRegistry, never()).cancel(any(String.class), any(String.class), eq(false));
+    }
+
+    @Test
+    public void testConcurrentReloadsAreCoalesced() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ServiceDefinitionProcessor serviceDefinitionProcessor = mock(ServiceDefinitionProcessor.class);
+        when(serviceDefinitionProcessor.findStaticServicesData(null))
+            .thenAnswer(invocation -> {
+                running.countDown();
+                release.await(10, TimeUnit.SECONDS);
+                return createResult();
+            })
+            .thenAnswer(invocation -> createResult());
+
+        StaticServicesRegistrationService registrationService = new StaticServicesRegistrationService(serviceDefinitionProcessor, new MetadataDefaultsService());
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<StaticRegistrationResult> first = executor.submit(registrationService::reloadServices);
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+
+            // both next requests wait for the running reload, they have to share the next one
+            List<Thread> waiting = new CopyOnWriteArrayList<>();
+            Callable<StaticRegistrationResult> reload = () -> {
+                waiting.add(Thread.currentThread());
+                return registrationService.reloadServices();
+            };
+            Future<StaticRegistrationResult> second = executor.submit(reload);
+            Future<StaticRegistrationResult> third = executor.submit(reload);
+            awaitBlocked(waiting, 2);
+            release.countDown();
+
+            assertNotSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+            assertSame(second.get(), third.get(10, TimeUnit.SECONDS));
+            verify(serviceDefinitionProcessor, times(2)).findStaticServicesData(null);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitBlocked(List<Thread> threads, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (System.currentTimeMillis() < deadline) {
+            if (threads.size() == count && threads.stream().allMatch(thread ->
+                thread.getState() == Thread.State.BLOCKED || thread.getState() == Thread.State.WAITING)) return;
+            Thread.sleep(10);
+        }
+        fail("Requests are not waiting for the running reload");
+    }
+
 }
@@ -0,0 +1,79 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.discovery.stream;
+
+import com.netflix.appinfo.InstanceInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.zowe.apiml.discovery.ApimlInstanceStatusUpdatedEvent;
+import org.zowe.apiml.product.registry.RegistryDelta;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegistryStreamServiceTest {
+
+    private RegistryStreamService underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new RegistryStreamService(2, 30000, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.preDestroy();
+    }
+
+    private InstanceInfo createInstanceInfo(String instanceId) {
+        return InstanceInfo.Builder.newBuilder()
+            .setAppName("SERVICE")
+            .setInstanceId(instanceId)
+            .setHostName("host")
+            .build();
+    }
+
+    @Test
+    void givenChanges_whenPublished_thenVersionedInOrder() {
+        underTest.onRegistered(new EurekaInstanceRegisteredEvent(this, createInstanceInfo("host:service:1"), 90, false));
+        underTest.onStatusUpdated(new ApimlInstanceStatusUpdatedEvent(this, createInstanceInfo("host:service:1")));
+        underTest.onCanceled(new EurekaInstanceCanceledEvent(this, "SERVICE", "host:service:1", false));
+
+        assertEquals(3, underTest.getVersion());
+
+        List<RegistryDelta> missed = underTest.getMissed(underTest.getEventId(1));
+        assertEquals(2, missed.size());
+        assertEquals(InstanceInfo.ActionType.MODIFIED, missed.get(0).getAction());
+        assertEquals(InstanceInfo.ActionType.DELETED, missed.get(1).getAction());
+        assertEquals("host:service:1", missed.get(1).getInstanceId());
+    }
+
+    @Test
+    void givenLastEventId_whenGetMissed_thenResetIfNotPossibleToContinue() {
+        underTest.onCanceled(new EurekaInstanceCanceledEvent(this, "SERVICE", "host:service:1", false));
+        underTest.onCanceled(new EurekaInstanceCanceledEvent(this, "SERVICE", "host:service:2", false));
+        underTest.onCanceled(new EurekaInstanceCanceledEvent(this, "SERVICE", "host:service:3", false));
+
+        // without last event, too old, other epoch or invalid
+        assertNull(underTest.getMissed(null));
+        assertNull(underTest.getMissed(underTest.getEventId(0)));
+        assertNull(underTest.getMissed("1:2"));
+        assertNull(underTest.getMissed("invalid"));
+
+        assertEquals(1, underTest.getMissed(underTest.getEventId(2)).size());
+        assertTrue(underTest.getMissed(underTest.getEventId(3)).isEmpty());
+        assertNull(underTest.getMissed(underTest.getEventId(4)));
+    }
+
+}
@@ -9,8 +9,12 @@
  */
 package org.zowe.apiml.gateway.cache;
 
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
 import org.zowe.apiml.gateway.discovery.ApimlDiscoveryClient;
 import org.zowe.apiml.gateway.ribbon.ApimlZoneAwareLoadBalancer;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.InstanceStatisticsRegistry;
 import com.netflix.discovery.CacheRefreshedEvent;
 import com.netflix.discovery.EurekaEvent;
 import com.netflix.discovery.EurekaEventListener;
@@ -18,8 +22,8 @@ import lombok.Value;
 import org.springframework.stereotype.Component;
 import org.zowe.apiml.gateway.security.service.ServiceCacheEvict;
 
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is responsible for evicting cache after new registry is loaded. This avoid race condition. Scenario is:
@@ -31,28 +35,45 @@ import java.util.List;
  *
  * This process evict evict caches two times, because not all reason to cache is dependent only by discovery client
  * updates.
+ *
+ * The bean also dispatches registry changes to load balancers. Each Ribbon client (service) has own load balancer,
+ * which is registered here on its creation. After each fetch of registry it compares the instances of services with
+ * the previous state (local registry only, without any other call of discovery service) and updates list of servers
+ * just in load balancers of changed services. The update is made outside of lock, it reads the local registry only.
+ * Statistics of instances, which disappeared from the registry, are removed from {@link InstanceStatisticsRegistry}.
  */
 @Component
 public class ServiceCacheEvictor implements EurekaEventListener, ServiceCacheEvict {
 
+    private final ApimlDiscoveryClient apimlDiscoveryClient;
+    private final InstanceStatisticsRegistry instanceStatisticsRegistry;
     private List<ServiceCacheEvict> serviceCacheEvicts;
 
     private boolean evictAll = false;
     private HashSet<ServiceRef> toEvict = new HashSet<>();
 
-    private ApimlZoneAwareLoadBalancer apimlZoneAwareLoadBalancer;
+    private final Map<String, ApimlZoneAwareLoadBalancer<?>> loadBalancers = new ConcurrentHashMap<>();
+    private Map<String, Integer> fingerprints = new HashMap<>();
+    private Set<String> instanceIds = new HashSet<>();
 
     public ServiceCacheEvictor(
         ApimlDiscoveryClient apimlDiscoveryClient,
-        List<ServiceCacheEvict> serviceCacheEvicts
+        List<ServiceCacheEvict> serviceCacheEvicts,
+        InstanceStatisticsRegistry instanceStatisticsRegistry
     ) {
+        this.apimlDiscoveryClient = apimlDiscoveryClient;
+        this.instanceStatisticsRegistry = instanceStatisticsRegistry;
         apimlDiscoveryClient.registerEventListener(this);
         this.serviceCacheEvicts = serviceCacheEvicts;
         this.serviceCacheEvicts.remove(this);
     }
 
-    public void setApimlZoneAwareLoadBalancer(ApimlZoneAwareLoadBalancer apimlZoneAwareLoadBalancer) {
-        this.apimlZoneAwareLoadBalancer = apimlZoneAwareLoadBalancer;
+    /**
+     * Register load balancer of a service to be updated on changes of the service's instances
+     * @param apimlZoneAwareLoadBalancer load balancer of Ribbon client, its name is the serviceId
+     */
+    public void addApimlZoneAwareLoadBalancer(ApimlZoneAwareLoadBalancer<?> apimlZoneAwareLoadBalancer) {
+        loadBalancers.put(normalize(apimlZoneAwareLoadBalancer.getName()), apimlZoneAwareLoadBalancer);
     }
 
     public synchronized void evictCacheService(String serviceId) {
@@ -66,20 +87,100 @@ public class ServiceCacheEvictor implements EurekaEventListener, ServiceCacheEvi
     }
 
     @Override
-    public synchronized void onEvent(EurekaEvent event) {
+    public void onEvent(EurekaEvent event) {
         if (event instanceof CacheRefreshedEvent) {
-            if (!evictAll && toEvict.isEmpty()) return;
-
-            if (evictAll) {
-                serviceCacheEvicts.forEach(ServiceCacheEvict::evictCacheAllService);
-                evictAll = false;
-            } else {
-                toEvict.forEach(ServiceRef::evict);
-                toEvict.clear();
-            }
+            Collection<ApimlZoneAwareLoadBalancer<?>> toUpdate = processRefresh();
+            toUpdate.forEach(ApimlZoneAwareLoadBalancer::serverChanged);
+        }
+    }
+
+    /**
+     * Evict caches and find load balancers to update
+     * @return load balancers of services which were changed or explicitly evicted
+     */
+    private synchronized Collection<ApimlZoneAwareLoadBalancer<?>> processRefresh() {
+        if (evictAll) {
+            serviceCacheEvicts.forEach(ServiceCacheEvict::evictCacheAllService);
+            evictAll = false;
+            toEvict.clear();
+            Set<String> currentInstanceIds = new HashSet<>();
+            fingerprints = computeFingerprints(currentInstanceIds);
+            removeStatistics(currentInstanceIds);
+            return new ArrayList<>(loadBalancers.values());
+        }
+
+        Set<String> changed = findChangedServices();
+        toEvict.forEach(serviceRef -> {
+            serviceRef.evict();
+            changed.add(normalize(serviceRef.getServiceId()));
+        });
+        toEvict.clear();
+
+        List<ApimlZoneAwareLoadBalancer<?>> output = new ArrayList<>(changed.size());
+        for (String serviceId : changed) {
+            ApimlZoneAwareLoadBalancer<?> loadBalancer = loadBalancers.get(serviceId);
+            if (loadBalancer != null) output.add(loadBalancer);
+        }
+        return output;
+    }
 
-            apimlZoneAwareLoadBalancer.serverChanged();
+    /**
+     * Compare the current local registry with the previous one and store the new state
+     * @return serviceIds of services with added, removed or changed instances
+     */
+    private Set<String> findChangedServices() {
+        Set<String> currentInstanceIds = new HashSet<>();
+        Map<String, Integer> current = computeFingerprints(currentInstanceIds);
+        removeStatistics(currentInstanceIds);
+
+        Set<String> changed = new HashSet<>();
+        current.forEach((serviceId, fingerprint) -> {
+            if (!fingerprint.equals(fingerprints.get(serviceId))) changed.add(serviceId);
+        });
+        fingerprints.keySet().forEach(serviceId -> {
+            if (!current.containsKey(serviceId)) changed.add(serviceId);
+        });
+
+        fingerprints = current;
+        return changed;
+    }
+
+    /**
+     * Forget statistics of instances, which are not in the registry anymore
+     * @param currentInstanceIds instanceIds of all instances in the current registry
+     */
+    private void removeStatistics(Set<String> currentInstanceIds) {
+        instanceIds.removeAll(currentInstanceIds);
+        instanceIds.forEach(instanceStatisticsRegistry::remove);
+        instanceIds = currentInstanceIds;
+    }
+
+    /**
+     * @param instanceIds output set of instanceIds of all instances
+     * @return fingerprints of instances by serviceId
+     */
+    private Map<String, Integer> computeFingerprints(Set<String> instanceIds) {
+        Applications applications = apimlDiscoveryClient.getApplications();
+        if (applications == null) return new HashMap<>();
+
+        Map<String, Integer> output = new HashMap<>();
+        for (Application application : applications.getRegisteredApplications()) {
+            int fingerprint = 0;
+            for (InstanceInfo instanceInfo : application.getInstances()) {
+                instanceIds.add(instanceInfo.getInstanceId());
+                // order of instances is not guaranteed, therefore sum of hashes
+                fingerprint += Objects.hash(
+                    instanceInfo.getInstanceId(), instanceInfo.getStatus(), instanceInfo.getHostName(),
+                    instanceInfo.getPort(), instanceInfo.getSecurePort(), instanceInfo.getLastDirtyTimestamp()
+                );
+            }
+            output.put(normalize(application.getName()), fingerprint);
         }
+        return output;
+    }
+
+    private static String normalize(String serviceId) {
+        return serviceId == null ? "" : serviceId.toLowerCase();
     }
 
     @Value
@@ -0,0 +1,46 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.concurrency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Component
+@Endpoint(id = "concurrencylimits")
+@RequiredArgsConstructor
+public class ConcurrencyLimitActuatorEndpoint {
+    private final ConcurrencyLimiterRegistry concurrencyLimiterRegistry;
+
+    @ReadOperation
+    public Map<String, Map<String, Number>> getAll() {
+        Map<String, Map<String, Number>> result = new TreeMap<>();
+
+        concurrencyLimiterRegistry.getLimiters().forEach((serviceId, limiter) -> {
+            Map<String, Number> map = new LinkedHashMap<>();
+
+            map.put("limit", limiter.getLimit());
+            map.put("maxLimit", limiter.getMaxLimit());
+            map.put("inFlight", limiter.getInFlight());
+            map.put("queued", limiter.getQueued());
+            map.put("queueSize", limiter.getQueueSize());
+            map.put("rejected", limiter.getRejected());
+
+            result.put(serviceId, map);
+        });
+
+        return result;
+    }
+}
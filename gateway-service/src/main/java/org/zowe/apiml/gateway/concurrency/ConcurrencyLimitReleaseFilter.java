@@ -0,0 +1,47 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.concurrency;
+
+import org.zowe.apiml.gateway.filters.pre.ConcurrencyLimitFilter;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Releases the permit acquired by {@link ConcurrencyLimitFilter} when the request is finished, including the case
+ * of an error. Responses 502, 503 and 504 and exceptions are considered as failures of the service.
+ *
+ * It is a servlet filter (not a Zuul one), so it wraps the whole processing of the request including the error
+ * handling. It is registered in {@link org.zowe.apiml.gateway.routing.ApimlRoutingConfig}.
+ */
+public class ConcurrencyLimitReleaseFilter implements Filter {
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        boolean success = false;
+        try {
+            chain.doFilter(request, response);
+            success = !isUnavailable(((HttpServletResponse) response).getStatus());
+        } finally {
+            Object permit = request.getAttribute(ConcurrencyLimitFilter.PERMIT_ATTRIBUTE);
+            if (permit instanceof ConcurrencyLimiter.Permit) {
+                ((ConcurrencyLimiter.Permit) permit).release(success);
+            }
+        }
+    }
+
+    private boolean isUnavailable(int status) {
+        return (status == HttpServletResponse.SC_BAD_GATEWAY)
+            || (status == HttpServletResponse.SC_SERVICE_UNAVAILABLE)
+            || (status == HttpServletResponse.SC_GATEWAY_TIMEOUT);
+    }
+
+}
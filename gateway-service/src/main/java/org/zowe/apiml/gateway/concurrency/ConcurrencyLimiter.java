@@ -0,0 +1,178 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit of concurrent requests to a single service (bulkhead).
+ *
+ * The limit is adjusted by AIMD. Each successful request made while at least half of the limit is in use increases
+ * the limit by one, each failed or too slow request multiplies it by the backoff ratio. Requests over the limit wait
+ * in a bounded queue in order of their arrival. If the queue is full or the waiting times out, the request is rejected.
+ */
+public class ConcurrencyLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private final long latencyThresholdMillis;
+    private final double backoffRatio;
+
+    private volatile int minLimit;
+    private volatile int maxLimit;
+    private volatile int queueSize;
+
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int queued;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ConcurrencyLimiter(
+        int initialLimit, int minLimit, int maxLimit, int queueSize, long latencyThresholdMillis, double backoffRatio
+    ) {
+        this.latencyThresholdMillis = latencyThresholdMillis;
+        this.backoffRatio = backoffRatio;
+        configure(initialLimit, minLimit, maxLimit, queueSize);
+    }
+
+    /**
+     * Changes bounds of the limit and size of the queue. The current limit is kept if it is within the new bounds.
+     */
+    public void configure(int initialLimit, int minLimit, int maxLimit, int queueSize) {
+        lock.lock();
+        try {
+            this.minLimit = Math.max(1, minLimit);
+            this.maxLimit = Math.max(this.minLimit, maxLimit);
+            this.queueSize = Math.max(0, queueSize);
+            if (limit == 0) limit = initialLimit;
+            limit = Math.min(this.maxLimit, Math.max(this.minLimit, limit));
+            signalWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires a permit for one request. If the limit is reached, the thread waits in the queue.
+     *
+     * @param timeoutMillis maximal time to wait in the queue
+     * @return the permit, or null if the request was rejected
+     */
+    public Permit acquire(long timeoutMillis) {
+        lock.lock();
+        try {
+            if ((queued == 0) && (inFlight < getLimit())) {
+                inFlight++;
+                return new Permit();
+            }
+
+            if (queued >= queueSize) {
+                rejected.incrementAndGet();
+                return null;
+            }
+
+            queued++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                while (inFlight >= getLimit()) {
+                    if (remaining <= 0) {
+                        rejected.incrementAndGet();
+                        return null;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return new Permit();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.incrementAndGet();
+                return null;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(long latencyMillis, boolean success) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (!success || (latencyMillis > latencyThresholdMillis)) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if ((inFlight + 1) * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            signalWaiting();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalWaiting() {
+        int available = Math.min(queued, getLimit() - inFlight);
+        for (int i = 0; i < available; i++) {
+            released.signal();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Permit of a single request. It has to be released once the request is finished.
+     */
+    public class Permit {
+
+        private final long start = System.nanoTime();
+        private final AtomicBoolean isReleased = new AtomicBoolean();
+
+        /**
+         * Releases the permit and adapts the limit by the result of the request. Next calls are ignored.
+         *
+         * @param success false if the service failed or is not available
+         */
+        public void release(boolean success) {
+            if (isReleased.compareAndSet(false, true)) {
+                ConcurrencyLimiter.this.release(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), success);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.concurrency;
+
+import lombok.Getter;
+import org.apache.commons.lang.math.NumberUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds concurrency limiters of all services. The global configuration could be overridden by each service with
+ * metadata {@link #ENABLED_KEY}, {@link #MAX_LIMIT_KEY} and {@link #QUEUE_SIZE_KEY}.
+ *
+ * The limit is disabled by default, so the gateway does not reject requests which were accepted before. A service
+ * could opt in by its metadata or it could be enabled for all services.
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    public static final String ENABLED_KEY = "apiml.concurrencyLimitEnabled";
+    public static final String MAX_LIMIT_KEY = "apiml.concurrencyLimit";
+    public static final String QUEUE_SIZE_KEY = "apiml.concurrencyQueueSize";
+
+    private final Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> enabledServices = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    @Getter
+    private final long queueTimeout;
+    private final long latencyThreshold;
+    private final double backoffRatio;
+
+    public ConcurrencyLimiterRegistry(
+        @Value("${apiml.gateway.concurrencyLimit.enabled:false}") boolean enabled,
+        @Value("${apiml.gateway.concurrencyLimit.initialLimit:20}") int initialLimit,
+        @Value("${apiml.gateway.concurrencyLimit.minLimit:5}") int minLimit,
+        @Value("${apiml.gateway.concurrencyLimit.maxLimit:100}") int maxLimit,
+        @Value("${apiml.gateway.concurrencyLimit.queueSize:50}") int queueSize,
+        @Value("${apiml.gateway.concurrencyLimit.queueTimeout:1000}") long queueTimeout,
+        @Value("${apiml.gateway.concurrencyLimit.latencyThreshold:10000}") long latencyThreshold,
+        @Value("${apiml.gateway.concurrencyLimit.backoffRatio:0.9}") double backoffRatio
+    ) {
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.queueTimeout = queueTimeout;
+        this.latencyThreshold = latencyThreshold;
+        this.backoffRatio = backoffRatio;
+    }
+
+    /**
+     * @param serviceId id of service
+     * @return true if requests to the service are limited, by its metadata or by the global configuration
+     */
+    public boolean isEnabled(String serviceId) {
+        return enabledServices.getOrDefault(serviceId.toLowerCase(), enabled);
+    }
+
+    public ConcurrencyLimiter get(String serviceId) {
+        return limiters.computeIfAbsent(serviceId.toLowerCase(), k -> createLimiter(maxLimit, queueSize));
+    }
+
+    /**
+     * Applies configuration of the service from its metadata. Missing values are replaced by the global ones.
+     */
+    public void configure(String serviceId, Map<String, String> metadata) {
+        if (serviceId == null) return;
+
+        String serviceEnabled = metadata.get(ENABLED_KEY);
+        if (serviceEnabled == null) {
+            enabledServices.remove(serviceId.toLowerCase());
+        } else {
+            enabledServices.put(serviceId.toLowerCase(), Boolean.parseBoolean(serviceEnabled));
+        }
+
+        int serviceMaxLimit = NumberUtils.toInt(metadata.get(MAX_LIMIT_KEY), maxLimit);
+        int serviceQueueSize = NumberUtils.toInt(metadata.get(QUEUE_SIZE_KEY), queueSize);
+
+        limiters.compute(serviceId.toLowerCase(), (k, limiter) -> {
+            if (limiter == null) return createLimiter(serviceMaxLimit, serviceQueueSize);
+            limiter.configure(initialLimit, minLimit, serviceMaxLimit, serviceQueueSize);
+            return limiter;
+        });
+    }
+
+    public Map<String, ConcurrencyLimiter> getLimiters() {
+        return Collections.unmodifiableMap(limiters);
+    }
+
+    private ConcurrencyLimiter createLimiter(int serviceMaxLimit, int serviceQueueSize) {
+        return new ConcurrencyLimiter(
+            Math.min(initialLimit, serviceMaxLimit), minLimit, serviceMaxLimit, serviceQueueSize, latencyThreshold, backoffRatio
+        );
+    }
+
+}
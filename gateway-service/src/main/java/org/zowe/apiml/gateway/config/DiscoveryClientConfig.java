@@ -26,6 +26,8 @@ import org.springframework.cloud.util.ProxyUtils;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.zowe.apiml.product.registry.MetadataDictionary;
+import org.zowe.apiml.product.registry.RegistryCompactor;
 
 import java.util.List;
 
@@ -35,7 +37,8 @@ import java.util.List;
  * to fetching.
  * <p>
  * Configuration also add listeners to call other beans waiting for fetch new registry. It speed up distribution of
- * changes in whole gateway.
+ * changes in whole gateway. Metadata of instances are compacted at first, so the other listeners already read
+ * compacted ones.
  */
 @Configuration
 @RequiredArgsConstructor
@@ -61,6 +64,8 @@ public class DiscoveryClientConfig {
         final ApimlDiscoveryClient discoveryClientClient = new ApimlDiscoveryClient(appManager, config, this.optionalArgs, this.context);
         discoveryClientClient.registerHealthCheck(healthCheckHandler);
 
+        discoveryClientClient.registerEventListener(new RegistryCompactor(discoveryClientClient, new MetadataDictionary()));
+
         discoveryClientClient.registerEventListener(event -> {
             if (event instanceof CacheRefreshedEvent) {
                 refreshableRouteLocators.forEach(RefreshableRouteLocator::refresh);
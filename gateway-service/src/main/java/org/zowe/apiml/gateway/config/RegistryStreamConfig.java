@@ -0,0 +1,52 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.config;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zowe.apiml.gateway.discovery.ApimlDiscoveryClient;
+import org.zowe.apiml.product.registry.RegistryStreamClient;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Configuration of the registry stream. Discovery service pushes each change of its registry and the gateway applies
+ * it immediately into the local registry, without waiting for the next fetch. Periodical fetching is still active
+ * to verify consistency of the registry.
+ */
+@Configuration
+@ConditionalOnProperty(value = "apiml.gateway.registryStream.enabled", havingValue = "true", matchIfMissing = true)
+public class RegistryStreamConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public RegistryStreamClient registryStreamClient(
+        ApimlDiscoveryClient discoveryClient,
+        @Qualifier("secureHttpClientWithKeystore") CloseableHttpClient secureHttpClient,
+        @Value("${apiml.service.discoveryServiceUrls:}") String discoveryServiceUrls,
+        @Value("${apiml.gateway.registryStream.readTimeout:90000}") int readTimeout,
+        @Value("${apiml.gateway.registryStream.reconnectDelay:1000}") long reconnectDelay
+    ) {
+        List<String> urls = Arrays.stream(discoveryServiceUrls.split(","))
+            .map(String::trim)
+            .filter(url -> !url.isEmpty())
+            .collect(Collectors.toList());
+
+        return new RegistryStreamClient(
+            secureHttpClient, urls, discoveryClient::applyDelta, discoveryClient::fetchRegistry, readTimeout, reconnectDelay
+        );
+    }
+
+}
@@ -14,6 +14,7 @@ import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.zowe.apiml.gateway.security.service.ServiceCacheEvict;
 
@@ -40,6 +41,15 @@ public class CacheServiceController {
         discoveryClient.fetchRegistry();
     }
 
+    /**
+     * Evicts caches of multiple services in one call, ie. DELETE /gateway/cache/services?serviceId=service1,service2
+     */
+    @DeleteMapping(path = "", params = "serviceId")
+    public void evictServices(@RequestParam("serviceId") List<String> serviceIds) {
+        serviceIds.forEach(serviceId -> toEvict.forEach(s -> s.evictCacheService(serviceId)));
+        discoveryClient.fetchRegistry();
+    }
+
     @DeleteMapping(path = "/{serviceId}")
     public void evict(@PathVariable("serviceId") String serviceId) {
         toEvict.forEach(s -> s.evictCacheService(serviceId));
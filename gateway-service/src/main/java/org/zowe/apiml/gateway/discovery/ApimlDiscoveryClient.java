@@ -10,23 +10,31 @@
 package org.zowe.apiml.gateway.discovery;
 
 import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo;
 import com.netflix.discovery.AbstractDiscoveryClientOptionalArgs;
 import com.netflix.discovery.DiscoveryClient;
 import com.netflix.discovery.EurekaClientConfig;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
 import org.springframework.cloud.netflix.eureka.CloudEurekaClient;
 import org.springframework.context.ApplicationEventPublisher;
+import org.zowe.apiml.product.registry.RegistryDelta;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Custom implementation of Eureka client. It support additional feature:
  * - fetchRegistry - invoke asynchronous task to update registry from discovery client immediatelly
+ * - applyDelta - apply a change pushed by discovery service directly into the local registry
  */
 public class ApimlDiscoveryClient extends CloudEurekaClient {
 
@@ -34,6 +42,8 @@ public class ApimlDiscoveryClient extends CloudEurekaClient {
 
     protected Runnable cacheRefresh;
 
+    protected Lock fetchRegistryUpdateLock;
+
     public ApimlDiscoveryClient(
         ApplicationInfoManager applicationInfoManager,
         EurekaClientConfig config,
@@ -50,6 +60,10 @@ public class ApimlDiscoveryClient extends CloudEurekaClient {
             Field schedulerField = DiscoveryClient.class.getDeclaredField("scheduler");
             schedulerField.setAccessible(true);
             scheduler = (ScheduledExecutorService) schedulerField.get(this);
+            // take lock used by updating of the local registry to apply deltas in the same way as Eureka does
+            Field lockField = DiscoveryClient.class.getDeclaredField("fetchRegistryUpdateLock");
+            lockField.setAccessible(true);
+            fetchRegistryUpdateLock = (Lock) lockField.get(this);
             // find class with process to fetch from discovery server and construct instance for call to fetch
             Optional<Class<?>> cacheRefreshClass = Arrays.stream(DiscoveryClient.class.getDeclaredClasses())
                 .filter(x -> "CacheRefreshThread".equals(x.getSimpleName())).findFirst();  // NOSONAR: This class cannot be imported for usage with instanceof
@@ -66,4 +80,42 @@ public class ApimlDiscoveryClient extends CloudEurekaClient {
         scheduler.schedule(cacheRefresh, 0, TimeUnit.NANOSECONDS);
     }
 
+    /**
+     * Applies the change of a single instance into the local registry, the same way as Eureka applies a delta
+     * fetched from the discovery service. Listeners are then notified as after fetching of registry.
+     *
+     * @param delta change of registry pushed by discovery service
+     */
+    public void applyDelta(RegistryDelta delta) {
+        fetchRegistryUpdateLock.lock();
+        try {
+            final Applications applications = getApplications();
+            if (delta.getAction() == InstanceInfo.ActionType.DELETED) {
+                final Application application = applications.getRegisteredApplications(delta.getAppName());
+                final InstanceInfo instanceInfo = (application == null) ? null : application.getByInstanceId(delta.getInstanceId());
+                if (instanceInfo == null) return;
+
+                application.removeInstance(instanceInfo);
+                if (application.getInstances().isEmpty()) {
+                    applications.removeApplication(application);
+                }
+            } else {
+                final InstanceInfo instanceInfo = delta.toInstanceInfo();
+                Application application = applications.getRegisteredApplications(instanceInfo.getAppName());
+                if (application == null) {
+                    application = new Application(instanceInfo.getAppName());
+                    applications.addApplication(application);
+                }
+                application.addInstance(instanceInfo);
+            }
+            applications.shuffleInstances(getEurekaClientConfig().shouldFilterOnlyUpInstances());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            fetchRegistryUpdateLock.unlock();
+        }
+
+        onCacheRefreshed();
+    }
+
 }
@@ -52,6 +52,7 @@ public class InternalServerErrorController implements ErrorController {
         errorChecks.add(new TimeoutErrorCheck(messageService));
         errorChecks.add(new SecurityTokenErrorCheck(messageService));
         errorChecks.add(new ServiceNotFoundCheck(messageService));
+        errorChecks.add(new ServiceOverloadedCheck(messageService));
         errorChecks.add(new RibbonRetryErrorCheck(messageService));
     }
 
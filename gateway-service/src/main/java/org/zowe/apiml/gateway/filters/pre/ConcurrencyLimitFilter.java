@@ -0,0 +1,66 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.filters.pre;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.util.Strings;
+import org.springframework.http.HttpStatus;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimitReleaseFilter;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimiter;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimiterRegistry;
+import org.zowe.apiml.gateway.error.ServiceOverloaded;
+
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.*;
+
+/**
+ * Acquires a permit of the concurrency limiter of the routed service. If the service is overloaded, the request is
+ * rejected with 503. The permit is stored in the request and released by {@link ConcurrencyLimitReleaseFilter}.
+ */
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends ZuulFilter {
+    public static final String PERMIT_ATTRIBUTE = "apiml.concurrencyLimitPermit";
+
+    private final RequestContextProvider contextProvider;
+    private final ConcurrencyLimiterRegistry concurrencyLimiterRegistry;
+
+    @Override
+    public String filterType() {
+        return PRE_TYPE;
+    }
+
+    @Override
+    public int filterOrder() {
+        return PRE_DECORATION_FILTER_ORDER + 6;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        String serviceId = (String) contextProvider.context().get(SERVICE_ID_KEY);
+        return !Strings.isEmpty(serviceId) && concurrencyLimiterRegistry.isEnabled(serviceId);
+    }
+
+    @Override
+    public Object run() throws ZuulException {
+        RequestContext currentContext = contextProvider.context();
+        String serviceId = (String) currentContext.get(SERVICE_ID_KEY);
+
+        ConcurrencyLimiter.Permit permit = concurrencyLimiterRegistry.get(serviceId)
+            .acquire(concurrencyLimiterRegistry.getQueueTimeout());
+        if (permit == null) {
+            throw new ZuulException(new ServiceOverloaded(), HttpStatus.SERVICE_UNAVAILABLE.value(), serviceId);
+        }
+
+        currentContext.getRequest().setAttribute(PERMIT_ATTRIBUTE, permit);
+        return null;
+    }
+}
@@ -19,6 +19,7 @@ import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang.StringUtils;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.stereotype.Service;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimiterRegistry;
 
 import java.util.List;
 import java.util.Map;
@@ -27,12 +28,14 @@ import java.util.stream.Collectors;
 
 /**
  * Class that extracts the instances metadata from the registered applications and set the ones related to the ribbon timeout
- * (connectionTimeout, readTimeout and connectionManagerTimeout) as system properties
+ * (connectionTimeout, readTimeout and connectionManagerTimeout) as system properties. It also configures concurrency
+ * limits of the services.
  */
 @Service
 @RequiredArgsConstructor
 public class MetadataProcessor implements EurekaEventListener {
     private final EurekaApplications applications;
+    private final ConcurrencyLimiterRegistry concurrencyLimiterRegistry;
 
     private void checkMetadata(InstanceInfo instanceInfo) {
         String serviceId = instanceInfo.getVIPAddress();
@@ -41,6 +44,7 @@ public class MetadataProcessor implements EurekaEventListener {
             setConnectTimeout(serviceId, metadata);
             setReadTimeout(serviceId, metadata);
             setConnectionManagerTimeout(serviceId, metadata);
+            concurrencyLimiterRegistry.configure(serviceId, metadata);
         }
     }
 
@@ -16,7 +16,8 @@ import org.springframework.retry.RetryListener;
 import org.zowe.apiml.gateway.ribbon.http.RequestAbortException;
 
 /**
- * Listener that aborts the Ribbon retrying on specific exceptions
+ * Listener that aborts the Ribbon retrying on specific exceptions or if all instances of the service are ejected by
+ * the outlier detection (another attempt would just multiply the load of failing instances)
  */
 public class AbortingRetryListener implements RetryListener {
     @Override
@@ -31,7 +32,7 @@ public class AbortingRetryListener implements RetryListener {
 
     @Override
     public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
-        if (throwable instanceof RequestAbortException) {
+        if (throwable instanceof RequestAbortException || RequestContextUtils.isAllInstancesEjected()) {
             context.setExhaustedOnly();
         }
     }
@@ -18,19 +18,36 @@ import org.springframework.cloud.netflix.eureka.EurekaDiscoveryClient;
 import org.springframework.cloud.netflix.ribbon.RibbonLoadBalancerClient;
 import org.springframework.cloud.netflix.ribbon.ServerIntrospector;
 import org.springframework.cloud.netflix.ribbon.apache.RetryableRibbonLoadBalancingHttpClient;
+import org.springframework.cloud.netflix.ribbon.apache.RibbonApacheHttpRequest;
+import org.springframework.cloud.netflix.ribbon.apache.RibbonApacheHttpResponse;
 import org.zowe.apiml.gateway.ribbon.http.RequestContextNotPreparedException;
+import org.zowe.apiml.gateway.ribbon.retry.HedgingExecutor;
 
 /**
- * Minimalistic extension of Ribbon's retryable client
+ * Minimalistic extension of Ribbon's retryable client. If {@link HedgingExecutor} is set, allowed requests are hedged.
  */
 @SuppressWarnings("squid:S110")
 public class ApimlRetryableClient extends RetryableRibbonLoadBalancingHttpClient {
 
     ServerIntrospector introspector;
+    HedgingExecutor hedgingExecutor;
 
     public ApimlRetryableClient(CloseableHttpClient delegate, IClientConfig config, ServerIntrospector serverIntrospector, LoadBalancedRetryFactory loadBalancedRetryFactory) {
+        this(delegate, config, serverIntrospector, loadBalancedRetryFactory, null);
+    }
+
+    public ApimlRetryableClient(CloseableHttpClient delegate, IClientConfig config, ServerIntrospector serverIntrospector, LoadBalancedRetryFactory loadBalancedRetryFactory, HedgingExecutor hedgingExecutor) {
         super(delegate, config, serverIntrospector, loadBalancedRetryFactory);
         this.introspector = serverIntrospector;
+        this.hedgingExecutor = hedgingExecutor;
+    }
+
+    @Override
+    public RibbonApacheHttpResponse execute(RibbonApacheHttpRequest request, IClientConfig configOverride) throws Exception {
+        if (hedgingExecutor == null || !hedgingExecutor.isHedged(getClientName(), request.getContext().getMethod())) {
+            return super.execute(request, configOverride);
+        }
+        return hedgingExecutor.execute(getClientName(), () -> super.execute(request, configOverride));
     }
 
     /**
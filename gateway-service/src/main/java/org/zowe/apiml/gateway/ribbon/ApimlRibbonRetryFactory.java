@@ -10,22 +10,49 @@
 
 package org.zowe.apiml.gateway.ribbon;
 
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+import org.springframework.cloud.client.loadbalancer.ServiceInstanceChooser;
 import org.springframework.cloud.netflix.ribbon.RibbonLoadBalancedRetryFactory;
 import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
 import org.springframework.retry.RetryListener;
+import org.zowe.apiml.gateway.ribbon.retry.BudgetedRetryPolicy;
+import org.zowe.apiml.gateway.ribbon.retry.RetryBudget;
+import org.zowe.apiml.gateway.ribbon.retry.RetryBudgetRegistry;
 
 /**
- * Allows adding RetryListeners to Ribbon Retry
+ * Allows adding RetryListeners to Ribbon Retry. If the registry of retry budgets is set, each retry policy is limited
+ * by the budget of service (see {@link BudgetedRetryPolicy}).
  */
 public class ApimlRibbonRetryFactory extends RibbonLoadBalancedRetryFactory {
 
+    private final RetryBudgetRegistry retryBudgetRegistry;
     private final RetryListener[] listeners;
 
     public ApimlRibbonRetryFactory(SpringClientFactory clientFactory, RetryListener... listeners) {
+        this(clientFactory, null, listeners);
+    }
+
+    public ApimlRibbonRetryFactory(SpringClientFactory clientFactory, RetryBudgetRegistry retryBudgetRegistry, RetryListener... listeners) {
         super(clientFactory);
+        this.retryBudgetRegistry = retryBudgetRegistry;
         this.listeners = listeners;
     }
 
+    /**
+     * The policy is created for each request, so the request is counted into the budget here
+     */
+    @Override
+    public LoadBalancedRetryPolicy createRetryPolicy(String service, ServiceInstanceChooser serviceInstanceChooser) {
+        LoadBalancedRetryPolicy policy = super.createRetryPolicy(service, serviceInstanceChooser);
+        if (policy == null || retryBudgetRegistry == null) return policy;
+
+        RetryBudget retryBudget = retryBudgetRegistry.get(service);
+        if (retryBudget == null) return policy;
+
+        retryBudget.deposit();
+        return new BudgetedRetryPolicy(policy, retryBudget);
+    }
+
     @Override
     public RetryListener[] createRetryListeners(String service) {
         return listeners;
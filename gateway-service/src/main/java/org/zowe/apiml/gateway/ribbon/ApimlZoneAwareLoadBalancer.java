@@ -13,6 +13,7 @@ import com.netflix.client.config.IClientConfig;
 import com.netflix.loadbalancer.*;
 import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
 import org.zowe.apiml.gateway.cache.ServiceCacheEvictor;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.OutlierDetector;
 
 /**
  * Custom implementation of load balancer. This implementation register on creating into ServiceCacheEvictor. It allows
@@ -21,12 +22,21 @@ import org.zowe.apiml.gateway.cache.ServiceCacheEvictor;
  * registry is loaded. After that is is posible to update also load balancer, especially list of servers. Otherwise
  * gateway try to send requests, but load balncer can send them to missing service or dont know about new one.
  *
+ * The chosen server is also verified by {@link OutlierDetector}. If the instance is ejected (it is failing or too
+ * slow), another one is chosen. If there is no available instance, the chosen one is used anyway, but the retrying
+ * is stopped after its failure (see {@link AbortingRetryListener}). A hedged request avoids the instance of the
+ * original request, if it is possible.
+ *
  * @param <T> ussually Server class
  */
 public class ApimlZoneAwareLoadBalancer<T extends Server> extends ZoneAwareLoadBalancer<T> {
 
     public static final String LOADBALANCED_INSTANCE_INFO_KEY = "apimlLoadBalancedInstanceInfo";
 
+    private static final int MAX_AVOIDING_CHOICES = 3;
+
+    private final OutlierDetector outlierDetector;
+
     public ApimlZoneAwareLoadBalancer(
         IClientConfig clientConfig,
         IRule rule,
@@ -34,14 +44,17 @@ public class ApimlZoneAwareLoadBalancer<T extends Server> extends ZoneAwareLoadB
         ServerList<T> serverList,
         ServerListFilter<T> filter,
         ServerListUpdater serverListUpdater,
-        ServiceCacheEvictor serviceCacheEvictor
+        ServiceCacheEvictor serviceCacheEvictor,
+        OutlierDetector outlierDetector
     ) {
         super(clientConfig, rule, ping, serverList, filter, serverListUpdater);
-        serviceCacheEvictor.setApimlZoneAwareLoadBalancer(this);
+        this.outlierDetector = outlierDetector;
+        serviceCacheEvictor.addApimlZoneAwareLoadBalancer(this);
     }
 
     /**
-     * Update list of servers, to handle services in right way
+     * Update list of servers, to handle services in right way. Servers are read from local registry of discovery
+     * client, it doesn't fetch the discovery service.
      */
     public void serverChanged() {
         updateListOfServers();
@@ -59,6 +72,16 @@ public class ApimlZoneAwareLoadBalancer<T extends Server> extends ZoneAwareLoadB
             return null;
         }
 
+        server = avoidInstance(key, server);
+
+        if (outlierDetector != null && outlierDetector.isEnabled()) {
+            Server available = outlierDetector.check(getReachableServers(), server);
+            RequestContextUtils.setAllInstancesEjected(available == null);
+            if (available != null) {
+                server = available;
+            }
+        }
+
         if (server instanceof DiscoveryEnabledServer) {
             RequestContextUtils.setInstanceInfo(((DiscoveryEnabledServer) server).getInstanceInfo());
             RequestContextUtils.addDebugInfo("Load Balancer chooses: " + ((DiscoveryEnabledServer) server).getInstanceInfo());
@@ -68,4 +91,22 @@ public class ApimlZoneAwareLoadBalancer<T extends Server> extends ZoneAwareLoadB
 
         return server;
     }
+
+    private Server avoidInstance(Object key, Server server) {
+        String avoided = RequestContextUtils.getAvoidedInstanceId().orElse(null);
+        if (avoided == null) return server;
+
+        Server output = server;
+        for (int i = 0; i < MAX_AVOIDING_CHOICES && isInstance(output, avoided); i++) {
+            Server another = super.chooseServer(key);
+            if (another == null) break;
+            output = another;
+        }
+        return output;
+    }
+
+    private boolean isInstance(Server server, String instanceId) {
+        return (server instanceof DiscoveryEnabledServer)
+            && instanceId.equals(((DiscoveryEnabledServer) server).getInstanceInfo().getInstanceId());
+    }
 }
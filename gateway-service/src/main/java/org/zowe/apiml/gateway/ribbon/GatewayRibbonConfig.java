@@ -15,12 +15,19 @@ import lombok.RequiredArgsConstructor;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.netflix.ribbon.*;
 import org.springframework.cloud.netflix.ribbon.apache.RibbonLoadBalancingHttpClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.zowe.apiml.gateway.cache.ServiceCacheEvictor;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.ApimlLoadBalancingRule;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.InstanceStatisticsRegistry;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.LoadBalancingStrategy;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.OutlierDetector;
+import org.zowe.apiml.gateway.ribbon.retry.HedgingExecutor;
+import org.zowe.apiml.gateway.ribbon.retry.RetryBudgetRegistry;
 
 /**
  * Configuration of client side load balancing with Ribbon
@@ -34,9 +41,9 @@ public class GatewayRibbonConfig {
     private String ribbonClientName = "client";
 
     @Bean
-    public ApimlRibbonRetryFactory apimlRibbonRetryFactory(SpringClientFactory springClientFactory) {
+    public ApimlRibbonRetryFactory apimlRibbonRetryFactory(SpringClientFactory springClientFactory, RetryBudgetRegistry retryBudgetRegistry) {
         AbortingRetryListener retryListener = new AbortingRetryListener();
-        return new ApimlRibbonRetryFactory(springClientFactory, retryListener);
+        return new ApimlRibbonRetryFactory(springClientFactory, retryBudgetRegistry, retryListener);
     }
 
     @Bean
@@ -47,26 +54,42 @@ public class GatewayRibbonConfig {
         IClientConfig config,
         ServerIntrospector serverIntrospector,
         ApimlRibbonRetryFactory retryFactory,
-        RibbonLoadBalancerContext ribbonContext
+        RibbonLoadBalancerContext ribbonContext,
+        HedgingExecutor hedgingExecutor
     ) {
         ApimlRetryableClient client = new ApimlRetryableClient(
-            httpClientProxy, config, serverIntrospector, retryFactory);
+            httpClientProxy, config, serverIntrospector, retryFactory, hedgingExecutor);
         client.setRibbonLoadBalancerContext(ribbonContext);
         return client;
     }
 
+    @Bean
+    @Primary
+    @Autowired
+    public IRule ribbonRule(IClientConfig config,
+                            InstanceStatisticsRegistry instanceStatisticsRegistry,
+                            @Value("${apiml.gateway.loadBalancer.type:default}") String loadBalancerType) {
+        if (this.propertiesFactory.isSet(IRule.class, ribbonClientName)) {
+            return this.propertiesFactory.get(IRule.class, config, ribbonClientName);
+        }
+        ZoneAvoidanceRule defaultRule = new ZoneAvoidanceRule();
+        defaultRule.initWithNiwsConfig(config);
+        return new ApimlLoadBalancingRule(defaultRule,
+            LoadBalancingStrategy.fromValue(loadBalancerType, LoadBalancingStrategy.DEFAULT), instanceStatisticsRegistry);
+    }
+
     @Bean
     @Primary
     @Autowired
     public ILoadBalancer ribbonLoadBalancer(IClientConfig config,
                                             ServerList<Server> serverList, ServerListFilter<Server> serverListFilter,
                                             IRule rule, IPing ping, ServerListUpdater serverListUpdater,
-                                            ServiceCacheEvictor serviceCacheEvictor) {
+                                            ServiceCacheEvictor serviceCacheEvictor, OutlierDetector outlierDetector) {
         if (this.propertiesFactory.isSet(ILoadBalancer.class, ribbonClientName)) {
             return this.propertiesFactory.get(ILoadBalancer.class, config, ribbonClientName);
         }
         return new ApimlZoneAwareLoadBalancer<>(config, rule, ping, serverList,
-            serverListFilter, serverListUpdater, serviceCacheEvictor);
+            serverListFilter, serverListUpdater, serviceCacheEvictor, outlierDetector);
     }
 
 }
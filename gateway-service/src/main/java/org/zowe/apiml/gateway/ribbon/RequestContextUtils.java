@@ -24,6 +24,8 @@ public class RequestContextUtils {
 
     public static final String INSTANCE_INFO_KEY = "apimlLoadBalancedInstanceInfo";
     public static final String DEBUG_INFO_KEY = "apimlRibbonRetryDebug";
+    public static final String ALL_INSTANCES_EJECTED_KEY = "apimlAllInstancesEjected";
+    public static final String AVOIDED_INSTANCE_ID_KEY = "apimlAvoidedInstanceId";
 
     public static Optional<InstanceInfo> getInstanceInfo() {
         Object o = RequestContext.getCurrentContext().get(INSTANCE_INFO_KEY);
@@ -38,6 +40,19 @@ public class RequestContextUtils {
         RequestContext.getCurrentContext().set(INSTANCE_INFO_KEY, info);
     }
 
+    public static void setAllInstancesEjected(boolean allInstancesEjected) {
+        RequestContext.getCurrentContext().set(ALL_INSTANCES_EJECTED_KEY, allInstancesEjected);
+    }
+
+    public static boolean isAllInstancesEjected() {
+        return Boolean.TRUE.equals(RequestContext.getCurrentContext().get(ALL_INSTANCES_EJECTED_KEY));
+    }
+
+    public static Optional<String> getAvoidedInstanceId() {
+        Object o = RequestContext.getCurrentContext().get(AVOIDED_INSTANCE_ID_KEY);
+        return (o instanceof String) ? Optional.of((String) o) : Optional.empty();
+    }
+
     public static void addDebugInfo(String debug) {
         String existingDebugInfo = getDebugInfo();
         RequestContext.getCurrentContext().set(DEBUG_INFO_KEY,
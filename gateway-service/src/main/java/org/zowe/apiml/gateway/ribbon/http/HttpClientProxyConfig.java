@@ -10,13 +10,20 @@
 
 package org.zowe.apiml.gateway.ribbon.http;
 
+import com.netflix.appinfo.InstanceInfo;
 import lombok.RequiredArgsConstructor;
 import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.cglib.proxy.MethodInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.zowe.apiml.gateway.ribbon.RequestContextUtils;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.InstanceStatistics;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.InstanceStatisticsRegistry;
+
+import java.lang.reflect.Method;
 
 /**
  * Configuration class creates proxy bean for ClosableHttpClient that interceps method calls
@@ -24,6 +31,7 @@ import org.springframework.context.annotation.Configuration;
  * Actions on intercept are:
  *   Decide which client to use for call (with/without) certificate
  *   Decorate HttpRequest object with security
+ *   Collect statistics of the chosen instance for load balancing (each retry attempt is one call of execute)
  */
 @RequiredArgsConstructor
 @Configuration
@@ -31,6 +39,7 @@ public class HttpClientProxyConfig {
 
     private final HttpClientChooser clientChooser;
     private final ServiceAuthenticationDecorator serviceAuthenticationDecorator;
+    private final InstanceStatisticsRegistry instanceStatisticsRegistry;
 
     @Bean
     public CloseableHttpClient httpClientProxy() {
@@ -40,10 +49,42 @@ public class HttpClientProxyConfig {
             {
                 if (method.getName().equals("execute") && objects.length > 0 && objects[0] instanceof HttpRequest) {
                     serviceAuthenticationDecorator.process((HttpRequest) objects[0]);
+                    return executeWithStatistics(method, objects);
                 }
                 return method.invoke(clientChooser.chooseClient(), objects);
             }
         );
         return (CloseableHttpClient) e.create();
     }
+
+    private Object executeWithStatistics(Method method, Object[] objects) throws Exception {
+        InstanceStatistics statistics = RequestContextUtils.getInstanceInfo()
+            .map(InstanceInfo::getInstanceId)
+            .map(instanceStatisticsRegistry::get)
+            .orElse(null);
+        if (statistics == null) {
+            return method.invoke(clientChooser.chooseClient(), objects);
+        }
+
+        long start = statistics.start();
+        try {
+            Object response = method.invoke(clientChooser.chooseClient(), objects);
+            if (isUnavailable(response)) {
+                statistics.failure(start);
+            } else {
+                statistics.success(start);
+            }
+            return response;
+        } catch (Exception e) {
+            statistics.failure(start);
+            throw e;
+        }
+    }
+
+    private boolean isUnavailable(Object response) {
+        if (!(response instanceof HttpResponse)) return false;
+
+        int status = ((HttpResponse) response).getStatusLine().getStatusCode();
+        return status == 502 || status == 503 || status == 504;
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.loadbalancer;
+
+import com.netflix.client.config.IClientConfig;
+import com.netflix.loadbalancer.AbstractLoadBalancerRule;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ZoneAvoidanceRule;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rule which allows to select the load balancing strategy globally (apiml.gateway.loadBalancer.type) or per service
+ * by metadata {@link #METADATA_KEY}. The adaptive strategies use power of two choices: two random reachable instances
+ * are compared by their {@link InstanceStatistics} and the cheaper one is chosen. It avoids herding on the single
+ * best instance and still moves the traffic away from slow or overloaded instances.
+ *
+ * If the strategy is {@link LoadBalancingStrategy#DEFAULT}, the choice is delegated to the original Ribbon rule.
+ */
+public class ApimlLoadBalancingRule extends AbstractLoadBalancerRule {
+
+    public static final String METADATA_KEY = "apiml.lb.type";
+
+    private final IRule defaultRule;
+    private final LoadBalancingStrategy globalStrategy;
+    private final InstanceStatisticsRegistry instanceStatisticsRegistry;
+
+    /**
+     * Constructor used by Ribbon to clone rules per zone (see ZoneAwareLoadBalancer). Those rules don't know
+     * statistics and always use the default strategy.
+     */
+    public ApimlLoadBalancingRule() {
+        this(new ZoneAvoidanceRule(), LoadBalancingStrategy.DEFAULT, null);
+    }
+
+    public ApimlLoadBalancingRule(IRule defaultRule, LoadBalancingStrategy globalStrategy, InstanceStatisticsRegistry instanceStatisticsRegistry) {
+        this.defaultRule = defaultRule;
+        this.globalStrategy = globalStrategy;
+        this.instanceStatisticsRegistry = instanceStatisticsRegistry;
+    }
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+        if (defaultRule instanceof AbstractLoadBalancerRule) {
+            ((AbstractLoadBalancerRule) defaultRule).initWithNiwsConfig(clientConfig);
+        }
+    }
+
+    @Override
+    public void setLoadBalancer(ILoadBalancer lb) {
+        super.setLoadBalancer(lb);
+        defaultRule.setLoadBalancer(lb);
+    }
+
+    @Override
+    public Server choose(Object key) {
+        ILoadBalancer lb = getLoadBalancer();
+        if (lb == null) return null;
+
+        List<Server> servers = lb.getReachableServers();
+        LoadBalancingStrategy strategy = getStrategy(servers);
+        if ((strategy == LoadBalancingStrategy.DEFAULT) || servers.isEmpty()) {
+            return defaultRule.choose(key);
+        }
+
+        return chooseOfTwo(servers, strategy);
+    }
+
+    LoadBalancingStrategy getStrategy(List<Server> servers) {
+        if (instanceStatisticsRegistry == null) return LoadBalancingStrategy.DEFAULT;
+
+        for (Server server : servers) {
+            if (server instanceof DiscoveryEnabledServer) {
+                Map<String, String> metadata = ((DiscoveryEnabledServer) server).getInstanceInfo().getMetadata();
+                if (metadata != null && metadata.containsKey(METADATA_KEY)) {
+                    return LoadBalancingStrategy.fromValue(metadata.get(METADATA_KEY), globalStrategy);
+                }
+            }
+        }
+
+        return globalStrategy;
+    }
+
+    private Server chooseOfTwo(List<Server> servers, LoadBalancingStrategy strategy) {
+        int size = servers.size();
+        if (size == 1) return servers.get(0);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) second++;
+
+        Server a = servers.get(first);
+        Server b = servers.get(second);
+        return getCost(a, strategy) <= getCost(b, strategy) ? a : b;
+    }
+
+    private double getCost(Server server, LoadBalancingStrategy strategy) {
+        InstanceStatistics statistics = instanceStatisticsRegistry.get(getInstanceId(server));
+        if (strategy == LoadBalancingStrategy.LEAST_IN_FLIGHT) {
+            return statistics.getInFlight();
+        }
+        return statistics.getCost();
+    }
+
+    static String getInstanceId(Server server) {
+        if (server instanceof DiscoveryEnabledServer) {
+            return ((DiscoveryEnabledServer) server).getInstanceInfo().getInstanceId();
+        }
+        return server.getId();
+    }
+
+}
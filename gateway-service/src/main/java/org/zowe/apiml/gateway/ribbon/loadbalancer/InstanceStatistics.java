@@ -0,0 +1,190 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Statistics of one service instance collected from requests routed by the Gateway.
+ *
+ * Latency is tracked as peak-EWMA: a higher response time is taken immediately, a lower one is smoothed into the
+ * exponentially weighted moving average. The value decays in time also without new measurements, so an instance which
+ * was slow in the past is probed again later. Failed attempts are measured at least as failurePenalty.
+ *
+ * The object also holds the state of passive health checking (consecutive failures and ejection), which is evaluated
+ * by {@link OutlierDetector}. When an ejected instance returns after a successful probe, its latency is reset to
+ * the latency of the probe, otherwise the old peak would eject it again straight away. The count of ejections (which
+ * prolongs the next ejection) is not reset on the return, it decreases by one for each baseTime the instance stays
+ * healthy.
+ */
+public class InstanceStatistics {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong probeStarted = new AtomicLong();
+
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final LongSupplier clock;
+
+    // guarded by this
+    private double latency;
+    private long timestamp;
+
+    // state of ejection, see OutlierDetector
+    private volatile long ejectedUntil;
+    private volatile long lastFailure;
+    private int ejections;
+    private long returnedAt;
+
+    InstanceStatistics(long decayNanos, long failurePenaltyNanos, LongSupplier clock) {
+        this.decayNanos = decayNanos;
+        this.failurePenaltyNanos = failurePenaltyNanos;
+        this.clock = clock;
+        this.timestamp = clock.getAsLong();
+    }
+
+    /**
+     * Mark the beginning of a request to the instance
+     * @return timestamp of start to be used in {@link #success(long)} or {@link #failure(long)}
+     */
+    public long start() {
+        inFlight.incrementAndGet();
+        return clock.getAsLong();
+    }
+
+    /**
+     * Mark the successfully finished request
+     * @param start timestamp returned by {@link #start()}
+     */
+    public void success(long start) {
+        inFlight.decrementAndGet();
+        long now = clock.getAsLong();
+        observe(now, now - start);
+
+        consecutiveFailures.set(0);
+        if (probeStarted.getAndSet(0) != 0) {
+            synchronized (this) {
+                // the peak before ejection does not describe the instance anymore, the probe does
+                latency = now - start;
+                ejectedUntil = 0;
+                returnedAt = now;
+            }
+        }
+    }
+
+    /**
+     * Mark the failed request
+     * @param start timestamp returned by {@link #start()}
+     */
+    public void failure(long start) {
+        inFlight.decrementAndGet();
+        long now = clock.getAsLong();
+        observe(now, Math.max(now - start, failurePenaltyNanos));
+
+        consecutiveFailures.incrementAndGet();
+        lastFailure = now;
+        probeStarted.set(0);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return current peak-EWMA latency in nanoseconds, decayed to now
+     */
+    public synchronized double getLatency() {
+        observe(clock.getAsLong(), 0);
+        return latency;
+    }
+
+    /**
+     * Cost of sending one more request to this instance. It is the latency multiplied by count of requests which
+     * are in flight (including the new one). If there is no measurement yet but some requests are still running,
+     * the instance is penalized, otherwise an unknown instance would attract all the traffic.
+     *
+     * @return cost of next request
+     */
+    public double getCost() {
+        double currentLatency = getLatency();
+        int pending = getInFlight();
+        if ((currentLatency == 0) && (pending > 0)) {
+            return (double) failurePenaltyNanos + pending;
+        }
+        return currentLatency * (pending + 1);
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    long getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    long getLastFailure() {
+        return lastFailure;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    boolean isEjected() {
+        return ejectedUntil != 0;
+    }
+
+    /**
+     * Eject the instance. Each next ejection is longer, unless the instance was healthy for some time since
+     * the previous one (each baseTime of health shortens the next ejection by baseTime).
+     * @param now current time
+     * @param baseTime duration of the first ejection
+     * @param maxTime maximal duration of ejection
+     */
+    synchronized void eject(long now, long baseTime, long maxTime) {
+        if ((returnedAt != 0) && (baseTime > 0)) {
+            long healthyPeriods = (now - returnedAt) / baseTime;
+            ejections = (int) Math.max(0, ejections - healthyPeriods);
+        }
+        returnedAt = 0;
+        ejections++;
+        ejectedUntil = now + Math.min(baseTime * ejections, maxTime);
+        probeStarted.set(0);
+    }
+
+    /**
+     * Try to start a probe request to the instance after the ejection elapsed. Only one probe can run at the time,
+     * the probe is forgotten after probeTimeout (ie. request was not sent at the end).
+     * @param now current time
+     * @param probeTimeout max duration of probe
+     * @return true if the caller can send the probe request
+     */
+    boolean tryProbe(long now, long probeTimeout) {
+        long started = probeStarted.get();
+        if ((started != 0) && (now - started < probeTimeout)) return false;
+        return probeStarted.compareAndSet(started, now);
+    }
+
+    private synchronized void observe(long now, double rtt) {
+        long elapsed = Math.max(now - timestamp, 0);
+        timestamp = now;
+
+        double weight = Math.exp(-(double) elapsed / decayNanos);
+        if (rtt > latency) {
+            latency = rtt;
+        } else {
+            latency = latency * weight + rtt * (1.0 - weight);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared storage of {@link InstanceStatistics} for all services. Each Ribbon client has own context with own
+ * load balancer and rule, but statistics are collected by the common http client, therefore they are stored in
+ * the parent context by instanceId.
+ */
+@Component
+public class InstanceStatisticsRegistry {
+
+    private final Map<String, InstanceStatistics> statistics = new ConcurrentHashMap<>();
+
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+
+    public InstanceStatisticsRegistry(
+        @Value("${apiml.gateway.loadBalancer.decayTime:10000}") long decayTime,
+        @Value("${apiml.gateway.loadBalancer.failurePenalty:1000}") long failurePenalty
+    ) {
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayTime);
+        this.failurePenaltyNanos = TimeUnit.MILLISECONDS.toNanos(failurePenalty);
+    }
+
+    /**
+     * Return statistics of instance, create new one if it does not exist yet
+     * @param instanceId id of instance
+     * @return statistics of the instance
+     */
+    public InstanceStatistics get(String instanceId) {
+        InstanceStatistics output = statistics.get(instanceId);
+        if (output != null) return output;
+
+        return statistics.computeIfAbsent(instanceId, k -> new InstanceStatistics(decayNanos, failurePenaltyNanos, System::nanoTime));
+    }
+
+    /**
+     * Forget statistics of instance, ie. when instance was unregistered
+     * @param instanceId id of instance
+     */
+    public void remove(String instanceId) {
+        statistics.remove(instanceId);
+    }
+
+}
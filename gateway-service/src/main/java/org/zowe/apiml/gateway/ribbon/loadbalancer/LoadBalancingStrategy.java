@@ -0,0 +1,52 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.loadbalancer;
+
+import java.util.Arrays;
+
+/**
+ * Strategies of choosing an instance of service, see {@link ApimlLoadBalancingRule}
+ *
+ * - DEFAULT - Ribbon's default rule (zone avoidance with round robin)
+ * - LEAST_IN_FLIGHT - power of two choices, the instance with less requests in flight wins
+ * - PEAK_EWMA - power of two choices, the instance with lower peak-EWMA latency weighted by requests in flight wins
+ */
+public enum LoadBalancingStrategy {
+
+    DEFAULT("default"),
+    LEAST_IN_FLIGHT("leastInFlight"),
+    PEAK_EWMA("peakEwma");
+
+    private final String value;
+
+    LoadBalancingStrategy(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Find the strategy by its configuration value (case insensitive)
+     * @param value value from configuration or metadata
+     * @param defaultStrategy strategy to use if value is missing or unknown
+     * @return the matching strategy, otherwise defaultStrategy
+     */
+    public static LoadBalancingStrategy fromValue(String value, LoadBalancingStrategy defaultStrategy) {
+        if (value == null) return defaultStrategy;
+
+        return Arrays.stream(values())
+            .filter(x -> x.value.equalsIgnoreCase(value.trim()))
+            .findFirst()
+            .orElse(defaultStrategy);
+    }
+
+}
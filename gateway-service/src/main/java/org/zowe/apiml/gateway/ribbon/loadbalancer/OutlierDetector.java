@@ -0,0 +1,175 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.loadbalancer;
+
+import com.netflix.loadbalancer.Server;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passive health checking of instances. It uses statistics of requests sent by the Gateway (see
+ * {@link InstanceStatisticsRegistry}), no additional request is made.
+ *
+ * An instance is ejected when:
+ * - count of its consecutive failures reached the threshold
+ * - its latency is a outlier, it is latencyFactor times higher than median of all instances of the service
+ *
+ * The ejection takes baseEjectionTime multiplied by count of recent ejections (limited by maxEjectionTime). After
+ * that the instance is half-open, just one probe request is allowed. If the probe succeeds, the instance is available
+ * again with the latency of the probe, otherwise it is ejected for longer time. The count of ejections decreases only
+ * while the instance stays healthy (see {@link InstanceStatistics}), so a flapping instance is ejected for longer
+ * and longer time. Only maxEjectionPercent of instances could be ejected at the same
+ * time, the others are kept even if they are failing.
+ */
+@Slf4j
+@Component
+public class OutlierDetector {
+
+    private final InstanceStatisticsRegistry instanceStatisticsRegistry;
+
+    private final boolean enabled;
+    private final int consecutiveFailures;
+    private final double latencyFactor;
+    private final long minLatencyNanos;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final int maxEjectionPercent;
+
+    public OutlierDetector(
+        InstanceStatisticsRegistry instanceStatisticsRegistry,
+        @Value("${apiml.gateway.outlierDetection.enabled:true}") boolean enabled,
+        @Value("${apiml.gateway.outlierDetection.consecutiveFailures:5}") int consecutiveFailures,
+        @Value("${apiml.gateway.outlierDetection.latencyFactor:5}") double latencyFactor,
+        @Value("${apiml.gateway.outlierDetection.minLatency:1000}") long minLatency,
+        @Value("${apiml.gateway.outlierDetection.baseEjectionTime:30000}") long baseEjectionTime,
+        @Value("${apiml.gateway.outlierDetection.maxEjectionTime:300000}") long maxEjectionTime,
+        @Value("${apiml.gateway.outlierDetection.maxEjectionPercent:50}") int maxEjectionPercent
+    ) {
+        this.instanceStatisticsRegistry = instanceStatisticsRegistry;
+        this.enabled = enabled;
+        this.consecutiveFailures = consecutiveFailures;
+        this.latencyFactor = latencyFactor;
+        this.minLatencyNanos = TimeUnit.MILLISECONDS.toNanos(minLatency);
+        this.baseEjectionNanos = TimeUnit.MILLISECONDS.toNanos(baseEjectionTime);
+        this.maxEjectionNanos = TimeUnit.MILLISECONDS.toNanos(maxEjectionTime);
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Verify the chosen server. If it is ejected, the other servers, which are not ejected, are verified from
+     * the cheapest one (see {@link InstanceStatistics#getCost()}), each of them at most once.
+     *
+     * @param servers all reachable servers of the service
+     * @param chosen server chosen by the load balancing rule
+     * @return available server, or null if all servers are ejected
+     */
+    public Server check(List<Server> servers, Server chosen) {
+        if (chosen == null) return null;
+        if (isAvailable(servers, chosen)) return chosen;
+
+        List<Server> candidates = new ArrayList<>(servers.size());
+        for (Server server : servers) {
+            if ((server != chosen) && !isEjected(server)) candidates.add(server);
+        }
+        candidates.sort(Comparator.comparingDouble(server ->
+            instanceStatisticsRegistry.get(ApimlLoadBalancingRule.getInstanceId(server)).getCost()));
+
+        for (Server server : candidates) {
+            if (isAvailable(servers, server)) return server;
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the server is ejected and it could not be probed yet, it has no side effect
+     */
+    private boolean isEjected(Server server) {
+        InstanceStatistics statistics = instanceStatisticsRegistry.get(ApimlLoadBalancingRule.getInstanceId(server));
+        if (!statistics.isEjected()) return false;
+
+        long ejectedUntil = statistics.getEjectedUntil();
+        return (statistics.now() - ejectedUntil < 0) || (statistics.getLastFailure() - ejectedUntil >= 0);
+    }
+
+    /**
+     * Evaluate the state of the instance and decide if it is possible to send a request there
+     * @param servers all reachable servers of the service
+     * @param server the candidate
+     * @return true if the server is not ejected (or it could be probed)
+     */
+    boolean isAvailable(List<Server> servers, Server server) {
+        InstanceStatistics statistics = instanceStatisticsRegistry.get(ApimlLoadBalancingRule.getInstanceId(server));
+        long now = statistics.now();
+
+        if (!statistics.isEjected()) {
+            if (isOutlier(servers, statistics) && canEject(servers)) {
+                statistics.eject(now, baseEjectionNanos, maxEjectionNanos);
+                log.debug("Instance {} was ejected from load balancing", server.getId());
+                return false;
+            }
+            return true;
+        }
+
+        long ejectedUntil = statistics.getEjectedUntil();
+        if (now - ejectedUntil < 0) return false;
+
+        if (statistics.getLastFailure() - ejectedUntil >= 0) {
+            // the probe failed
+            statistics.eject(now, baseEjectionNanos, maxEjectionNanos);
+            log.debug("Instance {} failed on probe and it was ejected again", server.getId());
+            return false;
+        }
+
+        return statistics.tryProbe(now, baseEjectionNanos);
+    }
+
+    private boolean isOutlier(List<Server> servers, InstanceStatistics statistics) {
+        if (statistics.getConsecutiveFailures() >= consecutiveFailures) return true;
+
+        if (latencyFactor <= 0) return false;
+        double latency = statistics.getLatency();
+        if (latency < minLatencyNanos) return false;
+
+        return latency > latencyFactor * getMedianLatency(servers);
+    }
+
+    private double getMedianLatency(List<Server> servers) {
+        double[] latencies = servers.stream()
+            .map(ApimlLoadBalancingRule::getInstanceId)
+            .map(instanceStatisticsRegistry::get)
+            .mapToDouble(InstanceStatistics::getLatency)
+            .toArray();
+        if (latencies.length == 0) return Double.MAX_VALUE;
+
+        Arrays.sort(latencies);
+        return latencies[latencies.length / 2];
+    }
+
+    private boolean canEject(List<Server> servers) {
+        long ejected = servers.stream()
+            .map(ApimlLoadBalancingRule::getInstanceId)
+            .map(instanceStatisticsRegistry::get)
+            .filter(InstanceStatistics::isEjected)
+            .count();
+        return (ejected + 1) * 100 <= (long) servers.size() * maxEjectionPercent;
+    }
+
+}
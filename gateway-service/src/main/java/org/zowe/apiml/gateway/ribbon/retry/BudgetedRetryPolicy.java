@@ -0,0 +1,78 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.retry;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+import org.zowe.apiml.gateway.ribbon.RequestContextUtils;
+
+/**
+ * Decorator of retry policy. It allows retry only if the original policy allows it and there is enough budget in
+ * the service's {@link RetryBudget}.
+ *
+ * Retry template asks the policy (via InterceptorRetryPolicy) by {@link #canRetryNextServer(LoadBalancedRetryContext)}
+ * before each retry. It could happen more times for the same attempt (before backoff and before the retry), therefore
+ * the decision is remembered in the context by count of retries and the budget is withdrawn just once.
+ */
+@RequiredArgsConstructor
+public class BudgetedRetryPolicy implements LoadBalancedRetryPolicy {
+
+    static final String BUDGET_ATTRIBUTE = "apimlRetryBudget";
+
+    private final LoadBalancedRetryPolicy delegate;
+    private final RetryBudget retryBudget;
+
+    @Override
+    public boolean canRetrySameServer(LoadBalancedRetryContext context) {
+        return delegate.canRetrySameServer(context);
+    }
+
+    @Override
+    public boolean canRetryNextServer(LoadBalancedRetryContext context) {
+        if (!delegate.canRetryNextServer(context)) return false;
+
+        Object decision = context.getAttribute(BUDGET_ATTRIBUTE);
+        if (decision instanceof Decision && ((Decision) decision).retryCount == context.getRetryCount()) {
+            return ((Decision) decision).allowed;
+        }
+
+        boolean allowed = retryBudget.tryWithdraw();
+        if (!allowed) {
+            RequestContextUtils.addDebugInfo("Retry budget exhausted");
+        }
+        context.setAttribute(BUDGET_ATTRIBUTE, new Decision(context.getRetryCount(), allowed));
+        return allowed;
+    }
+
+    @Override
+    public void close(LoadBalancedRetryContext context) {
+        delegate.close(context);
+    }
+
+    @Override
+    public void registerThrowable(LoadBalancedRetryContext context, Throwable throwable) {
+        delegate.registerThrowable(context, throwable);
+    }
+
+    @Override
+    public boolean retryableStatusCode(int statusCode) {
+        return delegate.retryableStatusCode(statusCode);
+    }
+
+    @RequiredArgsConstructor
+    private static class Decision {
+
+        private final int retryCount;
+        private final boolean allowed;
+
+    }
+
+}
@@ -0,0 +1,305 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.retry;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.shared.Application;
+import com.netflix.zuul.context.RequestContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.zowe.apiml.gateway.ribbon.RequestContextUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor of hedged requests. The request is sent to an instance on the calling thread and if the response doesn't
+ * come in time of the configured percentile of service's latency, the second (hedged) request is sent to another
+ * instance from a thread pool. The primary request cannot be aborted, so its successful response is always used and
+ * the response of the hedged request is closed. If the primary request fails, the caller gets the response of
+ * the hedged request, which is already on its way, instead of waiting for a retry.
+ *
+ * Hedging is allowed just for GET requests of services which enabled it (globally by apiml.gateway.hedging.enabled or
+ * by metadata {@link #METADATA_KEY}). Each hedged request is paid from the {@link RetryBudget} of the service.
+ *
+ * The hedged request runs with a copy of RequestContext and SecurityContext of the caller. If its response is used,
+ * values of its RequestContext (ie. chosen instance) are copied back to the caller's one.
+ */
+@Slf4j
+@Component
+public class HedgingExecutor {
+
+    public static final String METADATA_KEY = "apiml.hedging.enabled";
+
+    private final EurekaClient eurekaClient;
+    private final RetryBudgetRegistry retryBudgetRegistry;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final int minSamples;
+
+    private final Map<String, LatencyTracker> trackers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService timer;
+
+    public HedgingExecutor(
+        EurekaClient eurekaClient,
+        RetryBudgetRegistry retryBudgetRegistry,
+        @Value("${apiml.gateway.hedging.enabled:false}") boolean enabled,
+        @Value("${apiml.gateway.hedging.percentile:95}") double percentile,
+        @Value("${apiml.gateway.hedging.minDelay:20}") long minDelay,
+        @Value("${apiml.gateway.hedging.minSamples:100}") int minSamples,
+        @Value("${apiml.gateway.hedging.threads:100}") int threads
+    ) {
+        this.eurekaClient = eurekaClient;
+        this.retryBudgetRegistry = retryBudgetRegistry;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelay);
+        this.minSamples = minSamples;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(0, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread thread = new Thread(r, "apiml-hedging-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "apiml-hedging-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.timer = scheduler;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param serviceId id of service
+     * @param method http method of request
+     * @return true if the request should be hedged
+     */
+    public boolean isHedged(String serviceId, String method) {
+        if (!"GET".equalsIgnoreCase(method)) return false;
+
+        Application application = eurekaClient.getApplication(serviceId);
+        if (application != null) {
+            List<InstanceInfo> instances = application.getInstances();
+            if (!instances.isEmpty() && (instances.get(0).getMetadata() != null)) {
+                String value = instances.get(0).getMetadata().get(METADATA_KEY);
+                if (value != null) return Boolean.parseBoolean(value);
+            }
+        }
+        return enabled;
+    }
+
+    /**
+     * Execute the call with hedging. Until there is enough of measured latencies, the call is made directly.
+     *
+     * @param serviceId id of service
+     * @param call the request to the service (choose the instance and send the request with retrying)
+     * @param <T> type of response
+     * @return response of the primary request, or of the hedged request if the primary one failed
+     * @throws Exception exception of the primary call if both calls failed
+     */
+    public <T extends Closeable> T execute(String serviceId, Callable<T> call) throws Exception {
+        LatencyTracker tracker = trackers.computeIfAbsent(String.valueOf(serviceId).toLowerCase(),
+            k -> new LatencyTracker(1000, percentile, 100));
+        long delay = tracker.getPercentile(minSamples);
+        if (delay < 0) {
+            return measure(tracker, call).call();
+        }
+
+        RequestContext context = RequestContext.getCurrentContext();
+        Hedge<T> hedge = new Hedge<>(serviceId, context, SecurityContextHolder.getContext(), measure(tracker, call));
+        hedge.schedule(Math.max(delay, minDelayNanos));
+
+        T response;
+        try {
+            response = measure(tracker, call).call();
+        } catch (Exception e) {
+            if (hedge.cancel()) throw e;
+            return awaitHedge(context, hedge, e);
+        } catch (Error e) {
+            if (!hedge.cancel()) closeWhenDone(hedge.task);
+            throw e;
+        }
+
+        if (!hedge.cancel()) {
+            RequestContextUtils.addDebugInfo("Hedged request was sent, the response of the primary one is used");
+            closeWhenDone(hedge.task);
+        }
+        return response;
+    }
+
+    private <T extends Closeable> T awaitHedge(RequestContext context, Hedge<T> hedge, Exception primaryException) throws Exception {
+        try {
+            T response = hedge.task.future.get();
+            context.putAll(hedge.task.snapshot);
+            context.remove(RequestContextUtils.AVOIDED_INSTANCE_ID_KEY);
+            RequestContextUtils.addDebugInfo("Hedged request was sent, its response is used");
+            return response;
+        } catch (ExecutionException | CancellationException e) {
+            log.debug("Hedged request failed", e);
+            throw primaryException;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            closeWhenDone(hedge.task);
+            throw primaryException;
+        }
+    }
+
+    private <T> Callable<T> measure(LatencyTracker tracker, Callable<T> call) {
+        return () -> {
+            long start = System.nanoTime();
+            T output = call.call();
+            tracker.record(System.nanoTime() - start);
+            return output;
+        };
+    }
+
+    /**
+     * Send the hedged request, it is called by the timer
+     */
+    private <T> void start(Hedge<T> hedge) {
+        if (!hedge.state.compareAndSet(Hedge.SCHEDULED, Hedge.STARTED)) return;
+
+        RetryBudget retryBudget = retryBudgetRegistry.get(hedge.serviceId);
+        if (retryBudget != null && !retryBudget.tryWithdraw()) {
+            hedge.notSent();
+            return;
+        }
+
+        Map<String, Object> values = new HashMap<>(hedge.context);
+        Object primaryInstance = values.get(RequestContextUtils.INSTANCE_INFO_KEY);
+        if (primaryInstance instanceof InstanceInfo) {
+            values.put(RequestContextUtils.AVOIDED_INSTANCE_ID_KEY, ((InstanceInfo) primaryInstance).getInstanceId());
+        }
+
+        try {
+            executor.execute(() -> run(values, hedge.securityContext, hedge.call, hedge.task));
+        } catch (RejectedExecutionException ree) {
+            log.debug("Hedging executor is full, the request is not hedged");
+            hedge.notSent();
+        }
+    }
+
+    private <T> void run(Map<String, Object> values, SecurityContext securityContext, Callable<T> call, Task<T> task) {
+        RequestContext context = RequestContext.getCurrentContext();
+        context.clear();
+        context.putAll(values);
+        SecurityContextHolder.setContext(securityContext);
+        T response = null;
+        Throwable error = null;
+        try {
+            response = call.call();
+        } catch (Throwable t) {
+            error = t;
+        } finally {
+            task.snapshot = new HashMap<>(context);
+            SecurityContextHolder.clearContext();
+            context.unset();
+        }
+
+        if (error == null) {
+            task.future.complete(response);
+        } else {
+            task.future.completeExceptionally(error);
+        }
+    }
+
+    private <T extends Closeable> void closeWhenDone(Task<T> task) {
+        task.future.thenAccept(this::close);
+    }
+
+    private void close(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.debug("Cannot close response of hedged request", e);
+        }
+    }
+
+    private static class Task<T> {
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private volatile Map<String, Object> snapshot;
+
+    }
+
+    /**
+     * Hedged request of one call. It is scheduled with the call of the primary request, it is started by the timer
+     * or cancelled by the caller after the primary request is finished. Once it is started, its task is always
+     * completed (by response, exception or cancellation if it was not sent at the end).
+     */
+    private class Hedge<T> {
+
+        private static final int SCHEDULED = 0;
+        private static final int STARTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final String serviceId;
+        private final RequestContext context;
+        private final SecurityContext securityContext;
+        private final Callable<T> call;
+        private final Task<T> task = new Task<>();
+        private final AtomicInteger state = new AtomicInteger(SCHEDULED);
+        private ScheduledFuture<?> scheduledFuture;
+
+        private Hedge(String serviceId, RequestContext context, SecurityContext securityContext, Callable<T> call) {
+            this.serviceId = serviceId;
+            this.context = context;
+            this.securityContext = securityContext;
+            this.call = call;
+        }
+
+        private void schedule(long delayNanos) {
+            try {
+                scheduledFuture = timer.schedule(() -> start(this), delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException ree) {
+                state.set(CANCELLED);
+            }
+        }
+
+        private void notSent() {
+            state.set(CANCELLED);
+            task.future.cancel(false);
+        }
+
+        /**
+         * @return true if the hedged request was not started, false if it was started and its task will be completed
+         */
+        private boolean cancel() {
+            if (state.compareAndSet(SCHEDULED, CANCELLED)) {
+                if (scheduledFuture != null) scheduledFuture.cancel(false);
+                return true;
+            }
+            return state.get() == CANCELLED;
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.retry;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the last latencies of a service in a ring buffer and computes the percentile of them. The percentile is
+ * cached and computed again after each refreshCount samples, so the sorting doesn't run for each request.
+ */
+public class LatencyTracker {
+
+    private final double percentile;
+    private final int refreshCount;
+
+    // guarded by this
+    private final long[] samples;
+    private int size;
+    private int position;
+    private int sinceRefresh;
+    private long value = -1;
+
+    LatencyTracker(int capacity, double percentile, int refreshCount) {
+        this.samples = new long[capacity];
+        this.percentile = percentile;
+        this.refreshCount = refreshCount;
+    }
+
+    public synchronized void record(long latency) {
+        samples[position] = latency;
+        position = (position + 1) % samples.length;
+        if (size < samples.length) size++;
+        sinceRefresh++;
+    }
+
+    /**
+     * @param minSamples minimal count of samples to compute percentile
+     * @return the percentile of latencies, or -1 if there is not enough samples yet
+     */
+    public synchronized long getPercentile(int minSamples) {
+        if (size < minSamples) return -1;
+
+        if ((value < 0) || (sinceRefresh >= refreshCount)) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            value = sorted[Math.max(0, Math.min(index, size - 1))];
+            sinceRefresh = 0;
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.retry;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Budget of retries of one service. The count of retries (and hedged requests) in a sliding window is limited by
+ * percentage of requests in the same window. To allow retrying also with low traffic there is a minimal count of
+ * retries per second which is always allowed.
+ *
+ * The window is split into buckets by one second.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minRetriesPerSecond;
+    private final LongSupplier clock;
+
+    // guarded by this
+    private final long[] requests;
+    private final long[] retries;
+    private final long[] seconds;
+
+    /**
+     * @param windowSeconds size of sliding window in seconds
+     * @param percent maximal count of retries as percent of requests
+     * @param minRetriesPerSecond count of retries allowed regardless of traffic
+     * @param clock source of time in milliseconds
+     */
+    RetryBudget(int windowSeconds, double percent, double minRetriesPerSecond, LongSupplier clock) {
+        this.ratio = percent / 100.0;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.clock = clock;
+        this.requests = new long[windowSeconds];
+        this.retries = new long[windowSeconds];
+        this.seconds = new long[windowSeconds];
+    }
+
+    /**
+     * Record a new request (not a retry)
+     */
+    public synchronized void deposit() {
+        requests[bucket()]++;
+    }
+
+    /**
+     * Try to spend budget on one retry
+     * @return true if retry is allowed and it was counted, otherwise false
+     */
+    public synchronized boolean tryWithdraw() {
+        int current = bucket();
+
+        long requestSum = 0;
+        long retrySum = 0;
+        for (int i = 0; i < seconds.length; i++) {
+            requestSum += requests[i];
+            retrySum += retries[i];
+        }
+
+        double allowed = requestSum * ratio + minRetriesPerSecond * seconds.length;
+        if (retrySum + 1 > allowed) return false;
+
+        retries[current]++;
+        return true;
+    }
+
+    private int bucket() {
+        long second = clock.getAsLong() / 1000;
+        int index = (int) (second % seconds.length);
+        if (seconds[index] != second) {
+            // old data, the bucket is reused
+            seconds[index] = second;
+            requests[index] = 0;
+            retries[index] = 0;
+        }
+        expire(second);
+        return index;
+    }
+
+    private void expire(long second) {
+        for (int i = 0; i < seconds.length; i++) {
+            if (second - seconds[i] >= seconds.length) {
+                requests[i] = 0;
+                retries[i] = 0;
+            }
+        }
+    }
+
+}
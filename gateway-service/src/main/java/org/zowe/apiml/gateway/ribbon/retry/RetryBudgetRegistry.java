@@ -0,0 +1,61 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.retry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Storage of {@link RetryBudget} per service
+ */
+@Component
+public class RetryBudgetRegistry {
+
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final int windowSeconds;
+    private final double percent;
+    private final double minRetriesPerSecond;
+
+    public RetryBudgetRegistry(
+        @Value("${apiml.gateway.retryBudget.enabled:true}") boolean enabled,
+        @Value("${apiml.gateway.retryBudget.window:10}") int windowSeconds,
+        @Value("${apiml.gateway.retryBudget.percent:20}") double percent,
+        @Value("${apiml.gateway.retryBudget.minRetriesPerSecond:10}") double minRetriesPerSecond
+    ) {
+        this.enabled = enabled;
+        this.windowSeconds = Math.max(windowSeconds, 1);
+        this.percent = percent;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param serviceId id of service
+     * @return the budget of service, or null if budgets are disabled
+     */
+    public RetryBudget get(String serviceId) {
+        if (!enabled) return null;
+
+        String key = String.valueOf(serviceId).toLowerCase();
+        RetryBudget output = budgets.get(key);
+        if (output != null) return output;
+
+        return budgets.computeIfAbsent(key, k -> new RetryBudget(windowSeconds, percent, minRetriesPerSecond, System::currentTimeMillis));
+    }
+
+}
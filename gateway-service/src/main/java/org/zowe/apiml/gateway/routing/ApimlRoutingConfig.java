@@ -10,12 +10,16 @@
 package org.zowe.apiml.gateway.routing;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
 import org.springframework.cloud.netflix.zuul.filters.discovery.DiscoveryClientRouteLocator;
 import org.springframework.cloud.netflix.zuul.filters.discovery.ServiceRouteMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimitReleaseFilter;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimiterRegistry;
 import org.zowe.apiml.gateway.filters.post.ConvertAuthTokenInUriToCookieFilter;
 import org.zowe.apiml.gateway.filters.post.PageRedirectionFilter;
 import org.zowe.apiml.gateway.filters.pre.*;
@@ -59,6 +63,30 @@ public class ApimlRoutingConfig {
         );
     }
 
+    @Bean
+    @Autowired
+    public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimiterRegistry concurrencyLimiterRegistry) {
+        return new ConcurrencyLimitFilter(
+            new RequestContextProviderThreadLocal(),
+            concurrencyLimiterRegistry
+        );
+    }
+
+    /**
+     * Permits of the concurrency limit are released after the whole request is processed, also when the request
+     * fails. The filter wraps the security, so it sees the final status of routed requests. Routes are not limited
+     * to /api and /ui (ie. default routes /{serviceId}/** or custom gatewayUrl), so the filter is mapped to all
+     * requests. It does nothing for requests without any permit.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitReleaseFilter> concurrencyLimitReleaseFilterRegistration() {
+        FilterRegistrationBean<ConcurrencyLimitReleaseFilter> registration =
+            new FilterRegistrationBean<>(new ConcurrencyLimitReleaseFilter());
+        registration.addUrlPatterns("/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
     @Bean
     @Autowired
     public PageRedirectionFilter pageRedirectionFilter(DiscoveryClient discovery,
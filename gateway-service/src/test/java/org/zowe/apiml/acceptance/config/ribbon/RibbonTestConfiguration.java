@@ -26,6 +26,7 @@ import org.zowe.apiml.gateway.cache.ServiceCacheEvictor;
 import org.zowe.apiml.gateway.ribbon.AbortingRetryListener;
 import org.zowe.apiml.gateway.ribbon.ApimlRetryableClient;
 import org.zowe.apiml.gateway.ribbon.ApimlRibbonRetryFactory;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.OutlierDetector;
 
 /**
  * Configuration of client side load balancing with Ribbon
@@ -66,12 +67,13 @@ public class RibbonTestConfiguration {
     public ILoadBalancer ribbonLoadBalancer(IClientConfig config,
                                             ServerList<Server> serverList, ServerListFilter<Server> serverListFilter,
                                             IRule rule, IPing ping, ServerListUpdater serverListUpdater,
-                                            ServiceCacheEvictor serviceCacheEvictor, ApplicationRegistry applicationRegistry) {
+                                            ServiceCacheEvictor serviceCacheEvictor, OutlierDetector outlierDetector,
+                                            ApplicationRegistry applicationRegistry) {
         if (this.propertiesFactory.isSet(ILoadBalancer.class, ribbonClientName)) {
             return this.propertiesFactory.get(ILoadBalancer.class, config, ribbonClientName);
         }
         return new ApimlZoneAwareLoadBalancerStub(config, rule, ping, serverList,
-            serverListFilter, serverListUpdater, serviceCacheEvictor, applicationRegistry);
+            serverListFilter, serverListUpdater, serviceCacheEvictor, outlierDetector, applicationRegistry);
     }
 
 }
@@ -15,12 +15,13 @@ import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
 import org.zowe.apiml.gateway.cache.ServiceCacheEvictor;
 import org.zowe.apiml.gateway.ribbon.ApimlZoneAwareLoadBalancer;
 import org.zowe.apiml.gateway.ribbon.RequestContextUtils;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.OutlierDetector;
 
 public class ApimlZoneAwareLoadBalancerStub extends ApimlZoneAwareLoadBalancer {
     private ApplicationRegistry applicationRegistry;
 
-    public ApimlZoneAwareLoadBalancerStub(IClientConfig clientConfig, IRule rule, IPing ping, ServerList serverList, ServerListFilter filter, ServerListUpdater serverListUpdater, ServiceCacheEvictor serviceCacheEvictor, ApplicationRegistry applicationRegistry) {
-        super(clientConfig, rule, ping, serverList, filter, serverListUpdater, serviceCacheEvictor);
+    public ApimlZoneAwareLoadBalancerStub(IClientConfig clientConfig, IRule rule, IPing ping, ServerList serverList, ServerListFilter filter, ServerListUpdater serverListUpdater, ServiceCacheEvictor serviceCacheEvictor, OutlierDetector outlierDetector, ApplicationRegistry applicationRegistry) {
+        super(clientConfig, rule, ping, serverList, filter, serverListUpdater, serviceCacheEvictor, outlierDetector);
 
         this.applicationRegistry = applicationRegistry;
     }
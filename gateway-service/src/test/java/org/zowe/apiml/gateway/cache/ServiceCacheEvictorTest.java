@@ -10,8 +10,12 @@
 
 package org.zowe.apiml.gateway.cache;
 
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
 import org.zowe.apiml.gateway.discovery.ApimlDiscoveryClient;
 import org.zowe.apiml.gateway.ribbon.ApimlZoneAwareLoadBalancer;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.InstanceStatisticsRegistry;
 import com.netflix.discovery.CacheRefreshedEvent;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,24 +31,46 @@ public class ServiceCacheEvictorTest {
     private ServiceCacheEvictor serviceCacheEvictor;
 
     private ApimlDiscoveryClient apimlDiscoveryClient = mock(ApimlDiscoveryClient.class);
+    private InstanceStatisticsRegistry instanceStatisticsRegistry = mock(InstanceStatisticsRegistry.class);
 
-    private ApimlZoneAwareLoadBalancer<?> apimlZoneAwareLoadBalancer = mock(ApimlZoneAwareLoadBalancer.class);
+    private ApimlZoneAwareLoadBalancer<?> loadBalancer1 = mockLoadBalancer("service1");
+    private ApimlZoneAwareLoadBalancer<?> loadBalancer2 = mockLoadBalancer("service2");
+    private ApimlZoneAwareLoadBalancer<?> loadBalancer3 = mockLoadBalancer("service3");
 
     private List<ServiceCacheEvict> serviceCacheEvicts = Arrays.asList(
         mock(ServiceCacheEvict.class),
         mock(ServiceCacheEvict.class)
     );
 
+    private static ApimlZoneAwareLoadBalancer<?> mockLoadBalancer(String name) {
+        ApimlZoneAwareLoadBalancer<?> loadBalancer = mock(ApimlZoneAwareLoadBalancer.class);
+        when(loadBalancer.getName()).thenReturn(name);
+        return loadBalancer;
+    }
+
+    private static Applications createApplications(InstanceInfo.InstanceStatus status) {
+        InstanceInfo instanceInfo = InstanceInfo.Builder.newBuilder()
+            .setAppName("SERVICE1")
+            .setInstanceId("host:service1:10000")
+            .setStatus(status)
+            .build();
+        Application application = new Application("SERVICE1");
+        application.addInstance(instanceInfo);
+        return new Applications(null, 1L, Arrays.asList(application));
+    }
+
     @Before
     public void setUp() {
-        serviceCacheEvictor = new ServiceCacheEvictor(apimlDiscoveryClient, serviceCacheEvicts);
-        serviceCacheEvictor.setApimlZoneAwareLoadBalancer(apimlZoneAwareLoadBalancer);
+        serviceCacheEvictor = new ServiceCacheEvictor(apimlDiscoveryClient, serviceCacheEvicts, instanceStatisticsRegistry);
+        serviceCacheEvictor.addApimlZoneAwareLoadBalancer(loadBalancer1);
+        serviceCacheEvictor.addApimlZoneAwareLoadBalancer(loadBalancer2);
+        serviceCacheEvictor.addApimlZoneAwareLoadBalancer(loadBalancer3);
     }
 
     @Test
     public void testService() {
         serviceCacheEvictor.onEvent(mock(CacheRefreshedEvent.class));
-        verify(apimlZoneAwareLoadBalancer, never()).serverChanged();
+        verify(loadBalancer1, never()).serverChanged();
 
         serviceCacheEvictor.evictCacheService("service1");
         serviceCacheEvictor.evictCacheService("service1");
@@ -54,7 +80,9 @@ public class ServiceCacheEvictorTest {
             verify(x, times(1)).evictCacheService("service1");
             verify(x, times(1)).evictCacheService("service2");
         });
-        verify(apimlZoneAwareLoadBalancer, times(1)).serverChanged();
+        verify(loadBalancer1, times(1)).serverChanged();
+        verify(loadBalancer2, times(1)).serverChanged();
+        verify(loadBalancer3, never()).serverChanged();
 
         serviceCacheEvictor.evictCacheService("service3");
         serviceCacheEvictor.evictCacheAllService();
@@ -64,7 +92,44 @@ public class ServiceCacheEvictorTest {
             verify(x, never()).evictCacheService("service3");
             verify(x, times(1)).evictCacheAllService();
         });
-        verify(apimlZoneAwareLoadBalancer, times(2)).serverChanged();
+        verify(loadBalancer1, times(2)).serverChanged();
+        verify(loadBalancer2, times(2)).serverChanged();
+        verify(loadBalancer3, times(1)).serverChanged();
+    }
+
+    @Test
+    public void givenRegistryChange_whenCacheRefreshed_thenUpdateOnlyChangedService() {
+        when(apimlDiscoveryClient.getApplications()).thenReturn(createApplications(InstanceInfo.InstanceStatus.UP));
+        serviceCacheEvictor.onEvent(mock(CacheRefreshedEvent.class));
+        verify(loadBalancer1, times(1)).serverChanged();
+
+        serviceCacheEvictor.onEvent(mock(CacheRefreshedEvent.class));
+        verify(loadBalancer1, times(1)).serverChanged();
+
+        when(apimlDiscoveryClient.getApplications()).thenReturn(createApplications(InstanceInfo.InstanceStatus.DOWN));
+        serviceCacheEvictor.onEvent(mock(CacheRefreshedEvent.class));
+        verify(loadBalancer1, times(2)).serverChanged();
+
+        when(apimlDiscoveryClient.getApplications()).thenReturn(new Applications());
+        serviceCacheEvictor.onEvent(mock(CacheRefreshedEvent.class));
+        verify(loadBalancer1, times(3)).serverChanged();
+
+        verify(loadBalancer2, never()).serverChanged();
+        verify(loadBalancer3, never()).serverChanged();
+        serviceCacheEvicts.forEach(x -> verify(x, never()).evictCacheService(any()));
+    }
+
+    @Test
+    public void givenRemovedInstance_whenCacheRefreshed_thenStatisticsAreRemoved() {
+        when(apimlDiscoveryClient.getApplications()).thenReturn(createApplications(InstanceInfo.InstanceStatus.UP));
+        serviceCacheEvictor.onEvent(mock(CacheRefreshedEvent.class));
+        when(apimlDiscoveryClient.getApplications()).thenReturn(createApplications(InstanceInfo.InstanceStatus.DOWN));
+        serviceCacheEvictor.onEvent(mock(CacheRefreshedEvent.class));
+        verify(instanceStatisticsRegistry, never()).remove(any());
+
+        when(apimlDiscoveryClient.getApplications()).thenReturn(new Applications());
+        serviceCacheEvictor.onEvent(mock(CacheRefreshedEvent.class));
+        verify(instanceStatisticsRegistry, times(1)).remove("host:service1:10000");
     }
 
 }
@@ -0,0 +1,119 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void givenLimitReachedAndNoQueue_whenAcquire_thenRejected() {
+        ConcurrencyLimiter underTest = new ConcurrencyLimiter(2, 1, 10, 0, 1000, 0.5);
+
+        assertNotNull(underTest.acquire(0));
+        assertNotNull(underTest.acquire(0));
+        assertNull(underTest.acquire(0));
+        assertEquals(2, underTest.getInFlight());
+        assertEquals(1, underTest.getRejected());
+    }
+
+    @Test
+    void givenLimitReached_whenQueueTimesOut_thenRejected() {
+        ConcurrencyLimiter underTest = new ConcurrencyLimiter(1, 1, 10, 5, 1000, 0.5);
+
+        assertNotNull(underTest.acquire(0));
+        assertNull(underTest.acquire(10));
+        assertEquals(0, underTest.getQueued());
+        assertEquals(1, underTest.getRejected());
+    }
+
+    @Test
+    void givenWaitingRequest_whenPermitReleased_thenWaitingRequestAcquires() throws Exception {
+        ConcurrencyLimiter underTest = new ConcurrencyLimiter(1, 1, 1, 5, 1000, 0.5);
+        ConcurrencyLimiter.Permit permit = underTest.acquire(0);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ConcurrencyLimiter.Permit> waiting = executor.submit(() -> underTest.acquire(10000));
+            while (underTest.getQueued() == 0) {
+                Thread.sleep(1);
+            }
+
+            permit.release(true);
+            assertNotNull(waiting.get(10, TimeUnit.SECONDS));
+            assertEquals(1, underTest.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenSuccessUnderLoad_whenRelease_thenLimitIncreased() {
+        ConcurrencyLimiter underTest = new ConcurrencyLimiter(2, 1, 3, 0, 1000, 0.5);
+        underTest.acquire(0);
+        underTest.acquire(0);
+
+        underTest.release(10, true);
+        assertEquals(3, underTest.getLimit());
+
+        underTest.release(10, true);
+        assertEquals(3, underTest.getLimit());
+    }
+
+    @Test
+    void givenFailureOrSlowRequest_whenRelease_thenLimitDecreased() {
+        ConcurrencyLimiter underTest = new ConcurrencyLimiter(8, 2, 10, 0, 1000, 0.5);
+        underTest.acquire(0);
+        underTest.acquire(0);
+        underTest.acquire(0);
+
+        underTest.release(10, false);
+        assertEquals(4, underTest.getLimit());
+
+        underTest.release(2000, true);
+        assertEquals(2, underTest.getLimit());
+
+        underTest.release(10, false);
+        assertEquals(2, underTest.getLimit());
+    }
+
+    @Test
+    void givenPermit_whenReleasedTwice_thenReleasedOnce() {
+        ConcurrencyLimiter underTest = new ConcurrencyLimiter(2, 1, 10, 0, 1000, 0.5);
+        ConcurrencyLimiter.Permit permit = underTest.acquire(0);
+        underTest.acquire(0);
+
+        permit.release(true);
+        permit.release(true);
+        assertEquals(1, underTest.getInFlight());
+    }
+
+    @Test
+    void givenMetadata_whenConfigure_thenLimitOfServiceChanged() {
+        ConcurrencyLimiterRegistry registry = new ConcurrencyLimiterRegistry(true, 20, 5, 100, 50, 1000, 10000, 0.9);
+        ConcurrencyLimiter limiter = registry.get("SERVICE");
+        assertEquals(20, limiter.getLimit());
+
+        registry.configure("service", Collections.singletonMap(ConcurrencyLimiterRegistry.MAX_LIMIT_KEY, "10"));
+        assertSame(limiter, registry.get("service"));
+        assertEquals(10, limiter.getLimit());
+        assertEquals(10, limiter.getMaxLimit());
+        assertEquals(50, limiter.getQueueSize());
+
+        registry.configure("service", Collections.emptyMap());
+        assertEquals(100, limiter.getMaxLimit());
+    }
+
+}
@@ -71,4 +71,16 @@ public class CacheServiceControllerTest {
         verify(discoveryClient, times(1)).fetchRegistry();
     }
 
+    @Test
+    public void testEvictServices() throws Exception {
+        this.mockMvc.perform(delete("/gateway/cache/services?serviceId=service01,service02")).andExpect(status().isOk());
+
+        verify(service1, times(1)).evictCacheService("service01");
+        verify(service1, times(1)).evictCacheService("service02");
+        verify(service2, times(1)).evictCacheService("service01");
+        verify(service2, times(1)).evictCacheService("service02");
+        verify(service1, never()).evictCacheAllService();
+        verify(discoveryClient, times(1)).fetchRegistry();
+    }
+
 }
@@ -0,0 +1,52 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.error.check;
+
+import com.netflix.zuul.exception.ZuulException;
+import com.netflix.zuul.monitoring.MonitoringHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.zowe.apiml.gateway.error.NotFound;
+import org.zowe.apiml.gateway.error.ServiceOverloaded;
+import org.zowe.apiml.message.api.ApiMessageView;
+import org.zowe.apiml.message.yaml.YamlMessageService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceOverloadedCheckTest {
+    private ErrorCheck underTest;
+
+    @BeforeEach
+    void prepareCheckUnderTest() {
+        MonitoringHelper.initMocks();
+        underTest = new ServiceOverloadedCheck(new YamlMessageService("/gateway-log-messages.yml"));
+    }
+
+    @Test
+    void givenServiceOverloadedZuulException_whenTheRequestIsProcessed_then503IsReturned() {
+        ZuulException exc = new ZuulException(new ServiceOverloaded(), HttpStatus.SERVICE_UNAVAILABLE.value(), "serviceId");
+
+        ResponseEntity<ApiMessageView> actualResponse = underTest.checkError(new MockHttpServletRequest(), exc);
+
+        assertNotNull(actualResponse);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, actualResponse.getStatusCode());
+        assertEquals("ZWEAG709E", actualResponse.getBody().getMessages().get(0).getMessageNumber());
+    }
+
+    @Test
+    void givenOtherZuulException_whenTheRequestIsProcessed_thenNotHandled() {
+        ZuulException exc = new ZuulException(new NotFound(), HttpStatus.NOT_FOUND.value(), "serviceId");
+
+        assertNull(underTest.checkError(new MockHttpServletRequest(), exc));
+    }
+}
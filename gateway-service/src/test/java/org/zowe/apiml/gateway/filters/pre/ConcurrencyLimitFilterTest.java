@@ -0,0 +1,143 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.filters.pre;
+
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+import com.netflix.zuul.monitoring.MonitoringHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimitReleaseFilter;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimiter;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimiterRegistry;
+import org.zowe.apiml.gateway.routing.ApimlRoutingConfig;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.netflix.zuul.filters.support.FilterConstants.*;
+
+class ConcurrencyLimitFilterTest {
+    private ConcurrencyLimitFilter underTest;
+    private RequestContextProvider provider;
+    private ConcurrencyLimiterRegistry registry;
+    private RequestContext context;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    public void prepareFilterUnderTest() {
+        MonitoringHelper.initMocks();
+        provider = mock(RequestContextProvider.class);
+        registry = new ConcurrencyLimiterRegistry(true, 1, 1, 1, 0, 0, 10000, 0.9);
+        underTest = new ConcurrencyLimitFilter(provider, registry);
+
+        request = new MockHttpServletRequest();
+        context = new RequestContext();
+        context.setRequest(request);
+        context.set(SERVICE_ID_KEY, "service");
+        when(provider.context()).thenReturn(context);
+    }
+
+    @Test
+    void givenValidSetup_whenTheFilterIsCreated_thenTheCorrectConfigurationParametersAreProvided() {
+        assertThat(underTest.filterOrder(), is(PRE_DECORATION_FILTER_ORDER + 6));
+        assertThat(underTest.filterType(), is(PRE_TYPE));
+    }
+
+    @Test
+    void givenNoServiceIdOrDisabledLimit_whenShouldFilter_thenFalse() {
+        assertTrue(underTest.shouldFilter());
+
+        context.remove(SERVICE_ID_KEY);
+        assertFalse(underTest.shouldFilter());
+
+        context.set(SERVICE_ID_KEY, "service");
+        ConcurrencyLimiterRegistry disabled = new ConcurrencyLimiterRegistry(false, 1, 1, 1, 0, 0, 10000, 0.9);
+        assertFalse(new ConcurrencyLimitFilter(provider, disabled).shouldFilter());
+    }
+
+    @Test
+    void givenDisabledLimit_whenServiceOptsInByMetadata_thenOnlyThisServiceIsLimited() {
+        ConcurrencyLimiterRegistry disabled = new ConcurrencyLimiterRegistry(false, 1, 1, 1, 0, 0, 10000, 0.9);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(provider, disabled);
+        assertFalse(filter.shouldFilter());
+
+        disabled.configure("service", Collections.singletonMap(ConcurrencyLimiterRegistry.ENABLED_KEY, "true"));
+        assertTrue(filter.shouldFilter());
+        context.set(SERVICE_ID_KEY, "other");
+        assertFalse(filter.shouldFilter());
+
+        disabled.configure("service", Collections.emptyMap());
+        context.set(SERVICE_ID_KEY, "service");
+        assertFalse(filter.shouldFilter());
+    }
+
+    @Test
+    void givenFreeCapacity_whenRun_thenPermitStoredAndReleasedAfterRequest() throws Exception {
+        underTest.run();
+        assertTrue(request.getAttribute(ConcurrencyLimitFilter.PERMIT_ATTRIBUTE) instanceof ConcurrencyLimiter.Permit);
+        assertEquals(1, registry.get("service").getInFlight());
+
+        new ConcurrencyLimitReleaseFilter().doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(0, registry.get("service").getInFlight());
+    }
+
+    @Test
+    void givenDefaultRoute_whenRequestIsRouted_thenPermitIsReleased() throws Exception {
+        FilterRegistrationBean<ConcurrencyLimitReleaseFilter> registration =
+            new ApimlRoutingConfig().concurrencyLimitReleaseFilterRegistration();
+        assertTrue(registration.getUrlPatterns().contains("/*"));
+
+        request.setRequestURI("/service/v1/resource");
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException {
+                try {
+                    underTest.run();
+                } catch (ZuulException e) {
+                    throw new ServletException(e);
+                }
+                assertEquals(1, registry.get("service").getInFlight());
+            }
+        }, registration.getFilter());
+        chain.doFilter(request, new MockHttpServletResponse());
+
+        assertEquals(0, registry.get("service").getInFlight());
+    }
+
+    @Test
+    void givenNoPermit_whenRequestIsFinished_thenNothingIsReleased() throws Exception {
+        new ConcurrencyLimitReleaseFilter().doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(0, registry.get("service").getInFlight());
+    }
+
+    @Test
+    void givenLimitReached_whenRun_thenServiceUnavailable() throws Exception {
+        underTest.run();
+
+        ZuulException exception = assertThrows(ZuulException.class, () -> underTest.run());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.nStatusCode);
+        assertEquals(1, registry.get("service").getRejected());
+    }
+}
@@ -16,6 +16,7 @@ import com.netflix.discovery.shared.Application;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.zowe.apiml.gateway.concurrency.ConcurrencyLimiterRegistry;
 
 import java.util.*;
 
@@ -26,10 +27,12 @@ import static org.mockito.Mockito.*;
 class MetadataProcessorTest {
 
     private MetadataProcessor metadataProcessor;
+    private ConcurrencyLimiterRegistry concurrencyLimiterRegistry;
 
     @BeforeEach
     void setMetadataProcessor() {
-        metadataProcessor = new MetadataProcessor(mock(EurekaApplications.class));
+        concurrencyLimiterRegistry = mock(ConcurrencyLimiterRegistry.class);
+        metadataProcessor = new MetadataProcessor(mock(EurekaApplications.class), concurrencyLimiterRegistry);
     }
 
     @Test
@@ -59,10 +62,21 @@ class MetadataProcessorTest {
         assertThatValuesAreSet(null, "5000", "5000");
     }
 
+    @Test
+    void givenMetadata_whenProcess_thenConfigureConcurrencyLimit() {
+        Map<String, String> metadata = createValidMetadata();
+        metadata.put(ConcurrencyLimiterRegistry.MAX_LIMIT_KEY, "10");
+        metadataProcessor.process(
+            prepareApplications(metadata)
+        );
+
+        verify(concurrencyLimiterRegistry).configure("service", metadata);
+    }
+
     @Test
     void givenMockedEvent_whenOnEvent_thenCallProcess() {
         EurekaEvent event = mock(EurekaEvent.class);
-        MetadataProcessor metadataProcessor = new MetadataProcessor(mock(EurekaApplications.class));
+        MetadataProcessor metadataProcessor = new MetadataProcessor(mock(EurekaApplications.class), concurrencyLimiterRegistry);
         MetadataProcessor spyProcessor = spy(metadataProcessor);
         spyProcessor.onEvent(event);
 
@@ -0,0 +1,70 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon;
+
+import com.netflix.client.config.DefaultClientConfigImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+import org.springframework.cloud.client.loadbalancer.ServiceInstanceChooser;
+import org.springframework.cloud.netflix.ribbon.RibbonLoadBalancerContext;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.zowe.apiml.gateway.ribbon.retry.BudgetedRetryPolicy;
+import org.zowe.apiml.gateway.ribbon.retry.RetryBudgetRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApimlRibbonRetryFactoryTest {
+
+    private SpringClientFactory clientFactory;
+
+    @BeforeEach
+    void setUp() {
+        clientFactory = mock(SpringClientFactory.class);
+        when(clientFactory.getLoadBalancerContext("service")).thenReturn(mock(RibbonLoadBalancerContext.class));
+        when(clientFactory.getClientConfig("service")).thenReturn(new DefaultClientConfigImpl());
+    }
+
+    @Test
+    void givenNoRegistry_whenCreateRetryPolicy_thenPolicyIsNotBudgeted() {
+        ApimlRibbonRetryFactory underTest = new ApimlRibbonRetryFactory(clientFactory);
+
+        LoadBalancedRetryPolicy policy = underTest.createRetryPolicy("service", mock(ServiceInstanceChooser.class));
+
+        assertNotNull(policy);
+        assertFalse(policy instanceof BudgetedRetryPolicy);
+    }
+
+    @Test
+    void givenDisabledBudgets_whenCreateRetryPolicy_thenPolicyIsNotBudgeted() {
+        ApimlRibbonRetryFactory underTest = new ApimlRibbonRetryFactory(clientFactory, new RetryBudgetRegistry(false, 10, 20, 10));
+
+        LoadBalancedRetryPolicy policy = underTest.createRetryPolicy("service", mock(ServiceInstanceChooser.class));
+
+        assertNotNull(policy);
+        assertFalse(policy instanceof BudgetedRetryPolicy);
+    }
+
+    @Test
+    void givenEnabledBudgets_whenCreateRetryPolicy_thenPolicyIsBudgetedAndRequestIsDeposited() {
+        // each request allows just one retry
+        RetryBudgetRegistry registry = new RetryBudgetRegistry(true, 10, 100, 0);
+        ApimlRibbonRetryFactory underTest = new ApimlRibbonRetryFactory(clientFactory, registry);
+
+        LoadBalancedRetryPolicy policy = underTest.createRetryPolicy("service", mock(ServiceInstanceChooser.class));
+
+        assertTrue(policy instanceof BudgetedRetryPolicy);
+        assertTrue(registry.get("service").tryWithdraw());
+        assertFalse(registry.get("service").tryWithdraw());
+    }
+
+}
@@ -23,12 +23,21 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.zowe.apiml.config.ribbon.IClientConfiguration;
 import org.zowe.apiml.gateway.cache.ServiceCacheEvictor;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.InstanceStatisticsRegistry;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.OutlierDetector;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
 @ContextConfiguration(classes = {
@@ -45,13 +54,15 @@ class ApimlZoneAwareLoadBalancerTest {
     ServerList<Server> serverList = mock(ServerList.class);
     ServerListFilter<Server> serverListFilter = mock(ServerListFilter.class);
     ServiceCacheEvictor serviceCacheEvictor = mock(ServiceCacheEvictor.class);
+    InstanceStatisticsRegistry instanceStatisticsRegistry = new InstanceStatisticsRegistry(10000, 1000);
+    OutlierDetector outlierDetector = new OutlierDetector(instanceStatisticsRegistry, true, 2, 0, 1000, 30000, 300000, 100);
     ApimlZoneAwareLoadBalancer underTest;
 
     @BeforeEach
     void setUp() {
         RequestContext.getCurrentContext().clear();
         underTest = new ApimlZoneAwareLoadBalancer(config, rule, ping, serverList,
-            serverListFilter, serverListUpdater, serviceCacheEvictor);
+            serverListFilter, serverListUpdater, serviceCacheEvictor, outlierDetector);
     }
 
     @Test
@@ -83,5 +94,70 @@ class ApimlZoneAwareLoadBalancerTest {
         assertThrows(IllegalStateException.class, () -> underTest.chooseServer("instance"));
     }
 
+    @Test
+    void givenFailingInstance_whenChooseServer_thenChooseAnotherOne() {
+        InstanceInfo failing = InstanceInfo.Builder.newBuilder().setAppName("appname").setInstanceId("failing").build();
+        InstanceInfo healthy = InstanceInfo.Builder.newBuilder().setAppName("appname").setInstanceId("healthy").build();
+        underTest.addServer(new DiscoveryEnabledServer(failing, true));
+        underTest.addServer(new DiscoveryEnabledServer(healthy, true));
+        for (int i = 0; i < 2; i++) {
+            instanceStatisticsRegistry.get("failing").failure(instanceStatisticsRegistry.get("failing").start());
+        }
+
+        for (int i = 0; i < 10; i++) {
+            underTest.chooseServer("key");
+            assertThat(RequestContext.getCurrentContext().get(ApimlZoneAwareLoadBalancer.LOADBALANCED_INSTANCE_INFO_KEY), is(healthy));
+            assertFalse(RequestContextUtils.isAllInstancesEjected());
+        }
+    }
+
+    @Test
+    void givenAllInstancesFailing_whenChooseServer_thenFailOpenAndMarkContext() {
+        InstanceInfo failing = InstanceInfo.Builder.newBuilder().setAppName("appname").setInstanceId("onlyOne").build();
+        underTest.addServer(new DiscoveryEnabledServer(failing, true));
+        for (int i = 0; i < 2; i++) {
+            instanceStatisticsRegistry.get("onlyOne").failure(instanceStatisticsRegistry.get("onlyOne").start());
+        }
+
+        underTest.chooseServer("key");
+
+        assertThat(RequestContext.getCurrentContext().get(ApimlZoneAwareLoadBalancer.LOADBALANCED_INSTANCE_INFO_KEY), is(failing));
+        assertTrue(RequestContextUtils.isAllInstancesEjected());
+    }
+
+    @Test
+    void givenAvoidedInstance_whenChooseServer_thenChooseAnotherOne() {
+        DiscoveryEnabledServer avoided = createServer("avoided");
+        DiscoveryEnabledServer another = createServer("another");
+        IRule sequenceRule = mock(IRule.class);
+        when(sequenceRule.choose(any())).thenReturn(avoided, avoided, another);
+        underTest = new ApimlZoneAwareLoadBalancer(config, sequenceRule, ping, serverList,
+            serverListFilter, serverListUpdater, serviceCacheEvictor, outlierDetector);
+        underTest.addServer(avoided);
+        underTest.addServer(another);
+        RequestContext.getCurrentContext().set(RequestContextUtils.AVOIDED_INSTANCE_ID_KEY, "avoided");
+
+        assertSame(another, underTest.chooseServer("key"));
+        verify(sequenceRule, times(3)).choose("key");
+    }
+
+    @Test
+    void givenOnlyAvoidedInstance_whenChooseServer_thenUseItAfterLimitedAttempts() {
+        DiscoveryEnabledServer avoided = createServer("avoided");
+        IRule sequenceRule = mock(IRule.class);
+        when(sequenceRule.choose(any())).thenReturn(avoided);
+        underTest = new ApimlZoneAwareLoadBalancer(config, sequenceRule, ping, serverList,
+            serverListFilter, serverListUpdater, serviceCacheEvictor, outlierDetector);
+        underTest.addServer(avoided);
+        RequestContext.getCurrentContext().set(RequestContextUtils.AVOIDED_INSTANCE_ID_KEY, "avoided");
+
+        assertSame(avoided, underTest.chooseServer("key"));
+        verify(sequenceRule, times(4)).choose("key");
+    }
+
+    private DiscoveryEnabledServer createServer(String instanceId) {
+        InstanceInfo info = InstanceInfo.Builder.newBuilder().setAppName("appname").setInstanceId(instanceId).build();
+        return new DiscoveryEnabledServer(info, true);
+    }
 
 }
@@ -18,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.zowe.apiml.gateway.ribbon.loadbalancer.InstanceStatisticsRegistry;
 
 import java.io.IOException;
 
@@ -44,6 +45,11 @@ public class HttpClientProxyConfigTest {
         public ServiceAuthenticationDecorator serviceAuthenticationDecorator() {
             return mock(ServiceAuthenticationDecorator.class);
         }
+
+        @Bean
+        public InstanceStatisticsRegistry instanceStatisticsRegistry() {
+            return new InstanceStatisticsRegistry(10000, 1000);
+        }
     }
 
     @Autowired
@@ -0,0 +1,102 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.loadbalancer;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.loadbalancer.ILoadBalancer;
+import com.netflix.loadbalancer.IRule;
+import com.netflix.loadbalancer.Server;
+import com.netflix.niws.loadbalancer.DiscoveryEnabledServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ApimlLoadBalancingRuleTest {
+
+    private IRule defaultRule = mock(IRule.class);
+    private ILoadBalancer loadBalancer = mock(ILoadBalancer.class);
+    private InstanceStatisticsRegistry registry = new InstanceStatisticsRegistry(10000, 1000);
+
+    private Server server1 = createServer("instance1", null);
+    private Server server2 = createServer("instance2", null);
+
+    @BeforeEach
+    void setUp() {
+        when(loadBalancer.getReachableServers()).thenReturn(Arrays.asList(server1, server2));
+    }
+
+    private Server createServer(String instanceId, String lbType) {
+        InstanceInfo.Builder builder = InstanceInfo.Builder.newBuilder()
+            .setAppName("service")
+            .setInstanceId(instanceId);
+        if (lbType != null) {
+            builder.setMetadata(Collections.singletonMap(ApimlLoadBalancingRule.METADATA_KEY, lbType));
+        }
+        return new DiscoveryEnabledServer(builder.build(), true);
+    }
+
+    private ApimlLoadBalancingRule createRule(LoadBalancingStrategy strategy) {
+        ApimlLoadBalancingRule rule = new ApimlLoadBalancingRule(defaultRule, strategy, registry);
+        rule.setLoadBalancer(loadBalancer);
+        return rule;
+    }
+
+    @Test
+    void givenDefaultStrategy_whenChoose_thenDelegateToDefaultRule() {
+        when(defaultRule.choose("key")).thenReturn(server2);
+
+        assertSame(server2, createRule(LoadBalancingStrategy.DEFAULT).choose("key"));
+        verify(defaultRule).setLoadBalancer(loadBalancer);
+    }
+
+    @Test
+    void givenLeastInFlight_whenChoose_thenPickLessLoaded() {
+        registry.get("instance1").start();
+
+        ApimlLoadBalancingRule rule = createRule(LoadBalancingStrategy.LEAST_IN_FLIGHT);
+        for (int i = 0; i < 10; i++) {
+            assertSame(server2, rule.choose("key"));
+        }
+        verify(defaultRule, never()).choose(any());
+    }
+
+    @Test
+    void givenPeakEwma_whenChoose_thenPickFaster() throws InterruptedException {
+        InstanceStatistics statistics = registry.get("instance2");
+        long start = statistics.start();
+        Thread.sleep(5);
+        statistics.success(start);
+
+        ApimlLoadBalancingRule rule = createRule(LoadBalancingStrategy.PEAK_EWMA);
+        for (int i = 0; i < 10; i++) {
+            assertSame(server1, rule.choose("key"));
+        }
+    }
+
+    @Test
+    void givenMetadata_whenGetStrategy_thenOverrideGlobalOne() {
+        List<Server> servers = Collections.singletonList(createServer("instance3", "PeakEwma"));
+
+        assertEquals(LoadBalancingStrategy.PEAK_EWMA, createRule(LoadBalancingStrategy.DEFAULT).getStrategy(servers));
+    }
+
+    @Test
+    void givenUnknownValue_whenFromValue_thenReturnDefault() {
+        assertEquals(LoadBalancingStrategy.LEAST_IN_FLIGHT, LoadBalancingStrategy.fromValue("unknown", LoadBalancingStrategy.LEAST_IN_FLIGHT));
+        assertEquals(LoadBalancingStrategy.DEFAULT, LoadBalancingStrategy.fromValue(null, LoadBalancingStrategy.DEFAULT));
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstanceStatisticsTest {
+
+    private static final long DECAY = 1000;
+    private static final long PENALTY = 500;
+
+    private AtomicLong time = new AtomicLong(0);
+    private InstanceStatistics underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new InstanceStatistics(DECAY, PENALTY, time::get);
+    }
+
+    @Test
+    void givenRequest_whenStartAndFinish_thenInFlightIsCounted() {
+        long start = underTest.start();
+        assertEquals(1, underTest.getInFlight());
+        underTest.success(start);
+        assertEquals(0, underTest.getInFlight());
+    }
+
+    @Test
+    void givenSlowResponse_whenSuccess_thenLatencyIsPeak() {
+        long start = underTest.start();
+        time.set(100);
+        underTest.success(start);
+
+        assertEquals(100.0, underTest.getLatency(), 0.001);
+        assertEquals(100.0, underTest.getCost(), 0.001);
+    }
+
+    @Test
+    void givenNoRequest_whenTimeElapsed_thenLatencyDecays() {
+        long start = underTest.start();
+        time.set(100);
+        underTest.success(start);
+
+        time.set(100 + DECAY);
+        assertEquals(100.0 / Math.E, underTest.getLatency(), 0.001);
+    }
+
+    @Test
+    void givenFastFailure_whenFailure_thenPenaltyIsUsed() {
+        long start = underTest.start();
+        time.set(10);
+        underTest.failure(start);
+
+        assertEquals(PENALTY, underTest.getLatency(), 0.001);
+    }
+
+    @Test
+    void givenUnknownLatency_whenRequestsInFlight_thenCostIsPenalized() {
+        underTest.start();
+        underTest.start();
+
+        assertEquals(PENALTY + 2.0, underTest.getCost(), 0.001);
+    }
+
+    private void request(long duration) {
+        long start = underTest.start();
+        time.addAndGet(duration);
+        underTest.success(start);
+    }
+
+    @Test
+    void givenSlowInstance_whenProbeIsFast_thenLatencyIsReset() {
+        request(10000);
+        underTest.eject(time.get(), 1000, 100000);
+        time.addAndGet(1000);
+
+        assertTrue(underTest.tryProbe(time.get(), 1000));
+        request(10);
+
+        assertFalse(underTest.isEjected());
+        assertEquals(10.0, underTest.getLatency(), 0.001);
+    }
+
+    @Test
+    void givenReturnedInstance_whenEjectedAgainSoon_thenEjectionIsLonger() {
+        underTest.eject(time.get(), 1000, 100000);
+        time.addAndGet(1000);
+        assertTrue(underTest.tryProbe(time.get(), 1000));
+        request(10);
+
+        // flapping, the instance is ejected straight after the return
+        underTest.eject(time.get(), 1000, 100000);
+        assertEquals(2000, underTest.getEjectedUntil() - time.get());
+
+        time.addAndGet(2000);
+        assertTrue(underTest.tryProbe(time.get(), 1000));
+        request(10);
+        underTest.eject(time.get(), 1000, 100000);
+        assertEquals(3000, underTest.getEjectedUntil() - time.get());
+    }
+
+    @Test
+    void givenReturnedInstance_whenHealthyForLong_thenEjectionIsShortAgain() {
+        underTest.eject(time.get(), 1000, 100000);
+        time.addAndGet(1000);
+        assertTrue(underTest.tryProbe(time.get(), 1000));
+        request(10);
+        underTest.eject(time.get(), 1000, 100000);
+        time.addAndGet(2000);
+        assertTrue(underTest.tryProbe(time.get(), 1000));
+        request(10);
+
+        time.addAndGet(1000);
+        underTest.eject(time.get(), 1000, 100000);
+        assertEquals(2000, underTest.getEjectedUntil() - time.get());
+
+        time.addAndGet(2000);
+        assertTrue(underTest.tryProbe(time.get(), 1000));
+        request(10);
+        time.addAndGet(10000);
+        underTest.eject(time.get(), 1000, 100000);
+        assertEquals(1000, underTest.getEjectedUntil() - time.get());
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.loadbalancer;
+
+import com.netflix.loadbalancer.Server;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutlierDetectorTest {
+
+    private InstanceStatisticsRegistry registry = new InstanceStatisticsRegistry(10000, 1000);
+
+    private Server server1 = new Server("host1", 80);
+    private Server server2 = new Server("host2", 80);
+    private List<Server> servers = Arrays.asList(server1, server2);
+
+    private OutlierDetector createDetector(int maxEjectionPercent, long baseEjectionTime) {
+        return new OutlierDetector(registry, true, 3, 0, 1000, baseEjectionTime, 300000, maxEjectionPercent);
+    }
+
+    private void fail(Server server, int count) {
+        InstanceStatistics statistics = registry.get(server.getId());
+        for (int i = 0; i < count; i++) {
+            statistics.failure(statistics.start());
+        }
+    }
+
+    @Test
+    void givenFewFailures_whenIsAvailable_thenTrue() {
+        fail(server1, 2);
+
+        assertTrue(createDetector(50, 30000).isAvailable(servers, server1));
+    }
+
+    @Test
+    void givenConsecutiveFailures_whenIsAvailable_thenEjected() {
+        fail(server1, 3);
+        OutlierDetector detector = createDetector(50, 30000);
+
+        assertFalse(detector.isAvailable(servers, server1));
+        assertFalse(detector.isAvailable(servers, server1));
+        assertTrue(registry.get(server1.getId()).isEjected());
+    }
+
+    @Test
+    void givenMaxEjectionReached_whenIsAvailable_thenKeepInstance() {
+        fail(server1, 3);
+        fail(server2, 3);
+        OutlierDetector detector = createDetector(50, 30000);
+
+        assertFalse(detector.isAvailable(servers, server1));
+        assertTrue(detector.isAvailable(servers, server2));
+    }
+
+    @Test
+    void givenEjectedInstance_whenCheck_thenChooseAnother() {
+        fail(server1, 3);
+
+        assertSame(server2, createDetector(50, 30000).check(servers, server1));
+    }
+
+    @Test
+    void givenEjectedInstances_whenCheck_thenChooseTheOnlyAvailable() {
+        Server server3 = new Server("host3", 80);
+        List<Server> threeServers = Arrays.asList(server1, server2, server3);
+        OutlierDetector detector = createDetector(100, 30000);
+        fail(server1, 3);
+        fail(server2, 3);
+        assertFalse(detector.isAvailable(threeServers, server2));
+
+        // the only available server is always found, the ejected one is not asked again
+        for (int i = 0; i < 10; i++) {
+            assertSame(server3, detector.check(threeServers, server1));
+        }
+    }
+
+    @Test
+    void givenAllEjected_whenCheck_thenNull() {
+        fail(server1, 3);
+
+        assertNull(createDetector(100, 30000).check(servers.subList(0, 1), server1));
+    }
+
+    @Test
+    void givenElapsedEjection_whenProbeSucceeds_thenInstanceIsAvailable() {
+        fail(server1, 3);
+        OutlierDetector detector = createDetector(50, 0);
+        InstanceStatistics statistics = registry.get(server1.getId());
+
+        assertFalse(detector.isAvailable(servers, server1));
+        // ejection elapsed, only one probe is allowed
+        assertTrue(detector.isAvailable(servers, server1));
+        assertFalse(statistics.tryProbe(statistics.now(), Long.MAX_VALUE));
+
+        statistics.success(statistics.start());
+        assertFalse(statistics.isEjected());
+        assertTrue(detector.isAvailable(servers, server1));
+    }
+
+    @Test
+    void givenElapsedEjection_whenProbeFails_thenEjectAgain() {
+        fail(server1, 3);
+        OutlierDetector detector = createDetector(50, 0);
+
+        assertFalse(detector.isAvailable(servers, server1));
+        assertTrue(detector.isAvailable(servers, server1));
+        fail(server1, 1);
+
+        assertFalse(detector.isAvailable(servers, server1));
+        assertTrue(registry.get(server1.getId()).isEjected());
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.retry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancedRetryPolicy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BudgetedRetryPolicyTest {
+
+    private AtomicLong time = new AtomicLong(1000000);
+    private LoadBalancedRetryPolicy delegate;
+    private RetryBudget retryBudget;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(LoadBalancedRetryPolicy.class);
+        when(delegate.canRetryNextServer(any())).thenReturn(true);
+        retryBudget = new RetryBudget(1, 0, 2, time::get);
+    }
+
+    private LoadBalancedRetryContext createContext() {
+        return new LoadBalancedRetryContext(null, null);
+    }
+
+    @Test
+    void givenBudget_whenRetriesExceedIt_thenStopRetrying() {
+        BudgetedRetryPolicy underTest = new BudgetedRetryPolicy(delegate, retryBudget);
+
+        assertTrue(underTest.canRetryNextServer(createContext()));
+        assertTrue(underTest.canRetryNextServer(createContext()));
+        assertFalse(underTest.canRetryNextServer(createContext()));
+    }
+
+    @Test
+    void givenExhaustedBudget_whenWindowElapsed_thenRetryAgain() {
+        BudgetedRetryPolicy underTest = new BudgetedRetryPolicy(delegate, retryBudget);
+        assertTrue(underTest.canRetryNextServer(createContext()));
+        assertTrue(underTest.canRetryNextServer(createContext()));
+        assertFalse(underTest.canRetryNextServer(createContext()));
+
+        time.addAndGet(1000);
+
+        assertTrue(underTest.canRetryNextServer(createContext()));
+    }
+
+    @Test
+    void givenSameAttempt_whenAskedAgain_thenWithdrawOnlyOnce() {
+        BudgetedRetryPolicy underTest = new BudgetedRetryPolicy(delegate, retryBudget);
+        LoadBalancedRetryContext context = createContext();
+
+        assertTrue(underTest.canRetryNextServer(context));
+        assertTrue(underTest.canRetryNextServer(context));
+        context.registerThrowable(new RuntimeException("next attempt"));
+        assertTrue(underTest.canRetryNextServer(context));
+        context.registerThrowable(new RuntimeException("next attempt"));
+        assertFalse(underTest.canRetryNextServer(context));
+        assertFalse(underTest.canRetryNextServer(context));
+    }
+
+    @Test
+    void givenDelegateDenies_whenCanRetry_thenBudgetIsNotUsed() {
+        when(delegate.canRetryNextServer(any())).thenReturn(false);
+        BudgetedRetryPolicy underTest = new BudgetedRetryPolicy(delegate, retryBudget);
+
+        assertFalse(underTest.canRetryNextServer(createContext()));
+        assertTrue(retryBudget.tryWithdraw());
+        assertTrue(retryBudget.tryWithdraw());
+    }
+
+}
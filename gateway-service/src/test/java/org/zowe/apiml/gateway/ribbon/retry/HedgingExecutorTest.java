@@ -0,0 +1,141 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.retry;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.shared.Application;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HedgingExecutorTest {
+
+    private EurekaClient eurekaClient = mock(EurekaClient.class);
+    private HedgingExecutor underTest = new HedgingExecutor(
+        eurekaClient, new RetryBudgetRegistry(false, 10, 20, 10), false, 50, 1, 1, 10
+    );
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void givenMethodAndMetadata_whenIsHedged_thenDecideByMetadata() {
+        Application application = new Application("SERVICE");
+        application.addInstance(InstanceInfo.Builder.newBuilder()
+            .setAppName("SERVICE")
+            .setMetadata(Collections.singletonMap(HedgingExecutor.METADATA_KEY, "true"))
+            .build());
+        when(eurekaClient.getApplication("service")).thenReturn(application);
+
+        assertTrue(underTest.isHedged("service", "GET"));
+        assertFalse(underTest.isHedged("service", "POST"));
+        assertFalse(underTest.isHedged("another", "GET"));
+    }
+
+    @Test
+    void givenNoSamples_whenExecute_thenCallDirectly() throws Exception {
+        Closeable response = mock(Closeable.class);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertSame(response, underTest.execute("service", () -> {
+            calls.incrementAndGet();
+            return response;
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void givenSlowFailingPrimary_whenExecute_thenHedgedResponseIsUsed() throws Exception {
+        underTest.execute("service", () -> mock(Closeable.class));
+
+        Thread caller = Thread.currentThread();
+        CountDownLatch hedgeStarted = new CountDownLatch(1);
+        Closeable hedged = mock(Closeable.class);
+
+        Closeable response = underTest.execute("service", () -> {
+            if (Thread.currentThread() == caller) {
+                assertTrue(hedgeStarted.await(5, TimeUnit.SECONDS));
+                throw new IOException("primary failed");
+            }
+            hedgeStarted.countDown();
+            return hedged;
+        });
+
+        assertSame(hedged, response);
+        verify(hedged, never()).close();
+    }
+
+    @Test
+    void givenSlowSuccessfulPrimary_whenExecute_thenPrimaryIsUsedAndHedgedIsClosed() throws Exception {
+        underTest.execute("service", () -> mock(Closeable.class));
+
+        Thread caller = Thread.currentThread();
+        CountDownLatch hedgeStarted = new CountDownLatch(1);
+        Closeable primary = mock(Closeable.class);
+        Closeable hedged = mock(Closeable.class);
+
+        Closeable response = underTest.execute("service", () -> {
+            if (Thread.currentThread() == caller) {
+                assertTrue(hedgeStarted.await(5, TimeUnit.SECONDS));
+                return primary;
+            }
+            hedgeStarted.countDown();
+            return hedged;
+        });
+
+        assertSame(primary, response);
+        verify(hedged, timeout(5000)).close();
+        verify(primary, never()).close();
+    }
+
+    @Test
+    void givenBothFailing_whenExecute_thenThrowExceptionOfPrimary() throws Exception {
+        underTest.execute("service", () -> mock(Closeable.class));
+
+        Thread caller = Thread.currentThread();
+        CountDownLatch hedgeStarted = new CountDownLatch(1);
+
+        IOException exception = assertThrows(IOException.class, () -> underTest.execute("service", () -> {
+            if (Thread.currentThread() == caller) {
+                assertTrue(hedgeStarted.await(5, TimeUnit.SECONDS));
+                throw new IOException("primary failed");
+            }
+            hedgeStarted.countDown();
+            throw new IOException("hedge failed");
+        }));
+        assertEquals("primary failed", exception.getMessage());
+    }
+
+    @Test
+    void givenFastPrimary_whenExecute_thenRunOnCallingThread() throws Exception {
+        underTest.execute("service", () -> mock(Closeable.class));
+
+        Thread caller = Thread.currentThread();
+        Closeable primary = mock(Closeable.class);
+
+        assertSame(primary, underTest.execute("service", () -> {
+            assertSame(caller, Thread.currentThread());
+            return primary;
+        }));
+    }
+
+}
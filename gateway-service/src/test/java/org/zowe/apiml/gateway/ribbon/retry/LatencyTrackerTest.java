@@ -0,0 +1,46 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.retry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyTrackerTest {
+
+    @Test
+    void givenFewSamples_whenGetPercentile_thenUnknown() {
+        LatencyTracker underTest = new LatencyTracker(10, 90, 1);
+        underTest.record(5);
+
+        assertEquals(-1, underTest.getPercentile(2));
+    }
+
+    @Test
+    void givenSamples_whenGetPercentile_thenComputed() {
+        LatencyTracker underTest = new LatencyTracker(100, 90, 1);
+        for (int i = 1; i <= 100; i++) {
+            underTest.record(i);
+        }
+
+        assertEquals(90, underTest.getPercentile(1));
+    }
+
+    @Test
+    void givenFullBuffer_whenRecord_thenOldestSampleIsReplaced() {
+        LatencyTracker underTest = new LatencyTracker(2, 100, 1);
+        underTest.record(100);
+        underTest.record(1);
+        underTest.record(2);
+
+        assertEquals(2, underTest.getPercentile(1));
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Public License v2.0 which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Copyright Contributors to the Zowe Project.
+ */
+package org.zowe.apiml.gateway.ribbon.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetTest {
+
+    private AtomicLong time = new AtomicLong(1000000);
+
+    @Test
+    void givenNoTraffic_whenWithdraw_thenOnlyMinimalRetriesAllowed() {
+        RetryBudget underTest = new RetryBudget(2, 20, 1, time::get);
+
+        assertTrue(underTest.tryWithdraw());
+        assertTrue(underTest.tryWithdraw());
+        assertFalse(underTest.tryWithdraw());
+    }
+
+    @Test
+    void givenTraffic_whenWithdraw_thenPercentageOfRequestsAllowed() {
+        RetryBudget underTest = new RetryBudget(10, 20, 0, time::get);
+        for (int i = 0; i < 10; i++) {
+            underTest.deposit();
+        }
+
+        assertTrue(underTest.tryWithdraw());
+        assertTrue(underTest.tryWithdraw());
+        assertFalse(underTest.tryWithdraw());
+    }
+
+    @Test
+    void givenExhaustedBudget_whenWindowElapsed_thenRetriesAllowedAgain() {
+        RetryBudget underTest = new RetryBudget(2, 20, 1, time::get);
+        assertTrue(underTest.tryWithdraw());
+        assertTrue(underTest.tryWithdraw());
+        assertFalse(underTest.tryWithdraw());
+
+        time.addAndGet(2000);
+        assertTrue(underTest.tryWithdraw());
+    }
+
+    @Test
+    void givenDisabledRegistry_whenGet_thenNull() {
+        assertNull(new RetryBudgetRegistry(false, 10, 20, 10).get("service"));
+        RetryBudgetRegistry registry = new RetryBudgetRegistry(true, 10, 20, 10);
+        assertSame(registry.get("service"), registry.get("SERVICE"));
+    }
+
+}